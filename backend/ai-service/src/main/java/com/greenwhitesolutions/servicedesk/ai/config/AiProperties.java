@@ -1,5 +1,7 @@
 package com.greenwhitesolutions.servicedesk.ai.config;
 
+import java.time.Duration;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 import lombok.Getter;
@@ -25,6 +27,136 @@ public class AiProperties {
      */
     private OpenAiConfig openai = new OpenAiConfig();
 
+    /**
+     * Mock provider configuration.
+     */
+    private MockConfig mock = new MockConfig();
+
+    /**
+     * Micro-batching of concurrent classifications.
+     */
+    private MicroBatchConfig microBatch = new MicroBatchConfig();
+
+    /**
+     * Cache of provider responses.
+     */
+    private CacheConfig cache = new CacheConfig();
+
+    /**
+     * Reuse of the labels of similar texts.
+     */
+    private SemanticCacheConfig semanticCache = new SemanticCacheConfig();
+
+    /**
+     * Streamed summaries.
+     */
+    private StreamConfig stream = new StreamConfig();
+
+    @Getter
+    @Setter
+    public static class StreamConfig {
+        /**
+         * Number of summaries streamed at the same time.
+         */
+        private int threads = 32;
+
+        /**
+         * Number of stream requests waiting for a thread; further requests are refused.
+         */
+        private int queueCapacity = 64;
+
+        /**
+         * How long a stream may stay open before it is closed.
+         */
+        private Duration timeout = Duration.ofMinutes(2);
+    }
+
+    @Getter
+    @Setter
+    public static class SemanticCacheConfig {
+        /**
+         * Whether a text similar to a recently classified one gets its labels without a model call.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Minimum cosine similarity of the embeddings of two texts to reuse labels.
+         */
+        private double similarityThreshold = 0.85;
+
+        /**
+         * Maximum number of recently classified texts kept; the oldest are forgotten beyond it.
+         */
+        private int maxEntries = 10_000;
+
+        /**
+         * Number of dimensions of the hashed text embeddings.
+         */
+        private int dimensions = 256;
+
+        /**
+         * Number of LSH bands of a signature.
+         */
+        private int bands = 20;
+
+        /**
+         * Number of hyperplane signs per band. Signatures have bands * rows signs.
+         */
+        private int rows = 10;
+    }
+
+    @Getter
+    @Setter
+    public static class CacheConfig {
+        /**
+         * Whether responses to repeated texts are served from the cache.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Maximum number of cached responses; the least valuable ones are evicted beyond it.
+         */
+        private long maxSize = 10_000;
+
+        /**
+         * How long a response is served from the cache after it was stored.
+         */
+        private Duration ttl = Duration.ofHours(1);
+    }
+
+    @Getter
+    @Setter
+    public static class MicroBatchConfig {
+        /**
+         * Whether concurrent single-text classifications are sent to the provider as batches.
+         */
+        private boolean enabled = false;
+
+        /**
+         * How long the first classification of a batch waits for others to join it.
+         */
+        private Duration window = Duration.ofMillis(10);
+
+        /**
+         * Number of texts after which a batch is sent without waiting for the window.
+         */
+        private int maxSize = 20;
+    }
+
+    @Getter
+    @Setter
+    public static class MockConfig {
+        /**
+         * Artificial delay of every mock response, to stand in for a real model in load tests.
+         */
+        private Duration latency = Duration.ZERO;
+
+        /**
+         * Maximum random delay added to {@code latency}, drawn uniformly per response.
+         */
+        private Duration latencyJitter = Duration.ZERO;
+    }
+
     @Getter
     @Setter
     public static class OpenAiConfig {
@@ -59,6 +191,16 @@ public class AiProperties {
          */
         private double temperature = 0.3;
 
+        /**
+         * Estimated token budget of the texts packed into one batch classification prompt.
+         */
+        private int batchMaxInputTokens = 4000;
+
+        /**
+         * Maximum number of texts packed into one batch classification prompt.
+         */
+        private int batchMaxTexts = 20;
+
         /**
          * Checks if a valid API key is configured.
          *
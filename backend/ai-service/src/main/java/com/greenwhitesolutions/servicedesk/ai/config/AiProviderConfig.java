@@ -10,6 +10,8 @@ import com.greenwhitesolutions.servicedesk.ai.provider.AiProvider;
 import com.greenwhitesolutions.servicedesk.ai.provider.MockAiProvider;
 import com.greenwhitesolutions.servicedesk.ai.provider.OpenAiProvider;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 /**
  * Configuration class for AI provider bean selection.
  * Automatically selects the appropriate provider based on configuration.
@@ -25,29 +27,39 @@ public class AiProviderConfig {
      * - AND a valid API key is configured
      *
      * @param properties AI configuration properties
+     * @param meterRegistry registry of the provider metrics
      * @return OpenAiProvider instance
      */
     @Bean
     @ConditionalOnProperty(name = "app.ai.provider", havingValue = "openai", matchIfMissing = true)
-    public AiProvider openAiProvider(AiProperties properties) {
+    public AiProvider openAiProvider(AiProperties properties, MeterRegistry meterRegistry) {
         if (properties.getOpenai().hasApiKey()) {
             log.info("Configuring OpenAI provider with model: {}", properties.getOpenai().getModel());
-            return new OpenAiProvider(properties.getOpenai());
+            return new OpenAiProvider(properties.getOpenai(), meterRegistry);
         }
         // Fallback to mock if no API key is configured
         log.info("No OpenAI API key configured, falling back to MockAiProvider");
-        return new MockAiProvider();
+        return mockProvider(properties.getMock());
     }
 
     /**
      * Creates MockAiProvider bean when app.ai.provider is explicitly set to 'mock'.
      *
+     * @param properties AI configuration properties
      * @return MockAiProvider instance
      */
     @Bean
     @ConditionalOnProperty(name = "app.ai.provider", havingValue = "mock")
-    public AiProvider mockAiProvider() {
+    public AiProvider mockAiProvider(AiProperties properties) {
         log.info("Configuring Mock AI provider");
-        return new MockAiProvider();
+        return mockProvider(properties.getMock());
+    }
+
+    private static MockAiProvider mockProvider(AiProperties.MockConfig config) {
+        if (!config.getLatency().isZero() || !config.getLatencyJitter().isZero()) {
+            log.info("Mock AI provider responds after {} plus up to {} jitter", config.getLatency(),
+                    config.getLatencyJitter());
+        }
+        return new MockAiProvider(config.getLatency(), config.getLatencyJitter());
     }
 }
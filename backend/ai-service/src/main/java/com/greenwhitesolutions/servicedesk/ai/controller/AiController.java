@@ -1,20 +1,29 @@
 package com.greenwhitesolutions.servicedesk.ai.controller;
 
+import java.util.Locale;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.greenwhitesolutions.servicedesk.ai.dto.BatchClassifyRequest;
+import com.greenwhitesolutions.servicedesk.ai.dto.BatchClassifyResponse;
 import com.greenwhitesolutions.servicedesk.ai.dto.ClassifyRequest;
 import com.greenwhitesolutions.servicedesk.ai.dto.ClassifyResponse;
 import com.greenwhitesolutions.servicedesk.ai.dto.SummarizeRequest;
 import com.greenwhitesolutions.servicedesk.ai.dto.SummarizeResponse;
 import com.greenwhitesolutions.servicedesk.ai.service.AiService;
+import com.greenwhitesolutions.servicedesk.ai.service.SummaryStreamer;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -26,7 +35,9 @@ import jakarta.validation.Valid;
 
 /**
  * REST controller for AI operations.
- * Provides endpoints for text classification and summarization.
+ * Provides endpoints for text classification and summarization, also streamed as server-sent events.
+ * Responses to texts seen before may come from a cache; a request with
+ * {@code Cache-Control: no-cache} is always answered by the provider.
  */
 @RestController
 @RequestMapping("/api/v1/ai")
@@ -37,14 +48,17 @@ public class AiController {
     private static final Logger log = LoggerFactory.getLogger(AiController.class);
 
     private final AiService aiService;
+    private final SummaryStreamer summaryStreamer;
 
     /**
-     * Creates a new AiController with the given service.
+     * Creates a new AiController with the given services.
      *
      * @param aiService the AI service to handle operations
+     * @param summaryStreamer streams summaries as server-sent events
      */
-    public AiController(AiService aiService) {
+    public AiController(AiService aiService, SummaryStreamer summaryStreamer) {
         this.aiService = aiService;
+        this.summaryStreamer = summaryStreamer;
     }
 
     /**
@@ -74,12 +88,52 @@ public class AiController {
                     content = @Content
             )
     })
-    public ResponseEntity<ClassifyResponse> classify(@Valid @RequestBody ClassifyRequest request) {
+    public ResponseEntity<ClassifyResponse> classify(@Valid @RequestBody ClassifyRequest request,
+                                                     @RequestHeader(value = HttpHeaders.CACHE_CONTROL, required = false)
+                                                     String cacheControl) {
         log.info("Received classification request for text of length: {}", request.getText().length());
-        var labels = aiService.classify(request.getText());
+        var labels = aiService.classify(request.getText(), bypassCache(cacheControl));
         return ResponseEntity.ok(new ClassifyResponse(labels));
     }
 
+    /**
+     * Classifies several texts at once. Providers pack the texts into as few model calls as
+     * their prompt budget allows.
+     *
+     * @param request the batch classification request containing the texts
+     * @return response with the classification labels of each text, in request order
+     */
+    @PostMapping("/classify/batch")
+    @Operation(
+            summary = "Classify several texts",
+            description = "Classifies up to " + BatchClassifyRequest.MAX_TEXTS + " texts, packing them into as few " +
+                    "model calls as possible. Results are returned in the order of the texts."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Successfully classified the texts",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = BatchClassifyResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid request - texts are missing, too many, or one of them is blank",
+                    content = @Content
+            )
+    })
+    public ResponseEntity<BatchClassifyResponse> classifyBatch(@Valid @RequestBody BatchClassifyRequest request,
+                                                               @RequestHeader(value = HttpHeaders.CACHE_CONTROL,
+                                                                       required = false) String cacheControl) {
+        log.info("Received batch classification request for {} texts", request.getTexts().size());
+        var results = aiService.classifyBatch(request.getTexts(), bypassCache(cacheControl)).stream()
+                .map(ClassifyResponse::new)
+                .toList();
+        return ResponseEntity.ok(new BatchClassifyResponse(results));
+    }
+
     /**
      * Summarizes the given text.
      *
@@ -107,9 +161,59 @@ public class AiController {
                     content = @Content
             )
     })
-    public ResponseEntity<SummarizeResponse> summarize(@Valid @RequestBody SummarizeRequest request) {
+    public ResponseEntity<SummarizeResponse> summarize(@Valid @RequestBody SummarizeRequest request,
+                                                       @RequestHeader(value = HttpHeaders.CACHE_CONTROL, required = false)
+                                                       String cacheControl) {
         log.info("Received summarization request for text of length: {}", request.getText().length());
-        var summary = aiService.summarize(request.getText());
+        var summary = aiService.summarize(request.getText(), bypassCache(cacheControl));
         return ResponseEntity.ok(new SummarizeResponse(summary));
     }
+
+    /**
+     * Summarizes the given text as a stream of server-sent events, so the summary is shown while
+     * the model is still generating it. Each {@code chunk} event carries the next part of the
+     * summary, and a final {@code done} event the whole summary. An {@code error} event means the
+     * provider failed and the chunks received should be discarded.
+     *
+     * @param request the summarization request containing text
+     * @return the event stream, or 503 when too many summaries are being streamed
+     */
+    @PostMapping(value = "/summarize/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Stream a summary of text",
+            description = "Generates a summary of the input text and sends it as server-sent events while it is " +
+                    "generated: chunk events with {\"text\"}, then a done event with {\"summary\"}, or an error event."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Summary stream started",
+                    content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid request - text is blank or missing",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Too many summaries are being streamed",
+                    content = @Content
+            )
+    })
+    public ResponseEntity<SseEmitter> summarizeStream(@Valid @RequestBody SummarizeRequest request,
+                                                      @RequestHeader(value = HttpHeaders.CACHE_CONTROL,
+                                                              required = false) String cacheControl) {
+        log.info("Received streaming summarization request for text of length: {}", request.getText().length());
+        return summaryStreamer.stream(request.getText(), bypassCache(cacheControl))
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
+
+    /**
+     * Checks whether the client asked for a fresh response with {@code Cache-Control: no-cache}.
+     */
+    private static boolean bypassCache(String cacheControl) {
+        return cacheControl != null && cacheControl.toLowerCase(Locale.ROOT).contains("no-cache");
+    }
 }
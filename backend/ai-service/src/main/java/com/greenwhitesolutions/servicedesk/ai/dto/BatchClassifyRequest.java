@@ -0,0 +1,32 @@
+package com.greenwhitesolutions.servicedesk.ai.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request DTO for batch text classification endpoint.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request body for classifying several texts at once")
+public class BatchClassifyRequest {
+
+    /**
+     * Maximum number of texts in one request.
+     */
+    public static final int MAX_TEXTS = 500;
+
+    @NotEmpty(message = "Texts cannot be empty")
+    @Size(max = MAX_TEXTS, message = "At most " + MAX_TEXTS + " texts can be classified at once")
+    @Schema(description = "Text contents to classify",
+            example = "[\"I need help with my billing issue\", \"The app crashes on login\"]")
+    private List<@NotBlank(message = "Text cannot be blank") String> texts;
+}
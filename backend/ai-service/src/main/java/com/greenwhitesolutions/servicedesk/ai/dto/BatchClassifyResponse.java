@@ -0,0 +1,21 @@
+package com.greenwhitesolutions.servicedesk.ai.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response DTO for batch text classification endpoint.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Response body containing the classification of every text, in request order")
+public class BatchClassifyResponse {
+
+    @Schema(description = "Classification of each text, in the order of the request")
+    private List<ClassifyResponse> results;
+}
@@ -0,0 +1,19 @@
+package com.greenwhitesolutions.servicedesk.ai.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data of a {@code chunk} event of a streamed summary.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Part of a streamed summary")
+public class SummaryChunk {
+
+    @Schema(description = "Text following the previous chunks of the summary", example = "Customer reported ")
+    private String text;
+}
@@ -1,6 +1,7 @@
 package com.greenwhitesolutions.servicedesk.ai.provider;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Interface for AI provider implementations.
@@ -13,14 +14,77 @@ public interface AiProvider {
      *
      * @param text the text to classify
      * @return list of classification labels (e.g., ["billing", "bug"])
+     * @throws RuntimeException if the model cannot answer; the caller decides on a fallback
      */
     List<String> classify(String text);
 
+    /**
+     * Classifies several texts. Providers that can answer several texts in one model call
+     * override this; by default each text is classified on its own.
+     *
+     * @param texts the texts to classify
+     * @return the labels of each text, in the order of {@code texts}
+     * @throws RuntimeException if the model cannot answer; providers making several model calls
+     *         may instead return empty labels for the texts of the calls that failed
+     */
+    default List<List<String>> classifyBatch(List<String> texts) {
+        return texts.stream().map(this::classify).toList();
+    }
+
     /**
      * Summarizes the given text.
      *
      * @param text the text to summarize
      * @return a summary of the input text
+     * @throws RuntimeException if the model cannot answer; the caller decides on a fallback
      */
     String summarize(String text);
+
+    /**
+     * Summarizes the given text, passing each part of the summary to {@code onChunk} as soon as
+     * the model produced it. Providers that can stream their answer override this; by default the
+     * whole summary is passed as a single chunk.
+     * <p>
+     * Failures are thrown like those of {@link #summarize(String)}, possibly after part of the
+     * summary was passed on. An exception thrown by {@code onChunk} stops the summarization.
+     *
+     * @param text the text to summarize
+     * @param onChunk receives the consecutive parts of the summary
+     * @return the whole summary
+     */
+    default String summarizeStream(String text, Consumer<String> onChunk) {
+        String summary = summarize(text);
+        if (!summary.isEmpty()) {
+            onChunk.accept(summary);
+        }
+        return summary;
+    }
+
+    /**
+     * Gets the name of the provider, used to tag its metrics.
+     *
+     * @return the provider name (e.g., "openai")
+     */
+    default String getName() {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * Gets the model answering the requests, used to tag metrics.
+     *
+     * @return the model name, or "none" if the provider does not use a model
+     */
+    default String getModel() {
+        return "none";
+    }
+
+    /**
+     * Gets the version of the prompts sent to the model. Cached responses are only reused for
+     * the same version, so it must change whenever a prompt changes.
+     *
+     * @return the prompt version, or "none" if the provider does not use prompts
+     */
+    default String getPromptVersion() {
+        return "none";
+    }
 }
@@ -1,7 +1,11 @@
 package com.greenwhitesolutions.servicedesk.ai.provider;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,6 +14,8 @@ import org.slf4j.LoggerFactory;
  * Mock implementation of AiProvider for testing and local development.
  * Returns deterministic responses without calling any external API.
  * Used when no API key is configured.
+ * Responses can be delayed by a configurable latency, so load tests see realistic model response times.
+ * Streamed summaries are delivered word by word, the first word after that latency.
  */
 public class MockAiProvider implements AiProvider {
 
@@ -25,10 +31,42 @@ public class MockAiProvider implements AiProvider {
      */
     private static final String SUMMARY_PREFIX = "Mock summary: ";
 
+    private final long latencyNanos;
+    private final long jitterNanos;
+
+    public MockAiProvider() {
+        this(Duration.ZERO, Duration.ZERO);
+    }
+
+    /**
+     * Creates a mock provider whose responses take the given time.
+     *
+     * @param latency fixed delay of every response
+     * @param jitter maximum random delay added to the fixed delay
+     */
+    public MockAiProvider(Duration latency, Duration jitter) {
+        this.latencyNanos = latency.toNanos();
+        this.jitterNanos = jitter.toNanos();
+    }
+
     @Override
     public List<String> classify(String text) {
         log.debug("MockAiProvider.classify called with text length: {}", text.length());
+        simulateLatency();
+        return labelsFor(text);
+    }
 
+    /**
+     * Classifies all texts after a single delay, like one batched model call.
+     */
+    @Override
+    public List<List<String>> classifyBatch(List<String> texts) {
+        log.debug("MockAiProvider.classifyBatch called with {} texts", texts.size());
+        simulateLatency();
+        return texts.stream().map(MockAiProvider::labelsFor).toList();
+    }
+
+    private static List<String> labelsFor(String text) {
         // Provide deterministic mock labels based on text content
         if (text.toLowerCase().contains("billing") || text.toLowerCase().contains("invoice") 
                 || text.toLowerCase().contains("payment")) {
@@ -49,7 +87,25 @@ public class MockAiProvider implements AiProvider {
     @Override
     public String summarize(String text) {
         log.debug("MockAiProvider.summarize called with text length: {}", text.length());
+        simulateLatency();
+        return summaryOf(text);
+    }
 
+    /**
+     * Streams the summary word by word, each word with its following whitespace.
+     */
+    @Override
+    public String summarizeStream(String text, Consumer<String> onChunk) {
+        log.debug("MockAiProvider.summarizeStream called with text length: {}", text.length());
+        simulateLatency();
+        String summary = summaryOf(text);
+        for (String chunk : summary.split("(?<=\\s)(?=\\S)")) {
+            onChunk.accept(chunk);
+        }
+        return summary;
+    }
+
+    private static String summaryOf(String text) {
         // Return a deterministic mock summary
         int maxLength = Math.min(text.length(), 100);
         String truncated = text.substring(0, maxLength);
@@ -58,4 +114,24 @@ public class MockAiProvider implements AiProvider {
         }
         return SUMMARY_PREFIX + truncated;
     }
+
+    @Override
+    public String getName() {
+        return "mock";
+    }
+
+    /**
+     * Blocks the calling thread like a remote model call would.
+     */
+    private void simulateLatency() {
+        long delay = latencyNanos + (jitterNanos > 0 ? ThreadLocalRandom.current().nextLong(jitterNanos + 1) : 0);
+        if (delay <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 }
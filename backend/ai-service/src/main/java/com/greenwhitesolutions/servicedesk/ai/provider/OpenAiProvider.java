@@ -2,28 +2,88 @@ package com.greenwhitesolutions.servicedesk.ai.provider;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.greenwhitesolutions.servicedesk.ai.config.AiProperties;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 /**
  * OpenAI implementation of AiProvider.
  * Uses Spring WebClient to call OpenAI Chat Completions API.
+ * Every API call is timed as {@value #CALLS_METRIC}, tagged with its outcome (success, timeout or
+ * error), and the token counts reported in the {@code usage} field are recorded as {@value #TOKENS_METRIC}.
+ * Streamed summaries use the {@code stream: true} mode of the API, whose answer arrives as
+ * server-sent events carrying one content delta each.
  */
 public class OpenAiProvider implements AiProvider {
 
+    static final String CALLS_METRIC = "ai.provider.calls";
+    static final String TOKENS_METRIC = "ai.provider.tokens";
+
+    /**
+     * Operations calls are made for, used to tag metrics.
+     */
+    private static final List<String> OPERATIONS = List.of("classify", "classify-batch", "summarize", "summarize-stream");
+
+    /**
+     * Version of the prompts below. Increase it with every prompt change, so cached responses
+     * to the old prompts are not reused.
+     */
+    static final String PROMPT_VERSION = "2";
+
     private static final Logger log = LoggerFactory.getLogger(OpenAiProvider.class);
 
+    /**
+     * Rough number of characters per token of English text, used to size batches without a tokenizer.
+     */
+    private static final int CHARS_PER_TOKEN = 4;
+
+    /**
+     * Completion tokens reserved for the answer line of each text in a batch.
+     */
+    private static final int COMPLETION_TOKENS_PER_TEXT = 24;
+
+    /**
+     * Answer line of one text in a batch, e.g. {@code 3: billing, urgent}.
+     */
+    private static final Pattern BATCH_ANSWER = Pattern.compile("^\\s*\\[?(\\d+)\\]?\\s*[:.)-]\\s*(.*)$");
+
+    /**
+     * Data of the last event of a streamed completion.
+     */
+    private static final String STREAM_DONE = "[DONE]";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
     private final WebClient webClient;
     private final AiProperties.OpenAiConfig config;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, CallMeters> callMeters;
 
     /**
      * Creates a new OpenAiProvider with the given configuration.
@@ -31,7 +91,20 @@ public class OpenAiProvider implements AiProvider {
      * @param config OpenAI configuration
      */
     public OpenAiProvider(AiProperties.OpenAiConfig config) {
+        this(config, new SimpleMeterRegistry());
+    }
+
+    /**
+     * Creates a new OpenAiProvider recording its calls in the given registry.
+     *
+     * @param config OpenAI configuration
+     * @param meterRegistry registry of the call and token metrics
+     */
+    public OpenAiProvider(AiProperties.OpenAiConfig config, MeterRegistry meterRegistry) {
         this.config = config;
+        this.meterRegistry = meterRegistry;
+        this.callMeters = OPERATIONS.stream().collect(Collectors.toUnmodifiableMap(Function.identity(),
+                operation -> new CallMeters(meterRegistry, operation, getName(), config.getModel())));
         this.webClient = WebClient.builder()
                 .baseUrl(config.getBaseUrl())
                 .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + config.getApiKey())
@@ -44,13 +117,62 @@ public class OpenAiProvider implements AiProvider {
         log.debug("OpenAiProvider.classify called with text length: {}", text.length());
 
         String prompt = buildClassificationPrompt(text);
+        return parseLabels(callChatCompletion("classify", prompt));
+    }
+
+    /**
+     * Classifies the texts with as few chat completions as the batch limits allow. Consecutive
+     * texts are packed into one numbered prompt while their estimated tokens stay within
+     * {@code batch-max-input-tokens} and their number within {@code batch-max-texts}; the answer
+     * holds one numbered line of labels per text. Texts the model left out of its answer are
+     * classified on their own; when a call fails, its texts get empty labels, so one failed call
+     * does not discard the answers of the others. Only when every call failed is the failure thrown.
+     */
+    @Override
+    public List<List<String>> classifyBatch(List<String> texts) {
+        log.debug("OpenAiProvider.classifyBatch called with {} texts", texts.size());
+        List<List<String>> labels = new ArrayList<>(texts.size());
+        RuntimeException failure = null;
+        boolean answered = false;
+        for (int[] range : pack(texts, config.getBatchMaxInputTokens(), config.getBatchMaxTexts())) {
+            List<String> chunk = texts.subList(range[0], range[1]);
+            List<List<String>> answers;
+            try {
+                if (chunk.size() == 1) {
+                    labels.add(classify(chunk.get(0)));
+                    answered = true;
+                    continue;
+                }
+                String response = callChatCompletion("classify-batch", buildBatchClassificationPrompt(chunk),
+                        Math.max(config.getMaxTokens(), chunk.size() * COMPLETION_TOKENS_PER_TEXT));
+                answers = parseBatchLabels(response, chunk.size());
+                answered = true;
+            } catch (RuntimeException e) {
+                log.error("Error calling OpenAI for batch classification of {} texts", chunk.size(), e);
+                failure = e;
+                chunk.forEach(text -> labels.add(new ArrayList<>()));
+                continue;
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                List<String> answer = answers.get(i);
+                labels.add(answer != null ? answer : classifyOrEmpty(chunk.get(i)));
+            }
+        }
+        if (!answered && failure != null) {
+            throw failure;
+        }
+        return labels;
+    }
 
+    /**
+     * Classifies a text the model left out of a batch answer, giving it empty labels if that fails
+     * too, so the answers of the rest of the batch are kept.
+     */
+    private List<String> classifyOrEmpty(String text) {
         try {
-            String response = callChatCompletion(prompt);
-            return parseLabels(response);
-        } catch (Exception e) {
-            log.error("Error calling OpenAI for classification", e);
-            // Return empty list on error - caller can handle fallback
+            return classify(text);
+        } catch (RuntimeException e) {
+            log.error("Error calling OpenAI for classification of a text missing from a batch answer", e);
             return new ArrayList<>();
         }
     }
@@ -60,32 +182,57 @@ public class OpenAiProvider implements AiProvider {
         log.debug("OpenAiProvider.summarize called with text length: {}", text.length());
 
         String prompt = buildSummarizationPrompt(text);
+        return callChatCompletion("summarize", prompt);
+    }
 
-        try {
-            return callChatCompletion(prompt);
-        } catch (Exception e) {
-            log.error("Error calling OpenAI for summarization", e);
-            // Return empty string on error - caller can handle fallback
-            return "";
-        }
+    /**
+     * Streams the summary as the model generates it. The API timeout applies to the wait for each
+     * chunk rather than to the whole answer.
+     */
+    @Override
+    public String summarizeStream(String text, Consumer<String> onChunk) {
+        log.debug("OpenAiProvider.summarizeStream called with text length: {}", text.length());
+        return streamChatCompletion("summarize-stream", buildSummarizationPrompt(text), onChunk);
+    }
+
+    @Override
+    public String getName() {
+        return "openai";
+    }
+
+    @Override
+    public String getModel() {
+        return config.getModel();
+    }
+
+    @Override
+    public String getPromptVersion() {
+        return PROMPT_VERSION;
     }
 
     /**
      * Calls OpenAI Chat Completions API with the given prompt.
      *
+     * @param operation the operation the call is made for, used to tag metrics
      * @param prompt the user prompt
      * @return the assistant's response content
      */
-    private String callChatCompletion(String prompt) {
+    private String callChatCompletion(String operation, String prompt) {
+        return callChatCompletion(operation, prompt, config.getMaxTokens());
+    }
+
+    private String callChatCompletion(String operation, String prompt, int maxTokens) {
         Map<String, Object> requestBody = Map.of(
                 "model", config.getModel(),
                 "messages", List.of(
                         Map.of("role", "user", "content", prompt)
                 ),
-                "max_tokens", config.getMaxTokens(),
+                "max_tokens", maxTokens,
                 "temperature", config.getTemperature()
         );
 
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
             @SuppressWarnings("unchecked")
             Map<String, Object> response = webClient.post()
@@ -96,16 +243,187 @@ public class OpenAiProvider implements AiProvider {
                     .timeout(Duration.ofSeconds(config.getTimeout()))
                     .block();
 
+            outcome = "success";
             if (response == null) {
                 log.warn("Received null response from OpenAI");
                 return "";
             }
 
+            recordUsage(operation, response);
             return extractContent(response);
         } catch (WebClientResponseException e) {
             log.error("OpenAI API error: {} - {}", e.getStatusCode(), e.getResponseBodyAsString());
             throw new RuntimeException("OpenAI API error: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            if (isTimeout(e)) {
+                outcome = "timeout";
+            }
+            throw e;
+        } finally {
+            sample.stop(callMeters.get(operation).timer(outcome));
+        }
+    }
+
+    /**
+     * Calls OpenAI Chat Completions API in streaming mode, passing every content delta to {@code onChunk}.
+     * Subscribing through a {@link Stream} lets closing it cancel the HTTP response when
+     * {@code onChunk} fails, e.g. because the client went away.
+     *
+     * @return the whole assistant's response content
+     */
+    private String streamChatCompletion(String operation, String prompt, Consumer<String> onChunk) {
+        Map<String, Object> requestBody = Map.of(
+                "model", config.getModel(),
+                "messages", List.of(
+                        Map.of("role", "user", "content", prompt)
+                ),
+                "max_tokens", config.getMaxTokens(),
+                "temperature", config.getTemperature(),
+                "stream", true,
+                // Adds a last chunk with the usage of the whole completion
+                "stream_options", Map.of("include_usage", true)
+        );
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        StringBuilder content = new StringBuilder();
+        try (Stream<String> events = webClient.post()
+                .uri("/v1/chat/completions")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .bodyValue(requestBody)
+                .retrieve()
+                .bodyToFlux(new ParameterizedTypeReference<ServerSentEvent<String>>() { })
+                .timeout(Duration.ofSeconds(config.getTimeout()))
+                .mapNotNull(ServerSentEvent::data)
+                .takeWhile(data -> !STREAM_DONE.equals(data))
+                .toStream()) {
+            events.forEach(data -> {
+                JsonNode chunk = parseStreamChunk(data);
+                recordUsage(operation, chunk.path("usage"));
+                String delta = extractDelta(chunk);
+                if (!delta.isEmpty()) {
+                    content.append(delta);
+                    onChunk.accept(delta);
+                }
+            });
+            outcome = "success";
+            return content.toString();
+        } catch (WebClientResponseException e) {
+            log.error("OpenAI API error: {} - {}", e.getStatusCode(), e.getResponseBodyAsString());
+            throw new RuntimeException("OpenAI API error: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            if (isTimeout(e)) {
+                outcome = "timeout";
+            }
+            throw e;
+        } finally {
+            sample.stop(callMeters.get(operation).timer(outcome));
+        }
+    }
+
+    private static JsonNode parseStreamChunk(String data) {
+        try {
+            return OBJECT_MAPPER.readTree(data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Malformed OpenAI stream chunk: " + data, e);
+        }
+    }
+
+    /**
+     * Extracts the content delta of a streamed chunk.
+     *
+     * @param chunk a chunk of a streamed completion
+     * @return the content it adds, or an empty string for chunks without content, such as the usage chunk
+     */
+    static String extractDelta(JsonNode chunk) {
+        return chunk.path("choices").path(0).path("delta").path("content").asText("");
+    }
+
+    /**
+     * Records the token counts of the {@code usage} of a streamed completion.
+     */
+    private void recordUsage(String operation, JsonNode usage) {
+        if (!usage.isObject()) {
+            return;
+        }
+        recordTokens(operation, "prompt", usage.path("prompt_tokens").numberValue());
+        recordTokens(operation, "completion", usage.path("completion_tokens").numberValue());
+    }
+
+    /**
+     * Records the prompt and completion token counts of the {@code usage} field of a response.
+     */
+    private void recordUsage(String operation, Map<String, Object> response) {
+        if (!(response.get("usage") instanceof Map<?, ?> usage)) {
+            return;
+        }
+        recordTokens(operation, "prompt", usage.get("prompt_tokens"));
+        recordTokens(operation, "completion", usage.get("completion_tokens"));
+    }
+
+    private void recordTokens(String operation, String type, Object count) {
+        if (count instanceof Number tokens) {
+            callMeters.get(operation).tokens(type).record(tokens.doubleValue());
+        }
+    }
+
+    /**
+     * Meters of the calls made for one operation, registered up front so a call does not look them up.
+     */
+    private record CallMeters(Timer success, Timer timeout, Timer error,
+            DistributionSummary promptTokens, DistributionSummary completionTokens) {
+
+        CallMeters(MeterRegistry registry, String operation, String provider, String model) {
+            this(timer(registry, operation, provider, model, "success"),
+                    timer(registry, operation, provider, model, "timeout"),
+                    timer(registry, operation, provider, model, "error"),
+                    tokens(registry, operation, provider, model, "prompt"),
+                    tokens(registry, operation, provider, model, "completion"));
+        }
+
+        Timer timer(String outcome) {
+            return switch (outcome) {
+                case "success" -> success;
+                case "timeout" -> timeout;
+                default -> error;
+            };
+        }
+
+        DistributionSummary tokens(String type) {
+            return "prompt".equals(type) ? promptTokens : completionTokens;
+        }
+
+        private static Timer timer(MeterRegistry registry, String operation, String provider, String model,
+                String outcome) {
+            return Timer.builder(CALLS_METRIC)
+                    .description("Calls to the OpenAI Chat Completions API")
+                    .tags("operation", operation, "provider", provider, "model", model, "outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+
+        private static DistributionSummary tokens(MeterRegistry registry, String operation, String provider,
+                String model, String type) {
+            return DistributionSummary.builder(TOKENS_METRIC)
+                    .description("Tokens used per OpenAI call")
+                    .baseUnit("tokens")
+                    .tags("operation", operation, "provider", provider, "model", model, "type", type)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Checks whether the call failed because the response did not arrive within the timeout.
+     * {@code block()} wraps the {@link TimeoutException} of the reactive timeout.
+     */
+    private static boolean isTimeout(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TimeoutException) {
+                return true;
+            }
         }
+        return false;
     }
 
     /**
@@ -130,7 +448,7 @@ public class OpenAiProvider implements AiProvider {
     /**
      * Builds the prompt for text classification.
      */
-    private String buildClassificationPrompt(String text) {
+    static String buildClassificationPrompt(String text) {
         return """
                 Classify the following support ticket text into categories.
                 Return ONLY a comma-separated list of labels, nothing else.
@@ -142,10 +460,84 @@ public class OpenAiProvider implements AiProvider {
                 Labels:""".formatted(text);
     }
 
+    /**
+     * Builds the prompt classifying several numbered texts at once.
+     */
+    static String buildBatchClassificationPrompt(List<String> texts) {
+        StringBuilder prompt = new StringBuilder("""
+                Classify each of the following numbered support ticket texts into categories.
+                Possible labels: billing, bug, feature-request, technical, general, support, urgent, security.
+                Answer with exactly one line per text, in the form "<number>: <comma-separated labels>", nothing else.
+                """);
+        for (int i = 0; i < texts.size(); i++) {
+            prompt.append("\n[").append(i + 1).append("]\n").append(texts.get(i)).append('\n');
+        }
+        return prompt.append("\nLabels:").toString();
+    }
+
+    /**
+     * Parses the numbered answer lines of a batch classification.
+     *
+     * @param response the model response
+     * @param count the number of texts in the batch
+     * @return the labels of each text, or null for texts without an answer line
+     */
+    static List<List<String>> parseBatchLabels(String response, int count) {
+        List<List<String>> labels = new ArrayList<>(Collections.nCopies(count, null));
+        if (response == null) {
+            return labels;
+        }
+        for (String line : response.split("\\R")) {
+            Matcher matcher = BATCH_ANSWER.matcher(line);
+            if (matcher.matches()) {
+                int index = Integer.parseInt(matcher.group(1)) - 1;
+                if (index >= 0 && index < count && labels.get(index) == null) {
+                    labels.set(index, parseLabels(matcher.group(2)));
+                }
+            }
+        }
+        return labels;
+    }
+
+    /**
+     * Splits texts into consecutive batches whose estimated prompt tokens stay within the budget.
+     * A text exceeding the budget on its own gets a batch of its own.
+     *
+     * @param texts the texts to pack
+     * @param maxInputTokens the estimated token budget of the texts of one batch
+     * @param maxTexts the maximum number of texts in one batch
+     * @return the batches as {@code [from, to)} index ranges into {@code texts}
+     */
+    static List<int[]> pack(List<String> texts, int maxInputTokens, int maxTexts) {
+        List<int[]> batches = new ArrayList<>();
+        int from = 0;
+        long tokens = 0;
+        for (int i = 0; i < texts.size(); i++) {
+            long textTokens = estimateTokens(texts.get(i));
+            if (i > from && (tokens + textTokens > maxInputTokens || i - from >= maxTexts)) {
+                batches.add(new int[] {from, i});
+                from = i;
+                tokens = 0;
+            }
+            tokens += textTokens;
+        }
+        if (from < texts.size()) {
+            batches.add(new int[] {from, texts.size()});
+        }
+        return batches;
+    }
+
+    /**
+     * Estimates the tokens of a text in a batch prompt, including its number line.
+     */
+    private static long estimateTokens(String text) {
+        return (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN + 4;
+    }
+
     /**
      * Builds the prompt for text summarization.
      */
-    private String buildSummarizationPrompt(String text) {
+    static String buildSummarizationPrompt(String text) {
         return """
                 Summarize the following support ticket text in one or two sentences.
                 Be concise and capture the main issue or request.
@@ -159,7 +551,7 @@ public class OpenAiProvider implements AiProvider {
     /**
      * Parses the comma-separated labels from the response.
      */
-    private List<String> parseLabels(String response) {
+    static List<String> parseLabels(String response) {
         List<String> labels = new ArrayList<>();
         if (response == null || response.isBlank()) {
             return labels;
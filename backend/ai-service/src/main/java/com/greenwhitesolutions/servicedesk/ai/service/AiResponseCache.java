@@ -0,0 +1,189 @@
+package com.greenwhitesolutions.servicedesk.ai.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.greenwhitesolutions.servicedesk.ai.provider.AiProvider;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Size- and TTL-bounded cache of provider responses, so repeated texts such as generated alerts
+ * or templated emails are answered without a model call.
+ * Entries are keyed by a 128-bit hash of the operation, the provider configuration that shapes
+ * the answer (name, model, prompt version and temperature) and the text with its whitespace
+ * normalized. The hash is computed in one pass over the text without copying it, and the key
+ * holds no reference to the text, so an entry costs the same for short and long texts.
+ * <p>
+ * Empty results are not cached, since providers return them when a call failed. Lookups are
+ * counted as {@code cache.gets} and evictions as {@code cache.evictions}, tagged
+ * {@code cache=}{@value #CACHE_NAME}.
+ */
+class AiResponseCache {
+
+    static final String CACHE_NAME = "ai.responses";
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private final Cache<Key, Object> cache;
+    private final String fingerprint;
+    private final Counter bypasses;
+
+    /**
+     * Create a cache for the responses of a provider.
+     *
+     * @param provider the provider whose responses are cached
+     * @param temperature the sampling temperature of the provider
+     * @param maxSize the maximum number of cached responses
+     * @param ttl how long a response is served from the cache after it was stored
+     * @param meterRegistry registry of the cache metrics
+     */
+    AiResponseCache(AiProvider provider, double temperature, long maxSize, Duration ttl, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.fingerprint = String.join("\0", provider.getName(), provider.getModel(), provider.getPromptVersion(),
+                Double.toString(temperature));
+        this.bypasses = Counter.builder("cache.bypasses")
+                .description("Requests that skipped the cache lookup")
+                .tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Get the cached response of an operation on a text, or compute and cache it.
+     * The provider is called outside of the cache, so concurrent misses of the same text may each
+     * call it, but a slow call never blocks lookups of other keys.
+     *
+     * @param operation the operation name
+     * @param text the input text
+     * @param bypass whether to skip the lookup; the computed response is still cached
+     * @param call computes the response on a miss
+     * @return the response
+     */
+    <T> T get(String operation, String text, boolean bypass, Function<String, T> call) {
+        Key key = key(operation, text);
+        if (bypass) {
+            bypasses.increment();
+        } else {
+            @SuppressWarnings("unchecked")
+            T cached = (T) cache.getIfPresent(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        T response = call.apply(text);
+        put(key, response);
+        return response;
+    }
+
+    /**
+     * Get the cached responses of an operation on several texts, computing the missing ones with a single call.
+     *
+     * @param operation the operation name
+     * @param texts the input texts
+     * @param bypass whether to skip the lookup; the computed responses are still cached
+     * @param call computes the responses of the texts that were not cached, in order
+     * @return the responses, in the order of {@code texts}
+     */
+    <T> List<T> getAll(String operation, List<String> texts, boolean bypass, Function<List<String>, List<T>> call) {
+        List<T> responses = new ArrayList<>(texts.size());
+        List<Key> missingKeys = new ArrayList<>();
+        List<String> missingTexts = new ArrayList<>();
+        List<Integer> missingIndexes = new ArrayList<>();
+        for (int i = 0; i < texts.size(); i++) {
+            Key key = key(operation, texts.get(i));
+            @SuppressWarnings("unchecked")
+            T cached = bypass ? null : (T) cache.getIfPresent(key);
+            responses.add(cached);
+            if (cached == null) {
+                missingKeys.add(key);
+                missingTexts.add(texts.get(i));
+                missingIndexes.add(i);
+            }
+        }
+        if (bypass) {
+            bypasses.increment(texts.size());
+        }
+        if (missingTexts.isEmpty()) {
+            return responses;
+        }
+        List<T> computed = call.apply(missingTexts);
+        for (int i = 0; i < computed.size(); i++) {
+            put(missingKeys.get(i), computed.get(i));
+            responses.set(missingIndexes.get(i), computed.get(i));
+        }
+        return responses;
+    }
+
+    private void put(Key key, Object response) {
+        if (response == null || response instanceof String string && string.isEmpty()
+                || response instanceof List<?> list && list.isEmpty()) {
+            return;
+        }
+        cache.put(key, response instanceof List<?> values ? List.copyOf(values) : response);
+    }
+
+    /**
+     * Hash the operation, the provider fingerprint and the text into a key. Leading and trailing
+     * whitespace is ignored and every run of whitespace inside the text counts as a single space,
+     * so texts differing only in line breaks or indentation share an entry.
+     */
+    Key key(String operation, String text) {
+        long first = FNV_OFFSET_BASIS;
+        long second = GOLDEN_GAMMA;
+        for (String part : new String[] {operation, fingerprint}) {
+            for (int i = 0; i < part.length(); i++) {
+                first = (first ^ part.charAt(i)) * FNV_PRIME;
+                second = (second ^ part.charAt(i)) * GOLDEN_GAMMA;
+            }
+            // A zero character separates the parts
+            first *= FNV_PRIME;
+            second *= GOLDEN_GAMMA;
+        }
+        boolean pendingSpace = false;
+        boolean started = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = started;
+                continue;
+            }
+            if (pendingSpace) {
+                first = (first ^ ' ') * FNV_PRIME;
+                second = (second ^ ' ') * GOLDEN_GAMMA;
+                pendingSpace = false;
+            }
+            first = (first ^ c) * FNV_PRIME;
+            second = (second ^ c) * GOLDEN_GAMMA;
+            started = true;
+        }
+        return new Key(mix(first), mix(second));
+    }
+
+    /**
+     * Spread the bits of a multiplicative hash over all 64 bits (MurmurHash3 finalizer).
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    record Key(long high, long low) {
+    }
+}
@@ -1,22 +1,61 @@
 package com.greenwhitesolutions.servicedesk.ai.service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.greenwhitesolutions.servicedesk.ai.config.AiProperties;
 import com.greenwhitesolutions.servicedesk.ai.provider.AiProvider;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 /**
  * Service class that provides AI operations by delegating to the configured AiProvider.
+ * Every operation is timed as {@value #REQUESTS_METRIC}, tagged with the operation, provider,
+ * model and outcome, and the length of its input text is recorded as {@value #TEXT_LENGTH_METRIC}.
+ * When the provider fails, classifications get no labels and summaries are empty, as a fallback
+ * the caller can tell from a real answer; streamed summaries pass the failure on instead. The
+ * outcome is {@code success}, {@code timeout} when the provider did not answer in time,
+ * {@code fallback} when it failed otherwise and the fallback was returned, or {@code error} when
+ * the failure was passed on. Streamed summaries also record the time to their first chunk as
+ * {@value #FIRST_CHUNK_METRIC}, which is the wait users notice.
+ * <p>
+ * With {@code app.ai.micro-batch.enabled}, concurrent single-text classifications are collected
+ * by a {@link ClassificationBatcher} and sent to the provider as batches.
+ * With {@code app.ai.cache.enabled}, responses to texts seen before are served from an
+ * {@link AiResponseCache} without calling the provider. With {@code app.ai.semantic-cache.enabled},
+ * texts missing from it get the labels of a similar recent text from a {@link SemanticLabelCache}.
  */
 @Service
 public class AiService {
 
+    static final String REQUESTS_METRIC = "ai.requests";
+    static final String TEXT_LENGTH_METRIC = "ai.request.text.length";
+    static final String FIRST_CHUNK_METRIC = "ai.requests.first-chunk";
+
     private static final Logger log = LoggerFactory.getLogger(AiService.class);
 
     private final AiProvider aiProvider;
+    private final OperationMeters classifyMeters;
+    private final OperationMeters summarizeMeters;
+    private final OperationMeters classifyBatchMeters;
+    private final OperationMeters summarizeStreamMeters;
+    private final Timer firstChunk;
+    private final ClassificationBatcher batcher;
+    private final AiResponseCache cache;
+    private final SemanticLabelCache semanticCache;
 
     /**
      * Creates a new AiService with the given provider.
@@ -24,8 +63,57 @@ public class AiService {
      * @param aiProvider the AI provider to delegate operations to
      */
     public AiService(AiProvider aiProvider) {
+        this(aiProvider, new SimpleMeterRegistry());
+    }
+
+    /**
+     * Creates a new AiService recording its metrics in the given registry.
+     *
+     * @param aiProvider the AI provider to delegate operations to
+     * @param meterRegistry registry of the request metrics
+     */
+    public AiService(AiProvider aiProvider, MeterRegistry meterRegistry) {
+        this(aiProvider, new AiProperties(), meterRegistry);
+    }
+
+    /**
+     * Creates a new AiService with the given configuration.
+     *
+     * @param aiProvider the AI provider to delegate operations to
+     * @param properties AI configuration properties
+     * @param meterRegistry registry of the request metrics
+     */
+    @Autowired
+    public AiService(AiProvider aiProvider, AiProperties properties, MeterRegistry meterRegistry) {
         this.aiProvider = aiProvider;
+        AiProperties.MicroBatchConfig microBatch = properties.getMicroBatch();
+        this.batcher = microBatch.isEnabled()
+                ? new ClassificationBatcher(aiProvider, microBatch.getWindow(), microBatch.getMaxSize(), meterRegistry)
+                : null;
+        AiProperties.CacheConfig cacheConfig = properties.getCache();
+        this.cache = cacheConfig.isEnabled()
+                ? new AiResponseCache(aiProvider, properties.getOpenai().getTemperature(), cacheConfig.getMaxSize(),
+                        cacheConfig.getTtl(), meterRegistry)
+                : null;
+        AiProperties.SemanticCacheConfig semantic = properties.getSemanticCache();
+        this.semanticCache = semantic.isEnabled()
+                ? new SemanticLabelCache(semantic.getDimensions(), semantic.getBands(), semantic.getRows(),
+                        semantic.getSimilarityThreshold(), semantic.getMaxEntries(), meterRegistry)
+                : null;
+        this.classifyMeters = new OperationMeters(meterRegistry, "classify", aiProvider);
+        this.summarizeMeters = new OperationMeters(meterRegistry, "summarize", aiProvider);
+        this.classifyBatchMeters = new OperationMeters(meterRegistry, "classify-batch", aiProvider);
+        this.summarizeStreamMeters = new OperationMeters(meterRegistry, "summarize-stream", aiProvider);
+        this.firstChunk = Timer.builder(FIRST_CHUNK_METRIC)
+                .description("Time until the first chunk of a streamed AI operation")
+                .tags("operation", "summarize-stream", "provider", aiProvider.getName(), "model", aiProvider.getModel())
+                .publishPercentileHistogram()
+                .register(meterRegistry);
         log.info("AiService initialized with provider: {}", aiProvider.getClass().getSimpleName());
+        if (batcher != null) {
+            log.info("Micro-batching classifications within {} up to {} texts", microBatch.getWindow(),
+                    microBatch.getMaxSize());
+        }
     }
 
     /**
@@ -35,8 +123,52 @@ public class AiService {
      * @return list of classification labels
      */
     public List<String> classify(String text) {
+        return classify(text, false);
+    }
+
+    /**
+     * Classifies the given text and returns a list of labels.
+     *
+     * @param text the text to classify
+     * @param bypassCache whether to ask the provider even if the labels of the text are cached
+     * @return list of classification labels
+     */
+    public List<String> classify(String text, boolean bypassCache) {
         log.debug("Classifying text of length: {}", text.length());
-        return aiProvider.classify(text);
+        Function<String, List<String>> provider = batcher != null ? batcher::classify : aiProvider::classify;
+        Function<String, List<String>> call = semanticCache != null
+                ? input -> semanticCache.get(input, bypassCache, provider)
+                : provider;
+        return classifyMeters.record(text, input -> cached("classify", input, bypassCache, call), List::of);
+    }
+
+    /**
+     * Classifies several texts, letting the provider answer them in as few model calls as it can.
+     *
+     * @param texts the texts to classify
+     * @return the labels of each text, in the order of {@code texts}
+     */
+    public List<List<String>> classifyBatch(List<String> texts) {
+        return classifyBatch(texts, false);
+    }
+
+    /**
+     * Classifies several texts, letting the provider answer them in as few model calls as it can.
+     * Only the texts whose labels are not cached are sent to the provider.
+     *
+     * @param texts the texts to classify
+     * @param bypassCache whether to send all texts to the provider, even if their labels are cached
+     * @return the labels of each text, in the order of {@code texts}; empty for texts the provider
+     *         returned no labels for, or all empty if it failed
+     */
+    public List<List<String>> classifyBatch(List<String> texts, boolean bypassCache) {
+        log.debug("Classifying batch of {} texts", texts.size());
+        Function<List<String>, List<List<String>>> call = semanticCache != null
+                ? input -> semanticCache.getAll(input, bypassCache, this::classifyWithProvider)
+                : this::classifyWithProvider;
+        return classifyBatchMeters.record(texts, input -> cache != null
+                ? cache.getAll("classify", input, bypassCache, call)
+                : call.apply(input), () -> texts.stream().map(text -> List.<String>of()).toList());
     }
 
     /**
@@ -46,7 +178,159 @@ public class AiService {
      * @return a summary of the input text
      */
     public String summarize(String text) {
+        return summarize(text, false);
+    }
+
+    /**
+     * Summarizes the given text.
+     *
+     * @param text the text to summarize
+     * @param bypassCache whether to ask the provider even if a summary of the text is cached
+     * @return a summary of the input text, or an empty string if the provider failed
+     */
+    public String summarize(String text, boolean bypassCache) {
         log.debug("Summarizing text of length: {}", text.length());
-        return aiProvider.summarize(text);
+        return summarizeMeters.record(text, input -> cached("summarize", input, bypassCache, aiProvider::summarize),
+                () -> "");
+    }
+
+    /**
+     * Summarizes the given text, passing each part of the summary to {@code onChunk} as the
+     * provider produces it. A cached summary is passed as a single chunk, and a streamed summary
+     * is cached for later requests, streamed or not.
+     *
+     * @param text the text to summarize
+     * @param bypassCache whether to ask the provider even if a summary of the text is cached
+     * @param onChunk receives the consecutive parts of the summary
+     * @return the whole summary
+     * @throws RuntimeException if the provider fails, possibly after passing on part of the summary
+     */
+    public String summarizeStream(String text, boolean bypassCache, Consumer<String> onChunk) {
+        log.debug("Streaming summary of text of length: {}", text.length());
+        long start = System.nanoTime();
+        Consumer<String> timedOnChunk = new Consumer<>() {
+            private boolean first = true;
+
+            @Override
+            public void accept(String chunk) {
+                if (first) {
+                    first = false;
+                    firstChunk.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+                onChunk.accept(chunk);
+            }
+        };
+        boolean[] streamed = new boolean[1];
+        String summary = summarizeStreamMeters.record(text, input -> cached("summarize", input, bypassCache,
+                uncached -> {
+                    streamed[0] = true;
+                    return aiProvider.summarizeStream(uncached, timedOnChunk);
+                }), null);
+        if (!streamed[0] && !summary.isEmpty()) {
+            timedOnChunk.accept(summary);
+        }
+        return summary;
+    }
+
+    /**
+     * Classify texts with the provider. Texts the provider returned no labels for, for example
+     * after a partially parsed answer, get empty labels, which are not cached.
+     */
+    private List<List<String>> classifyWithProvider(List<String> texts) {
+        List<List<String>> labels = aiProvider.classifyBatch(texts);
+        int returned = labels == null ? 0 : labels.size();
+        List<List<String>> complete = new ArrayList<>(texts.size());
+        for (int i = 0; i < texts.size(); i++) {
+            List<String> result = i < returned ? labels.get(i) : null;
+            complete.add(result != null ? result : List.of());
+        }
+        if (returned != texts.size()) {
+            log.warn("Provider returned {} results for {} texts, the rest get no labels", returned, texts.size());
+        }
+        return complete;
+    }
+
+    private <T> T cached(String operation, String text, boolean bypassCache, Function<String, T> call) {
+        return cache != null ? cache.get(operation, text, bypassCache, call) : call.apply(text);
+    }
+
+    /**
+     * Meters of one operation, registered up front so recording a request does not look them up.
+     */
+    private static final class OperationMeters {
+
+        private final String operation;
+        private final Timer success;
+        private final Timer timeout;
+        private final Timer fallback;
+        private final Timer error;
+        private final DistributionSummary textLength;
+
+        OperationMeters(MeterRegistry registry, String operation, AiProvider provider) {
+            this.operation = operation;
+            this.success = timer(registry, operation, provider, "success");
+            this.timeout = timer(registry, operation, provider, "timeout");
+            this.fallback = timer(registry, operation, provider, "fallback");
+            this.error = timer(registry, operation, provider, "error");
+            this.textLength = DistributionSummary.builder(TEXT_LENGTH_METRIC)
+                    .description("Length of the text sent to an AI operation")
+                    .baseUnit("characters")
+                    .tags("operation", operation, "provider", provider.getName())
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+
+        <T> T record(String text, Function<String, T> call, Supplier<T> fallbackResult) {
+            textLength.record(text.length());
+            return time(() -> call.apply(text), fallbackResult);
+        }
+
+        <T> T record(List<String> texts, Function<List<String>, T> call, Supplier<T> fallbackResult) {
+            texts.forEach(text -> textLength.record(text.length()));
+            return time(() -> call.apply(texts), fallbackResult);
+        }
+
+        /**
+         * Times the call and, if it fails, returns the fallback result, or throws the failure when
+         * there is none.
+         */
+        private <T> T time(Supplier<T> call, Supplier<T> fallbackResult) {
+            long start = System.nanoTime();
+            try {
+                T result = call.get();
+                success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return result;
+            } catch (RuntimeException e) {
+                boolean timedOut = isTimeout(e);
+                if (fallbackResult == null) {
+                    (timedOut ? timeout : error).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    throw e;
+                }
+                (timedOut ? timeout : fallback).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                log.warn("AI operation {} failed, returning the fallback: {}", operation, e.toString());
+                return fallbackResult.get();
+            }
+        }
+
+        /**
+         * Checks whether the provider failed because its answer did not arrive within the timeout.
+         */
+        private static boolean isTimeout(Throwable error) {
+            for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+                if (cause instanceof TimeoutException) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static Timer timer(MeterRegistry registry, String operation, AiProvider provider, String outcome) {
+            return Timer.builder(REQUESTS_METRIC)
+                    .description("AI operations served by the provider")
+                    .tags("operation", operation, "provider", provider.getName(), "model", provider.getModel(),
+                            "outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
     }
 }
@@ -0,0 +1,145 @@
+package com.greenwhitesolutions.servicedesk.ai.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.greenwhitesolutions.servicedesk.ai.provider.AiProvider;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Collects concurrent single-text classifications into batched provider calls.
+ * The first call to arrive opens a batch and leads it: it waits until the batch is full or the
+ * window has passed, closes the batch, and classifies all of its texts with one
+ * {@link AiProvider#classifyBatch(List)} call on its own thread. The other callers only add their
+ * text and wait for the result, so batching needs no thread of its own, and a call waits at most
+ * the window longer than an unbatched one.
+ * <p>
+ * Sizes of the batches sent are recorded as {@value #BATCH_SIZE_METRIC}.
+ */
+class ClassificationBatcher {
+
+    static final String BATCH_SIZE_METRIC = "ai.micro-batch.size";
+
+    private final AiProvider provider;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final DistributionSummary batchSizes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition closed = lock.newCondition();
+    /**
+     * The batch new calls join, or null when none is open. Guarded by {@link #lock}.
+     */
+    private Batch open;
+
+    ClassificationBatcher(AiProvider provider, Duration window, int maxBatchSize, MeterRegistry meterRegistry) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Maximum batch size must be positive: " + maxBatchSize);
+        }
+        this.provider = provider;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.batchSizes = DistributionSummary.builder(BATCH_SIZE_METRIC)
+                .description("Texts per batched classification call")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Classify a text as part of the next batched provider call.
+     *
+     * @param text the text to classify
+     * @return the labels of the text
+     */
+    List<String> classify(String text) {
+        Batch batch;
+        int index;
+        boolean leader;
+        lock.lock();
+        try {
+            leader = open == null;
+            if (leader) {
+                open = new Batch();
+            }
+            batch = open;
+            index = batch.texts.size();
+            batch.texts.add(text);
+            if (batch.texts.size() >= maxBatchSize) {
+                open = null;
+                closed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (leader) {
+            awaitClose(batch);
+            batch.run();
+        }
+        return batch.labels(index);
+    }
+
+    /**
+     * Wait until the batch was closed by a call filling it, or close it when the window has passed.
+     */
+    private void awaitClose(Batch batch) {
+        lock.lock();
+        try {
+            long remaining = windowNanos;
+            while (open == batch && remaining > 0) {
+                remaining = closed.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            // Send what has been collected; the waiting callers still need their results
+            Thread.currentThread().interrupt();
+        } finally {
+            if (open == batch) {
+                open = null;
+            }
+            lock.unlock();
+        }
+    }
+
+    private final class Batch {
+
+        /**
+         * Texts of the batch. Only added to while the batch is open, under {@link #lock}.
+         */
+        private final List<String> texts = new ArrayList<>();
+        private final CompletableFuture<List<List<String>>> result = new CompletableFuture<>();
+
+        void run() {
+            batchSizes.record(texts.size());
+            try {
+                List<List<String>> labels = provider.classifyBatch(texts);
+                if (labels.size() != texts.size()) {
+                    throw new IllegalStateException("Provider returned " + labels.size() + " results for "
+                            + texts.size() + " texts");
+                }
+                result.complete(labels);
+            } catch (Throwable e) {
+                // Errors too, or the callers waiting for the batch would wait forever; labels rethrows it
+                result.completeExceptionally(e);
+            }
+        }
+
+        List<String> labels(int index) {
+            try {
+                return result.join().get(index);
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.greenwhitesolutions.servicedesk.ai.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Reuses the labels of a recently classified text for a similar one, such as the same request
+ * reworded ("The amount on my invoice is wrong" and "My invoice amount is wrong") or differing in
+ * a detail ("Printer on floor 3 is jammed" and "Printer on floor 4 is jammed"), which an
+ * exact-match cache misses.
+ * Texts are embedded locally as hashed feature vectors: the character trigrams of every word,
+ * which survive changes of word form, and the words themselves are hashed into a fixed number of
+ * dimensions with a hash-derived sign, and the vector is normalized, so the dot product of two
+ * embeddings is their cosine similarity. Paraphrases sharing hardly any words are not recognized.
+ * <p>
+ * Nearest neighbours are found by locality-sensitive hashing: each embedding is reduced to the
+ * signs of its projections onto random hyperplanes, whose agreement estimates the angle between
+ * vectors. The signs are split into bands and every band is hashed into a bucket, so a lookup
+ * only compares the embeddings sharing at least one bucket. The most similar of them is used if
+ * its cosine similarity reaches the threshold. The oldest texts are forgotten once
+ * {@code maxEntries} are cached.
+ * <p>
+ * Lookups are counted as {@code cache.gets} tagged {@code cache=}{@value #CACHE_NAME} and the result.
+ */
+class SemanticLabelCache {
+
+    static final String CACHE_NAME = "ai.semantic-labels";
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final int dimensions;
+    private final int bands;
+    private final int rows;
+    private final double similarityThreshold;
+    private final int maxEntries;
+    /**
+     * Random hyperplanes, {@code bands * rows} normals of {@code dimensions} values each, one after the other.
+     */
+    private final float[] hyperplanes;
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>();
+    private final Map<Long, List<Long>> buckets = new HashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+    private long nextId;
+
+    /**
+     * Create a cache. Texts whose embeddings have a cosine similarity of about
+     * {@code cos(pi * (1 - (1 / bands) ^ (1 / rows)))} or more are likely to share a bucket.
+     *
+     * @param dimensions the number of dimensions of an embedding
+     * @param bands the number of bands of a signature
+     * @param rows the number of hyperplane signs per band, at most 64
+     * @param similarityThreshold the minimum cosine similarity of a paraphrase
+     * @param maxEntries the maximum number of texts kept
+     * @param meterRegistry registry of the lookup counters
+     */
+    SemanticLabelCache(int dimensions, int bands, int rows, double similarityThreshold, int maxEntries,
+                       MeterRegistry meterRegistry) {
+        if (dimensions <= 0 || bands <= 0 || rows <= 0 || rows > Long.SIZE) {
+            throw new IllegalArgumentException("Invalid semantic cache shape: " + dimensions + " dimensions, "
+                    + bands + " bands, " + rows + " rows");
+        }
+        this.dimensions = dimensions;
+        this.bands = bands;
+        this.rows = rows;
+        this.similarityThreshold = similarityThreshold;
+        this.maxEntries = maxEntries;
+        // A fixed seed keeps signatures comparable across instances and runs
+        SplittableRandom random = new SplittableRandom(0x5eed);
+        this.hyperplanes = new float[bands * rows * dimensions];
+        for (int i = 0; i < hyperplanes.length; i++) {
+            hyperplanes[i] = (float) random.nextGaussian();
+        }
+        this.hits = lookups(meterRegistry, "hit");
+        this.misses = lookups(meterRegistry, "miss");
+    }
+
+    /**
+     * Get the labels of a similar cached text, or classify the text and cache its labels.
+     *
+     * @param text the text to classify
+     * @param bypass whether to skip the lookup; the computed labels are still cached
+     * @param call classifies the text on a miss
+     * @return the labels
+     */
+    List<String> get(String text, boolean bypass, Function<String, List<String>> call) {
+        float[] embedding = embed(text);
+        if (!bypass && embedding != null) {
+            List<String> cached = lookup(embedding);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        List<String> labels = call.apply(text);
+        add(embedding, labels);
+        return labels;
+    }
+
+    /**
+     * Get the labels of several texts, classifying those without a similar cached text with a single call.
+     *
+     * @param texts the texts to classify
+     * @param bypass whether to skip the lookup; the computed labels are still cached
+     * @param call classifies the texts without a similar cached text, in order
+     * @return the labels, in the order of {@code texts}; empty for texts the call returned no labels for
+     */
+    List<List<String>> getAll(List<String> texts, boolean bypass, Function<List<String>, List<List<String>>> call) {
+        List<List<String>> labels = new ArrayList<>(texts.size());
+        List<float[]> missingEmbeddings = new ArrayList<>();
+        List<String> missingTexts = new ArrayList<>();
+        List<Integer> missingIndexes = new ArrayList<>();
+        for (int i = 0; i < texts.size(); i++) {
+            float[] embedding = embed(texts.get(i));
+            List<String> cached = bypass || embedding == null ? null : lookup(embedding);
+            labels.add(cached);
+            if (cached == null) {
+                missingEmbeddings.add(embedding);
+                missingTexts.add(texts.get(i));
+                missingIndexes.add(i);
+            }
+        }
+        if (missingTexts.isEmpty()) {
+            return labels;
+        }
+        List<List<String>> computed = call.apply(missingTexts);
+        for (int i = 0; i < missingTexts.size(); i++) {
+            // A text the call returned no labels for gets empty labels, like a failed classification
+            List<String> result = computed != null && i < computed.size() && computed.get(i) != null
+                    ? computed.get(i)
+                    : List.of();
+            add(missingEmbeddings.get(i), result);
+            labels.set(missingIndexes.get(i), result);
+        }
+        return labels;
+    }
+
+    /**
+     * Get the number of cached texts.
+     *
+     * @return the number of texts
+     */
+    synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Embed a text as a normalized hashed feature vector.
+     *
+     * @param text the text
+     * @return the embedding, or null if the text has no words to embed
+     */
+    float[] embed(String text) {
+        float[] vector = new float[dimensions];
+        boolean empty = true;
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            empty = false;
+            addFeature(vector, hash(word, 0, word.length(), 'w'));
+            // Trigrams of the word padded with boundary markers, so short words get some too
+            String padded = "<" + word + ">";
+            for (int start = 0; start + 3 <= padded.length(); start++) {
+                addFeature(vector, hash(padded, start, start + 3, 't'));
+            }
+        }
+        if (empty) {
+            return null;
+        }
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm == 0) {
+            // Every feature was cancelled by a colliding one
+            return null;
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] *= scale;
+        }
+        return vector;
+    }
+
+    static double cosine(float[] first, float[] second) {
+        double dot = 0;
+        for (int i = 0; i < first.length; i++) {
+            dot += first[i] * second[i];
+        }
+        return dot;
+    }
+
+    private List<String> lookup(float[] embedding) {
+        long[] signature = signature(embedding);
+        synchronized (this) {
+            Entry best = null;
+            double bestSimilarity = similarityThreshold;
+            for (int band = 0; band < bands; band++) {
+                List<Long> candidates = buckets.get(bandKey(signature, band));
+                if (candidates == null) {
+                    continue;
+                }
+                for (long candidate : candidates) {
+                    Entry entry = entries.get(candidate);
+                    double similarity = cosine(embedding, entry.embedding);
+                    if (similarity >= bestSimilarity) {
+                        best = entry;
+                        bestSimilarity = similarity;
+                    }
+                }
+            }
+            (best != null ? hits : misses).increment();
+            return best != null ? best.labels : null;
+        }
+    }
+
+    /**
+     * Cache the labels of a text. Empty labels, which providers return after a failure, are not cached.
+     */
+    private void add(float[] embedding, List<String> labels) {
+        if (embedding == null || labels == null || labels.isEmpty()) {
+            return;
+        }
+        long[] signature = signature(embedding);
+        synchronized (this) {
+            long id = nextId++;
+            entries.put(id, new Entry(embedding, signature, List.copyOf(labels)));
+            for (int band = 0; band < bands; band++) {
+                buckets.computeIfAbsent(bandKey(signature, band), key -> new ArrayList<>(1)).add(id);
+            }
+            if (entries.size() > maxEntries) {
+                evictOldest();
+            }
+        }
+    }
+
+    private void evictOldest() {
+        Iterator<Map.Entry<Long, Entry>> oldest = entries.entrySet().iterator();
+        Map.Entry<Long, Entry> entry = oldest.next();
+        oldest.remove();
+        for (int band = 0; band < bands; band++) {
+            long key = bandKey(entry.getValue().signature, band);
+            List<Long> bucket = buckets.get(key);
+            bucket.remove(entry.getKey());
+            if (bucket.isEmpty()) {
+                buckets.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Compute the signs of the projections of an embedding onto the hyperplanes, {@code rows} bits per band.
+     */
+    private long[] signature(float[] embedding) {
+        long[] signature = new long[bands];
+        int plane = 0;
+        for (int band = 0; band < bands; band++) {
+            long bits = 0;
+            for (int row = 0; row < rows; row++, plane++) {
+                double projection = 0;
+                int offset = plane * dimensions;
+                for (int i = 0; i < dimensions; i++) {
+                    projection += embedding[i] * hyperplanes[offset + i];
+                }
+                bits = bits << 1 | (projection >= 0 ? 1 : 0);
+            }
+            signature[band] = bits;
+        }
+        return signature;
+    }
+
+    /**
+     * Combine the band number with its bits, so equal bits in different bands fall into different buckets.
+     */
+    private static long bandKey(long[] signature, int band) {
+        long key = signature[band] * 0x9e3779b97f4a7c15L + band;
+        return key ^ key >>> 31;
+    }
+
+    private void addFeature(float[] vector, long hash) {
+        int index = (int) ((hash & Long.MAX_VALUE) % dimensions);
+        // A sign from the otherwise unused top bit lets colliding features cancel out instead of adding up
+        vector[index] += hash < 0 ? -1 : 1;
+    }
+
+    private static long hash(String text, int start, int end, char kind) {
+        long hash = (FNV_OFFSET_BASIS ^ kind) * FNV_PRIME;
+        for (int i = start; i < end; i++) {
+            hash = (hash ^ text.charAt(i)) * FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static Counter lookups(MeterRegistry registry, String result) {
+        return Counter.builder("cache.gets")
+                .description("Lookups of labels of similar texts")
+                .tags("cache", CACHE_NAME, "result", result)
+                .register(registry);
+    }
+
+    private record Entry(float[] embedding, long[] signature, List<String> labels) {
+    }
+}
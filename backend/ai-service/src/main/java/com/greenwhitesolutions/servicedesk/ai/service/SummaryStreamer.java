@@ -0,0 +1,134 @@
+package com.greenwhitesolutions.servicedesk.ai.service;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.greenwhitesolutions.servicedesk.ai.config.AiProperties;
+import com.greenwhitesolutions.servicedesk.ai.dto.SummarizeResponse;
+import com.greenwhitesolutions.servicedesk.ai.dto.SummaryChunk;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Streams summaries to clients as server-sent events.
+ * Every part of the summary is sent as a {@code chunk} event as soon as the provider produced it,
+ * followed by a {@code done} event with the whole summary. When the provider fails, an
+ * {@code error} event ends the stream instead, and the chunks sent before it should be discarded.
+ * <p>
+ * Summaries are streamed by a bounded pool of threads, since each of them waits for the model for
+ * as long as it generates. When a client goes away, its next chunk fails to send, which stops the
+ * provider call.
+ */
+@Component
+public class SummaryStreamer {
+
+    static final String CHUNK_EVENT = "chunk";
+    static final String DONE_EVENT = "done";
+    static final String ERROR_EVENT = "error";
+
+    private static final Logger log = LoggerFactory.getLogger(SummaryStreamer.class);
+
+    private final AiService aiService;
+    private final AiProperties.StreamConfig config;
+    private final ThreadPoolExecutor executor;
+
+    public SummaryStreamer(AiService aiService, AiProperties properties) {
+        this.aiService = aiService;
+        this.config = properties.getStream();
+        this.executor = new ThreadPoolExecutor(
+                config.getThreads(), config.getThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, config.getQueueCapacity())),
+                new StreamThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Start streaming the summary of a text.
+     *
+     * @param text the text to summarize
+     * @param bypassCache whether to ask the provider even if a summary of the text is cached
+     * @return the event stream, or empty if too many summaries are being streamed
+     */
+    public Optional<SseEmitter> stream(String text, boolean bypassCache) {
+        SseEmitter emitter = new SseEmitter(config.getTimeout().toMillis());
+        emitter.onTimeout(emitter::complete);
+        try {
+            executor.execute(() -> run(emitter, text, bypassCache));
+        } catch (RejectedExecutionException e) {
+            log.warn("Summary stream refused, {} streams are running", executor.getActiveCount());
+            return Optional.empty();
+        }
+        return Optional.of(emitter);
+    }
+
+    private void run(SseEmitter emitter, String text, boolean bypassCache) {
+        try {
+            String summary = aiService.summarizeStream(text, bypassCache,
+                    chunk -> send(emitter, CHUNK_EVENT, new SummaryChunk(chunk)));
+            send(emitter, DONE_EVENT, new SummarizeResponse(summary));
+            emitter.complete();
+        } catch (StreamClosedException e) {
+            log.debug("Summary stream closed by the client: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Error streaming summary", e);
+            try {
+                send(emitter, ERROR_EVENT, Map.of("message", "Summarization failed"));
+                emitter.complete();
+            } catch (StreamClosedException closed) {
+                log.debug("Summary stream closed by the client: {}", closed.getMessage());
+            }
+        }
+    }
+
+    private static void send(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            // The client disconnected, or the emitter completed after its timeout
+            throw new StreamClosedException(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Thrown out of the provider call when a chunk cannot be sent, to stop generating the summary.
+     */
+    private static final class StreamClosedException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        StreamClosedException(Exception cause) {
+            super(cause.getMessage(), cause);
+        }
+    }
+
+    private static final class StreamThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "ai-summary-stream-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -1,30 +1,56 @@
 package com.greenwhitesolutions.servicedesk.ai.controller;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import com.greenwhitesolutions.servicedesk.ai.config.AiProperties;
 import com.greenwhitesolutions.servicedesk.ai.service.AiService;
+import com.greenwhitesolutions.servicedesk.ai.service.SummaryStreamer;
 
 /**
  * Unit tests for AiController using MockMvc.
  */
 @WebMvcTest(AiController.class)
+@Import(AiControllerTest.StreamConfig.class)
 class AiControllerTest {
 
+    @TestConfiguration
+    static class StreamConfig {
+
+        @Bean
+        SummaryStreamer summaryStreamer(AiService aiService) {
+            return new SummaryStreamer(aiService, new AiProperties());
+        }
+    }
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -34,7 +60,7 @@ class AiControllerTest {
     @Test
     @DisplayName("POST /api/v1/ai/classify returns labels")
     void classify_returnsLabels() throws Exception {
-        when(aiService.classify(anyString())).thenReturn(Arrays.asList("billing", "support"));
+        when(aiService.classify(anyString(), anyBoolean())).thenReturn(Arrays.asList("billing", "support"));
 
         mockMvc.perform(post("/api/v1/ai/classify")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -48,7 +74,7 @@ class AiControllerTest {
     @Test
     @DisplayName("POST /api/v1/ai/classify returns empty array when no labels")
     void classify_returnsEmptyArray() throws Exception {
-        when(aiService.classify(anyString())).thenReturn(Collections.emptyList());
+        when(aiService.classify(anyString(), anyBoolean())).thenReturn(Collections.emptyList());
 
         mockMvc.perform(post("/api/v1/ai/classify")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -79,7 +105,7 @@ class AiControllerTest {
     @Test
     @DisplayName("POST /api/v1/ai/summarize returns summary")
     void summarize_returnsSummary() throws Exception {
-        when(aiService.summarize(anyString())).thenReturn("This is a summary.");
+        when(aiService.summarize(anyString(), anyBoolean())).thenReturn("This is a summary.");
 
         mockMvc.perform(post("/api/v1/ai/summarize")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -105,4 +131,100 @@ class AiControllerTest {
                         .content("{}"))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    @DisplayName("POST /api/v1/ai/classify/batch returns labels in request order")
+    void classifyBatch_returnsLabelsInOrder() throws Exception {
+        when(aiService.classifyBatch(List.of("Wrong invoice", "App crashes"), false))
+                .thenReturn(List.of(List.of("billing"), List.of("bug", "technical")));
+
+        mockMvc.perform(post("/api/v1/ai/classify/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"texts\": [\"Wrong invoice\", \"App crashes\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].labels[0]").value("billing"))
+                .andExpect(jsonPath("$.results[1].labels[0]").value("bug"))
+                .andExpect(jsonPath("$.results[1].labels[1]").value("technical"));
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/ai/classify/batch returns 400 for an empty list")
+    void classifyBatch_returnsBadRequestForEmptyList() throws Exception {
+        mockMvc.perform(post("/api/v1/ai/classify/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"texts\": []}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/ai/classify/batch returns 400 for a blank text")
+    void classifyBatch_returnsBadRequestForBlankText() throws Exception {
+        mockMvc.perform(post("/api/v1/ai/classify/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"texts\": [\"Wrong invoice\", \" \"]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/ai/classify with Cache-Control: no-cache bypasses the response cache")
+    void classify_noCacheHeader_bypassesCache() throws Exception {
+        when(aiService.classify("Wrong invoice", true)).thenReturn(List.of("billing"));
+
+        mockMvc.perform(post("/api/v1/ai/classify")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Cache-Control", "no-cache")
+                        .content("{\"text\": \"Wrong invoice\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.labels[0]").value("billing"));
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/ai/summarize/stream sends chunk events and a done event with the whole summary")
+    void summarizeStream_sendsChunksAndDone() throws Exception {
+        when(aiService.summarizeStream(eq("Printer broken"), eq(false), any())).thenAnswer(invocation -> {
+            Consumer<String> onChunk = invocation.getArgument(2);
+            onChunk.accept("Broken ");
+            onChunk.accept("printer.");
+            return "Broken printer.";
+        });
+
+        MvcResult result = mockMvc.perform(post("/api/v1/ai/summarize/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"text\": \"Printer broken\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(content().string(containsString("event:chunk\ndata:{\"text\":\"Broken \"}")))
+                .andExpect(content().string(containsString("event:chunk\ndata:{\"text\":\"printer.\"}")))
+                .andExpect(content().string(containsString("event:done\ndata:{\"summary\":\"Broken printer.\"}")));
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/ai/summarize/stream ends with an error event when the provider fails")
+    void summarizeStream_providerFailure_sendsError() throws Exception {
+        when(aiService.summarizeStream(anyString(), anyBoolean(), any()))
+                .thenThrow(new IllegalStateException("Provider down"));
+
+        MvcResult result = mockMvc.perform(post("/api/v1/ai/summarize/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"text\": \"Printer broken\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(content().string(containsString("event:error")))
+                .andExpect(content().string(not(containsString("event:done"))));
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/ai/summarize/stream returns 400 for blank text")
+    void summarizeStream_returnsBadRequestForBlankText() throws Exception {
+        mockMvc.perform(post("/api/v1/ai/summarize/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"text\": \"\"}"))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -2,7 +2,10 @@ package com.greenwhitesolutions.servicedesk.ai.provider;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -140,4 +143,47 @@ class MockAiProviderTest {
 
         assertThat(labelsLower).isEqualTo(labelsUpper).isEqualTo(labelsMixed);
     }
+
+    @Test
+    @DisplayName("classify waits for the configured latency")
+    void classify_withLatency_waits() {
+        MockAiProvider slowProvider = new MockAiProvider(Duration.ofMillis(50), Duration.ofMillis(10));
+
+        long started = System.nanoTime();
+        List<String> labels = slowProvider.classify("Where is my invoice?");
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        assertThat(labels).containsExactly("billing", "finance");
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(50);
+    }
+
+    @Test
+    @DisplayName("classifyBatch labels every text after a single delay")
+    void classifyBatch_waitsOnce() {
+        MockAiProvider slowProvider = new MockAiProvider(Duration.ofMillis(100), Duration.ZERO);
+
+        long started = System.nanoTime();
+        List<List<String>> labels = slowProvider.classifyBatch(List.of("Where is my invoice?", "It crashed",
+                "Hello"));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        assertThat(labels).containsExactly(List.of("billing", "finance"), List.of("bug", "technical"),
+                List.of("general", "support"));
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(100).isLessThan(300);
+    }
+
+    @Test
+    @DisplayName("summarizeStream delivers the summary word by word")
+    void summarizeStream_deliversWords() {
+        // Given
+        List<String> chunks = new ArrayList<>();
+
+        // When
+        String summary = provider.summarizeStream("Printer on floor 3 is jammed", chunks::add);
+
+        // Then
+        assertThat(summary).isEqualTo(provider.summarize("Printer on floor 3 is jammed"));
+        assertThat(chunks).startsWith("Mock ", "summary: ", "Printer ").endsWith("jammed");
+        assertThat(String.join("", chunks)).isEqualTo(summary);
+    }
 }
@@ -0,0 +1,106 @@
+package com.greenwhitesolutions.servicedesk.ai.provider;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.greenwhitesolutions.servicedesk.ai.config.AiProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for the prompt building and parsing of OpenAiProvider.
+ */
+class OpenAiProviderTest {
+
+    @Test
+    @DisplayName("pack fills batches up to the token budget and the text limit")
+    void pack_respectsBudgetAndLimit() {
+        // Given: 40 characters estimate to 10 + 4 tokens
+        String text = "x".repeat(40);
+        List<String> texts = Collections.nCopies(7, text);
+
+        // When
+        List<int[]> byTokens = OpenAiProvider.pack(texts, 30, 10);
+        List<int[]> byCount = OpenAiProvider.pack(texts, 1000, 3);
+
+        // Then
+        assertThat(byTokens).containsExactly(new int[] {0, 2}, new int[] {2, 4}, new int[] {4, 6}, new int[] {6, 7});
+        assertThat(byCount).containsExactly(new int[] {0, 3}, new int[] {3, 6}, new int[] {6, 7});
+    }
+
+    @Test
+    @DisplayName("pack gives a text larger than the budget a batch of its own")
+    void pack_oversizedText_isAlone() {
+        // When
+        List<int[]> batches = OpenAiProvider.pack(List.of("short", "y".repeat(1000), "short"), 50, 10);
+
+        // Then
+        assertThat(batches).containsExactly(new int[] {0, 1}, new int[] {1, 2}, new int[] {2, 3});
+    }
+
+    @Test
+    @DisplayName("the batch prompt numbers every text")
+    void buildBatchClassificationPrompt_numbersTexts() {
+        // When
+        String prompt = OpenAiProvider.buildBatchClassificationPrompt(List.of("Wrong invoice", "App crashes"));
+
+        // Then
+        assertThat(prompt).contains("[1]\nWrong invoice\n").contains("[2]\nApp crashes\n").endsWith("Labels:");
+    }
+
+    @Test
+    @DisplayName("batch answers are matched to their texts by number and missing ones are null")
+    void parseBatchLabels_matchesByNumber() {
+        // When
+        List<List<String>> labels = OpenAiProvider.parseBatchLabels("""
+                2: bug, Technical
+                [1] - billing
+                garbage line
+                7: security""", 3);
+
+        // Then
+        assertThat(labels).containsExactly(List.of("billing"), List.of("bug", "technical"), null);
+    }
+
+    @Test
+    @DisplayName("extractDelta reads the content of a streamed chunk and ignores chunks without one")
+    void extractDelta_readsContent() throws Exception {
+        // Given
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode content = mapper.readTree("{\"choices\":[{\"index\":0,\"delta\":{\"content\":\"Broken \"}}]}");
+        JsonNode role = mapper.readTree("{\"choices\":[{\"index\":0,\"delta\":{\"role\":\"assistant\"}}]}");
+        JsonNode usage = mapper.readTree("{\"choices\":[],\"usage\":{\"prompt_tokens\":42,\"completion_tokens\":7}}");
+
+        // Then
+        assertThat(OpenAiProvider.extractDelta(content)).isEqualTo("Broken ");
+        assertThat(OpenAiProvider.extractDelta(role)).isEmpty();
+        assertThat(OpenAiProvider.extractDelta(usage)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("a failed call is thrown to the caller and timed with the error outcome")
+    void classify_unreachableApi_throwsAndRecordsError() {
+        // Given
+        AiProperties.OpenAiConfig config = new AiProperties.OpenAiConfig();
+        config.setBaseUrl("http://localhost:1");
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        OpenAiProvider provider = new OpenAiProvider(config, meterRegistry);
+
+        // When / Then
+        assertThatThrownBy(() -> provider.classify("Invoice")).isInstanceOf(RuntimeException.class);
+        assertThat(meterRegistry.get(OpenAiProvider.CALLS_METRIC)
+                .tags("operation", "classify", "outcome", "error")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(OpenAiProvider.CALLS_METRIC)
+                .tags("operation", "classify", "outcome", "success")
+                .timer().count()).isZero();
+    }
+}
@@ -0,0 +1,106 @@
+package com.greenwhitesolutions.servicedesk.ai.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.greenwhitesolutions.servicedesk.ai.provider.MockAiProvider;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for AiResponseCache.
+ */
+class AiResponseCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AiResponseCache cache;
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new AiResponseCache(new MockAiProvider(), 0.3, 100, Duration.ofMinutes(5), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("a repeated text is answered from the cache, also with different whitespace")
+    void get_repeatedText_isCached() {
+        // When
+        List<String> first = cache.get("classify", "Wrong invoice\n amount", false, this::labels);
+        List<String> second = cache.get("classify", "  Wrong invoice amount ", false, this::labels);
+
+        // Then
+        assertThat(second).isEqualTo(first);
+        assertThat(calls).hasValue(1);
+        assertThat(meterRegistry.get("cache.gets").tags("cache", AiResponseCache.CACHE_NAME, "result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("operations and differing texts get separate entries")
+    void key_dependsOnOperationAndText() {
+        assertThat(cache.key("classify", "Wrong invoice")).isNotEqualTo(cache.key("summarize", "Wrong invoice"));
+        assertThat(cache.key("classify", "Wrong invoice")).isNotEqualTo(cache.key("classify", "Wrong invoices"));
+        assertThat(cache.key("classify", "Wrong invoice")).isNotEqualTo(cache.key("classify", "Wronginvoice"));
+    }
+
+    @Test
+    @DisplayName("a bypassing request calls the provider and refreshes the entry")
+    void get_bypass_refreshesEntry() {
+        // Given
+        cache.get("summarize", "Printer broken", false, text -> "old summary");
+
+        // When
+        String fresh = cache.get("summarize", "Printer broken", true, text -> "new summary");
+        String cached = cache.get("summarize", "Printer broken", false, text -> "unused");
+
+        // Then
+        assertThat(fresh).isEqualTo("new summary");
+        assertThat(cached).isEqualTo("new summary");
+    }
+
+    @Test
+    @DisplayName("empty results, which providers return after a failure, are not cached")
+    void get_emptyResult_isNotCached() {
+        // Given
+        cache.get("classify", "Timeout text", false, text -> List.of());
+
+        // When
+        List<String> labels = cache.get("classify", "Timeout text", false, this::labels);
+
+        // Then
+        assertThat(labels).containsExactly("label-1");
+    }
+
+    @Test
+    @DisplayName("a batch sends only the texts without a cached answer")
+    void getAll_sendsOnlyMisses() {
+        // Given
+        cache.get("classify", "known", false, this::labels);
+        List<List<String>> sent = new ArrayList<>();
+        Function<List<String>, List<List<String>>> batch = texts -> {
+            sent.add(texts);
+            return texts.stream().map(this::labels).toList();
+        };
+
+        // When
+        List<List<String>> labels = cache.getAll("classify", List.of("new", "known", "other"), false, batch);
+
+        // Then
+        assertThat(sent).containsExactly(List.of("new", "other"));
+        assertThat(labels).containsExactly(List.of("label-2"), List.of("label-1"), List.of("label-3"));
+    }
+
+    private List<String> labels(String text) {
+        return List.of("label-" + calls.incrementAndGet());
+    }
+}
@@ -1,12 +1,20 @@
 package com.greenwhitesolutions.servicedesk.ai.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -15,8 +23,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import com.greenwhitesolutions.servicedesk.ai.config.AiProperties;
 import com.greenwhitesolutions.servicedesk.ai.provider.AiProvider;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 /**
  * Unit tests for AiService.
  */
@@ -26,11 +37,15 @@ class AiServiceTest {
     @Mock
     private AiProvider aiProvider;
 
+    private SimpleMeterRegistry meterRegistry;
     private AiService aiService;
 
     @BeforeEach
     void setUp() {
-        aiService = new AiService(aiProvider);
+        when(aiProvider.getName()).thenReturn("test");
+        when(aiProvider.getModel()).thenReturn("test-model");
+        meterRegistry = new SimpleMeterRegistry();
+        aiService = new AiService(aiProvider, meterRegistry);
     }
 
     @Test
@@ -82,4 +97,178 @@ class AiServiceTest {
         assertThat(summary).isEmpty();
         verify(aiProvider).summarize(text);
     }
+
+    @Test
+    @DisplayName("classify is timed and its text length recorded, tagged with provider and outcome")
+    void classify_recordsMetrics() {
+        // Given
+        when(aiProvider.classify("Invoice")).thenReturn(List.of("billing"));
+
+        // When
+        aiService.classify("Invoice");
+
+        // Then
+        assertThat(meterRegistry.get(AiService.REQUESTS_METRIC)
+                .tags("operation", "classify", "provider", "test", "model", "test-model", "outcome", "success")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(AiService.TEXT_LENGTH_METRIC).tag("operation", "classify")
+                .summary().totalAmount()).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("a failing summarize returns the empty fallback and is timed with the fallback outcome")
+    void summarize_failure_recordsFallback() {
+        // Given
+        when(aiProvider.summarize("Text")).thenThrow(new IllegalStateException("down"));
+
+        // When
+        String summary = aiService.summarize("Text");
+
+        // Then
+        assertThat(summary).isEmpty();
+        assertThat(meterRegistry.get(AiService.REQUESTS_METRIC)
+                .tags("operation", "summarize", "outcome", "fallback")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(AiService.REQUESTS_METRIC)
+                .tags("operation", "summarize", "outcome", "success")
+                .timer().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("a timed out classify returns no labels and is timed with the timeout outcome")
+    void classify_timeout_recordsTimeout() {
+        // Given
+        when(aiProvider.classify("Invoice")).thenThrow(new IllegalStateException(new TimeoutException("slow")));
+
+        // When
+        List<String> labels = aiService.classify("Invoice");
+
+        // Then
+        assertThat(labels).isEmpty();
+        assertThat(meterRegistry.get(AiService.REQUESTS_METRIC)
+                .tags("operation", "classify", "outcome", "timeout")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("a failing classifyBatch returns empty labels for every text")
+    void classifyBatch_failure_returnsFallback() {
+        // Given
+        List<String> texts = List.of("Invoice", "Crash");
+        when(aiProvider.classifyBatch(texts)).thenThrow(new IllegalStateException("down"));
+
+        // When
+        List<List<String>> labels = aiService.classifyBatch(texts);
+
+        // Then
+        assertThat(labels).containsExactly(List.of(), List.of());
+        assertThat(meterRegistry.get(AiService.REQUESTS_METRIC)
+                .tags("operation", "classify-batch", "outcome", "fallback")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("a failing summarizeStream is thrown and timed with the error outcome")
+    void summarizeStream_failure_recordsError() {
+        // Given
+        when(aiProvider.summarizeStream(eq("Text"), any())).thenThrow(new IllegalStateException("down"));
+
+        // When / Then
+        assertThatThrownBy(() -> aiService.summarizeStream("Text", false, chunk -> { }))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(meterRegistry.get(AiService.REQUESTS_METRIC)
+                .tags("operation", "summarize-stream", "outcome", "error")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("classifyBatch delegates to provider and returns labels per text")
+    void classifyBatch_delegatesToProvider() {
+        // Given
+        List<String> texts = List.of("Invoice", "Crash");
+        when(aiProvider.classifyBatch(texts)).thenReturn(List.of(List.of("billing"), List.of("bug")));
+
+        // When
+        List<List<String>> labels = aiService.classifyBatch(texts);
+
+        // Then
+        assertThat(labels).containsExactly(List.of("billing"), List.of("bug"));
+        assertThat(meterRegistry.get(AiService.TEXT_LENGTH_METRIC).tag("operation", "classify-batch")
+                .summary().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("texts the provider returned no labels for get empty labels and are not cached")
+    void classifyBatch_fewerResults_fillsEmptyLabels() {
+        // Given
+        List<String> texts = List.of("Invoice", "Crash", "VPN");
+        when(aiProvider.classifyBatch(any())).thenReturn(List.of(List.of("billing"))).thenReturn(List.of());
+
+        // When
+        List<List<String>> labels = aiService.classifyBatch(texts);
+        aiService.classifyBatch(texts);
+
+        // Then
+        assertThat(labels).containsExactly(List.of("billing"), List.of(), List.of());
+        verify(aiProvider).classifyBatch(List.of("Crash", "VPN"));
+    }
+
+    @Test
+    @DisplayName("a repeated summarize is served from the cache unless the cache is bypassed")
+    void summarize_repeatedText_isCached() {
+        // Given
+        when(aiProvider.summarize("Printer broken")).thenReturn("Broken printer.");
+
+        // When
+        aiService.summarize("Printer broken");
+        String cached = aiService.summarize("Printer broken");
+        aiService.summarize("Printer broken", true);
+
+        // Then
+        assertThat(cached).isEqualTo("Broken printer.");
+        verify(aiProvider, times(2)).summarize("Printer broken");
+    }
+
+    @Test
+    @DisplayName("with the semantic cache, a similar text gets the labels of a classified one")
+    void classify_similarText_usesSemanticCache() {
+        // Given
+        AiProperties properties = new AiProperties();
+        properties.getSemanticCache().setEnabled(true);
+        AiService service = new AiService(aiProvider, properties, meterRegistry);
+        when(aiProvider.classify("Printer on floor 3 is jammed")).thenReturn(List.of("hardware"));
+
+        // When
+        service.classify("Printer on floor 3 is jammed");
+        List<String> labels = service.classify("Printer on floor 4 is jammed");
+
+        // Then
+        assertThat(labels).containsExactly("hardware");
+        verify(aiProvider, times(1)).classify(anyString());
+    }
+
+    @Test
+    @DisplayName("summarizeStream passes on the provider's chunks and serves a repeated text from the cache as one chunk")
+    void summarizeStream_streamsAndCaches() {
+        // Given
+        when(aiProvider.summarizeStream(eq("Printer broken"), any())).thenAnswer(invocation -> {
+            Consumer<String> onChunk = invocation.getArgument(1);
+            onChunk.accept("Broken ");
+            onChunk.accept("printer.");
+            return "Broken printer.";
+        });
+        List<String> streamed = new ArrayList<>();
+        List<String> cached = new ArrayList<>();
+
+        // When
+        String summary = aiService.summarizeStream("Printer broken", false, streamed::add);
+        aiService.summarizeStream("Printer broken", false, cached::add);
+
+        // Then
+        assertThat(summary).isEqualTo("Broken printer.");
+        assertThat(streamed).containsExactly("Broken ", "printer.");
+        assertThat(cached).containsExactly("Broken printer.");
+        verify(aiProvider, times(1)).summarizeStream(eq("Printer broken"), any());
+        assertThat(meterRegistry.get(AiService.FIRST_CHUNK_METRIC).timer().count()).isEqualTo(2);
+    }
 }
@@ -0,0 +1,153 @@
+package com.greenwhitesolutions.servicedesk.ai.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.greenwhitesolutions.servicedesk.ai.provider.AiProvider;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for ClassificationBatcher.
+ */
+class ClassificationBatcherTest {
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(8);
+    private final RecordingProvider provider = new RecordingProvider();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("concurrent calls within the window share one provider call and get their own labels")
+    void classify_concurrentCalls_areBatched() throws Exception {
+        // Given
+        ClassificationBatcher batcher = new ClassificationBatcher(provider, Duration.ofMillis(500), 100, meterRegistry);
+
+        // When
+        List<Future<List<String>>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            String text = "text " + i;
+            results.add(callers.submit(() -> batcher.classify(text)));
+        }
+
+        // Then
+        for (int i = 0; i < 8; i++) {
+            assertThat(results.get(i).get(5, TimeUnit.SECONDS)).containsExactly("text " + i);
+        }
+        assertThat(provider.batches).hasSize(1);
+        assertThat(meterRegistry.get(ClassificationBatcher.BATCH_SIZE_METRIC).summary().totalAmount())
+                .isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("a full batch is sent without waiting for the window")
+    void classify_fullBatch_isSentImmediately() throws Exception {
+        // Given
+        ClassificationBatcher batcher = new ClassificationBatcher(provider, Duration.ofSeconds(30), 2, meterRegistry);
+
+        // When
+        Future<List<String>> first = callers.submit(() -> batcher.classify("first"));
+        Future<List<String>> second = callers.submit(() -> batcher.classify("second"));
+
+        // Then
+        assertThat(first.get(5, TimeUnit.SECONDS)).containsExactly("first");
+        assertThat(second.get(5, TimeUnit.SECONDS)).containsExactly("second");
+        assertThat(provider.batches).containsExactly(2);
+    }
+
+    @Test
+    @DisplayName("a single call is sent alone once the window has passed")
+    void classify_singleCall_waitsForWindow() {
+        // Given
+        ClassificationBatcher batcher = new ClassificationBatcher(provider, Duration.ofMillis(20), 10, meterRegistry);
+
+        // When
+        List<String> labels = batcher.classify("alone");
+
+        // Then
+        assertThat(labels).containsExactly("alone");
+        assertThat(provider.batches).containsExactly(1);
+    }
+
+    @Test
+    @DisplayName("a failing provider call fails every call of the batch")
+    void classify_providerFailure_isRethrown() {
+        // Given
+        provider.failure = new IllegalStateException("rate limited");
+        ClassificationBatcher batcher = new ClassificationBatcher(provider, Duration.ZERO, 10, meterRegistry);
+
+        // When / Then
+        assertThatThrownBy(() -> batcher.classify("text"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("rate limited");
+    }
+
+    @Test
+    @DisplayName("an Error thrown by the provider fails every call of the batch instead of leaving them waiting")
+    void classify_providerError_failsEveryCall() throws Exception {
+        // Given
+        provider.error = new StackOverflowError();
+        ClassificationBatcher batcher = new ClassificationBatcher(provider, Duration.ofMillis(500), 2, meterRegistry);
+
+        // When
+        Future<List<String>> first = callers.submit(() -> batcher.classify("first"));
+        Future<List<String>> second = callers.submit(() -> batcher.classify("second"));
+
+        // Then
+        for (Future<List<String>> result : List.of(first, second)) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(StackOverflowError.class);
+        }
+    }
+
+    /**
+     * Provider labelling every text with itself and recording the size of each batch.
+     */
+    private static final class RecordingProvider implements AiProvider {
+
+        private final List<Integer> batches = new CopyOnWriteArrayList<>();
+        private RuntimeException failure;
+        private Error error;
+
+        @Override
+        public List<String> classify(String text) {
+            return List.of(text);
+        }
+
+        @Override
+        public List<List<String>> classifyBatch(List<String> texts) {
+            if (failure != null) {
+                throw failure;
+            }
+            if (error != null) {
+                throw error;
+            }
+            batches.add(texts.size());
+            return texts.stream().map(this::classify).toList();
+        }
+
+        @Override
+        public String summarize(String text) {
+            return text;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.greenwhitesolutions.servicedesk.ai.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for SemanticLabelCache.
+ */
+class SemanticLabelCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SemanticLabelCache cache;
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new SemanticLabelCache(256, 20, 10, 0.85, 100, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("a text differing in a detail gets the labels of the cached text")
+    void get_similarText_isCached() {
+        // When
+        List<String> first = cache.get("Printer on floor 3 is jammed", false, this::labels);
+        List<String> second = cache.get("Printer on floor 4 is jammed", false, this::labels);
+
+        // Then
+        assertThat(second).isEqualTo(first);
+        assertThat(calls).hasValue(1);
+        assertThat(meterRegistry.get("cache.gets").tags("cache", SemanticLabelCache.CACHE_NAME, "result", "hit")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("a reworded text gets the labels of the cached text")
+    void get_rewordedText_isCached() {
+        // When
+        cache.get("The amount on my invoice is wrong", false, this::labels);
+        List<String> labels = cache.get("My invoice amount is wrong", false, this::labels);
+
+        // Then
+        assertThat(labels).containsExactly("label-1");
+    }
+
+    @Test
+    @DisplayName("an unrelated text is classified")
+    void get_unrelatedText_isClassified() {
+        // When
+        cache.get("Printer on floor 3 is jammed", false, this::labels);
+        List<String> labels = cache.get("Wrong invoice amount", false, this::labels);
+
+        // Then
+        assertThat(labels).containsExactly("label-2");
+        assertThat(meterRegistry.get("cache.gets").tags("cache", SemanticLabelCache.CACHE_NAME, "result", "miss")
+                .counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("embeddings are normalized, so identical texts have a similarity of one")
+    void embed_isNormalized() {
+        // When
+        float[] embedding = cache.embed("Please reset my password");
+
+        // Then
+        assertThat(SemanticLabelCache.cosine(embedding, embedding)).isCloseTo(1.0, within(1e-6));
+        assertThat(cache.embed(" ?! ")).isNull();
+    }
+
+    @Test
+    @DisplayName("a bypassing request is classified even if a similar text is cached")
+    void get_bypass_classifies() {
+        // Given
+        cache.get("Printer on floor 3 is jammed", false, this::labels);
+
+        // When
+        List<String> labels = cache.get("Printer on floor 3 is jammed", true, this::labels);
+
+        // Then
+        assertThat(labels).containsExactly("label-2");
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("empty labels, which providers return after a failure, are not cached")
+    void get_emptyLabels_areNotCached() {
+        // Given
+        cache.get("Printer on floor 3 is jammed", false, text -> List.of());
+
+        // When
+        List<String> labels = cache.get("Printer on floor 3 is jammed", false, this::labels);
+
+        // Then
+        assertThat(labels).containsExactly("label-1");
+    }
+
+    @Test
+    @DisplayName("the oldest texts are forgotten beyond the maximum number of entries")
+    void get_beyondMaxEntries_evictsOldest() {
+        // Given
+        SemanticLabelCache small = new SemanticLabelCache(256, 20, 10, 0.85, 3, meterRegistry);
+        List<String> texts = List.of("Printer jammed", "Wrong invoice amount", "Password reset",
+                "VPN disconnects", "Laptop battery drains");
+
+        // When
+        texts.forEach(text -> small.get(text, false, this::labels));
+        List<String> first = small.get(texts.get(0), false, this::labels);
+
+        // Then
+        assertThat(small.size()).isEqualTo(3);
+        assertThat(first).containsExactly("label-6");
+    }
+
+    @Test
+    @DisplayName("a batch sends only the texts without a similar cached text")
+    void getAll_sendsOnlyMisses() {
+        // Given
+        cache.get("Printer on floor 3 is jammed", false, this::labels);
+        List<List<String>> sent = new ArrayList<>();
+        Function<List<String>, List<List<String>>> batch = texts -> {
+            sent.add(texts);
+            return texts.stream().map(this::labels).toList();
+        };
+
+        // When
+        List<List<String>> labels = cache.getAll(
+                List.of("Wrong invoice amount", "Printer on floor 4 is jammed", "VPN disconnects"), false, batch);
+
+        // Then
+        assertThat(sent).containsExactly(List.of("Wrong invoice amount", "VPN disconnects"));
+        assertThat(labels).containsExactly(List.of("label-2"), List.of("label-1"), List.of("label-3"));
+    }
+
+    @Test
+    @DisplayName("texts a batch call returned no labels for get empty labels and are not cached")
+    void getAll_fewerResults_fillsEmptyLabels() {
+        // Given
+        Function<List<String>, List<List<String>>> batch = texts -> List.of(labels(texts.get(0)));
+
+        // When
+        List<List<String>> labels = cache.getAll(List.of("Wrong invoice amount", "VPN disconnects"), false, batch);
+
+        // Then
+        assertThat(labels).containsExactly(List.of("label-1"), List.of());
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    private List<String> labels(String text) {
+        return List.of("label-" + calls.incrementAndGet());
+    }
+}
@@ -0,0 +1,61 @@
+package com.greenwhitesolutions.servicedesk.ai.provider;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the local work of the AI providers: the mock classification, and building the
+ * OpenAI prompts and parsing the returned labels around the remote call.
+ * In the provider package, since the prompt and parsing helpers are package-private.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AiProviderBenchmark {
+
+    private static final String TICKET_TEXT = "Since this morning the payment page shows an error when I try to "
+            + "pay my invoice. I have tried two browsers and cleared the cache, but the crash happens every time. "
+            + "Please help, our subscription expires tomorrow.";
+
+    private static final String LABELS_RESPONSE = " Billing, bug ,technical,  urgent ";
+
+    private final MockAiProvider mockProvider = new MockAiProvider();
+
+    @Benchmark
+    public List<String> mockClassify() {
+        return mockProvider.classify(TICKET_TEXT);
+    }
+
+    @Benchmark
+    public String mockSummarize() {
+        return mockProvider.summarize(TICKET_TEXT);
+    }
+
+    @Benchmark
+    public String openAiClassificationPrompt() {
+        return OpenAiProvider.buildClassificationPrompt(TICKET_TEXT);
+    }
+
+    @Benchmark
+    public String openAiSummarizationPrompt() {
+        return OpenAiProvider.buildSummarizationPrompt(TICKET_TEXT);
+    }
+
+    @Benchmark
+    public List<String> openAiParseLabels() {
+        return OpenAiProvider.parseLabels(LABELS_RESPONSE);
+    }
+}
@@ -0,0 +1,129 @@
+package com.greenwhitesolutions.servicedesk.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.greenwhitesolutions.servicedesk.ai.dto.ClassifyRequest;
+import com.greenwhitesolutions.servicedesk.ai.dto.ClassifyResponse;
+import com.greenwhitesolutions.servicedesk.ai.dto.SummarizeRequest;
+import com.greenwhitesolutions.servicedesk.ai.dto.SummarizeResponse;
+import com.greenwhitesolutions.servicedesk.ticket.model.ClassificationStatus;
+import com.greenwhitesolutions.servicedesk.ticket.model.CreateTicketRequest;
+import com.greenwhitesolutions.servicedesk.ticket.model.Ticket;
+import com.greenwhitesolutions.servicedesk.ticket.model.TicketPage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of Jackson round trips, serialize and deserialize, of the DTOs exchanged between
+ * clients, ticket-service and ai-service.
+ * Readers and writers are created once, as Spring MVC and WebClient reuse them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DtoJsonBenchmark {
+
+    private static final String DESCRIPTION = "Since this morning the payment page shows an error when I try "
+            + "to pay my invoice. I have tried two browsers and cleared the cache.";
+
+    private Ticket ticket;
+    private TicketPage page;
+    private CreateTicketRequest createRequest;
+    private ClassifyRequest classifyRequest;
+    private ClassifyResponse classifyResponse;
+    private SummarizeRequest summarizeRequest;
+    private SummarizeResponse summarizeResponse;
+
+    private ObjectWriter writer;
+    private ObjectReader ticketReader;
+    private ObjectReader createRequestReader;
+    private ObjectReader classifyRequestReader;
+    private ObjectReader classifyResponseReader;
+    private ObjectReader summarizeRequestReader;
+    private ObjectReader summarizeResponseReader;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ticket = new Ticket(1_234_567_890L, "Payment page error", DESCRIPTION, "billing",
+                List.of("billing", "bug", "urgent"), ClassificationStatus.CLASSIFIED, 1_234_567_000L);
+        List<Ticket> items = new ArrayList<>();
+        for (long id = 1; id <= 100; id++) {
+            items.add(new Ticket(id, "Ticket " + id, DESCRIPTION, "billing", List.of("billing", "bug"),
+                    ClassificationStatus.CLASSIFIED));
+        }
+        page = new TicketPage(items, 100L);
+        createRequest = new CreateTicketRequest("Payment page error", DESCRIPTION);
+        classifyRequest = new ClassifyRequest(DESCRIPTION);
+        classifyResponse = new ClassifyResponse(List.of("billing", "bug", "urgent"));
+        summarizeRequest = new SummarizeRequest(DESCRIPTION);
+        summarizeResponse = new SummarizeResponse("Payment page fails when paying an invoice.");
+
+        writer = objectMapper.writer();
+        ticketReader = objectMapper.readerFor(Ticket.class);
+        createRequestReader = objectMapper.readerFor(CreateTicketRequest.class);
+        classifyRequestReader = objectMapper.readerFor(ClassifyRequest.class);
+        classifyResponseReader = objectMapper.readerFor(ClassifyResponse.class);
+        summarizeRequestReader = objectMapper.readerFor(SummarizeRequest.class);
+        summarizeResponseReader = objectMapper.readerFor(SummarizeResponse.class);
+    }
+
+    @Benchmark
+    public Ticket ticket() throws IOException {
+        return roundTrip(ticket, ticketReader);
+    }
+
+    /**
+     * Serialization only: ticket-service writes pages, but never reads them.
+     */
+    @Benchmark
+    public byte[] ticketPage() throws IOException {
+        return writer.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public CreateTicketRequest createTicketRequest() throws IOException {
+        return roundTrip(createRequest, createRequestReader);
+    }
+
+    @Benchmark
+    public ClassifyRequest classifyRequest() throws IOException {
+        return roundTrip(classifyRequest, classifyRequestReader);
+    }
+
+    @Benchmark
+    public ClassifyResponse classifyResponse() throws IOException {
+        return roundTrip(classifyResponse, classifyResponseReader);
+    }
+
+    @Benchmark
+    public SummarizeRequest summarizeRequest() throws IOException {
+        return roundTrip(summarizeRequest, summarizeRequestReader);
+    }
+
+    @Benchmark
+    public SummarizeResponse summarizeResponse() throws IOException {
+        return roundTrip(summarizeResponse, summarizeResponseReader);
+    }
+
+    private <T> T roundTrip(T value, ObjectReader reader) throws IOException {
+        return reader.readValue(writer.writeValueAsBytes(value));
+    }
+}
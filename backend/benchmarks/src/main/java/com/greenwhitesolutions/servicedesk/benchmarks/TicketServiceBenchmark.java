@@ -0,0 +1,128 @@
+package com.greenwhitesolutions.servicedesk.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.greenwhitesolutions.servicedesk.ticket.client.AiClient;
+import com.greenwhitesolutions.servicedesk.ticket.config.TicketProperties;
+import com.greenwhitesolutions.servicedesk.ticket.model.CreateTicketRequest;
+import com.greenwhitesolutions.servicedesk.ticket.model.Ticket;
+import com.greenwhitesolutions.servicedesk.ticket.repository.TicketBackingStore;
+import com.greenwhitesolutions.servicedesk.ticket.service.TicketService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of ticket creation and of serializing all tickets, the work behind
+ * {@code POST /api/v1/tickets} and a full ticket export, with the AI service stubbed out.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TicketServiceBenchmark {
+
+    private static final List<String> LABELS = List.of("billing", "urgent");
+
+    private static final String[] WORDS = {"printer", "invoice", "vpn", "password", "laptop", "email",
+            "payment", "screen", "network", "account", "refund", "crash", "login", "update", "license"};
+
+    @State(Scope.Benchmark)
+    public static class CreateState {
+
+        @Param({"true", "false"})
+        public boolean deduplication;
+
+        TicketService ticketService;
+        CreateTicketRequest[] requests;
+        int next;
+
+        /**
+         * A fresh service every iteration, so the store does not grow for the whole run.
+         */
+        @Setup(Level.Iteration)
+        public void setUp() {
+            TicketProperties properties = new TicketProperties();
+            properties.getDeduplication().setEnabled(deduplication);
+            ticketService = new TicketService(new StubAiClient(), properties, null, TicketBackingStore.NONE);
+            requests = new CreateTicketRequest[4096];
+            for (int i = 0; i < requests.length; i++) {
+                requests[i] = new CreateTicketRequest("Ticket " + i, description(i));
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class StoreState {
+
+        @Param({"1000", "100000"})
+        public int tickets;
+
+        TicketService ticketService;
+        ObjectMapper objectMapper;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            TicketProperties properties = new TicketProperties();
+            properties.getDeduplication().setEnabled(false);
+            ticketService = new TicketService(new StubAiClient(), properties, null, TicketBackingStore.NONE);
+            for (int i = 0; i < tickets; i++) {
+                ticketService.createTicket(new CreateTicketRequest("Ticket " + i, description(i)));
+            }
+            objectMapper = new ObjectMapper();
+        }
+    }
+
+    @Benchmark
+    public Ticket createTicket(CreateState state) {
+        CreateTicketRequest request = state.requests[state.next++ & (state.requests.length - 1)];
+        return state.ticketService.createTicket(request);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public byte[] serializeAllTickets(StoreState state) throws JsonProcessingException {
+        Collection<Ticket> tickets = state.ticketService.getAllTickets();
+        return state.objectMapper.writeValueAsBytes(tickets);
+    }
+
+    private static String description(int seed) {
+        StringBuilder description = new StringBuilder("My ");
+        int value = seed;
+        for (int i = 0; i < 12; i++) {
+            description.append(WORDS[Math.floorMod(value, WORDS.length)]).append(' ');
+            value = value * 31 + 7;
+        }
+        return description.append("stopped working since this morning").toString();
+    }
+
+    /**
+     * AI client answering every classification immediately with the same labels.
+     */
+    static final class StubAiClient extends AiClient {
+
+        StubAiClient() {
+            super(WebClient.create());
+        }
+
+        @Override
+        public List<String> classify(String text) {
+            return LABELS;
+        }
+    }
+}
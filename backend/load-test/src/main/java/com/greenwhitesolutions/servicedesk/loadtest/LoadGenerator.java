@@ -0,0 +1,211 @@
+package com.greenwhitesolutions.servicedesk.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator: requests are sent at a constant arrival rate, whether or not earlier
+ * requests have been answered, like independent users would send them. A slow service therefore
+ * builds up outstanding requests and latency, as it would in production, instead of slowing the
+ * generator down (which a closed model with a fixed number of looping clients would do).
+ * <p>
+ * A single thread schedules the requests, each at {@code start + n / rate}; they are sent
+ * asynchronously and their responses handled on a small pool.
+ */
+public class LoadGenerator {
+
+    private static final String[] WORDS = {"printer", "invoice", "vpn", "password", "laptop", "email",
+            "payment", "screen", "network", "account", "refund", "crash", "login", "update", "license",
+            "monitor", "keyboard", "backup", "server", "certificate", "mailbox", "wifi", "browser", "access"};
+
+    private static final int RECENT_IDS = 4096;
+
+    private final LoadTestOptions options;
+    private final URI ticketsUri;
+    private final HttpClient client;
+    private final ExecutorService responseExecutor;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLongArray recentIds = new AtomicLongArray(RECENT_IDS);
+    private final AtomicLong createdCount = new AtomicLong();
+    private final SplittableRandom random = new SplittableRandom(42);
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    public LoadGenerator(LoadTestOptions options, String ticketUrl) {
+        this.options = options;
+        this.ticketsUri = URI.create(ticketUrl + "/api/v1/tickets");
+        this.responseExecutor = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(responseExecutor)
+                .build();
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+        Map<Operation, Integer> mix = options.getMix();
+        this.operations = mix.keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += mix.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    /**
+     * Send the traffic for the warm-up and the measured duration, then wait for the outstanding responses.
+     *
+     * @return the measurements of the requests due after the warm-up
+     * @throws InterruptedException if interrupted while waiting for outstanding responses
+     */
+    public LoadReport run() throws InterruptedException {
+        double nanosPerRequest = TimeUnit.SECONDS.toNanos(1) / options.getRate();
+        long start = System.nanoTime();
+        long measureFrom = start + options.getWarmup().toNanos();
+        long end = measureFrom + options.getDuration().toNanos();
+        long due = 0;
+        long sent = 0;
+        for (long n = 0; ; n++) {
+            long scheduled = start + (long) (n * nanosPerRequest);
+            if (scheduled - end >= 0) {
+                break;
+            }
+            long wait;
+            while ((wait = scheduled - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = pick();
+            OperationStats operationStats = scheduled - measureFrom >= 0 ? stats.get(operation) : null;
+            if (operationStats != null) {
+                due++;
+            }
+            if (inFlight.get() >= options.getMaxInFlight()) {
+                if (operationStats != null) {
+                    operationStats.skipped();
+                }
+                continue;
+            }
+            send(operation, scheduled, operationStats);
+            sent++;
+        }
+        long drainDeadline = System.nanoTime() + options.getRequestTimeout().toNanos() + TimeUnit.SECONDS.toNanos(5);
+        while (inFlight.get() > 0 && System.nanoTime() - drainDeadline < 0) {
+            Thread.sleep(50);
+        }
+        responseExecutor.shutdownNow();
+        return new LoadReport(options, stats, due, sent);
+    }
+
+    private void send(Operation operation, long scheduled, OperationStats operationStats) {
+        HttpRequest request = request(operation);
+        inFlight.incrementAndGet();
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .whenComplete((response, error) -> {
+                    inFlight.decrementAndGet();
+                    long latency = System.nanoTime() - scheduled;
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause() : error;
+                        record(operationStats, cause.getClass().getSimpleName(), latency);
+                    } else if (response.statusCode() >= 400) {
+                        record(operationStats, "HTTP " + response.statusCode(), latency);
+                    } else {
+                        if (operation == Operation.CREATE) {
+                            rememberId(response.body());
+                        }
+                        record(operationStats, null, latency);
+                    }
+                });
+    }
+
+    private static void record(OperationStats operationStats, String error, long latencyNanos) {
+        if (operationStats == null) {
+            return;
+        }
+        if (error != null) {
+            operationStats.failed(error);
+        } else {
+            operationStats.succeeded(latencyNanos);
+        }
+    }
+
+    private HttpRequest request(Operation operation) {
+        HttpRequest.Builder builder;
+        if (operation == Operation.GET && createdCount.get() > 0) {
+            long count = createdCount.get();
+            int slot = (int) random.nextLong(Math.min(count, RECENT_IDS));
+            builder = HttpRequest.newBuilder(URI.create(ticketsUri + "/" + recentIds.get(slot)));
+        } else if (operation == Operation.LIST) {
+            builder = HttpRequest.newBuilder(URI.create(ticketsUri + "?limit=50"));
+        } else if (operation == Operation.SEARCH) {
+            String query = URLEncoder.encode(WORDS[random.nextInt(WORDS.length)], StandardCharsets.UTF_8);
+            builder = HttpRequest.newBuilder(URI.create(ticketsUri + "/search?q=" + query + "&limit=20"));
+        } else {
+            // Also used for GET until the first ticket exists
+            ObjectNode body = objectMapper.createObjectNode()
+                    .put("title", "Load test ticket")
+                    .put("description", description());
+            builder = HttpRequest.newBuilder(ticketsUri)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body.toString()));
+        }
+        return builder.timeout(options.getRequestTimeout()).build();
+    }
+
+    /**
+     * A description of random words, so near-duplicate detection rarely skips the classification.
+     */
+    private String description() {
+        StringBuilder description = new StringBuilder("My");
+        for (int i = 0; i < 12; i++) {
+            description.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return description.append(" stopped working").toString();
+    }
+
+    private void rememberId(byte[] body) {
+        try {
+            JsonNode id = objectMapper.readTree(body).get("id");
+            if (id != null) {
+                long index = createdCount.getAndIncrement();
+                recentIds.set((int) (index % RECENT_IDS), id.asLong());
+            }
+        } catch (IOException e) {
+            // Not a ticket; the request itself succeeded, so only the id is lost
+        }
+    }
+
+    private Operation pick() {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+}
@@ -0,0 +1,128 @@
+package com.greenwhitesolutions.servicedesk.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Outcome of a load test run: throughput, error rate and latency percentiles per operation and in total.
+ */
+public class LoadReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+    private static final String ROW_FORMAT = "%-8s %9s %9s %8s %7s %9s %9s %9s %9s %9s %9s %9s%n";
+
+    private final LoadTestOptions options;
+    private final Map<Operation, OperationStats> stats;
+    private final long due;
+    private final long sent;
+
+    LoadReport(LoadTestOptions options, Map<Operation, OperationStats> stats, long due, long sent) {
+        this.options = options;
+        this.stats = stats;
+        this.due = due;
+        this.sent = sent;
+    }
+
+    /**
+     * Print a table of the results, latencies in milliseconds.
+     *
+     * @param out the stream to print to
+     */
+    public void print(PrintStream out) {
+        out.printf(Locale.ROOT, "Target rate %.1f/s for %s after %s warm-up: %d requests due, %d sent in total%n",
+                options.getRate(), options.getDuration(), options.getWarmup(), due, sent);
+        out.printf(Locale.ROOT, ROW_FORMAT, "op", "ok", "errors", "error%", "skipped", "ok/s",
+                "p50", "p90", "p99", "p99.9", "p99.99", "max");
+        Histogram total = new Histogram(OperationStats.HIGHEST_TRACKABLE_MICROS, 3);
+        long totalErrors = 0;
+        long totalSkipped = 0;
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            OperationStats operation = entry.getValue();
+            total.add(operation.histogram());
+            totalErrors += operation.failed();
+            totalSkipped += operation.skippedCount();
+            printRow(out, entry.getKey().label(), operation.histogram(), operation.failed(), operation.skippedCount());
+        }
+        printRow(out, "total", total, totalErrors, totalSkipped);
+        stats.forEach((operation, operationStats) -> operationStats.errors().forEach((cause, count) ->
+                out.printf(Locale.ROOT, "  %s errors: %d x %s%n", operation.label(), count, cause)));
+    }
+
+    /**
+     * Write {@code report.json} with the figures of the table, and the full latency distribution of
+     * every operation as {@code <operation>.hgrm}, in microseconds, which HdrHistogram's plotter reads.
+     *
+     * @param directory the directory to write to
+     * @throws IOException if the files cannot be written
+     */
+    public void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        ObjectNode report = objectMapper.createObjectNode()
+                .put("rate", options.getRate())
+                .put("durationSeconds", options.getDuration().toSeconds())
+                .put("warmupSeconds", options.getWarmup().toSeconds())
+                .put("due", due)
+                .put("sent", sent);
+        ObjectNode operations = report.putObject("operations");
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            OperationStats operationStats = entry.getValue();
+            Histogram histogram = operationStats.histogram();
+            ObjectNode operation = operations.putObject(entry.getKey().label())
+                    .put("ok", histogram.getTotalCount())
+                    .put("errors", operationStats.failed())
+                    .put("skipped", operationStats.skippedCount())
+                    .put("throughput", throughput(histogram.getTotalCount()));
+            ObjectNode latency = operation.putObject("latencyMillis");
+            for (double percentile : PERCENTILES) {
+                latency.put("p" + format(percentile), millis(histogram.getValueAtPercentile(percentile)));
+            }
+            latency.put("max", millis(histogram.getMaxValue()));
+            operationStats.errors().forEach(operation.putObject("errorCauses")::put);
+            try (PrintStream out = new PrintStream(
+                    Files.newOutputStream(directory.resolve(entry.getKey().label() + ".hgrm")))) {
+                histogram.outputPercentileDistribution(out, 1.0);
+            }
+        }
+        objectMapper.writeValue(directory.resolve("report.json").toFile(), report);
+    }
+
+    private void printRow(PrintStream out, String name, Histogram histogram, long errors, long skipped) {
+        long ok = histogram.getTotalCount();
+        long attempted = ok + errors + skipped;
+        Object[] columns = new Object[12];
+        columns[0] = name;
+        columns[1] = Long.toString(ok);
+        columns[2] = Long.toString(errors);
+        columns[3] = attempted == 0 ? "-" : String.format(Locale.ROOT, "%.2f", 100.0 * (errors + skipped) / attempted);
+        columns[4] = Long.toString(skipped);
+        columns[5] = String.format(Locale.ROOT, "%.1f", throughput(ok));
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            columns[6 + i] = ok == 0 ? "-" : String.format(Locale.ROOT, "%.1f",
+                    millis(histogram.getValueAtPercentile(PERCENTILES[i])));
+        }
+        columns[11] = ok == 0 ? "-" : String.format(Locale.ROOT, "%.1f", millis(histogram.getMaxValue()));
+        out.printf(Locale.ROOT, ROW_FORMAT, columns);
+    }
+
+    private double throughput(long count) {
+        return count / (options.getDuration().toMillis() / 1000.0);
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static String format(double percentile) {
+        return percentile == Math.rint(percentile) ? Long.toString((long) percentile) : Double.toString(percentile);
+    }
+}
@@ -0,0 +1,34 @@
+package com.greenwhitesolutions.servicedesk.loadtest;
+
+/**
+ * Entry point of the end-to-end load test. Starts ai-service and ticket-service unless
+ * {@code --ticket-url} points at running ones, drives the ticket API at the configured rate,
+ * then prints the results and writes them to the output directory.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+        LoadReport report;
+        if (options.getTicketUrl() != null) {
+            report = new LoadGenerator(options, options.getTicketUrl()).run();
+        } else {
+            try (LocalServices services = LocalServices.start(options)) {
+                report = new LoadGenerator(options, services.getTicketUrl()).run();
+            }
+        }
+        report.print(System.out);
+        report.write(options.getOutputDirectory());
+        System.out.println("Results written to " + options.getOutputDirectory().toAbsolutePath());
+    }
+}
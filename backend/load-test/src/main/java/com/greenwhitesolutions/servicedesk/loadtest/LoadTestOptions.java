@@ -0,0 +1,204 @@
+package com.greenwhitesolutions.servicedesk.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Command line options of the load test.
+ */
+public class LoadTestOptions {
+
+    private static final Pattern SIMPLE_DURATION = Pattern.compile("(\\d+)(ms|s|m|h)");
+
+    private double rate = 100;
+    private Duration duration = Duration.ofSeconds(60);
+    private Duration warmup = Duration.ofSeconds(15);
+    private Map<Operation, Integer> mix = new EnumMap<>(Map.of(
+            Operation.CREATE, 60, Operation.GET, 25, Operation.LIST, 10, Operation.SEARCH, 5));
+    private int maxInFlight = 10_000;
+    private Duration requestTimeout = Duration.ofSeconds(30);
+    private String ticketUrl;
+    private Duration aiLatency = Duration.ofMillis(500);
+    private Duration aiLatencyJitter = Duration.ofMillis(200);
+    private Path ticketJar;
+    private Path aiJar;
+    private List<String> jvmOptions = new ArrayList<>();
+    private Map<String, String> ticketProperties = new LinkedHashMap<>();
+    private Map<String, String> aiProperties = new LinkedHashMap<>();
+    private Path outputDirectory = Path.of("load-test-results");
+
+    /**
+     * Parse the command line.
+     *
+     * @param args options of the form {@code --name value}
+     * @return the options
+     * @throws IllegalArgumentException if an option is unknown or its value is invalid
+     */
+    public static LoadTestOptions parse(String... args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (int i = 0; i < args.length; i++) {
+            String name = args[i];
+            if (!name.startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --name value but got: " + name);
+            }
+            String value = args[++i];
+            switch (name) {
+                case "--rate" -> options.rate = positive(name, Double.parseDouble(value));
+                case "--duration" -> options.duration = parseDuration(value);
+                case "--warmup" -> options.warmup = parseDuration(value);
+                case "--mix" -> options.mix = parseMix(value);
+                case "--max-in-flight" -> options.maxInFlight = (int) positive(name, Integer.parseInt(value));
+                case "--request-timeout" -> options.requestTimeout = parseDuration(value);
+                case "--ticket-url" -> options.ticketUrl = value;
+                case "--ai-latency" -> options.aiLatency = parseDuration(value);
+                case "--ai-latency-jitter" -> options.aiLatencyJitter = parseDuration(value);
+                case "--ticket-jar" -> options.ticketJar = Path.of(value);
+                case "--ai-jar" -> options.aiJar = Path.of(value);
+                case "--jvm-option" -> options.jvmOptions.add(value);
+                case "--ticket-property" -> putProperty(options.ticketProperties, value);
+                case "--ai-property" -> putProperty(options.aiProperties, value);
+                case "--output" -> options.outputDirectory = Path.of(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + name);
+            }
+        }
+        return options;
+    }
+
+    /**
+     * Parse a duration such as {@code 500ms}, {@code 30s}, {@code 5m}, {@code 1h} or an ISO-8601 duration.
+     */
+    static Duration parseDuration(String value) {
+        Matcher matcher = SIMPLE_DURATION.matcher(value.trim());
+        if (!matcher.matches()) {
+            try {
+                return Duration.parse(value);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid duration: " + value, e);
+            }
+        }
+        long amount = Long.parseLong(matcher.group(1));
+        return switch (matcher.group(2)) {
+            case "ms" -> Duration.ofMillis(amount);
+            case "s" -> Duration.ofSeconds(amount);
+            case "m" -> Duration.ofMinutes(amount);
+            default -> Duration.ofHours(amount);
+        };
+    }
+
+    /**
+     * Parse an operation mix such as {@code create=70,get=30}. Weights are relative.
+     */
+    static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected operation=weight but got: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight: " + entry);
+            }
+            mix.put(Operation.fromLabel(parts[0]), weight);
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("The operation mix is empty: " + value);
+        }
+        return mix;
+    }
+
+    private static void putProperty(Map<String, String> properties, String value) {
+        String[] parts = value.split("=", 2);
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Expected name=value but got: " + value);
+        }
+        properties.put(parts[0], parts[1]);
+    }
+
+    private static double positive(String name, double value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " must be positive: " + value);
+        }
+        return value;
+    }
+
+    /**
+     * Target request rate per second, independent of how fast responses arrive.
+     */
+    public double getRate() {
+        return rate;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    /**
+     * Time the traffic runs before measuring, so the services are JIT-compiled and pools are filled.
+     */
+    public Duration getWarmup() {
+        return warmup;
+    }
+
+    public Map<Operation, Integer> getMix() {
+        return mix;
+    }
+
+    /**
+     * Maximum outstanding requests; requests due while this many are outstanding are not sent and count as errors.
+     */
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public Duration getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    /**
+     * URL of a running ticket-service to test instead of starting the services locally, or null.
+     */
+    public String getTicketUrl() {
+        return ticketUrl;
+    }
+
+    public Duration getAiLatency() {
+        return aiLatency;
+    }
+
+    public Duration getAiLatencyJitter() {
+        return aiLatencyJitter;
+    }
+
+    public Path getTicketJar() {
+        return ticketJar;
+    }
+
+    public Path getAiJar() {
+        return aiJar;
+    }
+
+    public List<String> getJvmOptions() {
+        return jvmOptions;
+    }
+
+    public Map<String, String> getTicketProperties() {
+        return ticketProperties;
+    }
+
+    public Map<String, String> getAiProperties() {
+        return aiProperties;
+    }
+
+    public Path getOutputDirectory() {
+        return outputDirectory;
+    }
+}
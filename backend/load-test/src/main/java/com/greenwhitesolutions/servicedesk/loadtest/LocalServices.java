@@ -0,0 +1,168 @@
+package com.greenwhitesolutions.servicedesk.loadtest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * ai-service and ticket-service started as child processes from their executable jars, each in
+ * its own JVM so the services do not share a heap or garbage collector with the load generator.
+ * ai-service runs with the mock provider and the configured artificial latency. ticket-service
+ * uses the database and Redis of its default configuration, e.g. from {@code infrastructure/docker-compose.yml}.
+ * The output of each service is written to a log file in the output directory.
+ */
+public class LocalServices implements AutoCloseable {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    private final List<Process> processes = new ArrayList<>();
+    private final String ticketUrl;
+
+    private LocalServices(LoadTestOptions options) throws IOException, InterruptedException {
+        try {
+            Files.createDirectories(options.getOutputDirectory());
+            int aiPort = freePort();
+            int ticketPort = freePort();
+            String aiUrl = "http://localhost:" + aiPort;
+            this.ticketUrl = "http://localhost:" + ticketPort;
+
+            List<String> aiArgs = new ArrayList<>(List.of(
+                    "--server.port=" + aiPort,
+                    "--app.ai.provider=mock",
+                    "--app.ai.mock.latency=" + options.getAiLatency().toMillis() + "ms",
+                    "--app.ai.mock.latency-jitter=" + options.getAiLatencyJitter().toMillis() + "ms"));
+            addProperties(aiArgs, options.getAiProperties());
+            start("ai-service", jar(options.getAiJar(), "ai-service"), aiArgs, options);
+            awaitHttp(aiUrl + "/api-docs");
+
+            List<String> ticketArgs = new ArrayList<>(List.of(
+                    "--server.port=" + ticketPort,
+                    "--app.ai-service.url=" + aiUrl,
+                    "--app.ai-service.urls="));
+            addProperties(ticketArgs, options.getTicketProperties());
+            start("ticket-service", jar(options.getTicketJar(), "ticket-service"), ticketArgs, options);
+            awaitHttp(ticketUrl + "/actuator/health");
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Start both services and wait until they answer HTTP requests.
+     *
+     * @param options the load test options
+     * @return the running services
+     * @throws IOException if a service cannot be started
+     * @throws InterruptedException if interrupted while waiting for the services
+     */
+    public static LocalServices start(LoadTestOptions options) throws IOException, InterruptedException {
+        return new LocalServices(options);
+    }
+
+    public String getTicketUrl() {
+        return ticketUrl;
+    }
+
+    @Override
+    public void close() {
+        for (Process process : processes) {
+            process.destroy();
+        }
+        for (Process process : processes) {
+            try {
+                if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void start(String name, Path jar, List<String> args, LoadTestOptions options) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(options.getJvmOptions());
+        command.add("-jar");
+        command.add(jar.toString());
+        command.addAll(args);
+        Path log = options.getOutputDirectory().resolve(name + ".log");
+        System.out.printf("Starting %s (log: %s)%n", name, log);
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        processes.add(process);
+    }
+
+    /**
+     * Poll the URL until it answers with any status, which means the web server is up.
+     */
+    private void awaitHttp(String url) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(5)).build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() - deadline < 0) {
+            for (Process process : processes) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("A service exited during startup, see its log");
+                }
+            }
+            try {
+                client.send(request, HttpResponse.BodyHandlers.discarding());
+                return;
+            } catch (IOException e) {
+                Thread.sleep(500);
+            }
+        }
+        throw new IllegalStateException("No answer from " + url + " within " + STARTUP_TIMEOUT);
+    }
+
+    private static void addProperties(List<String> args, Map<String, String> properties) {
+        properties.forEach((name, value) -> args.add("--" + name + "=" + value));
+    }
+
+    /**
+     * Find the executable jar of a module in its target directory, relative to the backend or the load-test directory.
+     */
+    private static Path jar(Path configured, String module) throws IOException {
+        if (configured != null) {
+            return configured;
+        }
+        for (Path target : List.of(Path.of(module, "target"), Path.of("..", module, "target"))) {
+            if (!Files.isDirectory(target)) {
+                continue;
+            }
+            try (Stream<Path> files = Files.list(target)) {
+                List<Path> jars = files.filter(file -> file.getFileName().toString().endsWith(".jar")).toList();
+                if (jars.size() == 1) {
+                    return jars.get(0);
+                }
+            }
+        }
+        throw new IllegalStateException("No executable jar of " + module + " found; run mvn package first"
+                + " or pass --" + (module.startsWith("ai") ? "ai" : "ticket") + "-jar");
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
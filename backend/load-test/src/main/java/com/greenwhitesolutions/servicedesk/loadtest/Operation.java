@@ -0,0 +1,37 @@
+package com.greenwhitesolutions.servicedesk.loadtest;
+
+import java.util.Locale;
+
+/**
+ * Ticket API operations the load generator sends.
+ */
+public enum Operation {
+
+    /**
+     * {@code POST /api/v1/tickets}, which classifies the description through ai-service.
+     */
+    CREATE,
+
+    /**
+     * {@code GET /api/v1/tickets/{id}} of a ticket created earlier in the run.
+     */
+    GET,
+
+    /**
+     * {@code GET /api/v1/tickets?limit=50}.
+     */
+    LIST,
+
+    /**
+     * {@code GET /api/v1/tickets/search?q=...} for a single word.
+     */
+    SEARCH;
+
+    public String label() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static Operation fromLabel(String label) {
+        return valueOf(label.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,74 @@
+package com.greenwhitesolutions.servicedesk.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and outcome counts of one operation during the measured part of a run.
+ * Latencies are recorded in microseconds from the time a request was due, not from when it was
+ * sent, so a stalled generator or a full connection pool shows up in the percentiles instead of
+ * hiding queueing delay (coordinated omission).
+ */
+final class OperationStats {
+
+    static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final Recorder latency = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private Histogram histogram;
+
+    void succeeded(long latencyNanos) {
+        latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS));
+        succeeded.increment();
+    }
+
+    /**
+     * Count a failed request by cause, an HTTP status or an exception name.
+     */
+    void failed(String cause) {
+        errors.computeIfAbsent(cause, key -> new LongAdder()).increment();
+    }
+
+    /**
+     * Count a request that was due but not sent, because too many requests were outstanding.
+     */
+    void skipped() {
+        skipped.increment();
+    }
+
+    long succeeded() {
+        return succeeded.sum();
+    }
+
+    long skippedCount() {
+        return skipped.sum();
+    }
+
+    Map<String, Long> errors() {
+        Map<String, Long> counts = new TreeMap<>();
+        errors.forEach((cause, count) -> counts.put(cause, count.sum()));
+        return counts;
+    }
+
+    long failed() {
+        return errors.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    /**
+     * Get the latencies of the successful requests. Call once the run is over.
+     */
+    synchronized Histogram histogram() {
+        if (histogram == null) {
+            histogram = latency.getIntervalHistogram();
+        }
+        return histogram;
+    }
+}
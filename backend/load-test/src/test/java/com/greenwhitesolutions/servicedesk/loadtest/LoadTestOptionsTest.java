@@ -0,0 +1,61 @@
+package com.greenwhitesolutions.servicedesk.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for LoadTestOptions.
+ */
+class LoadTestOptionsTest {
+
+    @Test
+    @DisplayName("options override the defaults")
+    void parse_overridesDefaults() {
+        // When
+        LoadTestOptions options = LoadTestOptions.parse("--rate", "250", "--duration", "2m",
+                "--ai-latency", "800ms", "--ticket-property", "app.tickets.store-enabled=false");
+
+        // Then
+        assertThat(options.getRate()).isEqualTo(250);
+        assertThat(options.getDuration()).isEqualTo(Duration.ofMinutes(2));
+        assertThat(options.getAiLatency()).isEqualTo(Duration.ofMillis(800));
+        assertThat(options.getWarmup()).isEqualTo(Duration.ofSeconds(15));
+        assertThat(options.getTicketProperties()).containsExactly(entry("app.tickets.store-enabled", "false"));
+    }
+
+    @Test
+    @DisplayName("durations accept a unit suffix or ISO-8601")
+    void parseDuration_acceptsSuffixAndIso() {
+        assertThat(LoadTestOptions.parseDuration("500ms")).isEqualTo(Duration.ofMillis(500));
+        assertThat(LoadTestOptions.parseDuration("30s")).isEqualTo(Duration.ofSeconds(30));
+        assertThat(LoadTestOptions.parseDuration("PT1H")).isEqualTo(Duration.ofHours(1));
+        assertThatThrownBy(() -> LoadTestOptions.parseDuration("soon"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("the operation mix is parsed by label")
+    void parseMix_parsesWeights() {
+        assertThat(LoadTestOptions.parseMix("create=70, get=30"))
+                .containsExactly(entry(Operation.CREATE, 70), entry(Operation.GET, 30));
+    }
+
+    @Test
+    @DisplayName("invalid options are rejected")
+    void parse_invalidOptions_areRejected() {
+        assertThatThrownBy(() -> LoadTestOptions.parse("--rate", "0"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LoadTestOptions.parse("--mix", "create=0"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LoadTestOptions.parse("--unknown", "1"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LoadTestOptions.parse("--rate"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
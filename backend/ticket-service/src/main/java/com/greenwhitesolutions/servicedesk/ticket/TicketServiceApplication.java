@@ -2,8 +2,13 @@ package com.greenwhitesolutions.servicedesk.ticket;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+
+import com.greenwhitesolutions.servicedesk.ticket.config.AiServiceProperties;
+import com.greenwhitesolutions.servicedesk.ticket.config.TicketProperties;
 
 @SpringBootApplication
+@EnableConfigurationProperties({TicketProperties.class, AiServiceProperties.class})
 public class TicketServiceApplication {
 
     public static void main(String[] args) {
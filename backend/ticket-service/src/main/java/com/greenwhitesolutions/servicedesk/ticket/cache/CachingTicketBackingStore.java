@@ -0,0 +1,164 @@
+package com.greenwhitesolutions.servicedesk.ticket.cache;
+
+import com.greenwhitesolutions.servicedesk.ticket.model.Ticket;
+import com.greenwhitesolutions.servicedesk.ticket.repository.TicketBackingStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Backing store decorator that caches tickets in Redis.
+ * The backing store is only read for tickets missing from the in-memory store, so the cache
+ * serves cold reads, for example after a restart. Reads are served from the cache and fall back
+ * to the delegate on a miss, populating the cache only if no newer write landed in the meantime.
+ * <p>
+ * Writes go to the delegate on the calling thread and reach the cache in the background, so
+ * requests never wait for Redis. Writes to the same ticket are coalesced until the cache writer
+ * picks them up, and a failed cache write evicts the stale entry.
+ * Redis errors never fail a request: the cache is bypassed and the delegate is used instead.
+ */
+public class CachingTicketBackingStore implements TicketBackingStore {
+
+    private static final Logger log = LoggerFactory.getLogger(CachingTicketBackingStore.class);
+
+    private static final String KEY_PREFIX = "ticket:";
+
+    private final TicketBackingStore delegate;
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    private final Duration ttl;
+    private final Map<Long, Ticket> unwritten = new ConcurrentHashMap<>();
+    private final AtomicBoolean writeRequested = new AtomicBoolean();
+    private final ExecutorService writer;
+
+    public CachingTicketBackingStore(TicketBackingStore delegate, RedisTemplate<String, byte[]> redisTemplate,
+                                     Duration ttl) {
+        this.delegate = delegate;
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ticket-cache-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void insert(Ticket ticket) {
+        delegate.insert(ticket);
+        enqueue(ticket);
+    }
+
+    @Override
+    public void update(Ticket ticket) {
+        delegate.update(ticket);
+        enqueue(ticket);
+    }
+
+    @Override
+    public Optional<Ticket> findById(Long id) {
+        try {
+            byte[] cached = redisTemplate.opsForValue().get(key(id));
+            if (cached != null) {
+                return Optional.of(TicketCodec.decode(cached));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Ticket cache read failed for id {}: {}", id, e.getMessage());
+            return delegate.findById(id);
+        }
+
+        Optional<Ticket> ticket = delegate.findById(id);
+        ticket.ifPresent(this::putIfAbsent);
+        return ticket;
+    }
+
+    @Override
+    public Optional<Long> findMaxId() {
+        return delegate.findMaxId();
+    }
+
+    @Override
+    public List<Ticket> findAll() {
+        return delegate.findAll();
+    }
+
+    /**
+     * Stop the cache writer, writing the tickets it has not picked up yet.
+     */
+    public void shutdown() throws InterruptedException {
+        writer.shutdown();
+        if (!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+            writer.shutdownNow();
+        }
+        writeUnwritten();
+    }
+
+    /**
+     * Remove a ticket from the cache.
+     *
+     * @param id the ticket ID
+     */
+    public void evict(Long id) {
+        try {
+            redisTemplate.delete(key(id));
+        } catch (RuntimeException e) {
+            log.warn("Ticket cache eviction failed for id {}: {}", id, e.getMessage());
+        }
+    }
+
+    private void enqueue(Ticket ticket) {
+        unwritten.put(ticket.getId(), ticket);
+        if (writeRequested.compareAndSet(false, true)) {
+            try {
+                writer.execute(this::writeUnwritten);
+            } catch (RejectedExecutionException e) {
+                writeRequested.set(false);
+            }
+        }
+    }
+
+    /**
+     * Write the tickets changed since the last run. Runs on the single cache writer thread, so
+     * writes to the same ticket reach Redis in order.
+     */
+    private void writeUnwritten() {
+        writeRequested.set(false);
+        for (Long id : unwritten.keySet()) {
+            Ticket ticket = unwritten.remove(id);
+            if (ticket != null) {
+                put(ticket);
+            }
+        }
+    }
+
+    private void put(Ticket ticket) {
+        try {
+            redisTemplate.opsForValue().set(key(ticket.getId()), TicketCodec.encode(ticket), ttl);
+        } catch (RuntimeException e) {
+            log.warn("Ticket cache write failed for id {}, evicting: {}", ticket.getId(), e.getMessage());
+            evict(ticket.getId());
+        }
+    }
+
+    private void putIfAbsent(Ticket ticket) {
+        try {
+            redisTemplate.opsForValue().setIfAbsent(key(ticket.getId()), TicketCodec.encode(ticket), ttl);
+        } catch (RuntimeException e) {
+            log.warn("Ticket cache populate failed for id {}: {}", ticket.getId(), e.getMessage());
+        }
+    }
+
+    private static String key(Long id) {
+        return KEY_PREFIX + id;
+    }
+}
@@ -0,0 +1,137 @@
+package com.greenwhitesolutions.servicedesk.ticket.cache;
+
+import com.greenwhitesolutions.servicedesk.ticket.model.ClassificationStatus;
+import com.greenwhitesolutions.servicedesk.ticket.model.Ticket;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary encoding of tickets.
+ * Strings are length-prefixed UTF-8 and the status is a single byte, which is several times
+ * smaller than the JSON form and needs no reflection to decode.
+ */
+public final class TicketCodec {
+
+    private static final byte FORMAT_VERSION = 2;
+    private static final long NO_PARENT = -1;
+    private static final int NULL_LENGTH = -1;
+    private static final ClassificationStatus[] STATUSES = ClassificationStatus.values();
+
+    private TicketCodec() {
+    }
+
+    /**
+     * Encode a ticket to bytes.
+     *
+     * @param ticket the ticket to encode
+     * @return the encoded ticket
+     */
+    public static byte[] encode(Ticket ticket) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            write(ticket, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decode a ticket from bytes produced by {@link #encode(Ticket)}.
+     *
+     * @param data the encoded ticket
+     * @return the decoded ticket
+     */
+    public static Ticket decode(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            return read(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Write a ticket to the given output.
+     *
+     * @param ticket the ticket to write
+     * @param out the output to write to
+     * @throws IOException if writing fails
+     */
+    public static void write(Ticket ticket, DataOutput out) throws IOException {
+        out.writeByte(FORMAT_VERSION);
+        out.writeLong(ticket.getId());
+        out.writeByte(ticket.getClassificationStatus() == null ? -1 : ticket.getClassificationStatus().ordinal());
+        writeString(out, ticket.getTitle());
+        writeString(out, ticket.getDescription());
+        writeString(out, ticket.getCategory());
+        out.writeLong(ticket.getParentId() == null ? NO_PARENT : ticket.getParentId());
+        List<String> labels = ticket.getLabels();
+        out.writeShort(labels == null ? NULL_LENGTH : labels.size());
+        if (labels != null) {
+            for (String label : labels) {
+                writeString(out, label);
+            }
+        }
+    }
+
+    /**
+     * Read a ticket written by {@link #write(Ticket, DataOutput)}.
+     * Tickets written in the previous format, without a parent id, can still be read.
+     *
+     * @param in the input to read from
+     * @return the ticket
+     * @throws IOException if reading fails or the data has an unknown format
+     */
+    public static Ticket read(DataInput in) throws IOException {
+        byte version = in.readByte();
+        if (version != FORMAT_VERSION && version != 1) {
+            throw new IOException("Unsupported ticket format version: " + version);
+        }
+        long id = in.readLong();
+        byte status = in.readByte();
+        String title = readString(in);
+        String description = readString(in);
+        String category = readString(in);
+        long parentId = version == 1 ? NO_PARENT : in.readLong();
+        short labelCount = in.readShort();
+        List<String> labels = null;
+        if (labelCount != NULL_LENGTH) {
+            labels = new ArrayList<>(labelCount);
+            for (int i = 0; i < labelCount; i++) {
+                labels.add(readString(in));
+            }
+        }
+        return new Ticket(id, title, description, category, labels, status < 0 ? null : STATUSES[status],
+                parentId == NO_PARENT ? null : parentId);
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
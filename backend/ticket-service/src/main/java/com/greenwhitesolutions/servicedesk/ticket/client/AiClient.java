@@ -1,23 +1,124 @@
 package com.greenwhitesolutions.servicedesk.ticket.client;
 
+import com.greenwhitesolutions.servicedesk.ticket.config.AiServiceProperties;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Client for communicating with the AI service.
+ * Requests are balanced across the configured replicas by least outstanding requests, and a
+ * request still unanswered after the recent p95 latency is hedged to a second replica, as long as
+ * the hedge budget allows: only a share of requests, {@code hedging.budget-ratio}, may be hedged.
+ * The p95 latency covers every call sent, including failed calls and hedged copies that lost.
+ * Calls are limited by a bulkhead and guarded by a circuit breaker, both named {@value #RESILIENCE_NAME}.
+ * When the breaker is open or the bulkhead is full, classification fails fast with an empty
+ * result, so tickets fall back to the general category instead of waiting for a degraded ai-service.
+ * <p>
+ * Several texts can be classified with one call to the batch endpoint, which is not hedged.
+ * <p>
+ * Classifications are timed as {@value #REQUESTS_METRIC}, tagged with the operation, classify or
+ * classify-batch, and their outcome: success, timeout, error, or fallback when the breaker or
+ * bulkhead rejected the call without sending it. Hedges are counted as {@value #HEDGES_METRIC},
+ * tagged sent or over-budget.
  */
 @Component
 public class AiClient {
 
-    private final WebClient webClient;
+    /**
+     * Name of the circuit breaker and bulkhead instances configured under resilience4j.*.
+     */
+    public static final String RESILIENCE_NAME = "ai-service";
+
+    /**
+     * Maximum number of texts the batch endpoint of the AI service accepts in one request.
+     */
+    public static final int MAX_BATCH_SIZE = 500;
+
+    /**
+     * Latency percentile after which a hedged copy of a request is sent.
+     */
+    private static final double HEDGE_PERCENTILE = 0.95;
+
+    static final String REQUESTS_METRIC = "ai.client.requests";
+    static final String HEDGES_METRIC = "ai.client.hedges";
+
+    private static final Logger log = LoggerFactory.getLogger(AiClient.class);
+
+    private final List<Endpoint> endpoints;
+    private final Duration timeout;
+    private final Duration batchTimeout;
+    private final AiServiceProperties.Hedging hedging;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final LatencyTracker latency = new LatencyTracker(HEDGE_PERCENTILE);
+    private final HedgeBudget hedgeBudget;
+    private final Counter hedgesSent;
+    private final Counter hedgesOverBudget;
+    private final AtomicInteger nextEndpoint = new AtomicInteger();
+    private final OutcomeTimers classifyTimers;
+    private final OutcomeTimers batchTimers;
 
     public AiClient(WebClient aiServiceWebClient) {
-        this.webClient = aiServiceWebClient;
+        this(List.of(aiServiceWebClient), new AiServiceProperties(), CircuitBreakerRegistry.ofDefaults(),
+                BulkheadRegistry.ofDefaults());
+    }
+
+    @Autowired
+    public AiClient(WebClient.Builder webClientBuilder, AiServiceProperties properties,
+                    CircuitBreakerRegistry circuitBreakerRegistry, BulkheadRegistry bulkheadRegistry,
+                    MeterRegistry meterRegistry) {
+        this(properties.getEndpoints().stream()
+                        .map(url -> webClientBuilder.clone().baseUrl(url).build())
+                        .toList(),
+                properties, circuitBreakerRegistry, bulkheadRegistry, meterRegistry);
+    }
+
+    public AiClient(List<WebClient> replicas, AiServiceProperties properties,
+                    CircuitBreakerRegistry circuitBreakerRegistry, BulkheadRegistry bulkheadRegistry) {
+        this(replicas, properties, circuitBreakerRegistry, bulkheadRegistry, new SimpleMeterRegistry());
+    }
+
+    public AiClient(List<WebClient> replicas, AiServiceProperties properties,
+                    CircuitBreakerRegistry circuitBreakerRegistry, BulkheadRegistry bulkheadRegistry,
+                    MeterRegistry meterRegistry) {
+        this.endpoints = replicas.stream().map(Endpoint::new).toList();
+        this.timeout = properties.getTimeout();
+        this.batchTimeout = properties.getBatchTimeout();
+        this.hedging = properties.getHedging();
+        this.hedgeBudget = new HedgeBudget(hedging.getBudgetRatio(), hedging.getBudgetBurst());
+        this.hedgesSent = hedgeCounter(meterRegistry, "sent");
+        this.hedgesOverBudget = hedgeCounter(meterRegistry, "over-budget");
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(RESILIENCE_NAME);
+        this.bulkhead = bulkheadRegistry.bulkhead(RESILIENCE_NAME);
+        this.classifyTimers = OutcomeTimers.of(meterRegistry, "classify");
+        this.batchTimers = OutcomeTimers.of(meterRegistry, "classify-batch");
     }
 
     /**
@@ -27,19 +128,251 @@ public class AiClient {
      * @return a list of classification labels
      */
     public List<String> classify(String text) {
-        try {
-            ClassifyResponse response = webClient.post()
+        List<String> labels = classifyAsync(text).block();
+        return labels != null ? labels : Collections.emptyList();
+    }
+
+    /**
+     * Classify the given text using the AI service without blocking.
+     *
+     * @param text the text to classify
+     * @return a Mono emitting the classification labels, or an empty list if the AI service is unavailable
+     */
+    public Mono<List<String>> classifyAsync(String text) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return hedged(text)
+                    .timeout(timeout)
+                    .transformDeferred(BulkheadOperator.of(bulkhead))
+                    .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                    .map(response -> response.labels() != null ? response.labels() : Collections.<String>emptyList())
+                    .defaultIfEmpty(Collections.emptyList())
+                    .doOnSuccess(labels -> classifyTimers.success().record(System.nanoTime() - start,
+                            TimeUnit.NANOSECONDS))
+                    // Return empty list if AI service is unavailable
+                    .onErrorResume(e -> {
+                        log.debug("Classification failed, using fallback: {}", e.toString());
+                        classifyTimers.forError(e).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        return Mono.just(Collections.emptyList());
+                    });
+        });
+    }
+
+    /**
+     * Classify several texts with a single call to the batch endpoint of the AI service, without blocking.
+     *
+     * @param texts the texts to classify, none of them blank, at most {@value #MAX_BATCH_SIZE}
+     * @return a Mono emitting the labels of every text in order; texts that could not be classified,
+     *         for example because the AI service is unavailable, get an empty list
+     */
+    public Mono<List<List<String>>> classifyBatchAsync(List<String> texts) {
+        if (texts.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " texts can be classified at once, got "
+                    + texts.size());
+        }
+        if (texts.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return callBatch(select(null), texts)
+                    .timeout(batchTimeout)
+                    .transformDeferred(BulkheadOperator.of(bulkhead))
+                    .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                    .map(response -> labelsOf(response, texts.size()))
+                    .switchIfEmpty(Mono.fromSupplier(() -> unclassified(texts.size())))
+                    .doOnSuccess(labels -> batchTimers.success().record(System.nanoTime() - start,
+                            TimeUnit.NANOSECONDS))
+                    .onErrorResume(e -> {
+                        log.debug("Batch classification of {} texts failed, using fallback: {}", texts.size(),
+                                e.toString());
+                        batchTimers.forError(e).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        return Mono.just(unclassified(texts.size()));
+                    });
+        });
+    }
+
+    /**
+     * Get the circuit breaker guarding calls to the AI service.
+     *
+     * @return the circuit breaker
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Get the labels of every text from a batch response. Missing results count as failed classifications.
+     */
+    private static List<List<String>> labelsOf(BatchClassifyResponse response, int size) {
+        List<List<String>> labels = new ArrayList<>(size);
+        List<ClassifyResponse> results = response.results() != null ? response.results() : List.of();
+        for (int i = 0; i < size; i++) {
+            ClassifyResponse result = i < results.size() ? results.get(i) : null;
+            labels.add(result != null && result.labels() != null ? result.labels() : Collections.emptyList());
+        }
+        return labels;
+    }
+
+    private static List<List<String>> unclassified(int size) {
+        return Collections.nCopies(size, Collections.emptyList());
+    }
+
+    /**
+     * Send the classification to the least loaded replica. If it has not answered within the
+     * recent p95 latency, send a copy to the next least loaded replica and keep whichever answers
+     * first; the other request is cancelled. Without a token in the hedge budget, no copy is sent.
+     */
+    private Mono<ClassifyResponse> hedged(String text) {
+        Endpoint primary = select(null);
+        Mono<ClassifyResponse> first = call(primary, text);
+        Duration delay = hedgeDelay();
+        if (delay == null) {
+            return first;
+        }
+        hedgeBudget.deposit();
+        Mono<ClassifyResponse> second = Mono.delay(delay).then(Mono.defer(() -> {
+            if (!hedgeBudget.tryWithdraw()) {
+                hedgesOverBudget.increment();
+                return Mono.empty();
+            }
+            hedgesSent.increment();
+            return call(select(primary), text);
+        }));
+        return Mono.firstWithValue(first, second);
+    }
+
+    private Mono<ClassifyResponse> call(Endpoint endpoint, String text) {
+        return Mono.defer(() -> {
+            Runnable release = endpoint.acquire();
+            long start = System.nanoTime();
+            AtomicBoolean done = new AtomicBoolean();
+            // Failed and cancelled calls took at least this long too; leaving them out would bias the p95 low
+            Runnable complete = () -> {
+                release.run();
+                if (done.compareAndSet(false, true)) {
+                    latency.record(System.nanoTime() - start);
+                }
+            };
+            // Release before the result is passed on, so the next request already sees the replica as idle
+            return endpoint.webClient.post()
                     .uri("/api/v1/ai/classify")
                     .contentType(MediaType.APPLICATION_JSON)
                     .bodyValue(Map.of("text", text))
                     .retrieve()
                     .bodyToMono(ClassifyResponse.class)
-                    .block();
+                    .doOnSuccess(response -> complete.run())
+                    .doOnError(e -> complete.run())
+                    .doOnCancel(complete);
+        });
+    }
+
+    private Mono<BatchClassifyResponse> callBatch(Endpoint endpoint, List<String> texts) {
+        return Mono.defer(() -> {
+            Runnable release = endpoint.acquire();
+            return endpoint.webClient.post()
+                    .uri("/api/v1/ai/classify/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(Map.of("texts", texts))
+                    .retrieve()
+                    .bodyToMono(BatchClassifyResponse.class)
+                    .doOnSuccess(response -> release.run())
+                    .doOnError(e -> release.run())
+                    .doOnCancel(release);
+        });
+    }
+
+    /**
+     * Pick the replica with the fewest outstanding requests. The scan starts at a rotating
+     * offset so ties are spread across replicas.
+     */
+    private Endpoint select(Endpoint exclude) {
+        int size = endpoints.size();
+        int offset = nextEndpoint.getAndIncrement();
+        Endpoint best = null;
+        for (int i = 0; i < size; i++) {
+            Endpoint candidate = endpoints.get(Math.floorMod(offset + i, size));
+            if (candidate != exclude && (best == null || candidate.outstanding.get() < best.outstanding.get())) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    private Duration hedgeDelay() {
+        if (!hedging.isEnabled() || endpoints.size() < 2) {
+            return null;
+        }
+        long p95 = latency.getPercentile();
+        if (p95 < 0) {
+            return null;
+        }
+        Duration delay = Duration.ofNanos(p95);
+        return delay.compareTo(hedging.getMinDelay()) < 0 ? hedging.getMinDelay() : delay;
+    }
 
-            return response != null ? response.labels() : Collections.emptyList();
-        } catch (Exception e) {
-            // Return empty list if AI service is unavailable
-            return Collections.emptyList();
+    private static Counter hedgeCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder(HEDGES_METRIC)
+                .description("Classifications slower than the p95 latency, hedged or skipped for lack of budget")
+                .tags("outcome", outcome)
+                .register(registry);
+    }
+
+    /**
+     * An ai-service replica and the number of requests currently sent to it.
+     */
+    private static final class Endpoint {
+
+        private final WebClient webClient;
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        private Endpoint(WebClient webClient) {
+            this.webClient = webClient;
+        }
+
+        /**
+         * Count a request as outstanding until the returned callback runs. Running the callback
+         * more than once has no further effect.
+         */
+        private Runnable acquire() {
+            outstanding.incrementAndGet();
+            AtomicBoolean released = new AtomicBoolean();
+            return () -> {
+                if (released.compareAndSet(false, true)) {
+                    outstanding.decrementAndGet();
+                }
+            };
+        }
+    }
+
+    /**
+     * Timers of the outcomes of one operation.
+     */
+    private record OutcomeTimers(Timer success, Timer timeout, Timer error, Timer fallback) {
+
+        static OutcomeTimers of(MeterRegistry registry, String operation) {
+            return new OutcomeTimers(requestTimer(registry, operation, "success"),
+                    requestTimer(registry, operation, "timeout"),
+                    requestTimer(registry, operation, "error"),
+                    requestTimer(registry, operation, "fallback"));
+        }
+
+        Timer forError(Throwable failure) {
+            if (failure instanceof TimeoutException) {
+                return timeout;
+            }
+            if (failure instanceof CallNotPermittedException || failure instanceof BulkheadFullException) {
+                return fallback;
+            }
+            return error;
+        }
+
+        private static Timer requestTimer(MeterRegistry registry, String operation, String outcome) {
+            return Timer.builder(REQUESTS_METRIC)
+                    .description("Classification requests to ai-service until labels or the fallback are returned")
+                    .tags("operation", operation, "outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(registry);
         }
     }
 
@@ -47,4 +380,9 @@ public class AiClient {
      * Response record for classification endpoint.
      */
     private record ClassifyResponse(List<String> labels) {}
+
+    /**
+     * Response record for the batch classification endpoint, with the result of every text in request order.
+     */
+    private record BatchClassifyResponse(List<ClassifyResponse> results) {}
 }
@@ -0,0 +1,54 @@
+package com.greenwhitesolutions.servicedesk.ticket.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits hedged requests to a share of all requests.
+ * Every request earns {@code ratio} of a token, up to {@code burst} tokens, and every hedge
+ * spends a whole token. When replicas slow down and most requests would be hedged, the hedge
+ * rate levels off at the ratio instead of doubling the load on an already degraded AI service.
+ * Tokens are counted in thousandths in one atomic counter, so neither call locks.
+ */
+class HedgeBudget {
+
+    private static final long MILLIS_PER_TOKEN = 1000;
+
+    private final long earnedPerRequest;
+    private final long capacity;
+    private final AtomicLong balance;
+
+    /**
+     * Create a budget that starts full.
+     *
+     * @param ratio the share of requests that may be hedged, between 0 and 1
+     * @param burst the number of hedges that may be sent in a row
+     */
+    HedgeBudget(double ratio, int burst) {
+        this.earnedPerRequest = Math.round(ratio * MILLIS_PER_TOKEN);
+        this.capacity = burst * MILLIS_PER_TOKEN;
+        this.balance = new AtomicLong(capacity);
+    }
+
+    /**
+     * Earn the share of a token of one request.
+     */
+    void deposit() {
+        balance.accumulateAndGet(earnedPerRequest, (current, earned) -> Math.min(capacity, current + earned));
+    }
+
+    /**
+     * Spend a token on a hedge, if there is one.
+     *
+     * @return true if the hedge may be sent
+     */
+    boolean tryWithdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < MILLIS_PER_TOKEN) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - MILLIS_PER_TOKEN));
+        return true;
+    }
+}
@@ -0,0 +1,72 @@
+package com.greenwhitesolutions.servicedesk.ticket.client;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tracks a percentile of recent call latencies.
+ * Latencies are kept in a fixed-size ring buffer and the percentile is recomputed every
+ * {@value #RECOMPUTE_INTERVAL} samples, so recording stays cheap on the hot path.
+ */
+class LatencyTracker {
+
+    /**
+     * Number of recent samples the percentile is computed from.
+     */
+    static final int WINDOW_SIZE = 512;
+
+    /**
+     * Samples required before a percentile is reported.
+     */
+    static final int MIN_SAMPLES = 32;
+
+    private static final int RECOMPUTE_INTERVAL = 32;
+
+    private final double percentile;
+    private final AtomicLongArray samples = new AtomicLongArray(WINDOW_SIZE);
+    private final AtomicLong count = new AtomicLong();
+    private volatile long current = -1;
+
+    /**
+     * Create a tracker for the given percentile.
+     *
+     * @param percentile the percentile to track, between 0 and 1
+     */
+    LatencyTracker(double percentile) {
+        this.percentile = percentile;
+    }
+
+    /**
+     * Record the latency of a completed call.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    void record(long nanos) {
+        long n = count.getAndIncrement();
+        samples.set((int) (n % WINDOW_SIZE), nanos);
+        long recorded = n + 1;
+        if (recorded >= MIN_SAMPLES && recorded % RECOMPUTE_INTERVAL == 0) {
+            current = compute((int) Math.min(recorded, WINDOW_SIZE));
+        }
+    }
+
+    /**
+     * Get the tracked percentile of recent latencies.
+     *
+     * @return the latency in nanoseconds, or -1 until enough samples were recorded
+     */
+    long getPercentile() {
+        return current;
+    }
+
+    private long compute(int size) {
+        long[] sorted = new long[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = samples.get(i);
+        }
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile * size) - 1;
+        return sorted[Math.max(0, Math.min(rank, size - 1))];
+    }
+}
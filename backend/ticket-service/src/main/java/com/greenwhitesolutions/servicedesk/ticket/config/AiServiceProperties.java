@@ -0,0 +1,85 @@
+package com.greenwhitesolutions.servicedesk.ticket.config;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.convert.DurationUnit;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Configuration properties for the ai-service client.
+ * Mapped to app.ai-service.* in application.yml.
+ */
+@ConfigurationProperties(prefix = "app.ai-service")
+@Getter
+@Setter
+public class AiServiceProperties {
+
+    /**
+     * Base URL of the ai-service, used when no replica URLs are configured.
+     */
+    private String url = "http://localhost:8084";
+
+    /**
+     * Base URLs of the ai-service replicas. Requests go to the replica with the fewest outstanding requests.
+     */
+    private List<String> urls = new ArrayList<>();
+
+    /**
+     * Maximum time to wait for a classification response. Plain numbers are seconds.
+     */
+    @DurationUnit(ChronoUnit.SECONDS)
+    private Duration timeout = Duration.ofSeconds(5);
+
+    /**
+     * Maximum time to wait for a batch classification response. Plain numbers are seconds.
+     */
+    @DurationUnit(ChronoUnit.SECONDS)
+    private Duration batchTimeout = Duration.ofSeconds(60);
+
+    /**
+     * Hedged request configuration.
+     */
+    private Hedging hedging = new Hedging();
+
+    /**
+     * Get the base URLs of all ai-service replicas.
+     *
+     * @return the configured replica URLs, or the single url if none are configured
+     */
+    public List<String> getEndpoints() {
+        List<String> endpoints = urls.stream().filter(endpoint -> !endpoint.isBlank()).toList();
+        return endpoints.isEmpty() ? List.of(url) : endpoints;
+    }
+
+    @Getter
+    @Setter
+    public static class Hedging {
+        /**
+         * Send a second copy of a classification to another replica when the first one is slower
+         * than the recent p95 latency. Only applies with more than one replica.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Shortest time to wait before hedging, so fast replicas are not sent duplicate requests.
+         */
+        private Duration minDelay = Duration.ofMillis(50);
+
+        /**
+         * Share of requests that may be hedged. Every request earns this share of a hedge, so
+         * hedging cannot multiply the load when all replicas are slow.
+         */
+        private double budgetRatio = 0.05;
+
+        /**
+         * Number of hedges that may be sent in a row before the budget has to be earned again.
+         */
+        private int budgetBurst = 10;
+    }
+}
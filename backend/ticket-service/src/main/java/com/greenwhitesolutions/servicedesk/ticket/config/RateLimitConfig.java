@@ -0,0 +1,43 @@
+package com.greenwhitesolutions.servicedesk.ticket.config;
+
+import com.greenwhitesolutions.servicedesk.ticket.ratelimit.ClientRateLimiter;
+import com.greenwhitesolutions.servicedesk.ticket.ratelimit.RateLimitInterceptor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configuration for per-client rate limiting of ticket creation, single and bulk.
+ * Every accepted request may call the AI service, so a misbehaving integration is stopped
+ * before it reaches the controller.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.tickets.rate-limit.enabled", havingValue = "true")
+public class RateLimitConfig implements WebMvcConfigurer {
+
+    /**
+     * Paths the rate limit applies to: every ticket endpoint, including {@code /bulk}. Only POST
+     * requests are limited, so reads pass through.
+     */
+    static final String RATE_LIMITED_PATHS = "/api/v1/tickets/**";
+
+    private final TicketProperties properties;
+
+    public RateLimitConfig(TicketProperties properties) {
+        this.properties = properties;
+    }
+
+    @Bean
+    public ClientRateLimiter clientRateLimiter() {
+        return new ClientRateLimiter(properties.getRateLimit());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        String clientHeader = properties.getRateLimit().getClientHeader();
+        registry.addInterceptor(new RateLimitInterceptor(clientRateLimiter(), clientHeader))
+                .addPathPatterns(RATE_LIMITED_PATHS);
+    }
+}
@@ -0,0 +1,42 @@
+package com.greenwhitesolutions.servicedesk.ticket.config;
+
+import com.greenwhitesolutions.servicedesk.ticket.cache.CachingTicketBackingStore;
+import com.greenwhitesolutions.servicedesk.ticket.repository.TicketBackingStore;
+import com.greenwhitesolutions.servicedesk.ticket.repository.WriteBehindTicketStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Configuration for the Redis ticket cache.
+ * Wraps the database backing store so ticket lookups that miss the in-memory store,
+ * such as cold reads after a restart, are served from Redis before reaching Postgres.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.tickets.cache.enabled", havingValue = "true")
+public class TicketCacheConfig {
+
+    @Bean
+    public RedisTemplate<String, byte[]> ticketCacheRedisTemplate(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(RedisSerializer.string());
+        template.setValueSerializer(RedisSerializer.byteArray());
+        return template;
+    }
+
+    @Bean
+    @Primary
+    public TicketBackingStore cachingTicketBackingStore(ObjectProvider<WriteBehindTicketStore> databaseStore,
+                                                        RedisTemplate<String, byte[]> ticketCacheRedisTemplate,
+                                                        TicketProperties properties) {
+        WriteBehindTicketStore database = databaseStore.getIfAvailable();
+        TicketBackingStore delegate = database != null ? database : TicketBackingStore.NONE;
+        return new CachingTicketBackingStore(delegate, ticketCacheRedisTemplate, properties.getCache().getTtl());
+    }
+}
@@ -0,0 +1,457 @@
+package com.greenwhitesolutions.servicedesk.ticket.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Configuration properties for ticket service.
+ * Mapped to app.tickets.* in application.yml.
+ */
+@ConfigurationProperties(prefix = "app.tickets")
+@Getter
+@Setter
+public class TicketProperties {
+
+    /**
+     * Ticket id generation configuration.
+     */
+    private Id id = new Id();
+
+    /**
+     * AI enrichment configuration.
+     */
+    private Enrichment enrichment = new Enrichment();
+
+    /**
+     * Ticket listing configuration.
+     */
+    private Listing listing = new Listing();
+
+    /**
+     * Database persistence configuration.
+     */
+    private Persistence persistence = new Persistence();
+
+    /**
+     * Redis ticket cache configuration.
+     */
+    private Cache cache = new Cache();
+
+    /**
+     * Bulk import configuration.
+     */
+    private Bulk bulk = new Bulk();
+
+    /**
+     * Near-duplicate detection configuration.
+     */
+    private Deduplication deduplication = new Deduplication();
+
+    /**
+     * Ticket event stream configuration.
+     */
+    private Events events = new Events();
+
+    /**
+     * Transactional outbox and Redis Streams relay configuration.
+     */
+    private Outbox outbox = new Outbox();
+
+    /**
+     * Ticket statistics configuration.
+     */
+    private Stats stats = new Stats();
+
+    /**
+     * Write-ahead log and snapshot configuration.
+     */
+    private Journal journal = new Journal();
+
+    /**
+     * Per-client rate limiting of ticket creation.
+     */
+    private RateLimit rateLimit = new RateLimit();
+
+    /**
+     * How tickets are classified on creation.
+     */
+    public enum EnrichmentMode {
+        /**
+         * Classify on the request thread before the ticket is stored.
+         */
+        SYNC,
+
+        /**
+         * Store the ticket as PENDING and classify it in the background.
+         */
+        ASYNC,
+
+        /**
+         * Store the ticket as PENDING and let the classification consumer group, shared by all
+         * nodes, classify it from the ticket event stream. Requires the outbox.
+         */
+        STREAM
+    }
+
+    /**
+     * What happens to the buffered events of a subscriber that reads slower than tickets change.
+     */
+    public enum EventOverflow {
+        /**
+         * Drop the oldest buffered events once the buffer is full.
+         */
+        DROP,
+
+        /**
+         * Keep only the latest event of every ticket, dropping the oldest tickets once the buffer is full.
+         */
+        CONFLATE
+    }
+
+    @Getter
+    @Setter
+    public static class Enrichment {
+        /**
+         * Classification mode (sync, async, stream).
+         */
+        private EnrichmentMode mode = EnrichmentMode.SYNC;
+
+        /**
+         * Number of background workers calling the AI service in async mode.
+         */
+        private int workers = 4;
+
+        /**
+         * Maximum number of tickets waiting for classification in async mode.
+         * When full, classifications are deferred and the tickets stay PENDING meanwhile.
+         */
+        private int queueCapacity = 1000;
+
+        /**
+         * Maximum number of classifications deferred while the queue is full. Beyond it,
+         * classifications are shed and their tickets stay PENDING until the backlog has drained
+         * and all PENDING tickets are submitted again.
+         */
+        private int deferredCapacity = 100_000;
+
+        /**
+         * Time between attempts to move deferred classifications to the queue.
+         */
+        private Duration retryInterval = Duration.ofSeconds(1);
+    }
+
+    @Getter
+    @Setter
+    public static class Listing {
+        /**
+         * Page size used when the client does not specify a limit.
+         */
+        private int defaultLimit = 100;
+
+        /**
+         * Largest page size a client may request.
+         */
+        private int maxLimit = 1000;
+    }
+
+    @Getter
+    @Setter
+    public static class Id {
+        /**
+         * Id of this ticket-service node, between 0 and 1023. Must be unique among running nodes
+         * so they can generate ticket ids without coordination.
+         */
+        private int nodeId = 0;
+    }
+
+    @Getter
+    @Setter
+    public static class Persistence {
+        /**
+         * Whether tickets are written to the database. Without the journal, they are also loaded
+         * from it on startup.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Maximum time a ticket stays buffered before it is written.
+         */
+        private Duration flushInterval = Duration.ofMillis(500);
+
+        /**
+         * Number of tickets written per transaction. A flush starts as soon as this many are buffered.
+         */
+        private int batchSize = 500;
+
+        /**
+         * Maximum number of buffered tickets. When reached, writers flush themselves, without failing their request.
+         */
+        private int bufferCapacity = 10000;
+    }
+
+    @Getter
+    @Setter
+    public static class Cache {
+        /**
+         * Whether ticket lookups that miss the in-memory store are cached in Redis.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Time a cached ticket is kept after it was last written.
+         */
+        private Duration ttl = Duration.ofMinutes(30);
+    }
+
+    @Getter
+    @Setter
+    public static class Bulk {
+        /**
+         * Number of imported records between progress reports, and records buffered ahead of storing.
+         */
+        private int batchSize = 500;
+
+        /**
+         * Number of descriptions classified with one call to the batch endpoint of the AI service,
+         * at most {@link com.greenwhitesolutions.servicedesk.ticket.client.AiClient#MAX_BATCH_SIZE}.
+         */
+        private int classifyBatchSize = 100;
+
+        /**
+         * Maximum number of concurrent batch classification calls to the AI service.
+         */
+        private int classifyConcurrency = 8;
+
+        /**
+         * Maximum number of failed records listed in the import result.
+         */
+        private int maxReportedFailures = 1000;
+    }
+
+    @Getter
+    @Setter
+    public static class Deduplication {
+        /**
+         * Whether new tickets are matched against earlier ones and reuse their classification.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Minimum estimated Jaccard similarity of the description shingles of a near-duplicate.
+         */
+        private double similarityThreshold = 0.8;
+
+        /**
+         * Minimum number of word shingles of a description that is matched. Shorter descriptions,
+         * such as "Please help", are always classified on their own.
+         */
+        private int minShingles = 8;
+
+        /**
+         * Number of LSH bands of a MinHash signature.
+         */
+        private int bands = 16;
+
+        /**
+         * Number of MinHash values per band. Signatures have bands * rows values.
+         */
+        private int rows = 8;
+
+        /**
+         * Maximum number of parent tickets kept for matching; the oldest are forgotten first.
+         */
+        private int maxParents = 100000;
+
+        /**
+         * Maximum age of a parent ticket; older parents are no longer matched.
+         */
+        private Duration maxParentAge = Duration.ofHours(24);
+    }
+
+    @Getter
+    @Setter
+    public static class Events {
+        /**
+         * Maximum number of events buffered per subscriber.
+         */
+        private int bufferSize = 256;
+
+        /**
+         * Overflow policy of subscribers that do not choose one.
+         */
+        private EventOverflow overflow = EventOverflow.CONFLATE;
+
+        /**
+         * Number of recent events kept for subscribers resuming with a Last-Event-ID.
+         */
+        private int historySize = 10000;
+
+        /**
+         * Maximum number of concurrent subscribers.
+         */
+        private int maxSubscribers = 100;
+
+        /**
+         * Number of threads writing events to subscribers.
+         */
+        private int senderThreads = 4;
+
+        /**
+         * Longest time writing one event to a subscriber may take. A subscriber whose client stops
+         * reading for longer is dropped, and its stuck sender thread is replaced meanwhile.
+         */
+        private Duration sendTimeout = Duration.ofSeconds(10);
+
+        /**
+         * Time after which a subscription is closed; clients reconnect and resume from the last event.
+         */
+        private Duration timeout = Duration.ofMinutes(30);
+    }
+
+    @Getter
+    @Setter
+    public static class Outbox {
+        /**
+         * Whether ticket changes are recorded in the outbox table and relayed to a Redis stream.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Redis stream the ticket events are relayed to.
+         */
+        private String stream = "tickets:events";
+
+        /**
+         * Approximate maximum number of entries kept in the stream.
+         */
+        private long maxLength = 1_000_000;
+
+        /**
+         * Time between relay runs when the outbox is empty.
+         */
+        private Duration relayInterval = Duration.ofMillis(200);
+
+        /**
+         * Number of outbox rows relayed per transaction, and of events read per poll by stream consumers.
+         */
+        private int batchSize = 500;
+
+        /**
+         * Consumer group classifying PENDING tickets in stream enrichment mode.
+         */
+        private String consumerGroup = "ticket-classifier";
+
+        /**
+         * Number of consumers of the classification group on this node.
+         */
+        private int consumers = 2;
+
+        /**
+         * Time after which events delivered to a consumer that never acknowledged them,
+         * for example because its node crashed, are claimed by another consumer.
+         */
+        private Duration claimIdle = Duration.ofMinutes(1);
+    }
+
+    @Getter
+    @Setter
+    public static class Stats {
+        /**
+         * Number of one-minute buckets of created tickets kept for the statistics.
+         */
+        private int minuteBuckets = 60;
+
+        /**
+         * Number of one-hour buckets of created tickets kept for the statistics.
+         */
+        private int hourBuckets = 48;
+    }
+
+    @Getter
+    @Setter
+    public static class Journal {
+        /**
+         * Whether ticket changes are logged to a local write-ahead log and snapshotted, so a restart
+         * reloads the in-memory store from disk.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Directory holding the write-ahead log segments and snapshots of this node.
+         */
+        private String directory = "data/journal";
+
+        /**
+         * Size of a memory-mapped write-ahead log segment. A new segment starts when one is full.
+         */
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+        /**
+         * Time between snapshots of the ticket store. Log segments covered by a snapshot are deleted.
+         */
+        private Duration snapshotInterval = Duration.ofMinutes(5);
+
+        /**
+         * Time between forcing the log to disk. Logged changes survive a process crash right away,
+         * but a machine crash may lose the changes of this interval.
+         */
+        private Duration syncInterval = Duration.ofSeconds(1);
+    }
+
+    @Getter
+    @Setter
+    public static class RateLimit {
+        /**
+         * Whether ticket creation is rate limited per client.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Request header carrying the API key that identifies a client. Requests without a
+         * configured key are limited per remote address in the default tier.
+         */
+        private String clientHeader = "X-Api-Key";
+
+        /**
+         * Tier of clients that are not listed in {@code clients}.
+         */
+        private String defaultTier = "standard";
+
+        /**
+         * Rate limit tiers by name.
+         */
+        private Map<String, Tier> tiers = new LinkedHashMap<>(Map.of("standard", new Tier()));
+
+        /**
+         * Tier name by API key.
+         */
+        private Map<String, String> clients = new HashMap<>();
+
+        /**
+         * Time between removals of the buckets of clients that have been idle long enough to refill completely.
+         */
+        private Duration evictionInterval = Duration.ofMinutes(1);
+    }
+
+    @Getter
+    @Setter
+    public static class Tier {
+        /**
+         * Number of tickets a client may create in a burst.
+         */
+        private int capacity = 20;
+
+        /**
+         * Number of tickets per second a client may create on average.
+         */
+        private double refillPerSecond = 5;
+    }
+}
@@ -1,13 +1,33 @@
 package com.greenwhitesolutions.servicedesk.ticket.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.greenwhitesolutions.servicedesk.ticket.config.TicketProperties;
+import com.greenwhitesolutions.servicedesk.ticket.model.BulkImportResult;
+import com.greenwhitesolutions.servicedesk.ticket.model.ClassificationStatus;
 import com.greenwhitesolutions.servicedesk.ticket.model.CreateTicketRequest;
 import com.greenwhitesolutions.servicedesk.ticket.model.Ticket;
+import com.greenwhitesolutions.servicedesk.ticket.model.TicketFilter;
+import com.greenwhitesolutions.servicedesk.ticket.model.TicketPage;
+import com.greenwhitesolutions.servicedesk.ticket.model.TicketStats;
+import com.greenwhitesolutions.servicedesk.ticket.service.BulkImportService;
+import com.greenwhitesolutions.servicedesk.ticket.service.TicketEventBroadcaster;
 import com.greenwhitesolutions.servicedesk.ticket.service.TicketService;
+import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.Collection;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * REST controller for ticket operations.
@@ -16,25 +36,57 @@ import java.util.Collection;
 @RequestMapping("/api/v1/tickets")
 public class TicketController {
 
+    /**
+     * Number of streamed tickets written between explicit flushes.
+     */
+    private static final int STREAM_FLUSH_INTERVAL = 1000;
+
     private final TicketService ticketService;
+    private final BulkImportService bulkImportService;
+    private final TicketEventBroadcaster eventBroadcaster;
+    private final ObjectWriter ticketWriter;
+    private final ObjectMapper objectMapper;
 
-    public TicketController(TicketService ticketService) {
+    public TicketController(TicketService ticketService, BulkImportService bulkImportService,
+                            TicketEventBroadcaster eventBroadcaster, ObjectMapper objectMapper) {
         this.ticketService = ticketService;
+        this.bulkImportService = bulkImportService;
+        this.eventBroadcaster = eventBroadcaster;
+        this.objectMapper = objectMapper;
+        this.ticketWriter = objectMapper.writerFor(Ticket.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     /**
      * Create a new ticket.
      * The ticket description is classified using the AI service to populate labels.
      *
-     * @param request the ticket creation request
+     * @param request the ticket creation request; a missing title or a title or description longer
+     *                than its column is rejected with 400 Bad Request
      * @return the created ticket with labels populated from AI classification
      */
     @PostMapping
-    public ResponseEntity<Ticket> createTicket(@RequestBody CreateTicketRequest request) {
+    public ResponseEntity<Ticket> createTicket(@Valid @RequestBody CreateTicketRequest request) {
         Ticket ticket = ticketService.createTicket(request);
         return ResponseEntity.status(HttpStatus.CREATED).body(ticket);
     }
 
+    /**
+     * Import tickets from newline-delimited JSON, one ticket creation request per line.
+     * Descriptions are classified concurrently and the tickets are stored in batches.
+     * Invalid records are reported in the result instead of failing the whole import.
+     *
+     * @param body the request body with one ticket per line
+     * @return the number of imported and failed records
+     * @throws IOException if the request body cannot be read
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<BulkImportResult> importTickets(InputStream body) throws IOException {
+        try (body) {
+            return ResponseEntity.ok(bulkImportService.importTickets(body));
+        }
+    }
+
     /**
      * Get a ticket by ID.
      *
@@ -49,12 +101,132 @@ public class TicketController {
     }
 
     /**
-     * Get all tickets.
+     * Get all tickets ordered by id, as a plain array.
+     * This is the original shape of the endpoint and is kept for existing clients; it answers
+     * requests without {@code after} and {@code limit}. Filters work as in {@link #getTicketPage}.
      *
-     * @return collection of all tickets
+     * @param category only return tickets in these categories
+     * @param label only return tickets with these labels
+     * @param match whether tickets must match all category and label filters (default) or any of them
+     * @param status only return tickets with this classification status
+     * @return all matching tickets
+     */
+    @GetMapping(params = {"!after", "!limit"})
+    public ResponseEntity<List<Ticket>> getAllTickets(@RequestParam(required = false) List<String> category,
+                                                      @RequestParam(required = false) List<String> label,
+                                                      @RequestParam(required = false) TicketFilter.Match match,
+                                                      @RequestParam(required = false) ClassificationStatus status) {
+        TicketFilter filter = new TicketFilter(category, label, match, status);
+        try (Stream<Ticket> tickets = ticketService.streamTickets(null, filter)) {
+            return ResponseEntity.ok(tickets.toList());
+        }
+    }
+
+    /**
+     * Get a page of tickets ordered by id. Answers requests with {@code after} or {@code limit}.
+     * Category and label filters are answered from bitmap indexes, e.g.
+     * {@code ?limit=50&category=billing&label=urgent} or {@code ?limit=50&label=bug&label=security&match=ANY}.
+     *
+     * @param after cursor returned as nextCursor by the previous page
+     * @param limit maximum number of tickets in the page
+     * @param category only return tickets in these categories
+     * @param label only return tickets with these labels
+     * @param match whether tickets must match all category and label filters (default) or any of them
+     * @param status only return tickets with this classification status
+     * @return the page of tickets and the cursor of the next page
      */
     @GetMapping
-    public ResponseEntity<Collection<Ticket>> getAllTickets() {
-        return ResponseEntity.ok(ticketService.getAllTickets());
+    public ResponseEntity<TicketPage> getTicketPage(@RequestParam(required = false) Long after,
+                                                    @RequestParam(required = false) Integer limit,
+                                                    @RequestParam(required = false) List<String> category,
+                                                    @RequestParam(required = false) List<String> label,
+                                                    @RequestParam(required = false) TicketFilter.Match match,
+                                                    @RequestParam(required = false) ClassificationStatus status) {
+        TicketFilter filter = new TicketFilter(category, label, match, status);
+        return ResponseEntity.ok(ticketService.getTickets(after, limit, filter));
+    }
+
+    /**
+     * Search tickets by title and description.
+     * All terms must match; quoted phrases must appear as written, e.g. {@code ?q=printer "paper jam"}.
+     *
+     * @param q the search query
+     * @param limit maximum number of tickets to return
+     * @return the matching tickets, best matches first
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<Ticket>> searchTickets(@RequestParam String q,
+                                                      @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(ticketService.searchTickets(q, limit));
+    }
+
+    /**
+     * Get ticket counts by classification status, category and label, and the number of tickets
+     * created in each of the recent minutes and hours.
+     *
+     * @return the ticket statistics
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<TicketStats> getStatistics() {
+        return ResponseEntity.ok(ticketService.getStatistics());
+    }
+
+    /**
+     * Subscribe to ticket changes as server-sent events.
+     * Sends a {@code created} event for every new ticket and a {@code classified} event when the
+     * background classification of a ticket completes, each with the ticket as JSON data.
+     * A {@code reset} event means events were lost, or the service restarted since the last event
+     * id was issued, and the client should reload its tickets.
+     *
+     * @param lastEventId the id of the last event received before reconnecting, sent by browsers automatically
+     * @param overflow how to shed events when the client reads too slowly (DROP or CONFLATE)
+     * @return the event stream, or 503 when too many clients are subscribed
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribeToEvents(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @RequestParam(required = false) TicketProperties.EventOverflow overflow) {
+        return eventBroadcaster.subscribe(lastEventId, overflow)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
+
+    /**
+     * Stream tickets as newline-delimited JSON.
+     * Tickets are serialized one at a time, so memory use does not grow with the number of tickets.
+     *
+     * @param after only stream tickets with an id greater than this cursor
+     * @param category only stream tickets in these categories
+     * @param label only stream tickets with these labels
+     * @param match whether tickets must match all category and label filters (default) or any of them
+     * @param status only stream tickets with this classification status
+     * @return a streaming body writing one ticket per line
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamTickets(@RequestParam(required = false) Long after,
+                                                               @RequestParam(required = false) List<String> category,
+                                                               @RequestParam(required = false) List<String> label,
+                                                               @RequestParam(required = false) TicketFilter.Match match,
+                                                               @RequestParam(required = false) ClassificationStatus status) {
+        TicketFilter filter = new TicketFilter(category, label, match, status);
+        StreamingResponseBody body = outputStream -> {
+            try (Stream<Ticket> tickets = ticketService.streamTickets(after, filter);
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                int written = 0;
+                Iterator<Ticket> iterator = tickets.iterator();
+                while (iterator.hasNext()) {
+                    ticketWriter.writeValue(generator, iterator.next());
+                    generator.writeRaw('\n');
+                    if (++written % STREAM_FLUSH_INTERVAL == 0) {
+                        generator.flush();
+                    }
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 }
@@ -0,0 +1,300 @@
+package com.greenwhitesolutions.servicedesk.ticket.journal;
+
+import com.greenwhitesolutions.servicedesk.ticket.cache.TicketCodec;
+import com.greenwhitesolutions.servicedesk.ticket.config.TicketProperties;
+import com.greenwhitesolutions.servicedesk.ticket.model.ClassificationStatus;
+import com.greenwhitesolutions.servicedesk.ticket.model.Ticket;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Local journal of the ticket store, so a restarted node serves from a warm in-memory store
+ * without reading every ticket back from the database.
+ * Every change appends the ticket to a memory-mapped {@link TicketWriteAheadLog}. Every
+ * {@code snapshot-interval} the log is rolled over to a new segment, all tickets are written to a
+ * compact binary snapshot, and the segments before the roll-over are deleted, since the snapshot
+ * covers them. On startup the newest snapshot is loaded and the log segments written after it are
+ * replayed.
+ * <p>
+ * Records hold whole tickets, so replaying a record twice is harmless. Creation and
+ * classification of a ticket may be logged out of order by different threads, so a PENDING
+ * record never replaces a CLASSIFIED ticket during recovery.
+ */
+@Component
+@ConditionalOnProperty(name = "app.tickets.journal.enabled", havingValue = "true")
+public class TicketJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(TicketJournal.class);
+
+    private static final int SNAPSHOT_MAGIC = 0x544B534E;
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+
+    private final Path directory;
+    private final TicketWriteAheadLog writeAheadLog;
+    private final TicketProperties.Journal config;
+    private final ScheduledExecutorService scheduler;
+    private final Object snapshotLock = new Object();
+    private volatile Supplier<Iterator<Ticket>> snapshotSource;
+
+    public TicketJournal(TicketProperties properties) {
+        this.config = properties.getJournal();
+        this.directory = Paths.get(config.getDirectory());
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create journal directory " + directory, e);
+        }
+        this.writeAheadLog = new TicketWriteAheadLog(directory,
+                Math.toIntExact(config.getSegmentSize().toBytes()));
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ticket-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Load the tickets of the newest snapshot and of the log segments written after it.
+     * Segments written from now on are not read.
+     *
+     * @return the recovered tickets
+     */
+    public Recovery recover() {
+        long started = System.nanoTime();
+        Map<Long, Ticket> tickets = new HashMap<>();
+        long snapshotSegment = 0;
+        Path snapshot = newestSnapshot();
+        if (snapshot != null) {
+            snapshotSegment = segmentOf(snapshot);
+            try {
+                readSnapshot(snapshot, ticket -> tickets.put(ticket.getId(), ticket));
+            } catch (UncheckedIOException e) {
+                // The tickets it held are still in the database
+                log.error("Ignoring damaged snapshot {}", snapshot, e);
+            }
+        }
+        int fromSnapshot = tickets.size();
+        Map<Long, Ticket> replayed = new HashMap<>();
+        long records = TicketWriteAheadLog.replay(directory, snapshotSegment, writeAheadLog.currentSegment(),
+                record -> {
+                    Ticket ticket = TicketCodec.decode(record);
+                    tickets.merge(ticket.getId(), ticket, TicketJournal::newer);
+                    replayed.merge(ticket.getId(), ticket, TicketJournal::newer);
+                });
+        log.info("Recovered {} tickets from snapshot and {} log records in {} ms", fromSnapshot, records,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        return new Recovery(tickets.values(), List.copyOf(replayed.values()));
+    }
+
+    /**
+     * Log a changed ticket.
+     *
+     * @param ticket the ticket after the change
+     */
+    public void append(Ticket ticket) {
+        writeAheadLog.append(TicketCodec.encode(ticket));
+    }
+
+    /**
+     * Start taking snapshots of the given tickets every {@code snapshot-interval}, and forcing
+     * the log to disk every {@code sync-interval}.
+     *
+     * @param tickets supplies an iterator over all current tickets
+     */
+    public void start(Supplier<Iterator<Ticket>> tickets) {
+        this.snapshotSource = tickets;
+        long snapshotMillis = config.getSnapshotInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::snapshotQuietly, snapshotMillis, snapshotMillis,
+                TimeUnit.MILLISECONDS);
+        long syncMillis = config.getSyncInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(writeAheadLog::force, syncMillis, syncMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Write a snapshot of all tickets and delete the log segments it covers.
+     * The log is rolled over before the tickets are read, so every change logged in an earlier
+     * segment was applied to the ticket store before the snapshot reads it.
+     */
+    public void snapshot() {
+        Supplier<Iterator<Ticket>> source = snapshotSource;
+        if (source == null) {
+            return;
+        }
+        synchronized (snapshotLock) {
+            long started = System.nanoTime();
+            long segment = writeAheadLog.roll();
+            Path target = snapshotPath(segment);
+            Path temporary = directory.resolve(target.getFileName() + ".tmp");
+            long count;
+            try {
+                count = writeSnapshot(temporary, source.get());
+                Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                deleteQuietly(temporary);
+                throw new UncheckedIOException("Cannot write snapshot " + target, e);
+            }
+            deleteSnapshotsBefore(segment);
+            TicketWriteAheadLog.deleteBefore(directory, segment);
+            log.info("Wrote snapshot of {} tickets in {} ms", count,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        // A final snapshot leaves nothing to replay on the next start
+        snapshotQuietly();
+        writeAheadLog.close();
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (RuntimeException e) {
+            log.error("Failed to write ticket snapshot, will retry", e);
+        }
+    }
+
+    private long writeSnapshot(Path file, Iterator<Ticket> tickets) throws IOException {
+        long count = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             OutputStream output = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16)) {
+            CheckedOutputStream checked = new CheckedOutputStream(output, new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(SNAPSHOT_MAGIC);
+            while (tickets.hasNext()) {
+                out.writeBoolean(true);
+                TicketCodec.write(tickets.next(), out);
+                count++;
+            }
+            out.writeBoolean(false);
+            out.flush();
+            // The checksum covers everything before it
+            new DataOutputStream(output).writeLong(checked.getChecksum().getValue());
+            output.flush();
+            channel.force(true);
+        }
+        return count;
+    }
+
+    private static void readSnapshot(Path file, Consumer<Ticket> sink) {
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            CheckedInputStream checked = new CheckedInputStream(input, new CRC32());
+            DataInputStream in = new DataInputStream(checked);
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a ticket snapshot");
+            }
+            List<Ticket> tickets = new ArrayList<>();
+            while (in.readBoolean()) {
+                tickets.add(TicketCodec.read(in));
+            }
+            long expected = checked.getChecksum().getValue();
+            if (new DataInputStream(input).readLong() != expected) {
+                throw new IOException("Snapshot checksum mismatch");
+            }
+            tickets.forEach(sink);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read snapshot " + file, e);
+        }
+    }
+
+    private Path newestSnapshot() {
+        List<Path> snapshots = snapshots();
+        return snapshots.isEmpty() ? null : snapshots.get(snapshots.size() - 1);
+    }
+
+    private void deleteSnapshotsBefore(long segment) {
+        for (Path file : snapshots()) {
+            if (segmentOf(file) < segment) {
+                deleteQuietly(file);
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Cannot delete {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * List the snapshot files, oldest first. A snapshot is named after the first log segment it does not cover.
+     */
+    private List<Path> snapshots() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list snapshots in " + directory, e);
+        }
+    }
+
+    private Path snapshotPath(long segment) {
+        return directory.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, segment, SNAPSHOT_SUFFIX));
+    }
+
+    private static long segmentOf(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        return Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length()));
+    }
+
+    /**
+     * Keep a classified ticket when a PENDING record of it was logged late.
+     */
+    private static Ticket newer(Ticket current, Ticket logged) {
+        return current.getClassificationStatus() == ClassificationStatus.CLASSIFIED
+                && logged.getClassificationStatus() == ClassificationStatus.PENDING ? current : logged;
+    }
+
+    /**
+     * Tickets recovered from the journal.
+     *
+     * @param tickets all recovered tickets, in no particular order
+     * @param replayed the tickets changed after the newest snapshot, which the database may not have received yet
+     */
+    public record Recovery(Collection<Ticket> tickets, List<Ticket> replayed) {
+    }
+}
@@ -0,0 +1,221 @@
+package com.greenwhitesolutions.servicedesk.ticket.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of ticket changes in memory-mapped segment files.
+ * Every record is written as its length, a CRC32 of its bytes and the bytes themselves. Segments
+ * are preallocated and zero-filled, so a zero length marks the end of the written records, and a
+ * record with a wrong checksum, left by a machine crash in the middle of a write, ends the replay.
+ * <p>
+ * Writes land in the page cache as soon as they are copied into the mapping, so they survive a
+ * crash of the process; {@link #force()} makes them survive a crash of the machine too.
+ * Segments are numbered in the order they are written; when a record no longer fits into the
+ * current segment, the next one is started.
+ */
+final class TicketWriteAheadLog implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(TicketWriteAheadLog.class);
+
+    private static final String PREFIX = "wal-";
+    private static final String SUFFIX = ".log";
+
+    /**
+     * Bytes of the length and checksum written before every record.
+     */
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+
+    private final Path directory;
+    private final int segmentSize;
+    private long segment;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    /**
+     * Open a new, empty segment after the existing ones.
+     *
+     * @param directory the directory of the segment files
+     * @param segmentSize the size of a segment in bytes
+     */
+    TicketWriteAheadLog(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.segment = segments(directory).stream().mapToLong(Long::longValue).max().orElse(0);
+        open(segment + 1);
+    }
+
+    /**
+     * Append a record.
+     *
+     * @param record the record bytes
+     */
+    synchronized void append(byte[] record) {
+        if (channel == null) {
+            throw new IllegalStateException("Log is closed");
+        }
+        int size = HEADER_BYTES + record.length;
+        if (size > segmentSize) {
+            throw new IllegalArgumentException("Record of " + record.length
+                    + " bytes does not fit into a log segment");
+        }
+        if (buffer.remaining() < size) {
+            open(segment + 1);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        buffer.putInt(record.length);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(record);
+    }
+
+    /**
+     * Finish the current segment and continue in a new one.
+     *
+     * @return the number of the new segment; all records appended before the call are in earlier segments
+     */
+    synchronized long roll() {
+        open(segment + 1);
+        return segment;
+    }
+
+    /**
+     * Write the records of the current segment to disk.
+     */
+    synchronized void force() {
+        if (channel != null) {
+            buffer.force();
+        }
+    }
+
+    /**
+     * Get the number of the segment records are appended to.
+     *
+     * @return the current segment number
+     */
+    synchronized long currentSegment() {
+        return segment;
+    }
+
+    @Override
+    public synchronized void close() {
+        closeSegment();
+    }
+
+    /**
+     * Read the records of all segments numbered from {@code first} up to, excluding, {@code end}, in order.
+     *
+     * @param directory the directory of the segment files
+     * @param first the first segment to read
+     * @param end the segment to stop at
+     * @param sink receives the records
+     * @return the number of records read
+     */
+    static long replay(Path directory, long first, long end, Consumer<byte[]> sink) {
+        long records = 0;
+        for (long number : segments(directory)) {
+            if (number < first || number >= end) {
+                continue;
+            }
+            try (FileChannel file = FileChannel.open(path(directory, number), StandardOpenOption.READ)) {
+                MappedByteBuffer mapped = file.map(FileChannel.MapMode.READ_ONLY, 0, file.size());
+                while (mapped.remaining() >= HEADER_BYTES) {
+                    int length = mapped.getInt();
+                    int checksum = mapped.getInt();
+                    if (length <= 0 || length > mapped.remaining()) {
+                        break;
+                    }
+                    byte[] record = new byte[length];
+                    mapped.get(record);
+                    CRC32 crc = new CRC32();
+                    crc.update(record);
+                    if ((int) crc.getValue() != checksum) {
+                        log.warn("Ignoring the rest of log segment {} after a damaged record", number);
+                        break;
+                    }
+                    sink.accept(record);
+                    records++;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read log segment " + number, e);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Delete the segments numbered below the given one.
+     *
+     * @param directory the directory of the segment files
+     * @param end the first segment to keep
+     */
+    static void deleteBefore(Path directory, long end) {
+        for (long number : segments(directory)) {
+            if (number < end) {
+                try {
+                    Files.deleteIfExists(path(directory, number));
+                } catch (IOException e) {
+                    log.warn("Cannot delete log segment {}: {}", number, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * List the numbers of the segment files, in ascending order.
+     */
+    static List<Long> segments(Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list log segments in " + directory, e);
+        }
+    }
+
+    private void open(long number) {
+        closeSegment();
+        try {
+            channel = FileChannel.open(path(directory, number), StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            // Mapping beyond the end of the file grows it, zero-filled
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            segment = number;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create log segment " + number, e);
+        }
+    }
+
+    private void closeSegment() {
+        if (channel == null) {
+            return;
+        }
+        buffer.force();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Cannot close log segment {}: {}", segment, e.getMessage());
+        }
+        channel = null;
+    }
+
+    private static Path path(Path directory, long number) {
+        return directory.resolve(String.format("%s%020d%s", PREFIX, number, SUFFIX));
+    }
+}
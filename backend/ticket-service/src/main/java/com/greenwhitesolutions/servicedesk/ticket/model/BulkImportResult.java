@@ -0,0 +1,75 @@
+package com.greenwhitesolutions.servicedesk.ticket.model;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk ticket import.
+ */
+public class BulkImportResult {
+
+    private final long imported;
+    private final long pending;
+    private final long failed;
+    private final List<Failure> failures;
+
+    public BulkImportResult(long imported, long pending, long failed, List<Failure> failures) {
+        this.imported = imported;
+        this.pending = pending;
+        this.failed = failed;
+        this.failures = failures;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    /**
+     * Get the number of imported tickets that could not be classified during the import and are
+     * stored as PENDING until they are classified in the background.
+     *
+     * @return the number of PENDING tickets, included in {@link #getImported()}
+     */
+    public long getPending() {
+        return pending;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * Get the rejected records. Only the first failures are reported when there are many.
+     *
+     * @return the rejected records in input order
+     */
+    public List<Failure> getFailures() {
+        return failures;
+    }
+
+    /**
+     * A record of the import that could not be stored.
+     */
+    public static class Failure {
+
+        private final long line;
+        private final String error;
+
+        public Failure(long line, String error) {
+            this.line = line;
+            this.error = error;
+        }
+
+        /**
+         * Get the 1-based line number of the record in the request body.
+         *
+         * @return the line number
+         */
+        public long getLine() {
+            return line;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.greenwhitesolutions.servicedesk.ticket.model;
+
+/**
+ * State of the AI classification of a ticket.
+ */
+public enum ClassificationStatus {
+
+    /**
+     * The ticket is stored but has not been classified yet.
+     */
+    PENDING,
+
+    /**
+     * Category and labels have been populated from AI classification.
+     */
+    CLASSIFIED
+}
@@ -1,11 +1,30 @@
 package com.greenwhitesolutions.servicedesk.ticket.model;
 
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
 /**
  * DTO for creating a new ticket.
+ * Lengths are limited to the sizes of the ticket table columns.
  */
 public class CreateTicketRequest {
 
+    /**
+     * Maximum length of a title.
+     */
+    public static final int MAX_TITLE_LENGTH = 255;
+
+    /**
+     * Maximum length of a description.
+     */
+    public static final int MAX_DESCRIPTION_LENGTH = 10000;
+
+    @NotBlank(message = "title is required")
+    @Size(max = MAX_TITLE_LENGTH, message = "title must be at most " + MAX_TITLE_LENGTH + " characters")
     private String title;
+
+    @Size(max = MAX_DESCRIPTION_LENGTH,
+            message = "description must be at most " + MAX_DESCRIPTION_LENGTH + " characters")
     private String description;
 
     public CreateTicketRequest() {
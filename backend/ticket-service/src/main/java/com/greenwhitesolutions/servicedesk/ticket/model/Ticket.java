@@ -1,17 +1,26 @@
 package com.greenwhitesolutions.servicedesk.ticket.model;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+
 import java.util.List;
 
 /**
  * Ticket model for representing support tickets.
+ * Ids are written to JSON as strings: they are larger than 2^53, and JavaScript clients would
+ * round them if they were numbers. Both forms are accepted when reading.
  */
 public class Ticket {
 
+    @JsonSerialize(using = ToStringSerializer.class)
     private Long id;
     private String title;
     private String description;
     private String category;
     private List<String> labels;
+    private ClassificationStatus classificationStatus;
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long parentId;
 
     public Ticket() {
     }
@@ -22,6 +31,23 @@ public class Ticket {
         this.description = description;
         this.category = category;
         this.labels = labels;
+        this.classificationStatus = ClassificationStatus.CLASSIFIED;
+    }
+
+    public Ticket(Long id, String title, String description, String category, List<String> labels,
+                  ClassificationStatus classificationStatus) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.category = category;
+        this.labels = labels;
+        this.classificationStatus = classificationStatus;
+    }
+
+    public Ticket(Long id, String title, String description, String category, List<String> labels,
+                  ClassificationStatus classificationStatus, Long parentId) {
+        this(id, title, description, category, labels, classificationStatus);
+        this.parentId = parentId;
     }
 
     public Long getId() {
@@ -63,4 +89,25 @@ public class Ticket {
     public void setLabels(List<String> labels) {
         this.labels = labels;
     }
+
+    public ClassificationStatus getClassificationStatus() {
+        return classificationStatus;
+    }
+
+    public void setClassificationStatus(ClassificationStatus classificationStatus) {
+        this.classificationStatus = classificationStatus;
+    }
+
+    /**
+     * Get the id of the ticket this one is a near-duplicate of.
+     *
+     * @return the parent ticket id, or null if this ticket is not a duplicate
+     */
+    public Long getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(Long parentId) {
+        this.parentId = parentId;
+    }
 }
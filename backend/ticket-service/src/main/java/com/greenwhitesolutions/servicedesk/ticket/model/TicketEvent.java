@@ -0,0 +1,37 @@
+package com.greenwhitesolutions.servicedesk.ticket.model;
+
+/**
+ * A change to a ticket, streamed to subscribers of the ticket event stream.
+ * Event ids increase with every change, so a client that reconnects can ask for the events
+ * after the last id it has seen. They restart with every run of the service, so subscribers see
+ * them prefixed with the time the service started.
+ */
+public class TicketEvent {
+
+    private final long id;
+    private final TicketEventType type;
+    private final Ticket ticket;
+
+    public TicketEvent(long id, TicketEventType type, Ticket ticket) {
+        this.id = id;
+        this.type = type;
+        this.ticket = ticket;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public TicketEventType getType() {
+        return type;
+    }
+
+    /**
+     * Get the ticket as it was after the change.
+     *
+     * @return the ticket
+     */
+    public Ticket getTicket() {
+        return ticket;
+    }
+}
@@ -0,0 +1,17 @@
+package com.greenwhitesolutions.servicedesk.ticket.model;
+
+/**
+ * Kind of change reported by a {@link TicketEvent}.
+ */
+public enum TicketEventType {
+
+    /**
+     * A ticket was stored, either classified or PENDING classification.
+     */
+    CREATED,
+
+    /**
+     * The background classification of a PENDING ticket completed.
+     */
+    CLASSIFIED
+}
@@ -0,0 +1,70 @@
+package com.greenwhitesolutions.servicedesk.ticket.model;
+
+import java.util.List;
+
+/**
+ * Optional filters applied when listing tickets. Empty or null criteria match any ticket.
+ *
+ * @param categories categories to match
+ * @param labels labels to match
+ * @param match whether a ticket must match all category and label criteria or any of them
+ * @param status the classification status the ticket must have
+ */
+public record TicketFilter(List<String> categories, List<String> labels, Match match, ClassificationStatus status) {
+
+    /**
+     * Filter matching every ticket.
+     */
+    public static final TicketFilter NONE = new TicketFilter(null, null, null, null);
+
+    /**
+     * How category and label criteria are combined.
+     */
+    public enum Match {
+        /**
+         * A ticket must match every category and label criterion.
+         */
+        ALL,
+
+        /**
+         * A ticket must match at least one category or label criterion.
+         */
+        ANY
+    }
+
+    public TicketFilter {
+        categories = categories == null ? List.of() : List.copyOf(categories);
+        labels = labels == null ? List.of() : List.copyOf(labels);
+        match = match == null ? Match.ALL : match;
+    }
+
+    /**
+     * Check whether this filter has category or label criteria, which are answered by the bitmap index.
+     *
+     * @return true if at least one category or label is given
+     */
+    public boolean hasIndexedCriteria() {
+        return !categories.isEmpty() || !labels.isEmpty();
+    }
+
+    /**
+     * Check whether the given ticket passes this filter.
+     *
+     * @param ticket the ticket to test
+     * @return true if the ticket matches
+     */
+    public boolean matches(Ticket ticket) {
+        if (status != null && status != ticket.getClassificationStatus()) {
+            return false;
+        }
+        if (!hasIndexedCriteria()) {
+            return true;
+        }
+        List<String> ticketLabels = ticket.getLabels() != null ? ticket.getLabels() : List.of();
+        if (match == Match.ALL) {
+            return categories.stream().allMatch(category -> category.equals(ticket.getCategory()))
+                    && ticketLabels.containsAll(labels);
+        }
+        return categories.contains(ticket.getCategory()) || labels.stream().anyMatch(ticketLabels::contains);
+    }
+}
@@ -0,0 +1,36 @@
+package com.greenwhitesolutions.servicedesk.ticket.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+
+import java.util.List;
+
+/**
+ * A page of tickets returned by cursor pagination.
+ * Pass {@code nextCursor} as the {@code after} parameter to fetch the following page. Like ticket
+ * ids, the cursor is written to JSON as a string.
+ */
+public class TicketPage {
+
+    private final List<Ticket> items;
+    @JsonSerialize(using = ToStringSerializer.class)
+    private final Long nextCursor;
+
+    public TicketPage(List<Ticket> items, Long nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Ticket> getItems() {
+        return items;
+    }
+
+    /**
+     * Get the cursor of the next page.
+     *
+     * @return the id of the last ticket in this page, or null if this is the last page
+     */
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+}
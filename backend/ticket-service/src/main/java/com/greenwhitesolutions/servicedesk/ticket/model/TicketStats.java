@@ -0,0 +1,102 @@
+package com.greenwhitesolutions.servicedesk.ticket.model;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregate ticket counts for dashboards.
+ */
+public class TicketStats {
+
+    private final long total;
+    private final Map<ClassificationStatus, Long> byStatus;
+    private final Map<String, Long> byCategory;
+    private final Map<String, Long> byLabel;
+    private final List<TimeBucket> createdPerMinute;
+    private final List<TimeBucket> createdPerHour;
+
+    public TicketStats(long total, Map<ClassificationStatus, Long> byStatus, Map<String, Long> byCategory,
+                       Map<String, Long> byLabel, List<TimeBucket> createdPerMinute,
+                       List<TimeBucket> createdPerHour) {
+        this.total = total;
+        this.byStatus = byStatus;
+        this.byCategory = byCategory;
+        this.byLabel = byLabel;
+        this.createdPerMinute = createdPerMinute;
+        this.createdPerHour = createdPerHour;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public Map<ClassificationStatus, Long> getByStatus() {
+        return byStatus;
+    }
+
+    /**
+     * Get the number of tickets per category. Categories without tickets are left out.
+     *
+     * @return the ticket count by category
+     */
+    public Map<String, Long> getByCategory() {
+        return byCategory;
+    }
+
+    /**
+     * Get the number of tickets per label. Labels without tickets are left out.
+     *
+     * @return the ticket count by label
+     */
+    public Map<String, Long> getByLabel() {
+        return byLabel;
+    }
+
+    /**
+     * Get the number of tickets created in each of the recent minutes, oldest first.
+     * The last bucket is the current, still incomplete minute.
+     *
+     * @return the per-minute buckets
+     */
+    public List<TimeBucket> getCreatedPerMinute() {
+        return createdPerMinute;
+    }
+
+    /**
+     * Get the number of tickets created in each of the recent hours, oldest first.
+     * The last bucket is the current, still incomplete hour.
+     *
+     * @return the per-hour buckets
+     */
+    public List<TimeBucket> getCreatedPerHour() {
+        return createdPerHour;
+    }
+
+    /**
+     * Number of tickets created in a time interval.
+     */
+    public static class TimeBucket {
+
+        private final Instant start;
+        private final long count;
+
+        public TimeBucket(Instant start, long count) {
+            this.start = start;
+            this.count = count;
+        }
+
+        /**
+         * Get the start of the interval.
+         *
+         * @return the start, inclusive
+         */
+        public Instant getStart() {
+            return start;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+}
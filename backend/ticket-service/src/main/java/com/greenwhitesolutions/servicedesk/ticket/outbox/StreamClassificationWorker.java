@@ -0,0 +1,248 @@
+package com.greenwhitesolutions.servicedesk.ticket.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.greenwhitesolutions.servicedesk.ticket.client.AiClient;
+import com.greenwhitesolutions.servicedesk.ticket.config.TicketProperties;
+import com.greenwhitesolutions.servicedesk.ticket.model.ClassificationStatus;
+import com.greenwhitesolutions.servicedesk.ticket.model.Ticket;
+import com.greenwhitesolutions.servicedesk.ticket.model.TicketEventType;
+import com.greenwhitesolutions.servicedesk.ticket.service.TicketService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer.StreamMessageListenerContainerOptions;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer.StreamReadRequest;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Classifies PENDING tickets from the ticket event stream in stream enrichment mode.
+ * The consumers of all nodes share one consumer group, so every CREATED event of a PENDING
+ * ticket is classified by exactly one of them, whichever node created the ticket. An event is
+ * acknowledged once the classification is stored; events left unacknowledged for
+ * {@code claim-idle}, for example because their consumer's node crashed, are claimed and
+ * classified again, and events that keep failing are dropped after {@value #MAX_DELIVERIES} attempts.
+ * <p>
+ * Every node also follows the whole stream outside the group, so a node holding a PENDING ticket
+ * that another node classified picks up the CLASSIFIED event and updates its in-memory copy.
+ */
+@Component
+@ConditionalOnProperty(name = "app.tickets.enrichment.mode", havingValue = "stream")
+public class StreamClassificationWorker {
+
+    /**
+     * Number of deliveries after which an event that was never acknowledged is given up on.
+     */
+    static final int MAX_DELIVERIES = 5;
+
+    private static final Logger log = LoggerFactory.getLogger(StreamClassificationWorker.class);
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(2);
+
+    private final AiClient aiClient;
+    private final TicketService ticketService;
+    private final StringRedisTemplate redisTemplate;
+    private final StreamOperations<String, String, String> streams;
+    private final ObjectReader ticketReader;
+    private final String stream;
+    private final String group;
+    private final String claimOwner;
+    private final Duration claimIdle;
+    private final int batchSize;
+    private final ExecutorService pollers;
+    private final StreamMessageListenerContainer<String, MapRecord<String, String, String>> container;
+    private final ScheduledExecutorService claimer;
+
+    public StreamClassificationWorker(AiClient aiClient, TicketService ticketService,
+                                      RedisConnectionFactory connectionFactory, StringRedisTemplate redisTemplate,
+                                      ObjectMapper objectMapper, TicketProperties properties) {
+        TicketProperties.Outbox config = properties.getOutbox();
+        if (!config.isEnabled()) {
+            throw new IllegalStateException(
+                    "app.tickets.enrichment.mode=stream requires app.tickets.outbox.enabled=true");
+        }
+        this.aiClient = aiClient;
+        this.ticketService = ticketService;
+        this.redisTemplate = redisTemplate;
+        this.streams = redisTemplate.opsForStream();
+        this.ticketReader = objectMapper.readerFor(Ticket.class);
+        this.stream = config.getStream();
+        this.group = config.getConsumerGroup();
+        this.claimIdle = config.getClaimIdle();
+        this.batchSize = config.getBatchSize();
+        String node = "ticket-service-" + properties.getId().getNodeId();
+        this.claimOwner = node + "-claimer";
+
+        createGroup();
+        String lastId = lastRecordId();
+        AtomicInteger threads = new AtomicInteger(1);
+        this.pollers = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "ticket-stream-" + threads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.container = StreamMessageListenerContainer.create(connectionFactory,
+                StreamMessageListenerContainerOptions.builder()
+                        .batchSize(batchSize)
+                        .pollTimeout(POLL_TIMEOUT)
+                        .executor(pollers)
+                        .build());
+        for (int i = 1; i <= config.getConsumers(); i++) {
+            container.register(StreamReadRequest.builder(StreamOffset.create(stream, ReadOffset.lastConsumed()))
+                    .consumer(Consumer.from(group, node + "-" + i))
+                    .autoAcknowledge(false)
+                    .errorHandler(e -> log.warn("Ticket stream consumer failed: {}", e.getMessage()))
+                    .cancelOnError(e -> false)
+                    .build(), this::onGroupRecord);
+        }
+        container.register(StreamReadRequest.builder(StreamOffset.create(stream, ReadOffset.from(lastId)))
+                .errorHandler(e -> log.warn("Ticket stream follower failed: {}", e.getMessage()))
+                .cancelOnError(e -> false)
+                .build(), this::onStreamRecord);
+        container.start();
+
+        this.claimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ticket-stream-claimer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long claimMillis = claimIdle.toMillis();
+        claimer.scheduleWithFixedDelay(this::claimQuietly, claimMillis, claimMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Claim events that were delivered to a consumer of the group but not acknowledged within
+     * {@code claim-idle}, and classify them on this node.
+     *
+     * @return the number of claimed events
+     */
+    public int claimStale() {
+        List<RecordId> stale = streams.pending(stream, group, Range.unbounded(), batchSize).stream()
+                .filter(message -> message.getElapsedTimeSinceLastDelivery().compareTo(claimIdle) >= 0)
+                .filter(this::belowMaxDeliveries)
+                .map(PendingMessage::getId)
+                .toList();
+        if (stale.isEmpty()) {
+            return 0;
+        }
+        List<MapRecord<String, String, String>> claimed = streams.claim(stream, group, claimOwner, claimIdle,
+                stale.toArray(RecordId[]::new));
+        claimed.forEach(this::onGroupRecord);
+        return claimed.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        claimer.shutdownNow();
+        container.stop();
+        pollers.shutdownNow();
+    }
+
+    /**
+     * Classify a PENDING ticket received as a member of the consumer group, then acknowledge the event.
+     */
+    private void onGroupRecord(MapRecord<String, String, String> record) {
+        Ticket ticket = ticketOf(record);
+        if (typeOf(record) == TicketEventType.CREATED
+                && ticket.getClassificationStatus() == ClassificationStatus.PENDING) {
+            ticketService.completeClassification(ticket.getId(), aiClient.classify(ticket.getDescription()));
+        }
+        streams.acknowledge(group, record);
+    }
+
+    /**
+     * Apply classifications stored by other nodes to the tickets held by this one.
+     * Only events whose ticket is actually CLASSIFIED are applied.
+     */
+    private void onStreamRecord(MapRecord<String, String, String> record) {
+        if (typeOf(record) != TicketEventType.CLASSIFIED) {
+            return;
+        }
+        Ticket ticket = ticketOf(record);
+        if (ticket.getClassificationStatus() == ClassificationStatus.CLASSIFIED) {
+            ticketService.applyStoredClassification(ticket);
+        }
+    }
+
+    private boolean belowMaxDeliveries(PendingMessage message) {
+        if (message.getTotalDeliveryCount() < MAX_DELIVERIES) {
+            return true;
+        }
+        log.error("Dropping ticket event {} after {} failed deliveries", message.getIdAsString(),
+                message.getTotalDeliveryCount());
+        streams.acknowledge(stream, group, message.getId());
+        return false;
+    }
+
+    private void claimQuietly() {
+        try {
+            claimStale();
+        } catch (RuntimeException e) {
+            log.warn("Failed to claim stale ticket events: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Create the consumer group, and the stream if needed, unless another node already did.
+     * A new group starts at the beginning of the stream so no retained event is missed.
+     */
+    private void createGroup() {
+        byte[] key = stream.getBytes(StandardCharsets.UTF_8);
+        try {
+            redisTemplate.execute((RedisCallback<String>) connection ->
+                    connection.streamCommands().xGroupCreate(key, group, ReadOffset.from("0-0"), true));
+        } catch (DataAccessException e) {
+            String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            if (message == null || !message.contains("BUSYGROUP")) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Get the id of the newest event, so this node follows the stream from the moment it starts.
+     */
+    private String lastRecordId() {
+        List<MapRecord<String, String, String>> newest = streams.reverseRange(stream, Range.unbounded(),
+                Limit.limit().count(1));
+        return newest == null || newest.isEmpty() ? "0-0" : newest.get(0).getId().getValue();
+    }
+
+    private static TicketEventType typeOf(MapRecord<String, String, String> record) {
+        return TicketEventType.valueOf(record.getValue().get(TicketOutboxRelay.FIELD_TYPE));
+    }
+
+    private Ticket ticketOf(MapRecord<String, String, String> record) {
+        try {
+            return ticketReader.readValue(record.getValue().get(TicketOutboxRelay.FIELD_TICKET));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed ticket in event " + record.getId(), e);
+        }
+    }
+}
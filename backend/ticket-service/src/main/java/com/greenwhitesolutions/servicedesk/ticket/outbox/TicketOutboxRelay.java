@@ -0,0 +1,127 @@
+package com.greenwhitesolutions.servicedesk.ticket.outbox;
+
+import com.greenwhitesolutions.servicedesk.ticket.config.TicketProperties;
+import com.greenwhitesolutions.servicedesk.ticket.repository.TicketOutboxEntity;
+import com.greenwhitesolutions.servicedesk.ticket.repository.TicketOutboxRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Relays ticket events from the outbox table to a Redis stream.
+ * Each run locks the oldest outbox rows, appends them to the stream in one pipelined round trip
+ * and deletes them in the same transaction. Rows are only deleted once Redis accepted them, so an
+ * event is published at least once: a crash between the append and the commit publishes the
+ * rows again on the next run, and consumers must tolerate duplicates.
+ * Relays on several nodes skip each other's locked rows, so events are ordered within a batch
+ * but batches of different nodes may interleave.
+ */
+@Component
+@ConditionalOnProperty(name = "app.tickets.outbox.enabled", havingValue = "true")
+public class TicketOutboxRelay {
+
+    static final String FIELD_EVENT_ID = "eventId";
+    static final String FIELD_TYPE = "type";
+    static final String FIELD_TICKET_ID = "ticketId";
+    static final String FIELD_TICKET = "ticket";
+
+    private static final Logger log = LoggerFactory.getLogger(TicketOutboxRelay.class);
+
+    private final TicketOutboxRepository outboxRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final byte[] streamKey;
+    private final RedisStreamCommands.XAddOptions addOptions;
+    private final int batchSize;
+    private final ScheduledExecutorService scheduler;
+
+    public TicketOutboxRelay(TicketOutboxRepository outboxRepository, TransactionTemplate transactionTemplate,
+                             StringRedisTemplate redisTemplate, TicketProperties properties) {
+        TicketProperties.Outbox config = properties.getOutbox();
+        this.outboxRepository = outboxRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.redisTemplate = redisTemplate;
+        this.streamKey = config.getStream().getBytes(StandardCharsets.UTF_8);
+        this.addOptions = RedisStreamCommands.XAddOptions.maxlen(config.getMaxLength()).approximateTrimming(true);
+        this.batchSize = config.getBatchSize();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ticket-outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = config.getRelayInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::relayQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Relay all outbox rows to the stream, one batch per transaction.
+     *
+     * @return the number of relayed events
+     */
+    public int relay() {
+        int total = 0;
+        int relayed;
+        do {
+            relayed = transactionTemplate.execute(status -> relayBatch());
+            total += relayed;
+        } while (relayed == batchSize);
+        return total;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+
+    private int relayBatch() {
+        List<TicketOutboxEntity> rows = outboxRepository.lockOldest(batchSize);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (TicketOutboxEntity row : rows) {
+                connection.streamCommands().xAdd(MapRecord.create(streamKey, fields(row)), addOptions);
+            }
+            return null;
+        });
+        outboxRepository.deleteAllInBatch(rows);
+        log.debug("Relayed {} ticket events", rows.size());
+        return rows.size();
+    }
+
+    private void relayQuietly() {
+        try {
+            relay();
+        } catch (RuntimeException e) {
+            log.error("Failed to relay ticket events, will retry", e);
+        }
+    }
+
+    private static Map<byte[], byte[]> fields(TicketOutboxEntity row) {
+        Map<byte[], byte[]> fields = new LinkedHashMap<>();
+        fields.put(bytes(FIELD_EVENT_ID), bytes(row.getId().toString()));
+        fields.put(bytes(FIELD_TYPE), bytes(row.getEventType().name()));
+        fields.put(bytes(FIELD_TICKET_ID), bytes(row.getTicketId().toString()));
+        fields.put(bytes(FIELD_TICKET), bytes(row.getPayload()));
+        return fields;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
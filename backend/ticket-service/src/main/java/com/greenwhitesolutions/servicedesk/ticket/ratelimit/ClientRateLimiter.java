@@ -0,0 +1,159 @@
+package com.greenwhitesolutions.servicedesk.ticket.ratelimit;
+
+import com.greenwhitesolutions.servicedesk.ticket.config.TicketProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets limiting how fast each client may create tickets.
+ * Clients are identified by API key when the key is configured with a tier, and otherwise by
+ * remote address in the default tier, so unknown keys cannot be used to get fresh buckets.
+ * <p>
+ * A bucket is kept as a single {@link AtomicLong} holding the time at which it will be full
+ * again. Taking a token moves that time forward by the refill interval of one token, and is
+ * refused when it would move more than {@code capacity} intervals past now. This is equivalent
+ * to a bucket refilled continuously, but a request costs one map lookup and one compare-and-set,
+ * without a lock or a refill thread. Buckets that are full again are removed periodically.
+ */
+public class ClientRateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(ClientRateLimiter.class);
+
+    private final LongSupplier clock;
+    private final Limit defaultLimit;
+    private final Map<String, Limit> clientLimits = new HashMap<>();
+    private final ConcurrentHashMap<String, Bucket> clientBuckets = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Bucket> addressBuckets = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    public ClientRateLimiter(TicketProperties.RateLimit config) {
+        this(config, System::nanoTime);
+    }
+
+    ClientRateLimiter(TicketProperties.RateLimit config, LongSupplier clock) {
+        this.clock = clock;
+        this.defaultLimit = limitOf(config, config.getDefaultTier());
+        config.getClients().forEach((apiKey, tier) -> clientLimits.put(apiKey, limitOf(config, tier)));
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ticket-rate-limit");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long evictionMillis = config.getEvictionInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::evictQuietly, evictionMillis, evictionMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Take a token from the bucket of a client.
+     *
+     * @param apiKey the API key sent by the client, or null
+     * @param address the remote address of the client
+     * @return 0 if the request may proceed, otherwise the nanoseconds until a token is available
+     */
+    public long tryAcquire(String apiKey, String address) {
+        long now = clock.getAsLong();
+        Limit limit = apiKey != null ? clientLimits.get(apiKey) : null;
+        if (limit != null) {
+            return bucket(clientBuckets, apiKey, limit, now).tryAcquire(now);
+        }
+        return bucket(addressBuckets, address, defaultLimit, now).tryAcquire(now);
+    }
+
+    /**
+     * Remove the buckets that have refilled completely, which behave like new ones.
+     * A request racing with the removal may take its token from the removed bucket, which lets
+     * that client through once more than its limit at most.
+     */
+    void evict() {
+        long now = clock.getAsLong();
+        clientBuckets.values().removeIf(bucket -> bucket.isFull(now));
+        addressBuckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    /**
+     * Get the number of clients with a bucket.
+     *
+     * @return the number of tracked clients
+     */
+    int size() {
+        return clientBuckets.size() + addressBuckets.size();
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void evictQuietly() {
+        try {
+            evict();
+        } catch (RuntimeException e) {
+            log.error("Failed to evict idle rate limit buckets", e);
+        }
+    }
+
+    private static Bucket bucket(ConcurrentHashMap<String, Bucket> buckets, String key, Limit limit, long now) {
+        // A plain get first, since computeIfAbsent may lock the bin even when the key is present
+        Bucket bucket = buckets.get(key);
+        return bucket != null ? bucket : buckets.computeIfAbsent(key, ignored -> new Bucket(limit, now));
+    }
+
+    private static Limit limitOf(TicketProperties.RateLimit config, String tierName) {
+        TicketProperties.Tier tier = config.getTiers().get(tierName);
+        if (tier == null) {
+            throw new IllegalStateException("Unknown rate limit tier: " + tierName);
+        }
+        if (tier.getCapacity() <= 0 || tier.getRefillPerSecond() <= 0) {
+            throw new IllegalStateException("Rate limit tier " + tierName + " needs a positive capacity and rate");
+        }
+        long intervalNanos = Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / tier.getRefillPerSecond()));
+        return new Limit(intervalNanos, intervalNanos * tier.getCapacity());
+    }
+
+    /**
+     * Refill interval of one token, and the time it takes to refill the whole bucket.
+     */
+    private record Limit(long intervalNanos, long capacityNanos) {
+    }
+
+    private static final class Bucket {
+
+        private final Limit limit;
+        /**
+         * Time at which the bucket is full again, on the {@link System#nanoTime()} scale.
+         */
+        private final AtomicLong fullAt;
+
+        Bucket(Limit limit, long now) {
+            this.limit = limit;
+            this.fullAt = new AtomicLong(now);
+        }
+
+        long tryAcquire(long now) {
+            while (true) {
+                long current = fullAt.get();
+                // Compared by difference, since nanoTime values may be negative
+                long next = (current - now > 0 ? current : now) + limit.intervalNanos();
+                long wait = next - limit.capacityNanos() - now;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        boolean isFull(long now) {
+            return fullAt.get() - now <= 0;
+        }
+    }
+}
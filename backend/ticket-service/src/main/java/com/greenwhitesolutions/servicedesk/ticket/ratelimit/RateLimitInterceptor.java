@@ -0,0 +1,42 @@
+package com.greenwhitesolutions.servicedesk.ticket.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rejects ticket creation requests, single or bulk, of clients that exceed their rate limit with
+ * 429 Too Many Requests, telling them in {@code Retry-After} how many seconds to wait.
+ * Requests with other methods pass through.
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final ClientRateLimiter rateLimiter;
+    private final String clientHeader;
+
+    public RateLimitInterceptor(ClientRateLimiter rateLimiter, String clientHeader) {
+        this.rateLimiter = rateLimiter;
+        this.clientHeader = clientHeader;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.POST.matches(request.getMethod())) {
+            return true;
+        }
+        long waitNanos = rateLimiter.tryAcquire(request.getHeader(clientHeader), request.getRemoteAddr());
+        if (waitNanos == 0) {
+            return true;
+        }
+        // Retry-After takes whole seconds; rounding down would invite a retry that is refused again
+        long seconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        return false;
+    }
+}
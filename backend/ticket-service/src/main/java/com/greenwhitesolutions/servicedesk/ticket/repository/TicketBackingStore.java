@@ -0,0 +1,77 @@
+package com.greenwhitesolutions.servicedesk.ticket.repository;
+
+import com.greenwhitesolutions.servicedesk.ticket.model.Ticket;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Durable storage behind the in-memory ticket store.
+ * Implementations may persist asynchronously; reads must still see tickets that are not yet persisted.
+ */
+public interface TicketBackingStore {
+
+    /**
+     * Backing store that keeps nothing, used when persistence is disabled.
+     */
+    TicketBackingStore NONE = new TicketBackingStore() {
+        @Override
+        public void insert(Ticket ticket) {
+        }
+
+        @Override
+        public void update(Ticket ticket) {
+        }
+
+        @Override
+        public Optional<Ticket> findById(Long id) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<Long> findMaxId() {
+            return Optional.empty();
+        }
+
+        @Override
+        public List<Ticket> findAll() {
+            return List.of();
+        }
+    };
+
+    /**
+     * Store a newly created ticket.
+     *
+     * @param ticket the ticket to store
+     */
+    void insert(Ticket ticket);
+
+    /**
+     * Store the new state of an existing ticket.
+     *
+     * @param ticket the ticket to store
+     */
+    void update(Ticket ticket);
+
+    /**
+     * Find a ticket by ID.
+     *
+     * @param id the ticket ID
+     * @return the ticket if found
+     */
+    Optional<Ticket> findById(Long id);
+
+    /**
+     * Find the highest stored ticket id.
+     *
+     * @return the highest id, or empty if the store is empty
+     */
+    Optional<Long> findMaxId();
+
+    /**
+     * Find all stored tickets, to load them into memory on startup.
+     *
+     * @return the stored tickets in id order
+     */
+    List<Ticket> findAll();
+}
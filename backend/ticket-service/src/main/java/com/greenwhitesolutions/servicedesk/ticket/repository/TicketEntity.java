@@ -0,0 +1,139 @@
+package com.greenwhitesolutions.servicedesk.ticket.repository;
+
+import com.greenwhitesolutions.servicedesk.ticket.model.ClassificationStatus;
+import com.greenwhitesolutions.servicedesk.ticket.model.Ticket;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import org.springframework.data.domain.Persistable;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * JPA entity for persisted tickets.
+ * Ids are assigned by the service, so the entity reports itself as new until it has been
+ * persisted; this lets saveAll issue batched inserts instead of a select-then-insert per row.
+ */
+@Entity
+@Table(name = "tickets")
+public class TicketEntity implements Persistable<Long> {
+
+    private static final String LABEL_SEPARATOR = ",";
+
+    /**
+     * Length of the labels column.
+     */
+    static final int MAX_LABELS_LENGTH = 1000;
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(length = 10000)
+    private String description;
+
+    @Column(length = 100)
+    private String category;
+
+    /**
+     * Labels joined with commas. Labels are short slugs, so a single column avoids a join table.
+     */
+    @Column(length = MAX_LABELS_LENGTH)
+    private String labels;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "classification_status", length = 20)
+    private ClassificationStatus classificationStatus;
+
+    @Column(name = "parent_id")
+    private Long parentId;
+
+    @Transient
+    private boolean isNew = true;
+
+    protected TicketEntity() {
+    }
+
+    /**
+     * Create an entity holding the state of the given ticket.
+     *
+     * @param ticket the ticket to persist
+     * @return a new, not yet persisted entity
+     */
+    public static TicketEntity from(Ticket ticket) {
+        TicketEntity entity = new TicketEntity();
+        entity.id = ticket.getId();
+        entity.copyFrom(ticket);
+        return entity;
+    }
+
+    /**
+     * Overwrite the mutable state of this entity with the given ticket.
+     *
+     * @param ticket the ticket to copy from
+     */
+    public void copyFrom(Ticket ticket) {
+        this.title = ticket.getTitle();
+        this.description = ticket.getDescription();
+        this.category = ticket.getCategory();
+        this.labels = ticket.getLabels() == null ? null : joinLabels(ticket.getLabels());
+        this.classificationStatus = ticket.getClassificationStatus();
+        this.parentId = ticket.getParentId();
+    }
+
+    /**
+     * Convert this entity to the API model.
+     *
+     * @return the ticket
+     */
+    public Ticket toTicket() {
+        List<String> labelList = labels == null || labels.isEmpty()
+                ? List.of()
+                : Arrays.asList(labels.split(LABEL_SEPARATOR));
+        return new Ticket(id, title, description, category, labelList, classificationStatus, parentId);
+    }
+
+    /**
+     * Join labels with commas, leaving out the trailing labels that do not fit into the column,
+     * so an unusually long classification cannot make the row fail to write.
+     */
+    static String joinLabels(List<String> labels) {
+        StringBuilder joined = new StringBuilder();
+        for (String label : labels) {
+            int length = joined.isEmpty() ? label.length() : joined.length() + LABEL_SEPARATOR.length() + label.length();
+            if (length > MAX_LABELS_LENGTH) {
+                break;
+            }
+            if (!joined.isEmpty()) {
+                joined.append(LABEL_SEPARATOR);
+            }
+            joined.append(label);
+        }
+        return joined.toString();
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
@@ -0,0 +1,76 @@
+package com.greenwhitesolutions.servicedesk.ticket.repository;
+
+import com.greenwhitesolutions.servicedesk.ticket.model.TicketEventType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+/**
+ * JPA entity for a ticket event waiting in the transactional outbox.
+ * Rows are written in the same transaction as the ticket change they describe and deleted
+ * once relayed, so an event is never lost or published for a change that was rolled back.
+ * Ids come from a sequence with a large increment, so inserts stay batched and ids follow commit order closely.
+ */
+@Entity
+@Table(name = "ticket_outbox")
+public class TicketOutboxEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ticket_outbox_seq")
+    @SequenceGenerator(name = "ticket_outbox_seq", sequenceName = "ticket_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "ticket_id", nullable = false)
+    private Long ticketId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 20)
+    private TicketEventType eventType;
+
+    /**
+     * The ticket after the change, as JSON.
+     */
+    @Column(nullable = false, length = 20000)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    protected TicketOutboxEntity() {
+    }
+
+    public TicketOutboxEntity(Long ticketId, TicketEventType eventType, String payload, Instant createdAt) {
+        this.ticketId = ticketId;
+        this.eventType = eventType;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getTicketId() {
+        return ticketId;
+    }
+
+    public TicketEventType getEventType() {
+        return eventType;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
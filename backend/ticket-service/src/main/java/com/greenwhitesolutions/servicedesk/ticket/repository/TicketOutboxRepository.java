@@ -0,0 +1,24 @@
+package com.greenwhitesolutions.servicedesk.ticket.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+/**
+ * Spring Data repository for the ticket outbox.
+ */
+public interface TicketOutboxRepository extends JpaRepository<TicketOutboxEntity, Long> {
+
+    /**
+     * Lock the oldest outbox rows for relaying. Rows locked by another node's relay are skipped,
+     * so several nodes can relay concurrently without publishing the same row twice.
+     * Must be called within a transaction, which holds the locks until the rows are deleted.
+     *
+     * @param limit the maximum number of rows
+     * @return the locked rows in id order
+     */
+    @Query(value = "select * from ticket_outbox order by id limit :limit for update skip locked", nativeQuery = true)
+    List<TicketOutboxEntity> lockOldest(@Param("limit") int limit);
+}
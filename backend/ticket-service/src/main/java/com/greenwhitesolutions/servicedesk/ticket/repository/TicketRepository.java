@@ -0,0 +1,30 @@
+package com.greenwhitesolutions.servicedesk.ticket.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+/**
+ * Spring Data repository for persisted tickets.
+ */
+public interface TicketRepository extends JpaRepository<TicketEntity, Long> {
+
+    /**
+     * Find the highest persisted ticket id.
+     *
+     * @return the highest id, or null if no tickets are persisted
+     */
+    @Query("select max(t.id) from TicketEntity t")
+    Long findMaxId();
+
+    /**
+     * Find the persisted tickets following the given id, used to read the table page by page.
+     *
+     * @param id the id to continue after
+     * @param pageable the page size; the page number must be 0
+     * @return the next tickets in id order
+     */
+    List<TicketEntity> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+}
@@ -0,0 +1,369 @@
+package com.greenwhitesolutions.servicedesk.ticket.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.greenwhitesolutions.servicedesk.ticket.config.TicketProperties;
+import com.greenwhitesolutions.servicedesk.ticket.model.ClassificationStatus;
+import com.greenwhitesolutions.servicedesk.ticket.model.Ticket;
+import com.greenwhitesolutions.servicedesk.ticket.model.TicketEventType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Backing store that buffers ticket writes and flushes them to the database in batches.
+ * Writes to the same ticket are coalesced while buffered, so a ticket created as PENDING
+ * and classified before the next flush costs a single insert. A flush runs every
+ * {@code flush-interval}, as soon as {@code batch-size} tickets are buffered, and on shutdown.
+ * When {@code buffer-capacity} is reached the writing thread flushes synchronously; a failed flush
+ * is logged and retried later, so writers never see the error.
+ * <p>
+ * A row the database rejects, for example with a value too long for its column, fails the
+ * whole batch. The batch is then written row by row, and rows that are still rejected are
+ * dead-lettered: logged with their outbox events and counted as {@value #DEAD_LETTERED_METRIC},
+ * instead of failing every later flush. Other failures, such as an unavailable database, put the
+ * batch back into the buffer.
+ * <p>
+ * With the outbox enabled, every write also adds a ticket event to the outbox table in the
+ * transaction that flushes it: CREATED for inserts, and CLASSIFIED for updates that store a
+ * CLASSIFIED ticket. Updates leaving a ticket PENDING add no event. Events are kept per write,
+ * not per coalesced row, so a ticket created and classified between two flushes gets both events.
+ */
+@Component
+@ConditionalOnProperty(name = "app.tickets.persistence.enabled", havingValue = "true", matchIfMissing = true)
+public class WriteBehindTicketStore implements TicketBackingStore {
+
+    static final String DEAD_LETTERED_METRIC = "tickets.persistence.dead-lettered";
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindTicketStore.class);
+
+    private final TicketRepository repository;
+    private final TicketOutboxRepository outboxRepository;
+    private final ObjectWriter ticketWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int bufferCapacity;
+    private final Map<Long, PendingWrite> pending = new ConcurrentHashMap<>();
+    private final Map<Long, PendingWrite> inFlight = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ScheduledExecutorService scheduler;
+    private final Counter deadLettered;
+
+    public WriteBehindTicketStore(TicketRepository repository, TransactionTemplate transactionTemplate,
+                                  TicketProperties properties) {
+        this(repository, null, null, transactionTemplate, properties);
+    }
+
+    public WriteBehindTicketStore(TicketRepository repository, TicketOutboxRepository outboxRepository,
+                                  ObjectMapper objectMapper, TransactionTemplate transactionTemplate,
+                                  TicketProperties properties) {
+        this(repository, outboxRepository, objectMapper, transactionTemplate, properties, new SimpleMeterRegistry());
+    }
+
+    @Autowired
+    public WriteBehindTicketStore(TicketRepository repository, TicketOutboxRepository outboxRepository,
+                                  ObjectMapper objectMapper, TransactionTemplate transactionTemplate,
+                                  TicketProperties properties, MeterRegistry meterRegistry) {
+        TicketProperties.Persistence config = properties.getPersistence();
+        this.repository = repository;
+        boolean outbox = outboxRepository != null && properties.getOutbox().isEnabled();
+        this.outboxRepository = outbox ? outboxRepository : null;
+        this.ticketWriter = outbox ? objectMapper.writerFor(Ticket.class) : null;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = config.getBatchSize();
+        this.bufferCapacity = config.getBufferCapacity();
+        this.deadLettered = Counter.builder(DEAD_LETTERED_METRIC)
+                .description("Ticket writes dropped because the database rejects them")
+                .register(meterRegistry);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ticket-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = config.getFlushInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void insert(Ticket ticket) {
+        enqueue(PendingWrite.of(ticket, true));
+    }
+
+    @Override
+    public void update(Ticket ticket) {
+        enqueue(PendingWrite.of(ticket, false));
+    }
+
+    @Override
+    public Optional<Ticket> findById(Long id) {
+        PendingWrite write = pending.get(id);
+        if (write == null) {
+            write = inFlight.get(id);
+        }
+        if (write != null) {
+            return Optional.of(write.ticket());
+        }
+        return repository.findById(id).map(TicketEntity::toTicket);
+    }
+
+    @Override
+    public Optional<Long> findMaxId() {
+        return Optional.ofNullable(repository.findMaxId());
+    }
+
+    /**
+     * Reads the table in pages of {@code batch-size} rows, continuing after the last id of the
+     * previous page. Buffered writes are not included, since this is only called on startup.
+     */
+    @Override
+    public List<Ticket> findAll() {
+        List<Ticket> tickets = new ArrayList<>();
+        long after = Long.MIN_VALUE;
+        List<TicketEntity> page;
+        do {
+            page = repository.findByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, batchSize));
+            page.forEach(entity -> tickets.add(entity.toTicket()));
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == batchSize);
+        return tickets;
+    }
+
+    /**
+     * Get the number of tickets waiting to be written.
+     *
+     * @return the number of buffered tickets
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Write all buffered tickets to the database. Rows the database rejects are dead-lettered.
+     *
+     * @throws RuntimeException if the database could not be written for another reason; the
+     *         unwritten tickets stay buffered
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushRequested.set(false);
+            while (!pending.isEmpty()) {
+                List<PendingWrite> batch = drainBatch();
+                try {
+                    write(batch);
+                } catch (RuntimeException e) {
+                    if (!isRejected(e)) {
+                        batch.forEach(this::requeue);
+                        throw e;
+                    }
+                    log.warn("Database rejected a batch of {} tickets, writing them one by one", batch.size());
+                    writeEach(batch);
+                } finally {
+                    inFlight.clear();
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Get the number of ticket writes dropped because the database rejects them.
+     *
+     * @return the number of dead-lettered writes
+     */
+    public long getDeadLetteredCount() {
+        return (long) deadLettered.count();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+        flush();
+    }
+
+    private void enqueue(PendingWrite write) {
+        pending.merge(write.ticket().getId(), write, PendingWrite::supersededBy);
+        int size = pending.size();
+        if (size >= bufferCapacity) {
+            // Slow writers down while the buffer is full, without failing their request
+            flushQuietly();
+        } else if (size >= batchSize && flushRequested.compareAndSet(false, true)) {
+            scheduler.execute(this::flushQuietly);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Failed to flush {} buffered tickets, will retry", pending.size(), e);
+        }
+    }
+
+    private void write(List<PendingWrite> batch) {
+        transactionTemplate.executeWithoutResult(status -> writeBatch(batch));
+    }
+
+    /**
+     * Write the tickets of a rejected batch in a transaction each, dead-lettering those that are
+     * still rejected. If a write fails for another reason, it and the rest are put back into the buffer.
+     */
+    private void writeEach(List<PendingWrite> batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            PendingWrite write = batch.get(i);
+            try {
+                write(List.of(write));
+            } catch (RuntimeException e) {
+                if (!isRejected(e)) {
+                    batch.subList(i, batch.size()).forEach(this::requeue);
+                    throw e;
+                }
+                deadLettered.increment();
+                log.error("Dead-lettering ticket {} with events {}: the database rejects it: {}",
+                        write.ticket().getId(), write.events().stream().map(PendingEvent::type).toList(),
+                        NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            }
+        }
+    }
+
+    /**
+     * Check whether a write failed because the database rejects the data rather than because it is
+     * unavailable: an integrity violation, or an SQL state of class 22 (data exception, such as a
+     * value too long for its column) or 23 (integrity constraint violation).
+     */
+    private static boolean isRejected(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DataIntegrityViolationException) {
+                return true;
+            }
+            if (cause instanceof SQLException sqlException && sqlException.getSQLState() != null
+                    && (sqlException.getSQLState().startsWith("22") || sqlException.getSQLState().startsWith("23"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<PendingWrite> drainBatch() {
+        List<PendingWrite> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+        Iterator<Long> ids = pending.keySet().iterator();
+        while (batch.size() < batchSize && ids.hasNext()) {
+            PendingWrite write = pending.remove(ids.next());
+            if (write != null) {
+                inFlight.put(write.ticket().getId(), write);
+                batch.add(write);
+            }
+        }
+        return batch;
+    }
+
+    private void writeBatch(List<PendingWrite> batch) {
+        List<TicketEntity> inserts = new ArrayList<>();
+        List<Ticket> updates = new ArrayList<>();
+        for (PendingWrite write : batch) {
+            if (write.insert()) {
+                inserts.add(TicketEntity.from(write.ticket()));
+            } else {
+                updates.add(write.ticket());
+            }
+        }
+        if (!updates.isEmpty()) {
+            // Load all rows to update with one query; dirty checking then issues batched updates
+            Map<Long, TicketEntity> existing = repository.findAllById(updates.stream().map(Ticket::getId).toList())
+                    .stream()
+                    .collect(Collectors.toMap(TicketEntity::getId, Function.identity()));
+            for (Ticket ticket : updates) {
+                TicketEntity entity = existing.get(ticket.getId());
+                if (entity != null) {
+                    entity.copyFrom(ticket);
+                } else {
+                    inserts.add(TicketEntity.from(ticket));
+                }
+            }
+        }
+        repository.saveAll(inserts);
+        if (outboxRepository != null) {
+            outboxRepository.saveAll(outboxEvents(batch));
+        }
+        log.debug("Flushed {} ticket inserts and {} updates", inserts.size(), batch.size() - inserts.size());
+    }
+
+    private List<TicketOutboxEntity> outboxEvents(List<PendingWrite> batch) {
+        Instant now = Instant.now();
+        List<TicketOutboxEntity> events = new ArrayList<>(batch.size());
+        for (PendingWrite write : batch) {
+            for (PendingEvent event : write.events()) {
+                try {
+                    events.add(new TicketOutboxEntity(event.ticket().getId(), event.type(),
+                            ticketWriter.writeValueAsString(event.ticket()), now));
+                } catch (JsonProcessingException e) {
+                    throw new IllegalStateException("Cannot serialize ticket " + event.ticket().getId(), e);
+                }
+            }
+        }
+        return events;
+    }
+
+    private void requeue(PendingWrite failed) {
+        // A write buffered since the failed batch was drained is newer, so it keeps its state and follows its events
+        pending.merge(failed.ticket().getId(), failed, (newer, old) -> old.supersededBy(newer));
+    }
+
+    /**
+     * A buffered write, with the events of all writes coalesced into it in order. A ticket that
+     * has never been flushed stays an insert even when later updates replace its state.
+     */
+    private record PendingWrite(Ticket ticket, boolean insert, List<PendingEvent> events) {
+
+        static PendingWrite of(Ticket ticket, boolean insert) {
+            TicketEventType type = insert ? TicketEventType.CREATED
+                    : ticket.getClassificationStatus() == ClassificationStatus.CLASSIFIED ? TicketEventType.CLASSIFIED
+                    : null;
+            return new PendingWrite(ticket, insert, type != null ? List.of(new PendingEvent(type, ticket)) : List.of());
+        }
+
+        PendingWrite supersededBy(PendingWrite newer) {
+            List<PendingEvent> merged = new ArrayList<>(events.size() + newer.events().size());
+            merged.addAll(events);
+            merged.addAll(newer.events());
+            return new PendingWrite(newer.ticket(), insert || newer.insert(), merged);
+        }
+    }
+
+    /**
+     * An outbox event of a buffered write, with the ticket as it was written.
+     */
+    private record PendingEvent(TicketEventType type, Ticket ticket) {
+    }
+}
@@ -0,0 +1,194 @@
+package com.greenwhitesolutions.servicedesk.ticket.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.greenwhitesolutions.servicedesk.ticket.client.AiClient;
+import com.greenwhitesolutions.servicedesk.ticket.config.TicketProperties;
+import com.greenwhitesolutions.servicedesk.ticket.model.BulkImportResult;
+import com.greenwhitesolutions.servicedesk.ticket.model.ClassificationStatus;
+import com.greenwhitesolutions.servicedesk.ticket.model.CreateTicketRequest;
+import com.greenwhitesolutions.servicedesk.ticket.model.Ticket;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Service for importing large numbers of tickets from a newline-delimited JSON stream.
+ * Records are read lazily and their descriptions classified in batches through the batch
+ * endpoint of the AI service, with a bounded number of concurrent calls, so a slow batch never
+ * stalls the others; classified tickets are stored in input order and persisted in batches by the
+ * backing store.
+ * <p>
+ * A record whose classification failed is not stored with the fallback category. When tickets are
+ * classified in the background it is stored as PENDING and classified like a newly created ticket;
+ * otherwise it is reported as failed, so it can be imported again.
+ */
+@Service
+public class BulkImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkImportService.class);
+
+    private final TicketService ticketService;
+    private final AiClient aiClient;
+    private final ObjectReader requestReader;
+    private final Validator validator;
+    private final TicketProperties.Bulk config;
+
+    public BulkImportService(TicketService ticketService, AiClient aiClient, ObjectMapper objectMapper,
+                             Validator validator, TicketProperties properties) {
+        this.ticketService = ticketService;
+        this.aiClient = aiClient;
+        this.validator = validator;
+        this.requestReader = objectMapper.readerFor(CreateTicketRequest.class);
+        this.config = properties.getBulk();
+    }
+
+    /**
+     * Import tickets from a stream with one JSON ticket creation request per line.
+     * Blank lines are ignored. Records that cannot be parsed, have no title, or have a title or
+     * description longer than the single create endpoint accepts are reported
+     * as failures without aborting the import, and so are records whose classification failed
+     * unless tickets are classified in the background.
+     *
+     * @param body the newline-delimited JSON input
+     * @return counts of imported, still PENDING and failed records and the first failures
+     */
+    public BulkImportResult importTickets(InputStream body) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        int classifyBatchSize = Math.min(config.getClassifyBatchSize(), AiClient.MAX_BATCH_SIZE);
+        Flux<ImportRecord> classified = Flux.fromStream(reader::lines)
+                .index()
+                .filter(line -> !line.getT2().isBlank())
+                .map(line -> parse(line.getT1() + 1, line.getT2()))
+                // Read the request body off the HTTP client threads that drive the classification calls
+                .subscribeOn(Schedulers.boundedElastic())
+                .buffer(classifyBatchSize)
+                .flatMapSequential(this::classify, config.getClassifyConcurrency())
+                .flatMapIterable(Function.identity());
+
+        boolean deferUnclassified = ticketService.classifiesInBackground();
+        long imported = 0;
+        long pending = 0;
+        long failed = 0;
+        List<BulkImportResult.Failure> failures = new ArrayList<>();
+        for (ImportRecord record : classified.toIterable(config.getBatchSize())) {
+            String error = record.error();
+            if (error == null && isUnclassified(record)) {
+                if (deferUnclassified) {
+                    Ticket ticket = ticketService.createTicket(record.request());
+                    if (ticket.getClassificationStatus() == ClassificationStatus.PENDING) {
+                        pending++;
+                    }
+                } else {
+                    error = "classification failed";
+                }
+            } else if (error == null) {
+                ticketService.createClassifiedTicket(record.request(), record.labels());
+            }
+            if (error != null) {
+                failed++;
+                if (failures.size() < config.getMaxReportedFailures()) {
+                    failures.add(new BulkImportResult.Failure(record.line(), error));
+                }
+            } else {
+                imported++;
+            }
+            if ((imported + failed) % config.getBatchSize() == 0) {
+                log.info("Bulk import progress: {} imported ({} pending), {} failed", imported, pending, failed);
+            }
+        }
+        log.info("Bulk import finished: {} imported ({} pending), {} failed", imported, pending, failed);
+        return new BulkImportResult(imported, pending, failed, failures);
+    }
+
+    private ImportRecord parse(long line, String json) {
+        try {
+            CreateTicketRequest request = requestReader.readValue(json);
+            // Report the same violations as the single create endpoint, in a stable order
+            String violation = validator.validate(request).stream()
+                    .sorted(Comparator.comparing(error -> error.getPropertyPath().toString()))
+                    .map(ConstraintViolation::getMessage)
+                    .findFirst()
+                    .orElse(null);
+            if (violation != null) {
+                return ImportRecord.failed(line, violation);
+            }
+            return new ImportRecord(line, request, null, null);
+        } catch (JsonProcessingException e) {
+            return ImportRecord.failed(line, "invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    /**
+     * Classify the descriptions of a batch of records with one call. Records without a description
+     * get no labels, and invalid records are passed on as they are.
+     */
+    private Mono<List<ImportRecord>> classify(List<ImportRecord> batch) {
+        List<String> descriptions = batch.stream()
+                .filter(BulkImportService::hasDescription)
+                .map(record -> record.request().getDescription())
+                .toList();
+        // Skip the call when no record has a description to classify
+        Mono<List<List<String>>> classification = descriptions.isEmpty()
+                ? Mono.just(List.of())
+                : aiClient.classifyBatchAsync(descriptions);
+        return classification.map(labels -> {
+            Iterator<List<String>> next = labels.iterator();
+            List<ImportRecord> classified = new ArrayList<>(batch.size());
+            for (ImportRecord record : batch) {
+                if (record.error() != null) {
+                    classified.add(record);
+                } else {
+                    classified.add(record.withLabels(hasDescription(record) ? next.next() : List.of()));
+                }
+            }
+            return classified;
+        });
+    }
+
+    private static boolean hasDescription(ImportRecord record) {
+        if (record.error() != null) {
+            return false;
+        }
+        String description = record.request().getDescription();
+        return description != null && !description.isBlank();
+    }
+
+    /**
+     * Check whether the description of a record could not be classified. The AI client returns no
+     * labels when the AI service failed or was unavailable.
+     */
+    private static boolean isUnclassified(ImportRecord record) {
+        return hasDescription(record) && record.labels().isEmpty();
+    }
+
+    /**
+     * A line of the import with its parsed request, classification labels or error.
+     */
+    private record ImportRecord(long line, CreateTicketRequest request, List<String> labels, String error) {
+
+        static ImportRecord failed(long line, String error) {
+            return new ImportRecord(line, null, null, error);
+        }
+
+        ImportRecord withLabels(List<String> labels) {
+            return new ImportRecord(line, request, labels, null);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.greenwhitesolutions.servicedesk.ticket.service;
+
+import com.greenwhitesolutions.servicedesk.ticket.model.ClassificationStatus;
+import com.greenwhitesolutions.servicedesk.ticket.model.Ticket;
+
+import java.util.List;
+
+/**
+ * Immutable in-memory layout of a ticket.
+ * The category and the labels are stored as {@link LabelDictionary} codes, so a ticket holds no
+ * label strings or list of its own. Up to {@value #PACKED_LABELS} labels are packed into a single
+ * long, one 16-bit code per slot; tickets with more labels, or codes that do not fit a slot, keep
+ * an array of codes instead. Labels keep their original order, duplicates included, so a decoded
+ * ticket has exactly the labels it was created with.
+ */
+final class CompactTicket {
+
+    private static final int NO_CATEGORY = -1;
+    private static final long NO_PARENT = -1;
+    static final int PACKED_LABELS = 4;
+
+    private static final int SLOT_BITS = Long.SIZE / PACKED_LABELS;
+    private static final long SLOT_MASK = (1L << SLOT_BITS) - 1;
+
+    private final long id;
+    private final String title;
+    private final String description;
+    private final ClassificationStatus status;
+    private final long parentId;
+    private final int category;
+    /**
+     * Label codes plus one, one per 16-bit slot starting with the lowest; an empty slot ends the labels.
+     */
+    private final long packedLabels;
+    private final int[] labelCodes;
+
+    private CompactTicket(long id, String title, String description, ClassificationStatus status,
+                          long parentId, int category, long packedLabels, int[] labelCodes) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.status = status;
+        this.parentId = parentId;
+        this.category = category;
+        this.packedLabels = packedLabels;
+        this.labelCodes = labelCodes;
+    }
+
+    /**
+     * Encode a ticket, interning its category and labels in the dictionary.
+     *
+     * @param ticket the ticket to encode
+     * @param dictionary the dictionary of label codes
+     * @return the compact ticket
+     */
+    static CompactTicket of(Ticket ticket, LabelDictionary dictionary) {
+        int category = ticket.getCategory() != null ? dictionary.encode(ticket.getCategory()) : NO_CATEGORY;
+        List<String> labels = ticket.getLabels() != null ? ticket.getLabels() : List.of();
+        int[] codes = new int[labels.size()];
+        boolean packable = codes.length <= PACKED_LABELS;
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = dictionary.encode(labels.get(i));
+            packable &= codes[i] < SLOT_MASK;
+        }
+        long packedLabels = 0;
+        if (packable) {
+            for (int i = 0; i < codes.length; i++) {
+                packedLabels |= (codes[i] + 1L) << (i * SLOT_BITS);
+            }
+        }
+        return new CompactTicket(ticket.getId(), ticket.getTitle(), ticket.getDescription(),
+                ticket.getClassificationStatus(), ticket.getParentId() != null ? ticket.getParentId() : NO_PARENT,
+                category, packedLabels, packable ? null : codes);
+    }
+
+    /**
+     * Decode the ticket into its API representation.
+     *
+     * @param dictionary the dictionary the ticket was encoded with
+     * @return a new ticket instance
+     */
+    Ticket toTicket(LabelDictionary dictionary) {
+        String categoryLabel = category != NO_CATEGORY ? dictionary.decode(category) : null;
+        return new Ticket(id, title, description, categoryLabel, labels(dictionary), status,
+                parentId != NO_PARENT ? parentId : null);
+    }
+
+    long getId() {
+        return id;
+    }
+
+    ClassificationStatus getStatus() {
+        return status;
+    }
+
+    private List<String> labels(LabelDictionary dictionary) {
+        if (labelCodes != null) {
+            String[] labels = new String[labelCodes.length];
+            for (int i = 0; i < labelCodes.length; i++) {
+                labels[i] = dictionary.decode(labelCodes[i]);
+            }
+            return List.of(labels);
+        }
+        int count = (Long.SIZE - Long.numberOfLeadingZeros(packedLabels) + SLOT_BITS - 1) / SLOT_BITS;
+        if (count == 0) {
+            return List.of();
+        }
+        String[] labels = new String[count];
+        for (int i = 0; i < count; i++) {
+            labels[i] = dictionary.decode((int) ((packedLabels >>> (i * SLOT_BITS)) & SLOT_MASK) - 1);
+        }
+        return List.of(labels);
+    }
+}
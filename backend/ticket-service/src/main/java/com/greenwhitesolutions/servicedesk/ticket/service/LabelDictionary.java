@@ -0,0 +1,60 @@
+package com.greenwhitesolutions.servicedesk.ticket.service;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns labels and categories as small integer codes.
+ * Classification produces only a handful of distinct labels, so tickets store codes instead
+ * of their own String instances. Codes are assigned in first-seen order and never change.
+ * Lookups by code read a volatile array and do not lock.
+ */
+class LabelDictionary {
+
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] labels = new String[0];
+
+    /**
+     * Get the code of a label, assigning the next free code if the label is new.
+     *
+     * @param label the label
+     * @return the code of the label
+     */
+    int encode(String label) {
+        Integer code = codes.get(label);
+        return code != null ? code : register(label);
+    }
+
+    /**
+     * Get the label for a code.
+     *
+     * @param code a code returned by {@link #encode(String)}
+     * @return the interned label
+     */
+    String decode(int code) {
+        return labels[code];
+    }
+
+    /**
+     * Get the number of interned labels.
+     *
+     * @return the number of labels
+     */
+    int size() {
+        return labels.length;
+    }
+
+    private synchronized int register(String label) {
+        Integer code = codes.get(label);
+        if (code != null) {
+            return code;
+        }
+        String[] grown = Arrays.copyOf(labels, labels.length + 1);
+        grown[labels.length] = label;
+        // Publish the label before its code so decode never sees a code beyond the array
+        labels = grown;
+        codes.put(label, labels.length - 1);
+        return labels.length - 1;
+    }
+}
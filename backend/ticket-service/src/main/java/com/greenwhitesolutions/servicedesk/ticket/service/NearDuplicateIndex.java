@@ -0,0 +1,227 @@
+package com.greenwhitesolutions.servicedesk.ticket.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Finds tickets whose descriptions are near-duplicates of an earlier ticket.
+ * Descriptions are reduced to MinHash signatures over word shingles, whose agreement estimates
+ * the Jaccard similarity of the shingle sets. Signatures are split into bands and every band is
+ * hashed into a bucket (locality-sensitive hashing), so a lookup only compares the signatures
+ * sharing at least one bucket instead of every indexed ticket.
+ * <p>
+ * Descriptions with fewer than {@code minShingles} shingles, such as "See attached" or
+ * "Please help", say too little to tell tickets apart; they are neither matched nor indexed.
+ * <p>
+ * Only parent tickets, those that did not match an earlier ticket, are indexed, so a burst of
+ * duplicates keeps matching the same parent without growing the index. Parents are forgotten
+ * once they are older than {@code maxParentAge}, going by the timestamp in their id, and the
+ * oldest ones also once {@code maxParents} are indexed.
+ */
+class NearDuplicateIndex {
+
+    static final int SHINGLE_SIZE = 3;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final int bands;
+    private final int rows;
+    private final double similarityThreshold;
+    private final int minShingles;
+    private final int maxParents;
+    private final long maxParentAgeMillis;
+    private final LongSupplier clock;
+    private final LinkedHashMap<Long, int[]> signatures = new LinkedHashMap<>();
+    private final Map<Long, List<Long>> buckets = new HashMap<>();
+
+    /**
+     * Create an index. Pairs of descriptions with a Jaccard similarity of about
+     * {@code (1 / bands) ^ (1 / rows)} or more are likely to share a bucket.
+     *
+     * @param bands the number of bands of a signature
+     * @param rows the number of hash values per band
+     * @param similarityThreshold the minimum estimated similarity of a near-duplicate
+     * @param minShingles the minimum number of shingles of a description that is matched
+     * @param maxParents the maximum number of parent tickets kept
+     * @param maxParentAgeMillis the maximum age of a parent ticket in milliseconds
+     */
+    NearDuplicateIndex(int bands, int rows, double similarityThreshold, int minShingles, int maxParents,
+                       long maxParentAgeMillis) {
+        this(bands, rows, similarityThreshold, minShingles, maxParents, maxParentAgeMillis,
+                System::currentTimeMillis);
+    }
+
+    NearDuplicateIndex(int bands, int rows, double similarityThreshold, int minShingles, int maxParents,
+                       long maxParentAgeMillis, LongSupplier clock) {
+        if (bands <= 0 || rows <= 0) {
+            throw new IllegalArgumentException("Bands and rows must be positive: " + bands + ", " + rows);
+        }
+        this.bands = bands;
+        this.rows = rows;
+        this.similarityThreshold = similarityThreshold;
+        this.minShingles = minShingles;
+        this.maxParents = maxParents;
+        this.maxParentAgeMillis = maxParentAgeMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Find the parent ticket the description is a near-duplicate of. If there is none, the
+     * ticket becomes a parent that later descriptions are matched against.
+     *
+     * @param ticketId the id of the ticket being created
+     * @param description the ticket description, may be null
+     * @return the id of the most similar parent ticket, or empty if the ticket has no near-duplicate
+     *         or its description is too short to be matched
+     */
+    OptionalLong findOrAdd(long ticketId, String description) {
+        int[] signature = signature(description);
+        if (signature == null) {
+            return OptionalLong.empty();
+        }
+        synchronized (this) {
+            evictExpired();
+            long parent = mostSimilar(signature);
+            if (parent >= 0) {
+                return OptionalLong.of(parent);
+            }
+            signatures.put(ticketId, signature);
+            for (int band = 0; band < bands; band++) {
+                buckets.computeIfAbsent(bandKey(signature, band), key -> new ArrayList<>(1)).add(ticketId);
+            }
+            if (signatures.size() > maxParents) {
+                Iterator<Map.Entry<Long, int[]>> oldest = signatures.entrySet().iterator();
+                evict(oldest, oldest.next());
+            }
+            return OptionalLong.empty();
+        }
+    }
+
+    /**
+     * Get the number of indexed parent tickets.
+     *
+     * @return the number of parents
+     */
+    synchronized int size() {
+        return signatures.size();
+    }
+
+    private long mostSimilar(int[] signature) {
+        long best = -1;
+        double bestSimilarity = similarityThreshold;
+        for (int band = 0; band < bands; band++) {
+            List<Long> candidates = buckets.get(bandKey(signature, band));
+            if (candidates == null) {
+                continue;
+            }
+            for (long candidate : candidates) {
+                double similarity = similarity(signature, signatures.get(candidate));
+                if (similarity > bestSimilarity || similarity == bestSimilarity && best < 0) {
+                    best = candidate;
+                    bestSimilarity = similarity;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Forget the parents older than {@code maxParentAge}. Parents are indexed in id order, and ids
+     * start with their creation time, so the expired parents are the first ones.
+     */
+    private void evictExpired() {
+        long oldestAllowed = clock.getAsLong() - maxParentAgeMillis;
+        Iterator<Map.Entry<Long, int[]>> oldest = signatures.entrySet().iterator();
+        while (oldest.hasNext()) {
+            Map.Entry<Long, int[]> entry = oldest.next();
+            if (SnowflakeIdGenerator.timestampOf(entry.getKey()) >= oldestAllowed) {
+                return;
+            }
+            evict(oldest, entry);
+        }
+    }
+
+    private void evict(Iterator<Map.Entry<Long, int[]>> oldest, Map.Entry<Long, int[]> entry) {
+        oldest.remove();
+        for (int band = 0; band < bands; band++) {
+            long key = bandKey(entry.getValue(), band);
+            List<Long> bucket = buckets.get(key);
+            bucket.remove(entry.getKey());
+            if (bucket.isEmpty()) {
+                buckets.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Compute the MinHash signature of a text over its word shingles.
+     * The hash functions are derived from two halves of a 64-bit shingle hash, so every shingle is hashed once.
+     *
+     * @param text the text
+     * @return the signature, or null if the text has fewer than {@code minShingles} shingles
+     */
+    int[] signature(String text) {
+        List<String> tokens = TicketSearchIndex.tokenize(text);
+        int shingles = Math.max(1, tokens.size() - SHINGLE_SIZE + 1);
+        if (tokens.isEmpty() || shingles < minShingles) {
+            return null;
+        }
+        int[] signature = new int[bands * rows];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (int start = 0; start < shingles; start++) {
+            long hash = shingleHash(tokens, start, Math.min(start + SHINGLE_SIZE, tokens.size()));
+            int first = (int) hash;
+            int second = (int) (hash >>> Integer.SIZE) | 1;
+            for (int i = 0; i < signature.length; i++) {
+                signature[i] = Math.min(signature[i], first + i * second);
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Estimate the Jaccard similarity of two shingle sets from their signatures.
+     */
+    static double similarity(int[] first, int[] second) {
+        int equal = 0;
+        for (int i = 0; i < first.length; i++) {
+            if (first[i] == second[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / first.length;
+    }
+
+    private long bandKey(int[] signature, int band) {
+        long key = band;
+        for (int i = band * rows; i < (band + 1) * rows; i++) {
+            key = (key ^ signature[i]) * FNV_PRIME;
+        }
+        return key;
+    }
+
+    private static long shingleHash(List<String> tokens, int start, int end) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = start; i < end; i++) {
+            String token = tokens.get(i);
+            for (int c = 0; c < token.length(); c++) {
+                hash = (hash ^ token.charAt(c)) * FNV_PRIME;
+            }
+            // Separate the tokens so "ab c" and "a bc" differ
+            hash = (hash ^ ' ') * FNV_PRIME;
+        }
+        // Spread the FNV bits so both 32-bit halves are well mixed
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,113 @@
+package com.greenwhitesolutions.servicedesk.ticket.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Generates unique, time-ordered 64-bit ids without coordination between nodes.
+ * An id is laid out as 41 bits of milliseconds since {@link #EPOCH}, a 10-bit node id and a
+ * 12-bit per-millisecond sequence, so every node can issue 4096 ids per millisecond.
+ * <p>
+ * The generator keeps a logical clock that never moves backwards. If the wall clock is set
+ * back, or more ids than the sequence allows are requested within a millisecond, ids are
+ * taken from the following milliseconds instead of blocking, and the wall clock catches up later.
+ */
+class SnowflakeIdGenerator {
+
+    /**
+     * Start of the id timestamp range (2024-01-01T00:00:00Z), good for about 69 years.
+     */
+    static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+    private static final long CLOCK_LAG_WARN_MILLIS = 1000;
+
+    private static final Logger log = LoggerFactory.getLogger(SnowflakeIdGenerator.class);
+
+    private final long nodeId;
+    private final LongSupplier clock;
+
+    /**
+     * Last issued logical timestamp and sequence, packed as {@code timestamp << SEQUENCE_BITS | sequence}.
+     */
+    private final AtomicLong state = new AtomicLong();
+    private volatile boolean clockBehind;
+
+    SnowflakeIdGenerator(long nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    SnowflakeIdGenerator(long nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+    }
+
+    /**
+     * Generate the next id.
+     *
+     * @return an id greater than every id previously generated by this instance
+     */
+    long nextId() {
+        while (true) {
+            long previous = state.get();
+            long previousTimestamp = previous >>> SEQUENCE_BITS;
+            long now = clock.getAsLong() - EPOCH;
+            long next;
+            if (now > previousTimestamp) {
+                next = now << SEQUENCE_BITS;
+            } else if ((previous & MAX_SEQUENCE) < MAX_SEQUENCE) {
+                next = previous + 1;
+            } else {
+                next = (previousTimestamp + 1) << SEQUENCE_BITS;
+            }
+            if (state.compareAndSet(previous, next)) {
+                checkClock(previousTimestamp - now);
+                return (next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)
+                        | nodeId << SEQUENCE_BITS
+                        | (next & MAX_SEQUENCE);
+            }
+        }
+    }
+
+    private void checkClock(long lagMillis) {
+        boolean behind = lagMillis > CLOCK_LAG_WARN_MILLIS;
+        if (behind != clockBehind) {
+            clockBehind = behind;
+            if (behind) {
+                log.warn("Clock is {} ms behind the last issued ticket id, continuing from the last id", lagMillis);
+            }
+        }
+    }
+
+    /**
+     * Make sure later ids are issued after the timestamp of the given id, e.g. the highest
+     * persisted id, so a restart with a clock that is behind cannot reuse ids.
+     *
+     * @param id an id issued before, by any node
+     */
+    void advancePast(long id) {
+        long timestamp = id >>> (NODE_BITS + SEQUENCE_BITS);
+        state.accumulateAndGet(timestamp << SEQUENCE_BITS | MAX_SEQUENCE, Math::max);
+    }
+
+    /**
+     * Get the time an id was generated at, according to the clock of the generating node.
+     *
+     * @param id an id issued before, by any node
+     * @return the generation time in milliseconds since the Unix epoch
+     */
+    static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH;
+    }
+}
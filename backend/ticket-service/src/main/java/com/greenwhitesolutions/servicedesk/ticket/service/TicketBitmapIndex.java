@@ -0,0 +1,134 @@
+package com.greenwhitesolutions.servicedesk.ticket.service;
+
+import com.greenwhitesolutions.servicedesk.ticket.model.Ticket;
+import com.greenwhitesolutions.servicedesk.ticket.model.TicketFilter;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Secondary indexes mapping each category and label to a compressed bitmap of ticket ids.
+ * Filter queries are answered with bitmap AND/OR operations instead of scanning tickets.
+ * Updates touch only a handful of bitmaps, so a single read-write lock keeps queries
+ * consistent without noticeable write contention.
+ */
+class TicketBitmapIndex {
+
+    private final Map<String, Roaring64Bitmap> byCategory = new HashMap<>();
+    private final Map<String, Roaring64Bitmap> byLabel = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Index a ticket under its category and labels.
+     *
+     * @param ticket the ticket to index
+     */
+    void add(Ticket ticket) {
+        lock.writeLock().lock();
+        try {
+            addEntries(ticket);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Move a ticket from the entries of its previous state to those of its new state.
+     *
+     * @param previous the ticket before the change
+     * @param current the ticket after the change
+     */
+    void update(Ticket previous, Ticket current) {
+        lock.writeLock().lock();
+        try {
+            removeEntries(previous);
+            addEntries(current);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find the ids of tickets matching the category and label criteria of the filter.
+     * With {@link TicketFilter.Match#ALL} a ticket must match every criterion,
+     * with {@link TicketFilter.Match#ANY} at least one.
+     *
+     * @param filter the filter with at least one category or label
+     * @return a new bitmap of matching ticket ids
+     */
+    Roaring64Bitmap query(TicketFilter filter) {
+        lock.readLock().lock();
+        try {
+            Roaring64Bitmap result = null;
+            for (Roaring64Bitmap bitmap : lookup(filter)) {
+                if (result == null) {
+                    result = bitmap.clone();
+                } else if (filter.match() == TicketFilter.Match.ALL) {
+                    result.and(bitmap);
+                } else {
+                    result.or(bitmap);
+                }
+                if (filter.match() == TicketFilter.Match.ALL && result.isEmpty()) {
+                    break;
+                }
+            }
+            return result != null ? result : new Roaring64Bitmap();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Roaring64Bitmap> lookup(TicketFilter filter) {
+        Roaring64Bitmap empty = new Roaring64Bitmap();
+        List<Roaring64Bitmap> bitmaps = new ArrayList<>();
+        for (String category : filter.categories()) {
+            bitmaps.add(byCategory.getOrDefault(category, empty));
+        }
+        for (String label : filter.labels()) {
+            bitmaps.add(byLabel.getOrDefault(label, empty));
+        }
+        if (filter.match() == TicketFilter.Match.ALL) {
+            // Intersect the most selective bitmaps first so the intermediate result shrinks quickly
+            bitmaps.sort((a, b) -> Long.compare(a.getLongCardinality(), b.getLongCardinality()));
+        }
+        return bitmaps;
+    }
+
+    private void addEntries(Ticket ticket) {
+        if (ticket.getCategory() != null) {
+            byCategory.computeIfAbsent(ticket.getCategory(), key -> new Roaring64Bitmap()).addLong(ticket.getId());
+        }
+        for (String label : labelsOf(ticket)) {
+            byLabel.computeIfAbsent(label, key -> new Roaring64Bitmap()).addLong(ticket.getId());
+        }
+    }
+
+    private void removeEntries(Ticket ticket) {
+        if (ticket.getCategory() != null) {
+            remove(byCategory, ticket.getCategory(), ticket.getId());
+        }
+        for (String label : labelsOf(ticket)) {
+            remove(byLabel, label, ticket.getId());
+        }
+    }
+
+    private static void remove(Map<String, Roaring64Bitmap> index, String key, long id) {
+        Roaring64Bitmap bitmap = index.get(key);
+        if (bitmap != null) {
+            bitmap.removeLong(id);
+            if (bitmap.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private static Collection<String> labelsOf(Ticket ticket) {
+        return ticket.getLabels() != null ? ticket.getLabels() : List.of();
+    }
+}
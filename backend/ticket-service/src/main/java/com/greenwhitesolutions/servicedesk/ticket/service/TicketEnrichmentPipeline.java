@@ -0,0 +1,195 @@
+package com.greenwhitesolutions.servicedesk.ticket.service;
+
+import com.greenwhitesolutions.servicedesk.ticket.client.AiClient;
+import com.greenwhitesolutions.servicedesk.ticket.config.TicketProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Bounded in-process pipeline that classifies tickets in the background.
+ * A fixed pool of workers drains a bounded queue. When the queue is full, submitting never
+ * classifies on the calling thread: the ticket stays PENDING and its classification is deferred
+ * and handed to the queue again once it has room. When {@code deferred-capacity} classifications
+ * are already deferred, further ones are shed. Their tickets stay PENDING until the queue and the
+ * deferred classifications have drained, when the {@link #setSweep sweep} submits the
+ * classifications of all PENDING tickets again.
+ * <p>
+ * Rejected submissions are counted as {@value #REJECTED_METRIC}, tagged with their outcome,
+ * deferred or shed; the number of deferred classifications is gauged as {@value #DEFERRED_METRIC}.
+ */
+@Component
+public class TicketEnrichmentPipeline {
+
+    static final String REJECTED_METRIC = "tickets.enrichment.rejected";
+    static final String DEFERRED_METRIC = "tickets.enrichment.deferred";
+
+    private static final Logger log = LoggerFactory.getLogger(TicketEnrichmentPipeline.class);
+
+    private final AiClient aiClient;
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService retrier;
+    private final Queue<Runnable> deferred = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger deferredCount = new AtomicInteger();
+    private final int deferredCapacity;
+    private final Counter deferredCounter;
+    private final Counter shedCounter;
+    private final AtomicBoolean shedSinceSweep = new AtomicBoolean();
+    private volatile Runnable sweep;
+
+    public TicketEnrichmentPipeline(AiClient aiClient, TicketProperties properties) {
+        this(aiClient, properties, new SimpleMeterRegistry());
+    }
+
+    @Autowired
+    public TicketEnrichmentPipeline(AiClient aiClient, TicketProperties properties, MeterRegistry meterRegistry) {
+        this.aiClient = aiClient;
+        TicketProperties.Enrichment config = properties.getEnrichment();
+        this.deferredCapacity = config.getDeferredCapacity();
+        this.executor = new ThreadPoolExecutor(
+                config.getWorkers(), config.getWorkers(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(config.getQueueCapacity()),
+                new EnrichmentThreadFactory("ticket-enrichment-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.retrier = Executors.newSingleThreadScheduledExecutor(
+                new EnrichmentThreadFactory("ticket-enrichment-retry-"));
+        long retryMillis = config.getRetryInterval().toMillis();
+        retrier.scheduleWithFixedDelay(this::resubmitDeferred, retryMillis, retryMillis, TimeUnit.MILLISECONDS);
+        this.deferredCounter = rejections(meterRegistry, "deferred");
+        this.shedCounter = rejections(meterRegistry, "shed");
+        Gauge.builder(DEFERRED_METRIC, deferredCount, AtomicInteger::get)
+                .description("Ticket classifications waiting for room in the enrichment queue")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Classify the given text in the background. Never runs the classification on the calling
+     * thread; if the queue is full, the classification is deferred or shed.
+     *
+     * @param text the text to classify
+     * @param onClassified callback receiving the classification labels
+     */
+    public void submit(String text, Consumer<List<String>> onClassified) {
+        Runnable task = () -> onClassified.accept(aiClient.classify(text));
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            defer(task);
+        }
+    }
+
+    /**
+     * Set the task submitting the classifications of shed tickets again. It runs on the retry
+     * thread once the queue and the deferred classifications have drained after a shed.
+     *
+     * @param sweep the task resubmitting PENDING tickets
+     */
+    public void setSweep(Runnable sweep) {
+        this.sweep = sweep;
+    }
+
+    /**
+     * Get the number of tickets waiting for classification.
+     *
+     * @return the current queue depth, including deferred classifications
+     */
+    public int getBacklog() {
+        return executor.getQueue().size() + deferredCount.get();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        retrier.shutdownNow();
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Enrichment pipeline did not drain in time, {} tickets left pending", getBacklog());
+            executor.shutdownNow();
+        } else if (deferredCount.get() > 0) {
+            log.warn("Enrichment pipeline stopped with {} deferred tickets left pending", deferredCount.get());
+        }
+    }
+
+    private void defer(Runnable task) {
+        if (deferredCount.incrementAndGet() > deferredCapacity) {
+            deferredCount.decrementAndGet();
+            shedCounter.increment();
+            shedSinceSweep.set(true);
+            log.warn("Enrichment queue and deferred classifications full, ticket left PENDING");
+            return;
+        }
+        deferred.add(task);
+        deferredCounter.increment();
+        log.debug("Enrichment queue full, deferring classification");
+    }
+
+    /**
+     * Move deferred classifications to the queue, oldest first, until the queue is full again.
+     * Once nothing is waiting any more after classifications were shed, run the sweep.
+     */
+    private void resubmitDeferred() {
+        Runnable task;
+        while (executor.getQueue().remainingCapacity() > 0 && (task = deferred.peek()) != null) {
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                return;
+            }
+            deferred.poll();
+            deferredCount.decrementAndGet();
+        }
+        Runnable sweep = this.sweep;
+        if (sweep != null && getBacklog() == 0 && shedSinceSweep.compareAndSet(true, false)) {
+            try {
+                sweep.run();
+            } catch (RuntimeException e) {
+                // An exception would cancel the scheduled retries
+                log.error("Resubmitting shed classifications failed", e);
+            }
+        }
+    }
+
+    private static Counter rejections(MeterRegistry registry, String outcome) {
+        return Counter.builder(REJECTED_METRIC)
+                .description("Ticket classifications that found the enrichment queue full")
+                .tags("outcome", outcome)
+                .register(registry);
+    }
+
+    private static final class EnrichmentThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger(1);
+
+        private EnrichmentThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
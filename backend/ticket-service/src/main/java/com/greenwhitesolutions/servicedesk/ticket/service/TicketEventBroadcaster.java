@@ -0,0 +1,494 @@
+package com.greenwhitesolutions.servicedesk.ticket.service;
+
+import com.greenwhitesolutions.servicedesk.ticket.config.TicketProperties;
+import com.greenwhitesolutions.servicedesk.ticket.model.Ticket;
+import com.greenwhitesolutions.servicedesk.ticket.model.TicketEvent;
+import com.greenwhitesolutions.servicedesk.ticket.model.TicketEventType;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pushes ticket changes to subscribers of the ticket event stream.
+ * Every subscriber has a bounded buffer that a small pool of sender threads drains, so a slow
+ * client never blocks ticket writes or other subscribers. When a buffer is full, the
+ * subscriber's {@link TicketProperties.EventOverflow overflow policy} either drops its oldest
+ * events or conflates them to the latest event per ticket. A client that stops reading blocks
+ * the sender thread writing to it, so a watchdog aborts subscriptions whose write takes longer
+ * than {@code send-timeout} and adds a sender thread for as long as the stuck write lasts.
+ * <p>
+ * Publishing never waits for a lock: changes are queued, and whichever thread gets hold of the
+ * dispatch lock first numbers the queued changes and hands them to the subscribers, while the
+ * others return at once. Events therefore keep one order for all subscribers.
+ * <p>
+ * The most recent events are kept in a history, so a client reconnecting with the id of the last
+ * event it received gets the events it missed. Event ids start with the time this instance started
+ * ({@code <epoch>-<sequence>}), so an id issued before a restart is recognised. When events were
+ * lost, because they dropped out of the history or out of a full buffer, or were issued before a
+ * restart, the subscriber gets a {@code reset} event instead and should reload the tickets it shows.
+ */
+@Component
+public class TicketEventBroadcaster {
+
+    static final String RESET_EVENT = "reset";
+
+    private static final Logger log = LoggerFactory.getLogger(TicketEventBroadcaster.class);
+
+    /**
+     * Maximum number of events sent to one subscriber before the sender thread moves on to others.
+     */
+    private static final int SEND_BATCH = 64;
+
+    private final TicketProperties.Events config;
+    private final ThreadPoolExecutor sender;
+    private final ScheduledExecutorService watchdog;
+    private final long sendTimeoutNanos;
+    private final long epoch = System.currentTimeMillis();
+    private final Queue<PendingEvent> pending = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock dispatchLock = new ReentrantLock();
+    private final ArrayDeque<TicketEvent> history = new ArrayDeque<>();
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private long lastEventId;
+
+    public TicketEventBroadcaster(TicketProperties properties) {
+        this.config = properties.getEvents();
+        this.sender = (ThreadPoolExecutor) Executors.newFixedThreadPool(config.getSenderThreads(),
+                new SenderThreadFactory("ticket-events-"));
+        this.sendTimeoutNanos = config.getSendTimeout().toNanos();
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(new SenderThreadFactory("ticket-events-watchdog-"));
+        long checkMillis = Math.max(10, config.getSendTimeout().toMillis() / 4);
+        watchdog.scheduleWithFixedDelay(this::abortStalledSends, checkMillis, checkMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Publish a ticket change to all subscribers. Never blocks: if another thread is dispatching
+     * events, the change is left for it to dispatch.
+     *
+     * @param type the kind of change
+     * @param ticket the ticket after the change
+     */
+    public void publish(TicketEventType type, Ticket ticket) {
+        pending.add(new PendingEvent(type, ticket));
+        // Re-check after unlocking, so a change queued while the lock was held is not left behind
+        while (!pending.isEmpty() && dispatchLock.tryLock()) {
+            try {
+                dispatchPending();
+            } finally {
+                dispatchLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Subscribe to ticket events as a server-sent event stream.
+     * Events are named after their type in lower case, carry the ticket as JSON data and the event id as id.
+     *
+     * @param lastEventId the id of the last event the client received, or null to start with new events
+     * @param overflow the overflow policy, or null for the configured default
+     * @return the event stream, or empty if the maximum number of subscribers is reached
+     */
+    public Optional<SseEmitter> subscribe(String lastEventId, TicketProperties.EventOverflow overflow) {
+        SseEmitter emitter = new SseEmitter(config.getTimeout().toMillis());
+        Subscription subscription = subscribe(lastEventId, overflow, new SseSink(emitter));
+        if (subscription == null) {
+            return Optional.empty();
+        }
+        emitter.onCompletion(() -> unsubscribe(subscription));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> unsubscribe(subscription));
+        return Optional.of(emitter);
+    }
+
+    /**
+     * Subscribe a sink to ticket events, replaying the events after {@code lastEventId}.
+     * An id of an earlier run of the service, or one that cannot be parsed, leads to a reset.
+     *
+     * @return the subscription, or null if the maximum number of subscribers is reached
+     */
+    Subscription subscribe(String lastEventId, TicketProperties.EventOverflow overflow, EventSink sink) {
+        dispatchLock.lock();
+        try {
+            if (subscriptions.size() >= config.getMaxSubscribers()) {
+                return null;
+            }
+            // Number the queued changes first, so the subscriber gets them either replayed or live
+            dispatchPending();
+            Subscription subscription = new Subscription(sink, overflow != null ? overflow : config.getOverflow());
+            if (lastEventId != null) {
+                replay(subscription, sequenceOf(lastEventId));
+            }
+            subscriptions.add(subscription);
+            return subscription;
+        } finally {
+            dispatchLock.unlock();
+        }
+    }
+
+    /**
+     * Get the number of active subscribers.
+     *
+     * @return the number of subscribers
+     */
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Get the id a subscriber sees for an event.
+     *
+     * @param sequence the sequence number of the event in this run
+     * @return the event id, prefixed with the start time of this instance
+     */
+    String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        subscriptions.remove(subscription);
+        subscription.close();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        List<Subscription> open;
+        dispatchLock.lock();
+        try {
+            open = new ArrayList<>(subscriptions);
+            subscriptions.clear();
+        } finally {
+            dispatchLock.unlock();
+        }
+        open.forEach(Subscription::close);
+        watchdog.shutdownNow();
+        sender.shutdownNow();
+    }
+
+    /**
+     * Abort the subscriptions whose current write has taken longer than the send timeout.
+     */
+    private void abortStalledSends() {
+        long now = System.nanoTime();
+        for (Subscription subscription : subscriptions) {
+            if (subscription.abortIfStalled(now)) {
+                subscriptions.remove(subscription);
+            }
+        }
+    }
+
+    /**
+     * Change the number of sender threads, so a thread stuck in a write does not hold up other subscribers.
+     */
+    private void resizeSender(int delta) {
+        synchronized (sender) {
+            int size = sender.getCorePoolSize() + delta;
+            if (delta > 0) {
+                sender.setMaximumPoolSize(size);
+                sender.setCorePoolSize(size);
+            } else {
+                sender.setCorePoolSize(size);
+                sender.setMaximumPoolSize(size);
+            }
+        }
+    }
+
+    /**
+     * Number the queued changes, keep them in the history and offer them to every subscriber.
+     * Called with the dispatch lock held.
+     */
+    private void dispatchPending() {
+        PendingEvent change;
+        while ((change = pending.poll()) != null) {
+            TicketEvent event = new TicketEvent(++lastEventId, change.type(), change.ticket());
+            history.addLast(event);
+            if (history.size() > config.getHistorySize()) {
+                history.removeFirst();
+            }
+            for (Subscription subscription : subscriptions) {
+                subscription.offer(event);
+            }
+        }
+    }
+
+    /**
+     * Offer the kept events after the given sequence number, marking the subscription as having
+     * lost events if some are no longer kept. Called with the dispatch lock held.
+     *
+     * @param after the sequence number of the last event the client received, or -1 if unknown
+     */
+    private void replay(Subscription subscription, long after) {
+        long oldestKept = history.isEmpty() ? lastEventId + 1 : history.getFirst().getId();
+        if (after < 0 || after + 1 < oldestKept || after > lastEventId) {
+            subscription.markLost();
+        }
+        if (after < 0) {
+            return;
+        }
+        for (TicketEvent event : history) {
+            if (event.getId() > after) {
+                subscription.offer(event);
+            }
+        }
+    }
+
+    /**
+     * Get the sequence number of an event id of this run.
+     *
+     * @return the sequence number, or -1 if the id was issued before a restart or is malformed
+     */
+    private long sequenceOf(String eventId) {
+        String prefix = epoch + "-";
+        if (!eventId.startsWith(prefix)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Destination of the events of a subscription.
+     */
+    interface EventSink {
+
+        void send(TicketEvent event) throws IOException;
+
+        /**
+         * Tell the client that events were lost and it should reload its tickets.
+         */
+        void reset() throws IOException;
+
+        void close();
+
+        /**
+         * End the stream with an error, because the client stopped accepting events.
+         */
+        void abort(IOException error);
+    }
+
+    /**
+     * A subscriber with its buffered events. Events are keyed by event id, or by ticket id when
+     * conflating, so a newer event for a buffered ticket replaces the older one.
+     */
+    final class Subscription implements Runnable {
+
+        private final EventSink sink;
+        private final TicketProperties.EventOverflow overflow;
+        private final LinkedHashMap<Long, TicketEvent> buffer = new LinkedHashMap<>();
+        private boolean lost;
+        private boolean scheduled;
+        private boolean closed;
+        private boolean stalled;
+        private volatile Thread sendingThread;
+        private volatile long sendStarted;
+
+        private Subscription(EventSink sink, TicketProperties.EventOverflow overflow) {
+            this.sink = sink;
+            this.overflow = overflow;
+        }
+
+        synchronized void offer(TicketEvent event) {
+            if (closed) {
+                return;
+            }
+            long key = overflow == TicketProperties.EventOverflow.CONFLATE ? event.getTicket().getId() : event.getId();
+            // Re-insert so the buffer stays in event order
+            buffer.remove(key);
+            if (buffer.size() >= config.getBufferSize()) {
+                Iterator<TicketEvent> oldest = buffer.values().iterator();
+                oldest.next();
+                oldest.remove();
+                lost = true;
+            }
+            buffer.put(key, event);
+            schedule();
+        }
+
+        synchronized void markLost() {
+            lost = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (!scheduled) {
+                scheduled = true;
+                sender.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            for (int sent = 0; sent < SEND_BATCH; sent++) {
+                TicketEvent event = null;
+                boolean reset;
+                synchronized (this) {
+                    if (closed || buffer.isEmpty() && !lost) {
+                        scheduled = false;
+                        return;
+                    }
+                    reset = lost;
+                    lost = false;
+                    if (!reset) {
+                        Iterator<TicketEvent> next = buffer.values().iterator();
+                        event = next.next();
+                        next.remove();
+                    }
+                }
+                sendStarted = System.nanoTime();
+                sendingThread = Thread.currentThread();
+                try {
+                    if (reset) {
+                        sink.reset();
+                    } else {
+                        sink.send(event);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    log.debug("Ticket event subscriber disconnected: {}", e.getMessage());
+                    unsubscribe(this);
+                    return;
+                } finally {
+                    sendingThread = null;
+                    releaseIfStalled();
+                }
+            }
+            // Let the sender threads serve other subscribers before continuing
+            synchronized (this) {
+                scheduled = false;
+                if (!closed && (!buffer.isEmpty() || lost)) {
+                    schedule();
+                }
+            }
+        }
+
+        /**
+         * Abort the subscription if its current write has taken longer than the send timeout,
+         * interrupting the write and adding a sender thread until it returns.
+         *
+         * @return true if the subscription was aborted
+         */
+        boolean abortIfStalled(long now) {
+            Thread thread;
+            synchronized (this) {
+                thread = sendingThread;
+                if (thread == null || closed || now - sendStarted < sendTimeoutNanos) {
+                    return false;
+                }
+                closed = true;
+                stalled = true;
+                buffer.clear();
+                resizeSender(1);
+                // Interrupt while holding the lock, so the interrupt cannot outlive the write it is meant for
+                thread.interrupt();
+            }
+            log.warn("Ticket event subscriber did not accept an event within {}, dropping it", config.getSendTimeout());
+            sink.abort(new IOException("Event write timed out after " + config.getSendTimeout()));
+            return true;
+        }
+
+        /**
+         * Give back the sender thread added when this subscription's write stalled, once the write returned.
+         */
+        private void releaseIfStalled() {
+            synchronized (this) {
+                if (!stalled) {
+                    return;
+                }
+                stalled = false;
+                resizeSender(-1);
+            }
+            // Clear the interrupt meant for the stuck write before the thread serves other subscribers
+            Thread.interrupted();
+        }
+
+        void close() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                buffer.clear();
+            }
+            sink.close();
+        }
+    }
+
+    /**
+     * A ticket change waiting to be numbered and dispatched.
+     */
+    private record PendingEvent(TicketEventType type, Ticket ticket) {}
+
+    private final class SseSink implements EventSink {
+
+        private final SseEmitter emitter;
+
+        SseSink(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void send(TicketEvent event) throws IOException {
+            emitter.send(SseEmitter.event()
+                    .id(eventId(event.getId()))
+                    .name(event.getType().name().toLowerCase(Locale.ROOT))
+                    .data(event.getTicket(), MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void reset() throws IOException {
+            emitter.send(SseEmitter.event()
+                    .name(RESET_EVENT)
+                    .data(Map.of("reason", "events were dropped, reload tickets"), MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void close() {
+            emitter.complete();
+        }
+
+        @Override
+        public void abort(IOException error) {
+            emitter.completeWithError(error);
+        }
+    }
+
+    private static final class SenderThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger(1);
+
+        private SenderThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package com.greenwhitesolutions.servicedesk.ticket.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over ticket titles and descriptions, ranked with BM25.
+ * Every indexed ticket gets a sequential document number, so posting lists are sorted int
+ * arrays that can be intersected without sorting. A query matches tickets containing all of
+ * its terms and quoted phrases; phrases are verified with the token positions stored in the postings.
+ */
+class TicketSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long[] ticketIds = new long[1024];
+    private int[] lengths = new int[1024];
+    private int documents;
+    private long totalLength;
+
+    /**
+     * Index the title and description of a ticket.
+     *
+     * @param ticketId the ticket id
+     * @param title the ticket title
+     * @param description the ticket description, may be null
+     */
+    void add(long ticketId, String title, String description) {
+        List<String> tokens = tokenize(title);
+        // Leave a gap so phrases do not match across the end of the title
+        int descriptionStart = tokens.size() + 1;
+        List<String> descriptionTokens = tokenize(description);
+        Map<String, List<Integer>> positions = new HashMap<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            positions.computeIfAbsent(tokens.get(i), key -> new ArrayList<>()).add(i);
+        }
+        for (int i = 0; i < descriptionTokens.size(); i++) {
+            positions.computeIfAbsent(descriptionTokens.get(i), key -> new ArrayList<>()).add(descriptionStart + i);
+        }
+        int length = tokens.size() + descriptionTokens.size();
+
+        lock.writeLock().lock();
+        try {
+            int document = documents++;
+            if (document == ticketIds.length) {
+                ticketIds = Arrays.copyOf(ticketIds, document * 2);
+                lengths = Arrays.copyOf(lengths, document * 2);
+            }
+            ticketIds[document] = ticketId;
+            lengths[document] = length;
+            totalLength += length;
+            positions.forEach((term, termPositions) ->
+                    postings.computeIfAbsent(term, key -> new Postings()).add(document, termPositions, length));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find the tickets matching a query, best matches first.
+     * Quoted parts of the query are phrases whose terms must appear next to each other.
+     *
+     * @param query the query, e.g. {@code vpn "password reset"}
+     * @param limit the maximum number of results
+     * @return the ids of the best matching tickets, ordered by descending score
+     */
+    List<Long> search(String query, int limit) {
+        List<List<String>> phrases = parse(query);
+        if (phrases.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return rank(phrases, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Long> rank(List<List<String>> phrases, int limit) {
+        List<String> uniqueTerms = phrases.stream().flatMap(List::stream).distinct().toList();
+        Postings[] ordered = new Postings[uniqueTerms.size()];
+        for (int i = 0; i < ordered.length; i++) {
+            ordered[i] = postings.get(uniqueTerms.get(i));
+            if (ordered[i] == null) {
+                return List.of();
+            }
+        }
+        // Drive the intersection with the rarest term and seek into the others
+        Arrays.sort(ordered, Comparator.comparingInt(p -> p.size));
+        int[][] phraseTerms = phraseTerms(phrases, ordered);
+        double averageLength = documents > 0 ? (double) totalLength / documents : 1;
+        double[] idf = new double[ordered.length];
+        for (int i = 0; i < ordered.length; i++) {
+            idf[i] = Math.log(1 + (documents - ordered[i].size + 0.5) / (ordered[i].size + 0.5));
+        }
+
+        PriorityQueue<ScoredDocument> top = new PriorityQueue<>(limit,
+                Comparator.comparingDouble(ScoredDocument::score).thenComparing(ScoredDocument::document,
+                        Comparator.reverseOrder()));
+        int[] cursors = new int[ordered.length];
+        Postings lead = ordered[0];
+        double otherTermsBound = Double.POSITIVE_INFINITY;
+        candidates:
+        for (int i = 0; i < lead.size; i++) {
+            int document = lead.documents[i];
+            if (i % Postings.BLOCK_SIZE == 0) {
+                otherTermsBound = Double.POSITIVE_INFINITY;
+                if (top.size() == limit) {
+                    // Skip blocks of the lead list whose best possible score cannot enter the top results
+                    int blockEnd = Math.min(i + Postings.BLOCK_SIZE, lead.size) - 1;
+                    otherTermsBound = 0;
+                    for (int t = 1; t < ordered.length; t++) {
+                        otherTermsBound += ordered[t].maxScore(document, lead.documents[blockEnd], cursors, t,
+                                idf[t], averageLength);
+                    }
+                    if (lead.maxScore(document, document, cursors, 0, idf[0], averageLength) + otherTermsBound
+                            <= top.peek().score()) {
+                        i = blockEnd;
+                        continue;
+                    }
+                }
+            }
+            double norm = K1 * (1 - B + B * lengths[document] / averageLength);
+            double leadScore = termScore(idf[0], lead.frequency(i), norm);
+            if (top.size() == limit && leadScore + otherTermsBound <= top.peek().score()) {
+                continue;
+            }
+            cursors[0] = i;
+            for (int t = 1; t < ordered.length; t++) {
+                cursors[t] = ordered[t].seek(document, cursors[t]);
+                if (cursors[t] == ordered[t].size) {
+                    break candidates;
+                }
+                if (ordered[t].documents[cursors[t]] != document) {
+                    continue candidates;
+                }
+            }
+            double score = leadScore;
+            for (int t = 1; t < ordered.length; t++) {
+                score += termScore(idf[t], ordered[t].frequency(cursors[t]), norm);
+            }
+            // Verify phrases last, and only for documents that would make it into the results
+            if (top.size() == limit && score <= top.peek().score()
+                    || !containsPhrases(phraseTerms, ordered, cursors)) {
+                continue;
+            }
+            if (top.size() == limit) {
+                top.poll();
+            }
+            top.add(new ScoredDocument(document, score));
+        }
+
+        Long[] result = new Long[top.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = ticketIds[top.poll().document()];
+        }
+        return List.of(result);
+    }
+
+    private static double termScore(double idf, int frequency, double norm) {
+        return idf * frequency * (K1 + 1) / (frequency + norm);
+    }
+
+    /**
+     * Map the terms of every multi-term phrase to their index in the ordered posting lists.
+     */
+    private int[][] phraseTerms(List<List<String>> phrases, Postings[] ordered) {
+        List<Postings> order = Arrays.asList(ordered);
+        return phrases.stream()
+                .filter(phrase -> phrase.size() > 1)
+                .map(phrase -> phrase.stream().mapToInt(term -> order.indexOf(postings.get(term))).toArray())
+                .toArray(int[][]::new);
+    }
+
+    /**
+     * Check the phrases of a candidate document, whose entry in each posting list is at the cursor.
+     */
+    private static boolean containsPhrases(int[][] phraseTerms, Postings[] ordered, int[] cursors) {
+        for (int[] phrase : phraseTerms) {
+            if (!containsPhrase(phrase, ordered, cursors)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsPhrase(int[] phrase, Postings[] ordered, int[] cursors) {
+        Postings first = ordered[phrase[0]];
+        int firstIndex = cursors[phrase[0]];
+        for (int p = first.positionStart(firstIndex); p < first.positionEnd(firstIndex); p++) {
+            int start = first.positions[p];
+            boolean matches = true;
+            for (int i = 1; i < phrase.length && matches; i++) {
+                Postings next = ordered[phrase[i]];
+                int index = cursors[phrase[i]];
+                matches = Arrays.binarySearch(next.positions, next.positionStart(index), next.positionEnd(index),
+                        start + i) >= 0;
+            }
+            if (matches) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Split a query into phrases. Unquoted terms become single-term phrases.
+     */
+    static List<List<String>> parse(String query) {
+        List<List<String>> phrases = new ArrayList<>();
+        if (query == null) {
+            return phrases;
+        }
+        String[] parts = query.split("\"", -1);
+        for (int i = 0; i < parts.length; i++) {
+            List<String> tokens = tokenize(parts[i]);
+            if (i % 2 == 1 && tokens.size() > 1) {
+                phrases.add(tokens);
+            } else {
+                tokens.forEach(token -> phrases.add(List.of(token)));
+            }
+        }
+        return phrases;
+    }
+
+    /**
+     * Split text into lower-case tokens of letters and digits.
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean tokenChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase());
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Posting list of a term: the documents containing it in ascending order, with the
+     * positions of the term in each document stored back to back in a shared array.
+     * For every block of {@link #BLOCK_SIZE} entries the (frequency, document length) pairs that
+     * no other entry of the block beats on both counts are kept. Whatever the average document
+     * length, the best score in the block belongs to one of these few pairs.
+     */
+    private static final class Postings {
+
+        static final int BLOCK_SIZE = 128;
+
+        private int[] blockOffsets = new int[2];
+        private long[] blockMaxima = new long[2];
+        private int blockMaximaSize;
+        private int[] documents = new int[4];
+        private int[] positionOffsets = new int[5];
+        private int[] positions = new int[4];
+        private int size;
+
+        void add(int document, List<Integer> termPositions, int length) {
+            int block = size / BLOCK_SIZE;
+            if (block + 1 == blockOffsets.length) {
+                blockOffsets = Arrays.copyOf(blockOffsets, blockOffsets.length * 2);
+            }
+            addBlockMaximum(blockOffsets[block], termPositions.size(), length);
+            blockOffsets[block + 1] = blockMaximaSize;
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+                positionOffsets = Arrays.copyOf(positionOffsets, size * 2 + 1);
+            }
+            int offset = positionOffsets[size];
+            if (offset + termPositions.size() > positions.length) {
+                positions = Arrays.copyOf(positions, Math.max(positions.length * 2, offset + termPositions.size()));
+            }
+            for (int position : termPositions) {
+                positions[offset++] = position;
+            }
+            documents[size] = document;
+            positionOffsets[++size] = offset;
+        }
+
+        /**
+         * Add an entry to the maxima of the last block, which start at {@code blockStart}, unless
+         * an entry with at least the frequency and at most the length is already there.
+         */
+        private void addBlockMaximum(int blockStart, int frequency, int length) {
+            for (int i = blockStart; i < blockMaximaSize; i++) {
+                if (frequency(blockMaxima[i]) >= frequency && length(blockMaxima[i]) <= length) {
+                    return;
+                }
+            }
+            int kept = blockStart;
+            for (int i = blockStart; i < blockMaximaSize; i++) {
+                if (frequency(blockMaxima[i]) > frequency || length(blockMaxima[i]) < length) {
+                    blockMaxima[kept++] = blockMaxima[i];
+                }
+            }
+            if (kept == blockMaxima.length) {
+                blockMaxima = Arrays.copyOf(blockMaxima, kept * 2);
+            }
+            blockMaxima[kept++] = (long) frequency << Integer.SIZE | length;
+            blockMaximaSize = kept;
+        }
+
+        private static int frequency(long blockMaximum) {
+            return (int) (blockMaximum >>> Integer.SIZE);
+        }
+
+        private static int length(long blockMaximum) {
+            return (int) blockMaximum;
+        }
+
+        /**
+         * Find the first entry at or after {@code from} whose document is not below the target.
+         * Gallops forward before a binary search, so walking a long list from a short one stays cheap.
+         */
+        int seek(int document, int from) {
+            int step = 1;
+            int low = from;
+            int high = from;
+            while (high < size && documents[high] < document) {
+                low = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            int index = Arrays.binarySearch(documents, low, Math.min(high + 1, size), document);
+            return index >= 0 ? index : -index - 1;
+        }
+
+        /**
+         * Get an upper bound of the score of this term over the documents from {@code first} to {@code last},
+         * moving the cursor of the term to {@code first}.
+         */
+        double maxScore(int first, int last, int[] cursors, int term, double idf, double averageLength) {
+            cursors[term] = seek(first, cursors[term]);
+            double maxScore = 0;
+            for (int block = cursors[term] / BLOCK_SIZE; block * BLOCK_SIZE < size
+                    && documents[block * BLOCK_SIZE] <= last; block++) {
+                for (int i = blockOffsets[block]; i < blockOffsets[block + 1]; i++) {
+                    double norm = K1 * (1 - B + B * length(blockMaxima[i]) / averageLength);
+                    maxScore = Math.max(maxScore, termScore(idf, frequency(blockMaxima[i]), norm));
+                }
+            }
+            return maxScore;
+        }
+
+        int frequency(int index) {
+            return positionOffsets[index + 1] - positionOffsets[index];
+        }
+
+        int positionStart(int index) {
+            return positionOffsets[index];
+        }
+
+        int positionEnd(int index) {
+            return positionOffsets[index + 1];
+        }
+    }
+
+    private record ScoredDocument(int document, double score) {}
+}
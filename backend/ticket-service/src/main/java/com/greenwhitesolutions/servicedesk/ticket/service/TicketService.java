@@ -1,51 +1,197 @@
 package com.greenwhitesolutions.servicedesk.ticket.service;
 
 import com.greenwhitesolutions.servicedesk.ticket.client.AiClient;
+import com.greenwhitesolutions.servicedesk.ticket.config.TicketProperties;
+import com.greenwhitesolutions.servicedesk.ticket.journal.TicketJournal;
+import com.greenwhitesolutions.servicedesk.ticket.model.ClassificationStatus;
 import com.greenwhitesolutions.servicedesk.ticket.model.CreateTicketRequest;
 import com.greenwhitesolutions.servicedesk.ticket.model.Ticket;
+import com.greenwhitesolutions.servicedesk.ticket.model.TicketEventType;
+import com.greenwhitesolutions.servicedesk.ticket.model.TicketFilter;
+import com.greenwhitesolutions.servicedesk.ticket.model.TicketPage;
+import com.greenwhitesolutions.servicedesk.ticket.model.TicketStats;
+import com.greenwhitesolutions.servicedesk.ticket.repository.TicketBackingStore;
+import org.roaringbitmap.longlong.PeekableLongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.OptionalLong;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Service for managing tickets with in-memory storage.
+ * Tickets are held as {@link CompactTicket}s, with categories and labels interned in a shared
+ * {@link LabelDictionary}, and decoded into {@link Ticket}s when read.
+ * Tickets are kept ordered by id so listings can seek directly to a cursor, and category
+ * and label filters are answered from bitmap indexes.
+ * Every change is also handed to the {@link TicketBackingStore}, which serves tickets
+ * that are not in memory, such as those created before a restart.
+ * Without the journal, the store, indexes and statistics are loaded from the backing store on startup.
+ * New tickets whose description is a near-duplicate of an earlier ticket are linked to it as
+ * their parent and reuse its classification instead of calling the AI service again.
+ * Created and classified tickets are published to the {@link TicketEventBroadcaster}.
+ * Counts by status, category, label and creation time are kept up to date in {@link TicketStatistics}.
+ * When the {@link TicketJournal} is enabled, every change is logged to it after the store is
+ * updated, and the store, indexes and statistics are rebuilt from it on startup.
  */
 @Service
 public class TicketService {
 
-    private final Map<Long, Ticket> ticketStore = new ConcurrentHashMap<>();
-    private final AtomicLong idGenerator = new AtomicLong(1);
+    private static final Logger log = LoggerFactory.getLogger(TicketService.class);
+
+    private static final String DEFAULT_CATEGORY = "general";
+
+    private final ConcurrentNavigableMap<Long, CompactTicket> ticketStore = new ConcurrentSkipListMap<>();
+    private final LabelDictionary labelDictionary = new LabelDictionary();
+    private final TicketBitmapIndex index = new TicketBitmapIndex();
+    private final TicketSearchIndex searchIndex = new TicketSearchIndex();
+    private final TicketStatistics statistics;
+    private final NearDuplicateIndex duplicates;
+    private final SnowflakeIdGenerator idGenerator;
     private final AiClient aiClient;
+    private final TicketProperties properties;
+    private final TicketEnrichmentPipeline enrichmentPipeline;
+    private final TicketBackingStore backingStore;
+    private final TicketEventBroadcaster events;
+    private final TicketJournal journal;
 
     public TicketService(AiClient aiClient) {
+        this(aiClient, new TicketProperties(), null, TicketBackingStore.NONE);
+    }
+
+    @Autowired
+    public TicketService(AiClient aiClient, TicketProperties properties, TicketEnrichmentPipeline enrichmentPipeline,
+                         ObjectProvider<TicketBackingStore> backingStore, TicketEventBroadcaster events,
+                         ObjectProvider<TicketJournal> journal) {
+        this(aiClient, properties, enrichmentPipeline, backingStore.getIfAvailable(() -> TicketBackingStore.NONE),
+                events, journal.getIfAvailable());
+    }
+
+    public TicketService(AiClient aiClient, TicketProperties properties, TicketEnrichmentPipeline enrichmentPipeline,
+                         TicketBackingStore backingStore) {
+        this(aiClient, properties, enrichmentPipeline, backingStore, null);
+    }
+
+    public TicketService(AiClient aiClient, TicketProperties properties, TicketEnrichmentPipeline enrichmentPipeline,
+                         TicketBackingStore backingStore, TicketEventBroadcaster events) {
+        this(aiClient, properties, enrichmentPipeline, backingStore, events, null);
+    }
+
+    public TicketService(AiClient aiClient, TicketProperties properties, TicketEnrichmentPipeline enrichmentPipeline,
+                         TicketBackingStore backingStore, TicketEventBroadcaster events, TicketJournal journal) {
         this.aiClient = aiClient;
+        this.properties = properties;
+        this.enrichmentPipeline = enrichmentPipeline;
+        this.backingStore = backingStore;
+        this.events = events;
+        this.journal = journal;
+        this.idGenerator = new SnowflakeIdGenerator(properties.getId().getNodeId());
+        this.statistics = new TicketStatistics(properties.getStats().getMinuteBuckets(),
+                properties.getStats().getHourBuckets());
+        TicketProperties.Deduplication deduplication = properties.getDeduplication();
+        this.duplicates = deduplication.isEnabled()
+                ? new NearDuplicateIndex(deduplication.getBands(), deduplication.getRows(),
+                        deduplication.getSimilarityThreshold(), deduplication.getMinShingles(),
+                        deduplication.getMaxParents(), deduplication.getMaxParentAge().toMillis())
+                : null;
+        // Continue after the highest persisted id so a restart with a clock that is behind does not reuse ids
+        backingStore.findMaxId().ifPresent(idGenerator::advancePast);
+        if (isAsyncEnrichment()) {
+            enrichmentPipeline.setSweep(this::resubmitPending);
+        }
+        if (journal != null) {
+            TicketJournal.Recovery recovery = journal.recover();
+            restore(recovery.tickets(), "the journal");
+            recovery.replayed().forEach(this::writeBack);
+            journal.start(() -> ticketStore.values().stream().map(this::decode).iterator());
+        } else {
+            restore(backingStore.findAll(), "the backing store");
+        }
     }
 
     /**
      * Create a new ticket.
      * Calls AI service to classify the ticket description and populate labels.
+     * With deduplication enabled, a near-duplicate of an earlier ticket is linked to it and takes
+     * over its labels without calling the AI service.
+     * In async enrichment mode the ticket is stored as PENDING and classified in the background;
+     * in stream mode it is stored as PENDING and classified by the consumer group of the ticket event stream.
      *
      * @param request the ticket creation request
-     * @return the created ticket with AI-generated labels
+     * @return the created ticket with AI-generated labels, or a PENDING ticket in async and stream mode
      */
     public Ticket createTicket(CreateTicketRequest request) {
-        Long id = idGenerator.getAndIncrement();
+        Long id = idGenerator.nextId();
+        Long parentId = findParentId(id, request.getDescription());
+        CompactTicket parent = parentId != null ? ticketStore.get(parentId) : null;
+        if (parent != null) {
+            Ticket parentTicket = decode(parent);
+            // A parent without labels may only have hit the classification fallback, so classify again
+            if (parentTicket.getClassificationStatus() == ClassificationStatus.CLASSIFIED
+                    && !parentTicket.getLabels().isEmpty()) {
+                return storeClassified(id, request, parentTicket.getLabels(), parentId);
+            }
+        }
+
+        if (isAsyncEnrichment() || isStreamEnrichment()) {
+            Ticket ticket = new Ticket(id, request.getTitle(), request.getDescription(), null, List.of(),
+                    ClassificationStatus.PENDING, parentId);
+            ticketStore.put(id, CompactTicket.of(ticket, labelDictionary));
+            searchIndex.add(id, ticket.getTitle(), ticket.getDescription());
+            statistics.add(ticket);
+            record(ticket);
+            backingStore.insert(ticket);
+            publish(TicketEventType.CREATED, ticket);
+            if (isAsyncEnrichment()) {
+                submitClassification(ticket);
+            }
+            return ticket;
+        }
 
         // Call AI service to classify the description
         List<String> labels = aiClient.classify(request.getDescription());
 
-        // Set category from first label if available
-        String category = labels.isEmpty() ? "general" : labels.get(0);
+        return storeClassified(id, request, labels, parentId);
+    }
 
-        Ticket ticket = new Ticket(id, request.getTitle(), request.getDescription(), category, labels);
-        ticketStore.put(id, ticket);
+    /**
+     * Create a ticket whose description has already been classified.
+     *
+     * @param request the ticket creation request
+     * @param labels the classification labels of the description
+     * @return the created ticket
+     */
+    public Ticket createClassifiedTicket(CreateTicketRequest request, List<String> labels) {
+        Long id = idGenerator.nextId();
+        return storeClassified(id, request, labels, findParentId(id, request.getDescription()));
+    }
 
-        return ticket;
+    /**
+     * Check whether PENDING tickets are classified in the background, by the enrichment pipeline in
+     * async mode or by the consumer group of the ticket event stream in stream mode.
+     *
+     * @return true if {@link #createTicket} stores tickets as PENDING and classifies them later
+     */
+    public boolean classifiesInBackground() {
+        return isAsyncEnrichment() || isStreamEnrichment();
     }
 
     /**
@@ -55,7 +201,8 @@ public class TicketService {
      * @return the ticket if found
      */
     public Optional<Ticket> getTicket(Long id) {
-        return Optional.ofNullable(ticketStore.get(id));
+        CompactTicket ticket = ticketStore.get(id);
+        return ticket != null ? Optional.of(decode(ticket)) : backingStore.findById(id);
     }
 
     /**
@@ -64,6 +211,327 @@ public class TicketService {
      * @return collection of all tickets
      */
     public Collection<Ticket> getAllTickets() {
-        return ticketStore.values();
+        return ticketStore.values().stream().map(this::decode).toList();
+    }
+
+    /**
+     * Get a page of tickets ordered by id, starting after the given cursor.
+     *
+     * @param after the id of the last ticket of the previous page, or null for the first page
+     * @param limit the maximum number of tickets to return, or null for the configured default
+     * @param filter criteria the tickets must match
+     * @return the page of tickets and the cursor of the next page
+     */
+    public TicketPage getTickets(Long after, Integer limit, TicketFilter filter) {
+        int pageSize = resolveLimit(limit);
+        List<Ticket> items = new ArrayList<>(Math.min(pageSize, 64));
+        Iterator<Ticket> iterator = iterate(after, filter);
+        while (items.size() < pageSize && iterator.hasNext()) {
+            items.add(iterator.next());
+        }
+        Long nextCursor = items.size() == pageSize && iterator.hasNext()
+                ? items.get(items.size() - 1).getId()
+                : null;
+        return new TicketPage(items, nextCursor);
+    }
+
+    /**
+     * Stream tickets ordered by id, starting after the given cursor.
+     * The stream is lazy and weakly consistent, so it can be consumed incrementally
+     * without copying the store.
+     *
+     * @param after the id to start after, or null to start from the first ticket
+     * @param filter criteria the tickets must match
+     * @return a lazy stream of matching tickets
+     */
+    public Stream<Ticket> streamTickets(Long after, TicketFilter filter) {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(iterate(after, filter), Spliterator.ORDERED | Spliterator.NONNULL),
+                false);
+    }
+
+    /**
+     * Search ticket titles and descriptions.
+     * Tickets must contain every term of the query; quoted phrases must appear as written.
+     * Results are ranked with BM25.
+     *
+     * @param query the search query, e.g. {@code printer "paper jam"}
+     * @param limit the maximum number of tickets to return, or null for the configured default
+     * @return the matching tickets, best matches first
+     */
+    public List<Ticket> searchTickets(String query, Integer limit) {
+        return searchIndex.search(query, resolveLimit(limit)).stream()
+                .map(ticketStore::get)
+                .filter(Objects::nonNull)
+                .map(this::decode)
+                .toList();
+    }
+
+    /**
+     * Get ticket counts by status, category and label, and the number of tickets created per
+     * minute and per hour. The counts are maintained as tickets change, so this does not visit any ticket.
+     *
+     * @return the ticket statistics
+     */
+    public TicketStats getStatistics() {
+        return statistics.snapshot();
+    }
+
+    private Ticket storeClassified(Long id, CreateTicketRequest request, List<String> labels, Long parentId) {
+        CompactTicket compact = CompactTicket.of(new Ticket(id, request.getTitle(), request.getDescription(),
+                categoryOf(labels), labels, ClassificationStatus.CLASSIFIED, parentId), labelDictionary);
+        ticketStore.put(id, compact);
+        // Return the stored form so the response matches later reads
+        Ticket ticket = decode(compact);
+        index.add(ticket);
+        searchIndex.add(id, ticket.getTitle(), ticket.getDescription());
+        statistics.add(ticket);
+        record(ticket);
+        backingStore.insert(ticket);
+        publish(TicketEventType.CREATED, ticket);
+        return ticket;
+    }
+
+    /**
+     * Complete the classification of a PENDING ticket, classified by a consumer of the ticket event
+     * stream on any node. A ticket held by this node is updated like a background classification.
+     * Otherwise only the backing store is updated, and the node holding the ticket applies the
+     * change when it reads the resulting event from the stream.
+     * Tickets that are no longer PENDING are left alone, so redelivered events are harmless.
+     *
+     * @param id the ticket ID
+     * @param labels the classification labels
+     */
+    public void completeClassification(Long id, List<String> labels) {
+        if (ticketStore.containsKey(id)) {
+            applyClassification(id, labels, true);
+            return;
+        }
+        backingStore.findById(id)
+                .filter(ticket -> ticket.getClassificationStatus() == ClassificationStatus.PENDING)
+                .ifPresent(ticket -> backingStore.update(new Ticket(ticket.getId(), ticket.getTitle(),
+                        ticket.getDescription(), categoryOf(labels), labels, ClassificationStatus.CLASSIFIED,
+                        ticket.getParentId())));
+    }
+
+    /**
+     * Apply a classification that another node has already stored, if this node holds the ticket
+     * and it is still PENDING. The ticket is not written to the backing store again.
+     * A ticket that is not CLASSIFIED itself is ignored, so a PENDING ticket is never completed
+     * without a classification.
+     *
+     * @param classified the classified ticket
+     */
+    public void applyStoredClassification(Ticket classified) {
+        if (classified.getClassificationStatus() != ClassificationStatus.CLASSIFIED) {
+            log.warn("Ignoring stored classification of ticket {} with status {}", classified.getId(),
+                    classified.getClassificationStatus());
+            return;
+        }
+        applyClassification(classified.getId(), classified.getLabels(), false);
+    }
+
+    /**
+     * Store the classification result for a PENDING ticket.
+     * The stored instance is replaced rather than mutated so readers never observe a half-updated ticket.
+     */
+    private void applyClassification(Long id, List<String> labels, boolean persist) {
+        CompactTicket stored;
+        CompactTicket replacement;
+        Ticket current;
+        do {
+            stored = ticketStore.get(id);
+            if (stored == null || stored.getStatus() != ClassificationStatus.PENDING) {
+                return;
+            }
+            current = decode(stored);
+            replacement = CompactTicket.of(new Ticket(current.getId(), current.getTitle(), current.getDescription(),
+                    categoryOf(labels), labels, ClassificationStatus.CLASSIFIED, current.getParentId()),
+                    labelDictionary);
+        } while (!ticketStore.replace(id, stored, replacement));
+        Ticket classified = decode(replacement);
+        index.update(current, classified);
+        statistics.update(current, classified);
+        record(classified);
+        if (persist) {
+            backingStore.update(classified);
+        }
+        publish(TicketEventType.CLASSIFIED, classified);
+    }
+
+    /**
+     * Load the tickets recovered from the journal or read from the backing store into the store,
+     * indexes and statistics.
+     * Only the most recent tickets without a parent are registered as possible parents, as many as
+     * the near-duplicate index keeps.
+     * In async enrichment mode, PENDING tickets are submitted for classification again, since the
+     * background classifications that were queued before the restart are lost.
+     */
+    private void restore(Collection<Ticket> recovered, String source) {
+        long started = System.nanoTime();
+        List<Ticket> tickets = new ArrayList<>(recovered);
+        tickets.sort(Comparator.comparing(Ticket::getId));
+        int parentsFrom = 0;
+        if (duplicates != null) {
+            int parents = 0;
+            parentsFrom = tickets.size();
+            while (parentsFrom > 0 && parents < properties.getDeduplication().getMaxParents()) {
+                parentsFrom--;
+                if (tickets.get(parentsFrom).getParentId() == null) {
+                    parents++;
+                }
+            }
+        }
+        for (int i = 0; i < tickets.size(); i++) {
+            Ticket ticket = tickets.get(i);
+            long id = ticket.getId();
+            ticketStore.put(id, CompactTicket.of(ticket, labelDictionary));
+            if (ticket.getClassificationStatus() == ClassificationStatus.CLASSIFIED) {
+                index.add(ticket);
+            }
+            searchIndex.add(id, ticket.getTitle(), ticket.getDescription());
+            statistics.add(ticket, SnowflakeIdGenerator.timestampOf(id));
+            if (duplicates != null && i >= parentsFrom && ticket.getParentId() == null) {
+                duplicates.findOrAdd(id, ticket.getDescription());
+            }
+        }
+        if (!tickets.isEmpty()) {
+            idGenerator.advancePast(tickets.get(tickets.size() - 1).getId());
+        }
+        int resubmitted = 0;
+        if (isAsyncEnrichment()) {
+            for (Ticket ticket : tickets) {
+                if (ticket.getClassificationStatus() == ClassificationStatus.PENDING) {
+                    submitClassification(ticket);
+                    resubmitted++;
+                }
+            }
+        }
+        log.info("Restored {} tickets from {} in {} ms, {} resubmitted for classification", tickets.size(), source,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), resubmitted);
+    }
+
+    /**
+     * Submit the classification of every PENDING ticket again, after the enrichment pipeline shed some.
+     * Tickets a worker is classifying right now are classified twice; the second result is ignored.
+     */
+    private void resubmitPending() {
+        int resubmitted = 0;
+        for (CompactTicket stored : ticketStore.values()) {
+            if (stored.getStatus() == ClassificationStatus.PENDING) {
+                submitClassification(decode(stored));
+                resubmitted++;
+            }
+        }
+        log.info("Resubmitted {} PENDING tickets for classification after the enrichment queue overflowed",
+                resubmitted);
+    }
+
+    private void submitClassification(Ticket ticket) {
+        Long id = ticket.getId();
+        enrichmentPipeline.submit(ticket.getDescription(), labels -> applyClassification(id, labels, true));
+    }
+
+    /**
+     * Write a ticket changed after the last journal snapshot to the backing store again, in case a
+     * write-behind store lost it in a crash: as an insert if the store does not have it, and as an
+     * update if it holds an older state.
+     * A ticket only ever changes from PENDING to CLASSIFIED, so an equal status means an equal ticket.
+     */
+    private void writeBack(Ticket ticket) {
+        Optional<Ticket> persisted = backingStore.findById(ticket.getId());
+        if (persisted.isEmpty()) {
+            backingStore.insert(ticket);
+        } else if (persisted.get().getClassificationStatus() != ticket.getClassificationStatus()) {
+            backingStore.update(ticket);
+        }
+    }
+
+    /**
+     * Log a changed ticket to the journal, after the store holds the change.
+     */
+    private void record(Ticket ticket) {
+        if (journal != null) {
+            journal.append(ticket);
+        }
+    }
+
+    /**
+     * Iterate over tickets matching the filter in id order, starting after the given cursor.
+     * Category and label criteria are resolved with the bitmap index; the remaining criteria
+     * are checked per ticket.
+     */
+    private Iterator<Ticket> iterate(Long after, TicketFilter filter) {
+        if (!filter.hasIndexedCriteria()) {
+            ConcurrentNavigableMap<Long, CompactTicket> tail = after == null
+                    ? ticketStore
+                    : ticketStore.tailMap(after, false);
+            return tail.values().stream().map(this::decode).filter(filter::matches).iterator();
+        }
+        Roaring64Bitmap ids = index.query(filter);
+        PeekableLongIterator matches = after == null ? ids.getLongIterator() : ids.getLongIteratorFrom(after + 1);
+        PrimitiveIterator.OfLong idIterator = new PrimitiveIterator.OfLong() {
+            @Override
+            public boolean hasNext() {
+                return matches.hasNext();
+            }
+
+            @Override
+            public long nextLong() {
+                return matches.next();
+            }
+        };
+        return StreamSupport.longStream(Spliterators.spliteratorUnknownSize(idIterator, Spliterator.ORDERED), false)
+                .mapToObj(ticketStore::get)
+                .filter(Objects::nonNull)
+                .map(this::decode)
+                .filter(filter::matches)
+                .iterator();
+    }
+
+    /**
+     * Find the earlier ticket the description is a near-duplicate of, registering the new
+     * ticket as a possible parent when there is none.
+     */
+    private Long findParentId(Long id, String description) {
+        if (duplicates == null) {
+            return null;
+        }
+        OptionalLong parentId = duplicates.findOrAdd(id, description);
+        return parentId.isPresent() ? parentId.getAsLong() : null;
+    }
+
+    private void publish(TicketEventType type, Ticket ticket) {
+        if (events != null) {
+            events.publish(type, ticket);
+        }
+    }
+
+    private Ticket decode(CompactTicket ticket) {
+        return ticket.toTicket(labelDictionary);
+    }
+
+    private int resolveLimit(Integer limit) {
+        TicketProperties.Listing listing = properties.getListing();
+        if (limit == null || limit <= 0) {
+            return listing.getDefaultLimit();
+        }
+        return Math.min(limit, listing.getMaxLimit());
+    }
+
+    private boolean isAsyncEnrichment() {
+        return enrichmentPipeline != null
+                && properties.getEnrichment().getMode() == TicketProperties.EnrichmentMode.ASYNC;
+    }
+
+    private boolean isStreamEnrichment() {
+        return properties.getEnrichment().getMode() == TicketProperties.EnrichmentMode.STREAM;
+    }
+
+    /**
+     * Derive the category from the first label, if available.
+     */
+    private static String categoryOf(List<String> labels) {
+        return labels.isEmpty() ? DEFAULT_CATEGORY : labels.get(0);
     }
 }
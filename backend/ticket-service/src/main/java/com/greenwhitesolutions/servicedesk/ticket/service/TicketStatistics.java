@@ -0,0 +1,174 @@
+package com.greenwhitesolutions.servicedesk.ticket.service;
+
+import com.greenwhitesolutions.servicedesk.ticket.model.ClassificationStatus;
+import com.greenwhitesolutions.servicedesk.ticket.model.Ticket;
+import com.greenwhitesolutions.servicedesk.ticket.model.TicketStats;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Ticket counts maintained as tickets are created and classified, so statistics are read
+ * without visiting any ticket. Counts per status, category and label are striped
+ * {@link LongAdder}s, which concurrent writers update without contending on a single value.
+ * Created tickets are also counted in rings of one-minute and one-hour buckets.
+ * <p>
+ * Reading costs one pass over the counters and buckets, which depends on the number of
+ * distinct categories and labels and on the configured bucket counts, not on the number of tickets.
+ * A read taken while tickets change may see some counters before and others after a change.
+ */
+class TicketStatistics {
+
+    private final LongSupplier clock;
+    private final LongAdder total = new LongAdder();
+    private final Map<ClassificationStatus, LongAdder> byStatus = new EnumMap<>(ClassificationStatus.class);
+    private final Map<String, LongAdder> byCategory = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> byLabel = new ConcurrentHashMap<>();
+    private final BucketRing perMinute;
+    private final BucketRing perHour;
+
+    TicketStatistics(int minuteBuckets, int hourBuckets) {
+        this(minuteBuckets, hourBuckets, System::currentTimeMillis);
+    }
+
+    TicketStatistics(int minuteBuckets, int hourBuckets, LongSupplier clock) {
+        this.clock = clock;
+        for (ClassificationStatus status : ClassificationStatus.values()) {
+            byStatus.put(status, new LongAdder());
+        }
+        this.perMinute = new BucketRing(Duration.ofMinutes(1), minuteBuckets);
+        this.perHour = new BucketRing(Duration.ofHours(1), hourBuckets);
+    }
+
+    /**
+     * Count a newly created ticket.
+     *
+     * @param ticket the created ticket
+     */
+    void add(Ticket ticket) {
+        add(ticket, clock.getAsLong());
+    }
+
+    /**
+     * Count a ticket created at the given time, such as a ticket restored after a restart.
+     *
+     * @param ticket the created ticket
+     * @param createdMillis the creation time in milliseconds since the Unix epoch
+     */
+    void add(Ticket ticket, long createdMillis) {
+        total.increment();
+        count(ticket, 1);
+        perMinute.increment(createdMillis);
+        perHour.increment(createdMillis);
+    }
+
+    /**
+     * Move a ticket from the counts of its previous state to those of its new state.
+     *
+     * @param previous the ticket before the change
+     * @param current the ticket after the change
+     */
+    void update(Ticket previous, Ticket current) {
+        count(previous, -1);
+        count(current, 1);
+    }
+
+    /**
+     * Take a snapshot of the counts and of the buckets up to the current minute and hour.
+     *
+     * @return the statistics
+     */
+    TicketStats snapshot() {
+        Map<ClassificationStatus, Long> statuses = new EnumMap<>(ClassificationStatus.class);
+        byStatus.forEach((status, count) -> statuses.put(status, count.sum()));
+        long now = clock.getAsLong();
+        return new TicketStats(total.sum(), statuses, sums(byCategory), sums(byLabel),
+                perMinute.snapshot(now), perHour.snapshot(now));
+    }
+
+    private void count(Ticket ticket, int delta) {
+        byStatus.get(ticket.getClassificationStatus()).add(delta);
+        if (ticket.getCategory() != null) {
+            byCategory.computeIfAbsent(ticket.getCategory(), key -> new LongAdder()).add(delta);
+        }
+        if (ticket.getLabels() != null) {
+            for (String label : ticket.getLabels()) {
+                byLabel.computeIfAbsent(label, key -> new LongAdder()).add(delta);
+            }
+        }
+    }
+
+    private static Map<String, Long> sums(Map<String, LongAdder> counters) {
+        Map<String, Long> sums = new TreeMap<>();
+        counters.forEach((key, count) -> {
+            long sum = count.sum();
+            if (sum > 0) {
+                sums.put(key, sum);
+            }
+        });
+        return sums;
+    }
+
+    /**
+     * Fixed ring of time buckets. Each slot packs the bucket number, counted in bucket widths
+     * since the Unix epoch, into its upper 32 bits and the count into its lower 32 bits, so a
+     * single compare-and-set both advances a slot to a new bucket and counts in it.
+     */
+    static final class BucketRing {
+
+        private static final long COUNT_MASK = 0xFFFF_FFFFL;
+
+        private final long widthMillis;
+        private final AtomicLongArray slots;
+
+        BucketRing(Duration width, int size) {
+            if (size <= 0) {
+                throw new IllegalArgumentException("Bucket count must be positive: " + size);
+            }
+            this.widthMillis = width.toMillis();
+            this.slots = new AtomicLongArray(size);
+        }
+
+        void increment(long nowMillis) {
+            long bucket = nowMillis / widthMillis;
+            int slot = (int) (bucket % slots.length());
+            while (true) {
+                long current = slots.get(slot);
+                long currentBucket = current >>> 32;
+                long next;
+                if (currentBucket == bucket) {
+                    next = current + 1;
+                } else if (currentBucket < bucket) {
+                    next = bucket << 32 | 1;
+                } else {
+                    // The slot already moved on to a later bucket, which only a clock step back can cause
+                    return;
+                }
+                if (slots.compareAndSet(slot, current, next)) {
+                    return;
+                }
+            }
+        }
+
+        List<TicketStats.TimeBucket> snapshot(long nowMillis) {
+            int size = slots.length();
+            long newest = nowMillis / widthMillis;
+            List<TicketStats.TimeBucket> buckets = new ArrayList<>(size);
+            for (long bucket = newest - size + 1; bucket <= newest; bucket++) {
+                long value = slots.get((int) (bucket % size));
+                long count = value >>> 32 == bucket ? value & COUNT_MASK : 0;
+                buckets.add(new TicketStats.TimeBucket(Instant.ofEpochMilli(bucket * widthMillis), count));
+            }
+            return buckets;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+CREATE TABLE IF NOT EXISTS tickets (
+    id                    BIGINT        PRIMARY KEY,
+    title                 VARCHAR(255)  NOT NULL,
+    description           VARCHAR(10000),
+    category              VARCHAR(100),
+    labels                VARCHAR(1000),
+    classification_status VARCHAR(20),
+    parent_id             BIGINT
+);
+
+-- Tables created before near-duplicate detection lack the parent ticket column
+ALTER TABLE tickets ADD COLUMN IF NOT EXISTS parent_id BIGINT;
+
+-- Ticket events written with the ticket changes and relayed to Redis Streams
+CREATE SEQUENCE IF NOT EXISTS ticket_outbox_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS ticket_outbox (
+    id         BIGINT         PRIMARY KEY,
+    ticket_id  BIGINT         NOT NULL,
+    event_type VARCHAR(20)    NOT NULL,
+    payload    VARCHAR(20000) NOT NULL,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
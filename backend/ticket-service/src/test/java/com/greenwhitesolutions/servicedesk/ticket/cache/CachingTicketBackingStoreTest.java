@@ -0,0 +1,179 @@
+package com.greenwhitesolutions.servicedesk.ticket.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import com.greenwhitesolutions.servicedesk.ticket.model.ClassificationStatus;
+import com.greenwhitesolutions.servicedesk.ticket.model.Ticket;
+import com.greenwhitesolutions.servicedesk.ticket.repository.TicketBackingStore;
+
+/**
+ * Unit tests for CachingTicketBackingStore and TicketCodec.
+ */
+@ExtendWith(MockitoExtension.class)
+class CachingTicketBackingStoreTest {
+
+    private static final Duration TTL = Duration.ofMinutes(5);
+
+    @Mock
+    private TicketBackingStore delegate;
+
+    @Mock
+    private RedisTemplate<String, byte[]> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, byte[]> valueOperations;
+
+    private CachingTicketBackingStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new CachingTicketBackingStore(delegate, redisTemplate, TTL);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        store.shutdown();
+    }
+
+    @Test
+    @DisplayName("findById returns the cached ticket without reading the delegate")
+    void findById_cacheHit() {
+        Ticket ticket = ticket(1L);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("ticket:1")).thenReturn(TicketCodec.encode(ticket));
+
+        Optional<Ticket> result = store.findById(1L);
+
+        assertThat(result).isPresent();
+        assertThat(result.get().getTitle()).isEqualTo("Printer jammed");
+        verify(delegate, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("findById reads through to the delegate on a miss and populates the cache")
+    void findById_cacheMiss() {
+        Ticket ticket = ticket(1L);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(delegate.findById(1L)).thenReturn(Optional.of(ticket));
+
+        Optional<Ticket> result = store.findById(1L);
+
+        assertThat(result).contains(ticket);
+        verify(valueOperations).setIfAbsent(eq("ticket:1"), any(byte[].class), eq(TTL));
+    }
+
+    @Test
+    @DisplayName("findById falls back to the delegate when Redis is unavailable")
+    void findById_redisDown() {
+        Ticket ticket = ticket(1L);
+        when(redisTemplate.opsForValue()).thenThrow(new RedisConnectionFailureException("down"));
+        when(delegate.findById(1L)).thenReturn(Optional.of(ticket));
+
+        assertThat(store.findById(1L)).contains(ticket);
+    }
+
+    @Test
+    @DisplayName("update writes to the delegate and replaces the cached entry in the background")
+    void update_writesThrough() {
+        Ticket ticket = ticket(1L);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+
+        store.update(ticket);
+
+        verify(delegate).update(ticket);
+        ArgumentCaptor<byte[]> value = ArgumentCaptor.forClass(byte[].class);
+        verify(valueOperations, timeout(5000)).set(eq("ticket:1"), value.capture(), eq(TTL));
+        assertThat(TicketCodec.decode(value.getValue()).getCategory()).isEqualTo("hardware");
+    }
+
+    @Test
+    @DisplayName("writes do not wait for a slow Redis, and the latest version of a ticket is cached")
+    void update_slowRedis_doesNotBlockWriter() throws InterruptedException {
+        CountDownLatch redisBlocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        doAnswer(invocation -> {
+            redisBlocked.countDown();
+            release.await();
+            return null;
+        }).when(valueOperations).set(eq("ticket:1"), any(byte[].class), eq(TTL));
+
+        // Given a cache write stuck in Redis
+        store.update(ticket(1L));
+        assertThat(redisBlocked.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When the ticket changes twice more
+        Ticket pending = new Ticket(1L, "Printer jammed", "Paper stuck", null, List.of(), ClassificationStatus.PENDING);
+        store.update(pending);
+        store.update(ticket(1L));
+
+        // Then both writes returned, and only the latest one follows the stuck write
+        verify(delegate, timeout(5000).times(3)).update(any());
+        release.countDown();
+        ArgumentCaptor<byte[]> value = ArgumentCaptor.forClass(byte[].class);
+        verify(valueOperations, timeout(5000).times(2)).set(eq("ticket:1"), value.capture(), eq(TTL));
+        assertThat(TicketCodec.decode(value.getAllValues().get(1)).getCategory()).isEqualTo("hardware");
+    }
+
+    @Test
+    @DisplayName("a failed cache write evicts the stale entry")
+    void update_cacheWriteFails_evicts() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        doThrow(new RedisConnectionFailureException("down"))
+                .when(valueOperations).set(anyString(), any(byte[].class), any(Duration.class));
+
+        store.update(ticket(1L));
+
+        verify(redisTemplate, timeout(5000)).delete("ticket:1");
+    }
+
+    @Test
+    @DisplayName("TicketCodec round-trips all ticket fields including nulls")
+    void codec_roundTrip() {
+        Ticket full = ticket(42L);
+        Ticket pending = new Ticket(43L, "Title", null, null, List.of(), ClassificationStatus.PENDING);
+        Ticket duplicate = new Ticket(44L, "Title", "Text", "hardware", List.of("hardware"),
+                ClassificationStatus.CLASSIFIED, 42L);
+
+        Ticket decodedFull = TicketCodec.decode(TicketCodec.encode(full));
+        Ticket decodedPending = TicketCodec.decode(TicketCodec.encode(pending));
+        Ticket decodedDuplicate = TicketCodec.decode(TicketCodec.encode(duplicate));
+
+        assertThat(decodedFull).usingRecursiveComparison().isEqualTo(full);
+        assertThat(decodedPending).usingRecursiveComparison().isEqualTo(pending);
+        assertThat(decodedDuplicate).usingRecursiveComparison().isEqualTo(duplicate);
+    }
+
+    private static Ticket ticket(Long id) {
+        return new Ticket(id, "Printer jammed", "Paper stuck in tray 2 — überall Papier", "hardware",
+                Arrays.asList("hardware", "urgent"), ClassificationStatus.CLASSIFIED);
+    }
+}
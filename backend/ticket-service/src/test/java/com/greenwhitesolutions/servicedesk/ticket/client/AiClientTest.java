@@ -1,11 +1,15 @@
 package com.greenwhitesolutions.servicedesk.ticket.client;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import org.junit.jupiter.api.AfterAll;
-import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,38 +17,49 @@ import org.springframework.web.reactive.function.client.WebClient;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.greenwhitesolutions.servicedesk.ticket.config.AiServiceProperties;
 
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
 
 /**
  * Unit tests for AiClient using MockWebServer.
  */
 class AiClientTest {
 
-    private static MockWebServer mockServer;
+    private MockWebServer mockServer;
+    private WebClient webClient;
     private AiClient aiClient;
     private ObjectMapper objectMapper;
 
-    @BeforeAll
-    static void startServer() throws Exception {
+    /**
+     * Every test gets its own server, so responses a test leaves queued, such as delayed
+     * responses its requests timed out on, are never served to the next test.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
         mockServer = new MockWebServer();
         mockServer.start();
-    }
-
-    @AfterAll
-    static void shutdownServer() throws Exception {
-        mockServer.shutdown();
-    }
-
-    @BeforeEach
-    void setUp() {
         String baseUrl = String.format("http://localhost:%s", mockServer.getPort());
-        WebClient webClient = WebClient.builder().baseUrl(baseUrl).build();
+        webClient = WebClient.builder().baseUrl(baseUrl).build();
         aiClient = new AiClient(webClient);
         objectMapper = new ObjectMapper();
     }
 
+    @AfterEach
+    void shutdownServer() throws IOException {
+        mockServer.shutdown();
+    }
+
     @Test
     @DisplayName("classify returns labels from AI service response")
     void classify_returnsLabels() throws JsonProcessingException {
@@ -90,6 +105,285 @@ class AiClientTest {
         assertThat(labels).isEmpty();
     }
 
+    @Test
+    @DisplayName("classifyBatchAsync classifies all texts with one request and keeps their order")
+    void classifyBatchAsync_returnsLabelsInOrder() throws Exception {
+        // Given the response lacks a result for the last text
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse()
+                .setBody("{\"results\":[{\"labels\":[\"billing\"]},{\"labels\":[\"network\",\"urgent\"]}]}")
+                .addHeader("Content-Type", "application/json"));
+        server.start();
+        try {
+            AiClient client = new AiClient(clientFor(server));
+
+            // When
+            List<List<String>> labels = client.classifyBatchAsync(List.of("Wrong invoice", "VPN down", "Hello"))
+                    .block();
+
+            // Then
+            assertThat(labels).containsExactly(List.of("billing"), List.of("network", "urgent"), List.of());
+            assertThat(server.getRequestCount()).isEqualTo(1);
+            RecordedRequest request = server.takeRequest(1, TimeUnit.SECONDS);
+            assertThat(request.getPath()).isEqualTo("/api/v1/ai/classify/batch");
+            assertThat(request.getBody().readUtf8())
+                    .isEqualTo("{\"texts\":[\"Wrong invoice\",\"VPN down\",\"Hello\"]}");
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("classifyBatchAsync returns no labels for any text when the AI service is unavailable")
+    void classifyBatchAsync_returnsEmptyListsOnError() {
+        // Given
+        mockServer.enqueue(new MockResponse().setResponseCode(500));
+
+        // When
+        List<List<String>> labels = aiClient.classifyBatchAsync(List.of("first", "second")).block();
+
+        // Then
+        assertThat(labels).containsExactly(List.of(), List.of());
+    }
+
+    @Test
+    @DisplayName("classify falls back to an empty list when the AI service exceeds the timeout")
+    void classify_returnsEmptyListOnTimeout() {
+        // Given
+        AiServiceProperties properties = new AiServiceProperties();
+        properties.setTimeout(Duration.ofMillis(200));
+        AiClient client = new AiClient(List.of(webClient), properties, CircuitBreakerRegistry.ofDefaults(),
+                BulkheadRegistry.ofDefaults());
+        mockServer.enqueue(new MockResponse()
+                .setBody("{\"labels\":[\"billing\"]}")
+                .addHeader("Content-Type", "application/json")
+                .setHeadersDelay(2, TimeUnit.SECONDS));
+
+        // When
+        long start = System.nanoTime();
+        List<String> labels = client.classify("Some text");
+
+        // Then
+        assertThat(labels).isEmpty();
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+    }
+
+    @Test
+    @DisplayName("classifications are timed with their outcome")
+    void classify_recordsOutcomeMetrics() {
+        // Given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AiServiceProperties properties = new AiServiceProperties();
+        // Long enough for the first request of the JVM, which also sets up the HTTP client
+        properties.setTimeout(Duration.ofSeconds(1));
+        AiClient client = new AiClient(List.of(webClient), properties, CircuitBreakerRegistry.ofDefaults(),
+                BulkheadRegistry.ofDefaults(), meterRegistry);
+        mockServer.enqueue(new MockResponse()
+                .setBody("{\"labels\":[\"billing\"]}")
+                .addHeader("Content-Type", "application/json"));
+        mockServer.enqueue(new MockResponse()
+                .setBody("{\"labels\":[\"billing\"]}")
+                .addHeader("Content-Type", "application/json")
+                .setHeadersDelay(3, TimeUnit.SECONDS));
+
+        // When
+        client.classify("first");
+        client.classify("second");
+
+        // Then
+        assertThat(meterRegistry.get(AiClient.REQUESTS_METRIC).tags("operation", "classify", "outcome", "success")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(AiClient.REQUESTS_METRIC).tags("operation", "classify", "outcome", "timeout")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("classify fails fast without calling the AI service while the circuit breaker is open")
+    void classify_openCircuitBreaker_failsFast() {
+        // Given
+        CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(2)
+                .minimumNumberOfCalls(2)
+                .failureRateThreshold(50)
+                .build());
+        AiClient client = new AiClient(List.of(webClient), new AiServiceProperties(), circuitBreakers,
+                BulkheadRegistry.ofDefaults());
+        mockServer.enqueue(new MockResponse().setResponseCode(500));
+        mockServer.enqueue(new MockResponse().setResponseCode(500));
+        client.classify("first");
+        client.classify("second");
+        int requestsBefore = mockServer.getRequestCount();
+
+        // When
+        List<String> labels = client.classify("third");
+
+        // Then
+        assertThat(client.getCircuitBreaker().getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(labels).isEmpty();
+        assertThat(mockServer.getRequestCount()).isEqualTo(requestsBefore);
+    }
+
+    @Test
+    @DisplayName("classify fails fast without calling the AI service when the bulkhead is full")
+    void classify_fullBulkhead_failsFast() {
+        // Given
+        BulkheadRegistry bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        AiClient client = new AiClient(List.of(webClient), new AiServiceProperties(),
+                CircuitBreakerRegistry.ofDefaults(), bulkheads);
+        bulkheads.bulkhead(AiClient.RESILIENCE_NAME).tryAcquirePermission();
+        int requestsBefore = mockServer.getRequestCount();
+
+        // When
+        List<String> labels = client.classify("Some text");
+
+        // Then
+        assertThat(labels).isEmpty();
+        assertThat(mockServer.getRequestCount()).isEqualTo(requestsBefore);
+    }
+
+    @Test
+    @DisplayName("classify sends requests to the replica with the fewest outstanding requests")
+    void classify_prefersLeastLoadedReplica() throws Exception {
+        // Given
+        MockWebServer slow = replica(Duration.ofSeconds(2));
+        MockWebServer fast = replica(Duration.ZERO);
+        try {
+            AiServiceProperties properties = new AiServiceProperties();
+            properties.getHedging().setEnabled(false);
+            AiClient client = new AiClient(List.of(clientFor(slow), clientFor(fast)), properties,
+                    CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults());
+            client.classifyAsync("first").subscribe();
+            await().atMost(Duration.ofSeconds(5)).until(() -> slow.getRequestCount() == 1);
+
+            // When
+            for (int i = 0; i < 3; i++) {
+                client.classify("next " + i);
+            }
+
+            // Then
+            assertThat(fast.getRequestCount()).isEqualTo(3);
+            // Only the first request, still outstanding, reached the slow replica
+            assertThat(slow.getRequestCount()).isEqualTo(1);
+        } finally {
+            slow.shutdown();
+            fast.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("classify hedges a request to another replica once it exceeds the p95 latency")
+    void classify_hedgesSlowRequests() throws Exception {
+        // Given
+        AtomicBoolean degraded = new AtomicBoolean();
+        MockWebServer flaky = new MockWebServer();
+        flaky.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                MockResponse response = labelsResponse();
+                return degraded.get() ? response.setHeadersDelay(2, TimeUnit.SECONDS) : response;
+            }
+        });
+        flaky.start();
+        MockWebServer healthy = replica(Duration.ZERO);
+        try {
+            AiServiceProperties properties = new AiServiceProperties();
+            properties.getHedging().setMinDelay(Duration.ofMillis(10));
+            AiClient client = new AiClient(List.of(clientFor(flaky), clientFor(healthy)), properties,
+                    CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults());
+            for (int i = 0; i < LatencyTracker.MIN_SAMPLES; i++) {
+                client.classify("warm up " + i);
+            }
+            degraded.set(true);
+
+            for (int i = 0; i < 4; i++) {
+                // When
+                long start = System.nanoTime();
+                List<String> labels = client.classify("request " + i);
+
+                // Then
+                assertThat(labels).containsExactly("billing");
+                assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+            }
+        } finally {
+            flaky.shutdown();
+            healthy.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("classify stops hedging once the hedge budget is spent, even when every replica is slow")
+    void classify_hedgeBudgetSpent_stopsHedging() throws Exception {
+        // Given
+        AtomicBoolean degraded = new AtomicBoolean();
+        Dispatcher dispatcher = new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                MockResponse response = labelsResponse();
+                return degraded.get() ? response.setHeadersDelay(500, TimeUnit.MILLISECONDS) : response;
+            }
+        };
+        MockWebServer first = new MockWebServer();
+        MockWebServer second = new MockWebServer();
+        first.setDispatcher(dispatcher);
+        second.setDispatcher(dispatcher);
+        first.start();
+        second.start();
+        try {
+            AiServiceProperties properties = new AiServiceProperties();
+            properties.getHedging().setMinDelay(Duration.ofMillis(10));
+            properties.getHedging().setBudgetRatio(0);
+            properties.getHedging().setBudgetBurst(1);
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            AiClient client = new AiClient(List.of(clientFor(first), clientFor(second)), properties,
+                    CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults(), registry);
+            for (int i = 0; i < LatencyTracker.MIN_SAMPLES; i++) {
+                client.classify("warm up " + i);
+            }
+            degraded.set(true);
+            int requestsBefore = first.getRequestCount() + second.getRequestCount();
+
+            // When
+            for (int i = 0; i < 3; i++) {
+                assertThat(client.classify("request " + i)).containsExactly("billing");
+            }
+
+            // Then only the first slow request was hedged
+            assertThat(registry.get(AiClient.HEDGES_METRIC).tag("outcome", "sent").counter().count())
+                    .isEqualTo(1);
+            assertThat(registry.get(AiClient.HEDGES_METRIC).tag("outcome", "over-budget").counter().count())
+                    .isEqualTo(2);
+            assertThat(first.getRequestCount() + second.getRequestCount() - requestsBefore).isEqualTo(4);
+        } finally {
+            first.shutdown();
+            second.shutdown();
+        }
+    }
+
+    private static MockWebServer replica(Duration delay) throws IOException {
+        MockWebServer server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return labelsResponse().setHeadersDelay(delay.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private static MockResponse labelsResponse() {
+        return new MockResponse()
+                .setBody("{\"labels\":[\"billing\"]}")
+                .addHeader("Content-Type", "application/json");
+    }
+
+    private static WebClient clientFor(MockWebServer server) {
+        return WebClient.builder().baseUrl(server.url("/").toString()).build();
+    }
+
     // Helper record to serialize response
     private record ClassifyResponse(List<String> labels) {}
 }
@@ -0,0 +1,61 @@
+package com.greenwhitesolutions.servicedesk.ticket.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for HedgeBudget.
+ */
+class HedgeBudgetTest {
+
+    @Test
+    @DisplayName("a new budget allows a burst of hedges and then none")
+    void tryWithdraw_startsWithBurst() {
+        // Given
+        HedgeBudget budget = new HedgeBudget(0.1, 2);
+
+        // When / Then
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isFalse();
+    }
+
+    @Test
+    @DisplayName("requests earn hedges at the configured ratio")
+    void deposit_earnsHedgesAtRatio() {
+        // Given
+        HedgeBudget budget = new HedgeBudget(0.1, 1);
+        budget.tryWithdraw();
+
+        // When
+        for (int i = 0; i < 9; i++) {
+            budget.deposit();
+        }
+        boolean afterNine = budget.tryWithdraw();
+        budget.deposit();
+
+        // Then
+        assertThat(afterNine).isFalse();
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isFalse();
+    }
+
+    @Test
+    @DisplayName("unused hedges do not accumulate beyond the burst")
+    void deposit_isCappedAtBurst() {
+        // Given
+        HedgeBudget budget = new HedgeBudget(0.5, 2);
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            budget.deposit();
+        }
+
+        // Then
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isFalse();
+    }
+}
@@ -0,0 +1,60 @@
+package com.greenwhitesolutions.servicedesk.ticket.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for LatencyTracker.
+ */
+class LatencyTrackerTest {
+
+    @Test
+    @DisplayName("getPercentile reports nothing until enough samples were recorded")
+    void getPercentile_withFewSamples_returnsMinusOne() {
+        // Given
+        LatencyTracker tracker = new LatencyTracker(0.95);
+
+        // When
+        for (int i = 1; i < LatencyTracker.MIN_SAMPLES; i++) {
+            tracker.record(i);
+        }
+
+        // Then
+        assertThat(tracker.getPercentile()).isEqualTo(-1);
+    }
+
+    @Test
+    @DisplayName("getPercentile returns the percentile of the recorded latencies")
+    void getPercentile_returnsPercentile() {
+        // Given
+        LatencyTracker tracker = new LatencyTracker(0.95);
+
+        // When
+        for (int i = 1; i <= LatencyTracker.WINDOW_SIZE; i++) {
+            tracker.record(i);
+        }
+
+        // Then
+        assertThat(tracker.getPercentile()).isEqualTo(487);
+    }
+
+    @Test
+    @DisplayName("getPercentile only considers the most recent window of samples")
+    void getPercentile_forgetsOldSamples() {
+        // Given
+        LatencyTracker tracker = new LatencyTracker(0.95);
+        for (int i = 0; i < LatencyTracker.WINDOW_SIZE; i++) {
+            tracker.record(1_000_000);
+        }
+
+        // When
+        for (int i = 0; i < LatencyTracker.WINDOW_SIZE; i++) {
+            tracker.record(1_000);
+        }
+
+        // Then
+        assertThat(tracker.getPercentile()).isEqualTo(1_000);
+    }
+}
@@ -0,0 +1,73 @@
+package com.greenwhitesolutions.servicedesk.ticket.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.handler.MappedInterceptor;
+import org.springframework.web.util.ServletRequestPathUtils;
+
+/**
+ * Unit tests for the interceptor mapping of RateLimitConfig.
+ */
+class RateLimitConfigTest {
+
+    private MappedInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        TicketProperties properties = new TicketProperties();
+        TicketProperties.Tier tier = new TicketProperties.Tier();
+        tier.setCapacity(1);
+        tier.setRefillPerSecond(0.001);
+        properties.getRateLimit().getTiers().put("standard", tier);
+        ExposedInterceptorRegistry registry = new ExposedInterceptorRegistry();
+        new RateLimitConfig(properties).addInterceptors(registry);
+        assertThat(registry.interceptors()).hasSize(1);
+        interceptor = (MappedInterceptor) registry.interceptors().get(0);
+    }
+
+    @Test
+    @DisplayName("bulk imports are rate limited and get 429 once the client's bucket is empty")
+    void bulkImport_overLimit_returns429() throws Exception {
+        // Given
+        MockHttpServletResponse first = post("/api/v1/tickets/bulk");
+
+        // When
+        MockHttpServletResponse second = post("/api/v1/tickets/bulk");
+
+        // Then
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(second.getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    @DisplayName("single and bulk ticket creation share the client's bucket")
+    void createAndBulk_shareBucket() throws Exception {
+        assertThat(post("/api/v1/tickets").getStatus()).isEqualTo(200);
+        assertThat(post("/api/v1/tickets/bulk").getStatus()).isEqualTo(429);
+    }
+
+    private MockHttpServletResponse post(String path) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setRemoteAddr("10.0.0.1");
+        ServletRequestPathUtils.parseAndCache(request);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertThat(interceptor.matches(request)).as("rate limit applies to %s", path).isTrue();
+        interceptor.preHandle(request, response, new Object());
+        return response;
+    }
+
+    private static final class ExposedInterceptorRegistry extends InterceptorRegistry {
+
+        List<Object> interceptors() {
+            return getInterceptors();
+        }
+    }
+}
@@ -1,9 +1,17 @@
 package com.greenwhitesolutions.servicedesk.ticket.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.greenwhitesolutions.servicedesk.ticket.client.AiClient;
+import com.greenwhitesolutions.servicedesk.ticket.config.TicketProperties;
 import com.greenwhitesolutions.servicedesk.ticket.model.CreateTicketRequest;
 import com.greenwhitesolutions.servicedesk.ticket.model.Ticket;
+import com.greenwhitesolutions.servicedesk.ticket.model.TicketFilter;
+import com.greenwhitesolutions.servicedesk.ticket.model.TicketPage;
+import com.greenwhitesolutions.servicedesk.ticket.model.TicketStats;
+import com.greenwhitesolutions.servicedesk.ticket.service.BulkImportService;
+import com.greenwhitesolutions.servicedesk.ticket.service.TicketEventBroadcaster;
 import com.greenwhitesolutions.servicedesk.ticket.service.TicketService;
+import jakarta.validation.Validation;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,13 +19,23 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
  * Unit tests for TicketController.
@@ -30,11 +48,17 @@ class TicketControllerTest {
 
     private TicketController ticketController;
     private TicketService ticketService;
+    private TicketEventBroadcaster eventBroadcaster;
 
     @BeforeEach
     void setUp() {
         ticketService = new TicketService(aiClient);
-        ticketController = new TicketController(ticketService);
+        ObjectMapper objectMapper = new ObjectMapper();
+        BulkImportService bulkImportService =
+                new BulkImportService(ticketService, aiClient, objectMapper,
+                        Validation.buildDefaultValidatorFactory().getValidator(), new TicketProperties());
+        eventBroadcaster = new TicketEventBroadcaster(new TicketProperties());
+        ticketController = new TicketController(ticketService, bulkImportService, eventBroadcaster, objectMapper);
     }
 
     @Test
@@ -125,11 +149,189 @@ class TicketControllerTest {
         ticketController.createTicket(new CreateTicketRequest("Ticket 2", "Description 2"));
 
         // When
-        var response = ticketController.getAllTickets();
+        ResponseEntity<List<Ticket>> response = ticketController.getAllTickets(null, null, null, null);
 
         // Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertEquals(2, response.getBody().size());
+        assertEquals(List.of("Ticket 1", "Ticket 2"), response.getBody().stream().map(Ticket::getTitle).toList());
+    }
+
+    @Test
+    void getTicketPage_withLimit_shouldPageThroughCursor() {
+        // Given
+        when(aiClient.classify(anyString())).thenReturn(Arrays.asList("software"));
+        for (int i = 1; i <= 5; i++) {
+            ticketController.createTicket(new CreateTicketRequest("Ticket " + i, "Description " + i));
+        }
+
+        // When
+        TicketPage first = ticketController.getTicketPage(null, 2, null, null, null, null).getBody();
+        TicketPage second = ticketController.getTicketPage(first.getNextCursor(), 2, null, null, null, null).getBody();
+        TicketPage last = ticketController.getTicketPage(second.getNextCursor(), 2, null, null, null, null).getBody();
+
+        // Then
+        assertEquals(List.of("Ticket 1", "Ticket 2"), first.getItems().stream().map(Ticket::getTitle).toList());
+        assertEquals(List.of("Ticket 3", "Ticket 4"), second.getItems().stream().map(Ticket::getTitle).toList());
+        assertEquals(List.of("Ticket 5"), last.getItems().stream().map(Ticket::getTitle).toList());
+        assertNull(last.getNextCursor());
+    }
+
+    @Test
+    void getAllTickets_withCategory_shouldReturnMatchingTickets() {
+        // Given
+        when(aiClient.classify(anyString())).thenReturn(List.of("billing"))
+                .thenReturn(List.of("network"))
+                .thenReturn(List.of("billing"));
+        ticketController.createTicket(new CreateTicketRequest("Ticket 1", "Description 1"));
+        ticketController.createTicket(new CreateTicketRequest("Ticket 2", "Description 2"));
+        ticketController.createTicket(new CreateTicketRequest("Ticket 3", "Description 3"));
+
+        // When
+        List<Ticket> tickets = ticketController.getAllTickets(List.of("billing"), null, null, null).getBody();
+
+        // Then
+        assertEquals(List.of("Ticket 1", "Ticket 3"), tickets.stream().map(Ticket::getTitle).toList());
+    }
+
+    @Test
+    void getTicketPage_withCategoryAndLabel_shouldCombineFilters() {
+        // Given
+        when(aiClient.classify(anyString())).thenReturn(List.of("billing", "urgent"))
+                .thenReturn(List.of("billing"))
+                .thenReturn(List.of("bug", "urgent"));
+        ticketController.createTicket(new CreateTicketRequest("Ticket 1", "Description 1"));
+        ticketController.createTicket(new CreateTicketRequest("Ticket 2", "Description 2"));
+        ticketController.createTicket(new CreateTicketRequest("Ticket 3", "Description 3"));
+
+        // When
+        TicketPage all = ticketController.getTicketPage(null, 10, List.of("billing"), List.of("urgent"),
+                TicketFilter.Match.ALL, null).getBody();
+        TicketPage any = ticketController.getTicketPage(null, 10, List.of("billing"), List.of("urgent"),
+                TicketFilter.Match.ANY, null).getBody();
+
+        // Then
+        assertEquals(List.of("Ticket 1"), all.getItems().stream().map(Ticket::getTitle).toList());
+        assertEquals(List.of("Ticket 1", "Ticket 2", "Ticket 3"),
+                any.getItems().stream().map(Ticket::getTitle).toList());
+    }
+
+    @Test
+    void getTicketPage_withLabelAndCursor_shouldPageThroughIndex() {
+        // Given
+        when(aiClient.classify(anyString())).thenReturn(List.of("network", "urgent"));
+        for (int i = 1; i <= 3; i++) {
+            ticketController.createTicket(new CreateTicketRequest("Ticket " + i, "Description " + i));
+        }
+
+        // When
+        TicketPage first = ticketController.getTicketPage(null, 2, null, List.of("urgent"), null, null).getBody();
+        TicketPage second = ticketController.getTicketPage(first.getNextCursor(), 2, null, List.of("urgent"),
+                null, null).getBody();
+
+        // Then
+        assertEquals(List.of("Ticket 1", "Ticket 2"), first.getItems().stream().map(Ticket::getTitle).toList());
+        assertEquals(List.of("Ticket 3"), second.getItems().stream().map(Ticket::getTitle).toList());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void listTickets_returnsArrayUnlessCursorOrLimitIsGiven() throws Exception {
+        // Given
+        when(aiClient.classify(anyString())).thenReturn(Arrays.asList("software"));
+        ticketController.createTicket(new CreateTicketRequest("Ticket 1", "Description 1"));
+        ticketController.createTicket(new CreateTicketRequest("Ticket 2", "Description 2"));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(ticketController).build();
+
+        // When / Then
+        mockMvc.perform(get("/api/v1/tickets"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].title").value("Ticket 1"));
+        mockMvc.perform(get("/api/v1/tickets").param("category", "software"))
+                .andExpect(jsonPath("$.length()").value(2));
+        mockMvc.perform(get("/api/v1/tickets").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.nextCursor").isString());
+    }
+
+    @Test
+    void streamTickets_shouldWriteOneTicketPerLine() throws IOException {
+        // Given
+        when(aiClient.classify(anyString())).thenReturn(Arrays.asList("software"));
+        ticketController.createTicket(new CreateTicketRequest("Ticket 1", "Description 1"));
+        ticketController.createTicket(new CreateTicketRequest("Ticket 2", "Description 2"));
+
+        // When
+        ResponseEntity<StreamingResponseBody> response = ticketController.streamTickets(null, null, null, null, null);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        response.getBody().writeTo(output);
+
+        // Then
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        ObjectMapper objectMapper = new ObjectMapper();
+        assertEquals("Ticket 1", objectMapper.readValue(lines[0], Ticket.class).getTitle());
+        assertEquals("Ticket 2", objectMapper.readValue(lines[1], Ticket.class).getTitle());
+    }
+
+    @Test
+    void searchTickets_shouldReturnMatchingTicketsByRelevance() {
+        // Given
+        when(aiClient.classify(anyString())).thenReturn(List.of("hardware"));
+        ticketController.createTicket(new CreateTicketRequest("Printer broken", "Printer shows error"));
+        ticketController.createTicket(new CreateTicketRequest("Monitor flickers", "Near the printer"));
+        ticketController.createTicket(new CreateTicketRequest("Keyboard", "Missing keys"));
+
+        // When
+        ResponseEntity<List<Ticket>> response = ticketController.searchTickets("printer", null);
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of("Printer broken", "Monitor flickers"),
+                response.getBody().stream().map(Ticket::getTitle).toList());
+    }
+
+    @Test
+    void getStatistics_shouldCountTicketsByCategoryAndLabel() {
+        // Given
+        when(aiClient.classify(anyString())).thenReturn(List.of("hardware", "urgent"));
+        ticketController.createTicket(new CreateTicketRequest("Printer broken", "Printer shows error"));
+        ticketController.createTicket(new CreateTicketRequest("Monitor flickers", "Screen goes dark"));
+
+        // When
+        ResponseEntity<TicketStats> response = ticketController.getStatistics();
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        TicketStats stats = response.getBody();
+        assertNotNull(stats);
+        assertEquals(2, stats.getTotal());
+        assertEquals(2L, stats.getByCategory().get("hardware"));
+        assertEquals(2L, stats.getByLabel().get("urgent"));
+        assertEquals(2, stats.getCreatedPerMinute().stream().mapToLong(TicketStats.TimeBucket::getCount).sum());
+    }
+
+    @Test
+    void subscribeToEvents_shouldRejectSubscribersBeyondLimit() {
+        // Given
+        TicketProperties properties = new TicketProperties();
+        properties.getEvents().setMaxSubscribers(1);
+        TicketEventBroadcaster broadcaster = new TicketEventBroadcaster(properties);
+        TicketController controller = new TicketController(ticketService,
+                new BulkImportService(ticketService, aiClient, new ObjectMapper(),
+                        Validation.buildDefaultValidatorFactory().getValidator(), properties), broadcaster,
+                new ObjectMapper());
+
+        // When
+        ResponseEntity<SseEmitter> first = controller.subscribeToEvents(null, null);
+        ResponseEntity<SseEmitter> second = controller.subscribeToEvents(null, TicketProperties.EventOverflow.DROP);
+
+        // Then
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        assertNotNull(first.getBody());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, second.getStatusCode());
+        broadcaster.shutdown();
     }
 }
@@ -0,0 +1,176 @@
+package com.greenwhitesolutions.servicedesk.ticket.journal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.greenwhitesolutions.servicedesk.ticket.cache.TicketCodec;
+import com.greenwhitesolutions.servicedesk.ticket.config.TicketProperties;
+import com.greenwhitesolutions.servicedesk.ticket.model.ClassificationStatus;
+import com.greenwhitesolutions.servicedesk.ticket.model.Ticket;
+
+/**
+ * Unit tests for TicketJournal.
+ */
+class TicketJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private TicketProperties properties;
+    private final List<TicketJournal> journals = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        properties = new TicketProperties();
+        properties.getJournal().setEnabled(true);
+        properties.getJournal().setDirectory(directory.toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        journals.forEach(TicketJournal::shutdown);
+    }
+
+    @Test
+    @DisplayName("logged tickets are recovered after a crash without a snapshot")
+    void recover_replaysLog() {
+        // Given
+        TicketJournal journal = open();
+        journal.append(ticket(1L, ClassificationStatus.PENDING));
+        journal.append(ticket(2L, ClassificationStatus.CLASSIFIED));
+        journal.append(ticket(1L, ClassificationStatus.CLASSIFIED));
+
+        // When
+        TicketJournal.Recovery recovery = open().recover();
+
+        // Then
+        assertThat(recovery.tickets())
+                .extracting(Ticket::getId, Ticket::getClassificationStatus)
+                .containsExactlyInAnyOrder(tuple(1L, ClassificationStatus.CLASSIFIED),
+                        tuple(2L, ClassificationStatus.CLASSIFIED));
+        assertThat(recovery.replayed()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("a snapshot replaces the log segments it covers and only later changes are replayed")
+    void snapshot_compactsLog() throws IOException {
+        // Given
+        List<Ticket> store = new ArrayList<>(List.of(ticket(1L, ClassificationStatus.CLASSIFIED)));
+        TicketJournal journal = open();
+        journal.append(store.get(0));
+        journal.start(store::iterator);
+
+        // When
+        journal.snapshot();
+        journal.append(ticket(2L, ClassificationStatus.PENDING));
+        TicketJournal.Recovery recovery = open().recover();
+
+        // Then
+        assertThat(recovery.tickets()).extracting(Ticket::getId).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(recovery.replayed()).extracting(Ticket::getId).containsExactly(2L);
+        assertThat(files("snapshot-")).hasSize(1);
+        assertThat(TicketWriteAheadLog.segments(directory)).allMatch(segment -> segment > 1);
+    }
+
+    @Test
+    @DisplayName("a PENDING record logged after the classification does not undo it")
+    void recover_latePendingRecord_keepsClassification() {
+        // Given
+        TicketJournal journal = open();
+        journal.append(ticket(1L, ClassificationStatus.CLASSIFIED));
+        journal.append(ticket(1L, ClassificationStatus.PENDING));
+
+        // When
+        TicketJournal.Recovery recovery = open().recover();
+
+        // Then
+        assertThat(recovery.tickets()).singleElement()
+                .extracting(Ticket::getClassificationStatus)
+                .isEqualTo(ClassificationStatus.CLASSIFIED);
+    }
+
+    @Test
+    @DisplayName("replay stops at a damaged record and keeps the records before it")
+    void recover_damagedRecord_stopsReplay() throws IOException {
+        // Given
+        Ticket first = ticket(1L, ClassificationStatus.CLASSIFIED);
+        TicketJournal journal = open();
+        journal.append(first);
+        journal.append(ticket(2L, ClassificationStatus.CLASSIFIED));
+        journal.append(ticket(3L, ClassificationStatus.CLASSIFIED));
+        Path segment = files("wal-").get(0);
+        // Flip the first byte of the second record
+        long offset = 2 * Integer.BYTES + TicketCodec.encode(first).length + 2 * Integer.BYTES;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            flip(channel, offset);
+        }
+
+        // When
+        TicketJournal.Recovery recovery = open().recover();
+
+        // Then
+        assertThat(recovery.tickets()).extracting(Ticket::getId).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("a damaged snapshot is ignored")
+    void recover_damagedSnapshot_isIgnored() throws IOException {
+        // Given
+        List<Ticket> store = List.of(ticket(1L, ClassificationStatus.CLASSIFIED));
+        TicketJournal journal = open();
+        journal.start(store::iterator);
+        journal.snapshot();
+        Path snapshot = files("snapshot-").get(0);
+        // Flip the last byte of the checksum
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            flip(channel, channel.size() - 1);
+        }
+
+        // When
+        TicketJournal.Recovery recovery = open().recover();
+
+        // Then
+        assertThat(recovery.tickets()).isEmpty();
+    }
+
+    private TicketJournal open() {
+        TicketJournal journal = new TicketJournal(properties);
+        journals.add(journal);
+        return journal;
+    }
+
+    private static void flip(FileChannel channel, long offset) throws IOException {
+        ByteBuffer value = ByteBuffer.allocate(1);
+        channel.read(value, offset);
+        value.put(0, (byte) ~value.get(0)).rewind();
+        channel.write(value, offset);
+    }
+
+    private List<Path> files(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(prefix)).sorted().toList();
+        }
+    }
+
+    private static Ticket ticket(Long id, ClassificationStatus status) {
+        boolean classified = status == ClassificationStatus.CLASSIFIED;
+        return new Ticket(id, "Invoice " + id, "Wrong invoice amount", classified ? "billing" : null,
+                classified ? List.of("billing") : List.of(), status);
+    }
+}
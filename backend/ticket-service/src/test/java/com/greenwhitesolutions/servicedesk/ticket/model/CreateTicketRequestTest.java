@@ -5,11 +5,17 @@ import static org.assertj.core.api.Assertions.assertThat;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+
 /**
  * Unit tests for CreateTicketRequest model.
  */
 class CreateTicketRequestTest {
 
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
     @Test
     @DisplayName("CreateTicketRequest can be created with all fields")
     void createTicketRequest_withAllFields() {
@@ -38,4 +44,27 @@ class CreateTicketRequestTest {
         assertThat(request.getTitle()).isEqualTo("New Title");
         assertThat(request.getDescription()).isEqualTo("New Description");
     }
+
+    @Test
+    @DisplayName("CreateTicketRequest accepts titles and descriptions that fit their columns")
+    void validate_maximumLengths_isValid() {
+        CreateTicketRequest request = new CreateTicketRequest("t".repeat(CreateTicketRequest.MAX_TITLE_LENGTH),
+                "d".repeat(CreateTicketRequest.MAX_DESCRIPTION_LENGTH));
+
+        assertThat(validator.validate(request)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("CreateTicketRequest rejects a missing title and values longer than their columns")
+    void validate_invalidFields_areRejected() {
+        CreateTicketRequest tooLong = new CreateTicketRequest("t".repeat(CreateTicketRequest.MAX_TITLE_LENGTH + 1),
+                "d".repeat(CreateTicketRequest.MAX_DESCRIPTION_LENGTH + 1));
+
+        assertThat(validator.validate(tooLong))
+                .extracting(violation -> violation.getPropertyPath().toString())
+                .containsExactlyInAnyOrder("title", "description");
+        assertThat(validator.validate(new CreateTicketRequest(" ", null)))
+                .extracting(ConstraintViolation::getMessage)
+                .containsExactly("title is required");
+    }
 }
@@ -8,6 +8,8 @@ import java.util.List;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 /**
  * Unit tests for Ticket model.
  */
@@ -55,4 +57,34 @@ class TicketTest {
         assertThat(ticket.getCategory()).isEqualTo("software");
         assertThat(ticket.getLabels()).containsExactly("software");
     }
+
+    @Test
+    @DisplayName("ids are written to JSON as strings so JavaScript clients keep every digit")
+    void toJson_writesIdsAsStrings() throws Exception {
+        // Given
+        ObjectMapper objectMapper = new ObjectMapper();
+        Ticket ticket = new Ticket(372036854775807123L, "Title", "Description", "hardware", List.of(),
+                ClassificationStatus.CLASSIFIED, 372036854775806001L);
+
+        // When
+        String json = objectMapper.writeValueAsString(ticket);
+        Ticket read = objectMapper.readValue(json, Ticket.class);
+
+        // Then
+        assertThat(json).contains("\"id\":\"372036854775807123\"")
+                .contains("\"parentId\":\"372036854775806001\"");
+        assertThat(read.getId()).isEqualTo(372036854775807123L);
+        assertThat(read.getParentId()).isEqualTo(372036854775806001L);
+    }
+
+    @Test
+    @DisplayName("numeric ids are still accepted when reading JSON")
+    void fromJson_acceptsNumericIds() throws Exception {
+        // When
+        Ticket read = new ObjectMapper().readValue("{\"id\":42,\"parentId\":7}", Ticket.class);
+
+        // Then
+        assertThat(read.getId()).isEqualTo(42L);
+        assertThat(read.getParentId()).isEqualTo(7L);
+    }
 }
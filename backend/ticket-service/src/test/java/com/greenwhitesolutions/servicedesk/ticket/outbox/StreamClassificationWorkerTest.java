@@ -0,0 +1,215 @@
+package com.greenwhitesolutions.servicedesk.ticket.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.greenwhitesolutions.servicedesk.ticket.client.AiClient;
+import com.greenwhitesolutions.servicedesk.ticket.config.TicketProperties;
+import com.greenwhitesolutions.servicedesk.ticket.model.ClassificationStatus;
+import com.greenwhitesolutions.servicedesk.ticket.model.Ticket;
+import com.greenwhitesolutions.servicedesk.ticket.model.TicketEventType;
+import com.greenwhitesolutions.servicedesk.ticket.service.TicketService;
+
+import redis.embedded.RedisServer;
+
+/**
+ * Tests for StreamClassificationWorker against an embedded Redis.
+ */
+@ExtendWith(MockitoExtension.class)
+class StreamClassificationWorkerTest {
+
+    private static final String STREAM = "tickets:events:test";
+    private static final String GROUP = "ticket-classifier-test";
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private AiClient aiClient;
+
+    @Mock
+    private TicketService ticketService;
+
+    private StringRedisTemplate redisTemplate;
+    private TicketProperties properties;
+    private StreamClassificationWorker worker;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+        connectionFactory = new LettuceConnectionFactory("localhost", port);
+        connectionFactory.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        properties = new TicketProperties();
+        properties.getEnrichment().setMode(TicketProperties.EnrichmentMode.STREAM);
+        properties.getOutbox().setEnabled(true);
+        properties.getOutbox().setStream(STREAM);
+        properties.getOutbox().setConsumerGroup(GROUP);
+        properties.getOutbox().setConsumers(1);
+        properties.getOutbox().setClaimIdle(Duration.ofMillis(200));
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (worker != null) {
+            worker.shutdown();
+        }
+        redisTemplate.delete(STREAM);
+    }
+
+    @Test
+    @DisplayName("a CREATED event of a PENDING ticket is classified and acknowledged")
+    void createdPendingEvent_isClassified() throws JsonProcessingException {
+        when(aiClient.classify("Wrong invoice amount")).thenReturn(List.of("billing"));
+        worker = newWorker();
+
+        append(TicketEventType.CREATED, ticket(1L, ClassificationStatus.PENDING));
+
+        verify(ticketService, timeout(5000)).completeClassification(1L, List.of("billing"));
+        await().atMost(Duration.ofSeconds(5)).until(() -> pendingCount() == 0);
+    }
+
+    @Test
+    @DisplayName("a CREATED event of an already classified ticket is acknowledged without classifying")
+    void createdClassifiedEvent_isSkipped() throws JsonProcessingException {
+        when(aiClient.classify("Wrong invoice amount")).thenReturn(List.of("billing"));
+        worker = newWorker();
+
+        append(TicketEventType.CREATED, ticket(1L, ClassificationStatus.CLASSIFIED));
+        append(TicketEventType.CREATED, ticket(2L, ClassificationStatus.PENDING));
+
+        // The single consumer handles events in order, so the first one is done once the second is
+        verify(ticketService, timeout(5000)).completeClassification(2L, List.of("billing"));
+        verify(ticketService, never()).completeClassification(eq(1L), anyList());
+        await().atMost(Duration.ofSeconds(5)).until(() -> pendingCount() == 0);
+    }
+
+    @Test
+    @DisplayName("a CLASSIFIED event is applied to the ticket held by this node")
+    void classifiedEvent_isApplied() throws JsonProcessingException {
+        worker = newWorker();
+
+        append(TicketEventType.CLASSIFIED, ticket(1L, ClassificationStatus.CLASSIFIED));
+
+        verify(ticketService, timeout(5000)).applyStoredClassification(argThat(ticket -> ticket.getId() == 1L
+                && ticket.getClassificationStatus() == ClassificationStatus.CLASSIFIED));
+    }
+
+    @Test
+    @DisplayName("a CLASSIFIED event carrying a PENDING ticket is not applied")
+    void classifiedEventOfPendingTicket_isIgnored() throws JsonProcessingException {
+        worker = newWorker();
+
+        append(TicketEventType.CLASSIFIED, ticket(1L, ClassificationStatus.PENDING));
+        append(TicketEventType.CLASSIFIED, ticket(2L, ClassificationStatus.CLASSIFIED));
+
+        // The follower handles events in order, so the first one is done once the second is
+        verify(ticketService, timeout(5000)).applyStoredClassification(argThat(ticket -> ticket.getId() == 2L));
+        verify(ticketService, never()).applyStoredClassification(argThat(ticket -> ticket.getId() == 1L));
+    }
+
+    @Test
+    @DisplayName("an event left unacknowledged by a crashed consumer is claimed and classified")
+    void unacknowledgedEvent_isClaimed() throws JsonProcessingException {
+        when(aiClient.classify("Wrong invoice amount")).thenReturn(List.of("billing"));
+        append(TicketEventType.CREATED, ticket(1L, ClassificationStatus.PENDING));
+        redisTemplate.opsForStream().createGroup(STREAM, ReadOffset.from("0-0"), GROUP);
+        List<MapRecord<String, Object, Object>> delivered = readNew("crashed");
+        assertThat(delivered).hasSize(1);
+
+        worker = newWorker();
+
+        verify(ticketService, timeout(5000)).completeClassification(eq(1L), eq(List.of("billing")));
+        await().atMost(Duration.ofSeconds(5)).until(() -> pendingCount() == 0);
+    }
+
+    @Test
+    @DisplayName("stream enrichment mode requires the outbox")
+    void outboxDisabled_isRejected() {
+        properties.getOutbox().setEnabled(false);
+
+        assertThatThrownBy(this::newWorker).isInstanceOf(IllegalStateException.class);
+    }
+
+    /**
+     * Read the events not yet delivered to the group as the given consumer.
+     */
+    @SuppressWarnings("unchecked") // read takes the offsets as varargs, which creates a generic array
+    private List<MapRecord<String, Object, Object>> readNew(String consumer) {
+        return redisTemplate.opsForStream().read(Consumer.from(GROUP, consumer), StreamReadOptions.empty().count(10),
+                StreamOffset.create(STREAM, ReadOffset.lastConsumed()));
+    }
+
+    private StreamClassificationWorker newWorker() {
+        return new StreamClassificationWorker(aiClient, ticketService, connectionFactory, redisTemplate,
+                objectMapper, properties);
+    }
+
+    private void append(TicketEventType type, Ticket ticket) throws JsonProcessingException {
+        redisTemplate.opsForStream().add(MapRecord.create(STREAM, Map.of(
+                TicketOutboxRelay.FIELD_EVENT_ID, "1",
+                TicketOutboxRelay.FIELD_TYPE, type.name(),
+                TicketOutboxRelay.FIELD_TICKET_ID, ticket.getId().toString(),
+                TicketOutboxRelay.FIELD_TICKET, objectMapper.writeValueAsString(ticket))));
+    }
+
+    private long pendingCount() {
+        return redisTemplate.opsForStream().pending(STREAM, GROUP).getTotalPendingMessages();
+    }
+
+    private static Ticket ticket(Long id, ClassificationStatus status) {
+        boolean classified = status == ClassificationStatus.CLASSIFIED;
+        return new Ticket(id, "Invoice", "Wrong invoice amount", classified ? "billing" : null,
+                classified ? List.of("billing") : List.of(), status);
+    }
+}
@@ -0,0 +1,220 @@
+package com.greenwhitesolutions.servicedesk.ticket.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Range;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.greenwhitesolutions.servicedesk.ticket.config.TicketProperties;
+import com.greenwhitesolutions.servicedesk.ticket.model.ClassificationStatus;
+import com.greenwhitesolutions.servicedesk.ticket.model.Ticket;
+import com.greenwhitesolutions.servicedesk.ticket.repository.TicketOutboxRepository;
+import com.greenwhitesolutions.servicedesk.ticket.repository.TicketRepository;
+import com.greenwhitesolutions.servicedesk.ticket.repository.WriteBehindTicketStore;
+
+import redis.embedded.RedisServer;
+
+/**
+ * Tests for the transactional outbox and TicketOutboxRelay against the H2 test database and an embedded Redis.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TicketOutboxRelayTest {
+
+    private static final String STREAM = "tickets:events:test";
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+
+    @Autowired
+    private TicketRepository repository;
+
+    @Autowired
+    private TicketOutboxRepository outboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private StringRedisTemplate redisTemplate;
+    private TicketProperties properties;
+    private WriteBehindTicketStore store;
+    private TicketOutboxRelay relay;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        int port = freePort();
+        redisServer = new RedisServer(port);
+        redisServer.start();
+        connectionFactory = new LettuceConnectionFactory("localhost", port);
+        connectionFactory.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        properties = new TicketProperties();
+        // Long intervals so only explicit flushes and relay runs happen during a test
+        properties.getPersistence().setFlushInterval(Duration.ofHours(1));
+        properties.getOutbox().setEnabled(true);
+        properties.getOutbox().setStream(STREAM);
+        properties.getOutbox().setRelayInterval(Duration.ofHours(1));
+        properties.getOutbox().setBatchSize(2);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        store = new WriteBehindTicketStore(repository, outboxRepository, new ObjectMapper(), transactionTemplate,
+                properties);
+        relay = new TicketOutboxRelay(outboxRepository, transactionTemplate, redisTemplate, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        relay.shutdown();
+        store.shutdown();
+        outboxRepository.deleteAll();
+        repository.deleteAll();
+        redisTemplate.delete(STREAM);
+    }
+
+    @Test
+    @DisplayName("flushed ticket writes add outbox events in the same transaction")
+    void flush_writesOutboxEvents() {
+        store.insert(ticket(1L, ClassificationStatus.PENDING, null));
+        assertThat(outboxRepository.count()).isZero();
+
+        store.flush();
+        store.update(ticket(1L, ClassificationStatus.CLASSIFIED, "billing"));
+        store.flush();
+
+        assertThat(repository.count()).isEqualTo(1);
+        assertThat(outboxRepository.findAll())
+                .extracting(event -> event.getEventType().name())
+                .containsExactlyInAnyOrder("CREATED", "CLASSIFIED");
+    }
+
+    @Test
+    @DisplayName("a ticket created and classified between two flushes gets both events, in order")
+    void flush_coalescedWrites_keepEveryEvent() {
+        store.insert(ticket(1L, ClassificationStatus.PENDING, null));
+        store.update(ticket(1L, ClassificationStatus.CLASSIFIED, "billing"));
+
+        store.flush();
+
+        assertThat(repository.count()).isEqualTo(1);
+        assertThat(outboxRepository.findAll(Sort.by("id")))
+                .extracting(event -> event.getEventType().name())
+                .containsExactly("CREATED", "CLASSIFIED");
+        assertThat(outboxRepository.findAll(Sort.by("id")).get(0).getPayload()).contains("\"PENDING\"");
+    }
+
+    @Test
+    @DisplayName("an update that leaves the ticket PENDING adds no CLASSIFIED event")
+    void flush_pendingUpdate_writesNoClassifiedEvent() {
+        store.insert(ticket(1L, ClassificationStatus.PENDING, null));
+        store.flush();
+
+        store.update(ticket(1L, ClassificationStatus.PENDING, null));
+        store.flush();
+
+        assertThat(outboxRepository.findAll())
+                .extracting(event -> event.getEventType().name())
+                .containsExactly("CREATED");
+    }
+
+    @Test
+    @DisplayName("relay appends outbox events to the stream in order and deletes them")
+    void relay_publishesAndDeletesEvents() {
+        store.insert(ticket(1L, ClassificationStatus.PENDING, null));
+        store.flush();
+        store.update(ticket(1L, ClassificationStatus.CLASSIFIED, "billing"));
+        store.flush();
+        store.insert(ticket(2L, ClassificationStatus.PENDING, null));
+        store.flush();
+
+        int relayed = relay.relay();
+
+        assertThat(relayed).isEqualTo(3);
+        assertThat(outboxRepository.count()).isZero();
+        List<MapRecord<String, String, String>> records =
+                redisTemplate.<String, String>opsForStream().range(STREAM, Range.unbounded());
+        assertThat(records)
+                .extracting(record -> record.getValue().get(TicketOutboxRelay.FIELD_TYPE))
+                .containsExactly("CREATED", "CLASSIFIED", "CREATED");
+        assertThat(records)
+                .extracting(record -> record.getValue().get(TicketOutboxRelay.FIELD_TICKET_ID))
+                .containsExactly("1", "1", "2");
+        assertThat(records.get(1).getValue().get(TicketOutboxRelay.FIELD_TICKET)).contains("\"category\":\"billing\"");
+    }
+
+    @Test
+    @DisplayName("events stay in the outbox when Redis is unavailable")
+    void relay_redisUnavailable_keepsEvents() throws IOException {
+        store.insert(ticket(1L, ClassificationStatus.PENDING, null));
+        store.flush();
+        LettuceConnectionFactory unreachable = new LettuceConnectionFactory("localhost", freePort());
+        unreachable.afterPropertiesSet();
+        TicketOutboxRelay failingRelay = new TicketOutboxRelay(outboxRepository,
+                new TransactionTemplate(transactionManager), new StringRedisTemplate(unreachable), properties);
+
+        try {
+            assertThatThrownBy(failingRelay::relay).isInstanceOf(RuntimeException.class);
+            assertThat(outboxRepository.count()).isEqualTo(1);
+        } finally {
+            failingRelay.shutdown();
+            unreachable.destroy();
+        }
+
+        assertThat(relay.relay()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("no outbox events are written when the outbox is disabled")
+    void flush_outboxDisabled_writesNoEvents() {
+        properties.getOutbox().setEnabled(false);
+        WriteBehindTicketStore plainStore = new WriteBehindTicketStore(repository, outboxRepository,
+                new ObjectMapper(), new TransactionTemplate(transactionManager), properties);
+
+        plainStore.insert(ticket(1L, ClassificationStatus.PENDING, null));
+        plainStore.shutdown();
+
+        assertThat(repository.count()).isEqualTo(1);
+        assertThat(outboxRepository.count()).isZero();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static Ticket ticket(Long id, ClassificationStatus status, String category) {
+        List<String> labels = category == null ? List.of() : List.of(category, "urgent");
+        return new Ticket(id, "Title " + id, "Description " + id, category, labels, status);
+    }
+}
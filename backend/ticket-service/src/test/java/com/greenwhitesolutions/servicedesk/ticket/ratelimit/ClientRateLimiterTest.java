@@ -0,0 +1,138 @@
+package com.greenwhitesolutions.servicedesk.ticket.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.greenwhitesolutions.servicedesk.ticket.config.TicketProperties;
+
+/**
+ * Unit tests for ClientRateLimiter.
+ */
+class ClientRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    // Negative like some System.nanoTime() origins
+    private final AtomicLong now = new AtomicLong(-5 * SECOND);
+    private TicketProperties.RateLimit config;
+    private ClientRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        config = new TicketProperties.RateLimit();
+        config.setEvictionInterval(Duration.ofHours(1));
+        config.getTiers().put("standard", tier(3, 1));
+        config.getTiers().put("premium", tier(10, 100));
+        config.getClients().put("partner-key", "premium");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (limiter != null) {
+            limiter.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("a client may use its whole capacity in a burst and then waits for the refill")
+    void tryAcquire_burstThenRefill() {
+        // Given
+        limiter = newLimiter();
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire(null, "10.0.0.1")).isZero();
+        }
+
+        // When
+        long wait = limiter.tryAcquire(null, "10.0.0.1");
+        now.addAndGet(SECOND);
+        long afterRefill = limiter.tryAcquire(null, "10.0.0.1");
+
+        // Then
+        assertThat(wait).isEqualTo(SECOND);
+        assertThat(afterRefill).isZero();
+        assertThat(limiter.tryAcquire(null, "10.0.0.1")).isPositive();
+    }
+
+    @Test
+    @DisplayName("clients have separate buckets, and configured API keys get their tier")
+    void tryAcquire_perClientAndTier() {
+        // Given
+        limiter = newLimiter();
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire(null, "10.0.0.1");
+        }
+
+        // When
+        long otherAddress = limiter.tryAcquire(null, "10.0.0.2");
+        int partnerAccepted = 0;
+        while (limiter.tryAcquire("partner-key", "10.0.0.1") == 0) {
+            partnerAccepted++;
+        }
+
+        // Then
+        assertThat(otherAddress).isZero();
+        assertThat(partnerAccepted).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("an unknown API key is limited by remote address in the default tier")
+    void tryAcquire_unknownKey_limitedByAddress() {
+        // Given
+        limiter = newLimiter();
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("made-up-" + i, "10.0.0.1")).isZero();
+        }
+
+        // Then
+        assertThat(limiter.tryAcquire("made-up-3", "10.0.0.1")).isPositive();
+    }
+
+    @Test
+    @DisplayName("buckets that have refilled completely are evicted")
+    void evict_removesFullBuckets() {
+        // Given
+        limiter = newLimiter();
+        limiter.tryAcquire(null, "10.0.0.1");
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire(null, "10.0.0.2");
+        }
+
+        // When
+        now.addAndGet(SECOND);
+        limiter.evict();
+
+        // Then
+        assertThat(limiter.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("a client referring to an unknown tier is rejected at startup")
+    void unknownTier_isRejected() {
+        config.setClients(Map.of("key", "gold"));
+
+        assertThatThrownBy(this::newLimiter).isInstanceOf(IllegalStateException.class);
+    }
+
+    private ClientRateLimiter newLimiter() {
+        return new ClientRateLimiter(config, now::get);
+    }
+
+    private static TicketProperties.Tier tier(int capacity, double refillPerSecond) {
+        TicketProperties.Tier tier = new TicketProperties.Tier();
+        tier.setCapacity(capacity);
+        tier.setRefillPerSecond(refillPerSecond);
+        return tier;
+    }
+}
@@ -0,0 +1,75 @@
+package com.greenwhitesolutions.servicedesk.ticket.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Unit tests for RateLimitInterceptor.
+ */
+@ExtendWith(MockitoExtension.class)
+class RateLimitInterceptorTest {
+
+    @Mock
+    private ClientRateLimiter rateLimiter;
+
+    @Test
+    @DisplayName("a request over the limit gets 429 with Retry-After rounded up to whole seconds")
+    void preHandle_overLimit_rejects() {
+        // Given
+        when(rateLimiter.tryAcquire("partner-key", "10.0.0.1")).thenReturn(TimeUnit.MILLISECONDS.toNanos(1500));
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/tickets");
+        request.addHeader("X-Api-Key", "partner-key");
+        request.setRemoteAddr("10.0.0.1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        boolean proceed = new RateLimitInterceptor(rateLimiter, "X-Api-Key").preHandle(request, response, null);
+
+        // Then
+        assertThat(proceed).isFalse();
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+    }
+
+    @Test
+    @DisplayName("a request within the limit proceeds")
+    void preHandle_withinLimit_proceeds() {
+        // Given
+        when(rateLimiter.tryAcquire(null, "10.0.0.1")).thenReturn(0L);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/tickets");
+        request.setRemoteAddr("10.0.0.1");
+
+        // When
+        boolean proceed = new RateLimitInterceptor(rateLimiter, "X-Api-Key")
+                .preHandle(request, new MockHttpServletResponse(), null);
+
+        // Then
+        assertThat(proceed).isTrue();
+    }
+
+    @Test
+    @DisplayName("listing tickets is not rate limited")
+    void preHandle_get_isNotLimited() {
+        // When
+        boolean proceed = new RateLimitInterceptor(rateLimiter, "X-Api-Key")
+                .preHandle(new MockHttpServletRequest("GET", "/api/v1/tickets"), new MockHttpServletResponse(), null);
+
+        // Then
+        assertThat(proceed).isTrue();
+        verify(rateLimiter, never()).tryAcquire(any(), any());
+    }
+}
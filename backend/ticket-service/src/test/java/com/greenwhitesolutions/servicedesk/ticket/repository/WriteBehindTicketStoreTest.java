@@ -0,0 +1,167 @@
+package com.greenwhitesolutions.servicedesk.ticket.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.greenwhitesolutions.servicedesk.ticket.config.TicketProperties;
+import com.greenwhitesolutions.servicedesk.ticket.model.ClassificationStatus;
+import com.greenwhitesolutions.servicedesk.ticket.model.Ticket;
+
+/**
+ * Tests for WriteBehindTicketStore against the H2 test database.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class WriteBehindTicketStoreTest {
+
+    @Autowired
+    private TicketRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private WriteBehindTicketStore store;
+
+    @BeforeEach
+    void setUp() {
+        TicketProperties properties = new TicketProperties();
+        // Long interval so only explicit or size-triggered flushes run during a test
+        properties.getPersistence().setFlushInterval(Duration.ofHours(1));
+        properties.getPersistence().setBatchSize(3);
+        store = new WriteBehindTicketStore(repository, new TransactionTemplate(transactionManager), properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.shutdown();
+        repository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("inserted tickets are buffered until flushed")
+    void insert_isBufferedUntilFlush() {
+        store.insert(ticket(1L, ClassificationStatus.CLASSIFIED, "billing"));
+
+        assertThat(repository.count()).isZero();
+        assertThat(store.findById(1L)).isPresent();
+
+        store.flush();
+
+        assertThat(repository.count()).isEqualTo(1);
+        assertThat(store.getPendingCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("an update before the first flush is coalesced into the insert")
+    void update_beforeFlush_isCoalesced() {
+        store.insert(ticket(1L, ClassificationStatus.PENDING, null));
+        store.update(ticket(1L, ClassificationStatus.CLASSIFIED, "billing"));
+
+        assertThat(store.getPendingCount()).isEqualTo(1);
+        store.flush();
+
+        Ticket persisted = repository.findById(1L).orElseThrow().toTicket();
+        assertThat(persisted.getClassificationStatus()).isEqualTo(ClassificationStatus.CLASSIFIED);
+        assertThat(persisted.getCategory()).isEqualTo("billing");
+        assertThat(persisted.getLabels()).containsExactly("billing", "urgent");
+    }
+
+    @Test
+    @DisplayName("an update after a flush updates the persisted row")
+    void update_afterFlush_updatesRow() {
+        store.insert(ticket(1L, ClassificationStatus.PENDING, null));
+        store.flush();
+
+        store.update(ticket(1L, ClassificationStatus.CLASSIFIED, "network"));
+        store.flush();
+
+        assertThat(repository.count()).isEqualTo(1);
+        assertThat(repository.findById(1L).orElseThrow().toTicket().getCategory()).isEqualTo("network");
+    }
+
+    @Test
+    @DisplayName("reaching the batch size triggers a flush")
+    void insert_reachingBatchSize_flushes() {
+        for (long id = 1; id <= 3; id++) {
+            store.insert(ticket(id, ClassificationStatus.CLASSIFIED, "billing"));
+        }
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> repository.count() == 3);
+    }
+
+    @Test
+    @DisplayName("findMaxId returns the highest persisted id")
+    void findMaxId_returnsHighestId() {
+        assertThat(store.findMaxId()).isEmpty();
+
+        store.insert(ticket(7L, ClassificationStatus.CLASSIFIED, "billing"));
+        store.insert(ticket(42L, ClassificationStatus.CLASSIFIED, "billing"));
+        store.flush();
+
+        assertThat(store.findMaxId()).contains(42L);
+    }
+
+    @Test
+    @DisplayName("findAll reads every persisted ticket in id order, across pages")
+    void findAll_readsAllPages() {
+        for (long id = 7; id >= 1; id--) {
+            store.insert(ticket(id, ClassificationStatus.CLASSIFIED, "billing"));
+        }
+        store.flush();
+
+        assertThat(store.findAll()).extracting(Ticket::getId).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L);
+    }
+
+    @Test
+    @DisplayName("a row the database rejects is dead-lettered and the rest of its batch is written")
+    void flush_rejectedRow_isDeadLettered() {
+        store.insert(ticket(1L, ClassificationStatus.CLASSIFIED, "billing"));
+        store.insert(new Ticket(2L, "x".repeat(300), "Title too long", "billing", List.of("billing"),
+                ClassificationStatus.CLASSIFIED));
+        store.insert(ticket(3L, ClassificationStatus.CLASSIFIED, "billing"));
+
+        store.flush();
+
+        assertThat(repository.findAll()).extracting(TicketEntity::getId).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(store.getDeadLetteredCount()).isEqualTo(1);
+        assertThat(store.getPendingCount()).isZero();
+
+        // Later writes are not held up by the rejected row
+        store.insert(ticket(4L, ClassificationStatus.CLASSIFIED, "billing"));
+        store.flush();
+        assertThat(repository.count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("labels that do not fit into their column are cut off at a label boundary")
+    void insert_tooManyLabels_areCutOff() {
+        List<String> labels = IntStream.range(0, 200).mapToObj(i -> "label-" + i).toList();
+        store.insert(new Ticket(1L, "Title", "Description", "label-0", labels, ClassificationStatus.CLASSIFIED));
+
+        store.flush();
+
+        List<String> persisted = repository.findById(1L).orElseThrow().toTicket().getLabels();
+        assertThat(String.join(",", persisted)).hasSizeLessThanOrEqualTo(TicketEntity.MAX_LABELS_LENGTH);
+        assertThat(labels).startsWith(persisted.toArray(String[]::new));
+    }
+
+    private static Ticket ticket(Long id, ClassificationStatus status, String category) {
+        List<String> labels = category == null ? List.of() : List.of(category, "urgent");
+        return new Ticket(id, "Title " + id, "Description " + id, category, labels, status);
+    }
+}
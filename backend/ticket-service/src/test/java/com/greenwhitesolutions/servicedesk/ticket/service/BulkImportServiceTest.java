@@ -0,0 +1,214 @@
+package com.greenwhitesolutions.servicedesk.ticket.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.greenwhitesolutions.servicedesk.ticket.client.AiClient;
+import com.greenwhitesolutions.servicedesk.ticket.config.TicketProperties;
+import com.greenwhitesolutions.servicedesk.ticket.model.BulkImportResult;
+import com.greenwhitesolutions.servicedesk.ticket.model.ClassificationStatus;
+import com.greenwhitesolutions.servicedesk.ticket.model.CreateTicketRequest;
+import com.greenwhitesolutions.servicedesk.ticket.model.Ticket;
+import com.greenwhitesolutions.servicedesk.ticket.model.TicketFilter;
+import com.greenwhitesolutions.servicedesk.ticket.repository.TicketBackingStore;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import reactor.core.publisher.Mono;
+
+/**
+ * Unit tests for BulkImportService.
+ */
+@ExtendWith(MockitoExtension.class)
+class BulkImportServiceTest {
+
+    private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Mock
+    private AiClient aiClient;
+
+    private TicketProperties properties;
+    private TicketService ticketService;
+    private BulkImportService bulkImportService;
+
+    @BeforeEach
+    void setUp() {
+        properties = new TicketProperties();
+        properties.getBulk().setBatchSize(2);
+        properties.getBulk().setClassifyConcurrency(4);
+        ticketService = new TicketService(aiClient, properties, null, TicketBackingStore.NONE);
+        bulkImportService = new BulkImportService(ticketService, aiClient, new ObjectMapper(), VALIDATOR, properties);
+    }
+
+    @Test
+    @DisplayName("importTickets classifies descriptions in batches and stores every valid record with its classification")
+    void importTickets_storesClassifiedTickets() {
+        // Given
+        properties.getBulk().setClassifyBatchSize(2);
+        when(aiClient.classifyBatchAsync(anyList())).thenAnswer(invocation -> Mono.just(
+                Collections.nCopies(invocation.<List<String>>getArgument(0).size(), List.of("billing", "urgent"))));
+
+        // When
+        BulkImportResult result = bulkImportService.importTickets(ndjson(
+                "{\"title\":\"Invoice 1\",\"description\":\"Wrong amount\"}",
+                "{\"title\":\"Invoice 2\",\"description\":\"Missing invoice\"}",
+                "{\"title\":\"Invoice 3\",\"description\":\"Duplicate charge\"}"));
+
+        // Then
+        verify(aiClient).classifyBatchAsync(List.of("Wrong amount", "Missing invoice"));
+        verify(aiClient).classifyBatchAsync(List.of("Duplicate charge"));
+        assertThat(result.getImported()).isEqualTo(3);
+        assertThat(result.getPending()).isZero();
+        assertThat(result.getFailed()).isZero();
+        TicketFilter billing = new TicketFilter(List.of("billing"), List.of(), null, null);
+        assertThat(ticketService.getTickets(null, null, billing).getItems())
+                .extracting(Ticket::getTitle)
+                .containsExactly("Invoice 1", "Invoice 2", "Invoice 3");
+    }
+
+    @Test
+    @DisplayName("importTickets keeps input order when batches complete out of order")
+    void importTickets_keepsInputOrder() {
+        // Given the first batch is the slowest
+        properties.getBulk().setClassifyBatchSize(1);
+        AtomicInteger calls = new AtomicInteger();
+        when(aiClient.classifyBatchAsync(anyList())).thenAnswer(invocation -> {
+            long delay = 200 - 50L * calls.getAndIncrement();
+            return Mono.just(List.of(List.of("network"))).delayElement(Duration.ofMillis(delay));
+        });
+
+        // When
+        bulkImportService.importTickets(ndjson(
+                "{\"title\":\"A\",\"description\":\"a\"}",
+                "{\"title\":\"B\",\"description\":\"b\"}",
+                "{\"title\":\"C\",\"description\":\"c\"}"));
+
+        // Then
+        assertThat(ticketService.getAllTickets())
+                .extracting(Ticket::getTitle)
+                .containsExactly("A", "B", "C");
+    }
+
+    @Test
+    @DisplayName("importTickets reports invalid records by line number and skips blank lines")
+    void importTickets_reportsInvalidRecords() {
+        // Given
+        when(aiClient.classifyBatchAsync(anyList())).thenReturn(Mono.just(List.of(List.of("hardware"))));
+
+        // When
+        BulkImportResult result = bulkImportService.importTickets(ndjson(
+                "{\"title\":\"Laptop\",\"description\":\"Screen broken\"}",
+                "",
+                "{not json",
+                "{\"description\":\"No title\"}",
+                "{\"title\":\"" + "x".repeat(CreateTicketRequest.MAX_TITLE_LENGTH + 1) + "\"}"));
+
+        // Then
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(3);
+        assertThat(result.getFailures())
+                .extracting(BulkImportResult.Failure::getLine)
+                .containsExactly(3L, 4L, 5L);
+        assertThat(result.getFailures().get(1).getError()).isEqualTo("title is required");
+        assertThat(result.getFailures().get(2).getError()).isEqualTo("title must be at most 255 characters");
+    }
+
+    @Test
+    @DisplayName("importTickets limits the number of reported failures")
+    void importTickets_limitsReportedFailures() {
+        // Given
+        properties.getBulk().setMaxReportedFailures(1);
+
+        // When
+        BulkImportResult result = bulkImportService.importTickets(ndjson("{}", "{}", "{}"));
+
+        // Then
+        assertThat(result.getFailed()).isEqualTo(3);
+        assertThat(result.getFailures()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("importTickets does not classify records without a description")
+    void importTickets_withoutDescription_usesGeneralCategory() {
+        // When
+        BulkImportResult result = bulkImportService.importTickets(ndjson("{\"title\":\"Hello\"}"));
+
+        // Then
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(ticketService.getAllTickets())
+                .extracting(Ticket::getCategory)
+                .containsExactly("general");
+        verify(aiClient, never()).classifyBatchAsync(any());
+    }
+
+    @Test
+    @DisplayName("importTickets reports records whose classification failed instead of storing the fallback category")
+    void importTickets_failedClassification_isReported() {
+        // Given the AI service could not classify the second description
+        when(aiClient.classifyBatchAsync(anyList()))
+                .thenReturn(Mono.just(List.of(List.of("billing"), List.of())));
+
+        // When
+        BulkImportResult result = bulkImportService.importTickets(ndjson(
+                "{\"title\":\"Invoice\",\"description\":\"Wrong amount\"}",
+                "{\"title\":\"Printer\",\"description\":\"Out of toner\"}"));
+
+        // Then
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getFailures())
+                .extracting(BulkImportResult.Failure::getLine, BulkImportResult.Failure::getError)
+                .containsExactly(tuple(2L, "classification failed"));
+        assertThat(ticketService.getAllTickets()).extracting(Ticket::getTitle).containsExactly("Invoice");
+    }
+
+    @Test
+    @DisplayName("importTickets stores records whose classification failed as PENDING when tickets are classified in the background")
+    void importTickets_failedClassification_isStoredPending() {
+        // Given
+        properties.getEnrichment().setMode(TicketProperties.EnrichmentMode.STREAM);
+        ticketService = new TicketService(aiClient, properties, null, TicketBackingStore.NONE);
+        bulkImportService = new BulkImportService(ticketService, aiClient, new ObjectMapper(), VALIDATOR, properties);
+        when(aiClient.classifyBatchAsync(anyList()))
+                .thenReturn(Mono.just(List.of(List.of("billing"), List.of())));
+
+        // When
+        BulkImportResult result = bulkImportService.importTickets(ndjson(
+                "{\"title\":\"Invoice\",\"description\":\"Wrong amount\"}",
+                "{\"title\":\"Printer\",\"description\":\"Out of toner\"}"));
+
+        // Then
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getPending()).isEqualTo(1);
+        assertThat(result.getFailed()).isZero();
+        assertThat(ticketService.getAllTickets())
+                .extracting(Ticket::getTitle, Ticket::getClassificationStatus)
+                .containsExactly(tuple("Invoice", ClassificationStatus.CLASSIFIED),
+                        tuple("Printer", ClassificationStatus.PENDING));
+    }
+
+    private static InputStream ndjson(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}
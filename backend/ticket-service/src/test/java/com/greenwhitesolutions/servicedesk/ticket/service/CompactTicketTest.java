@@ -0,0 +1,145 @@
+package com.greenwhitesolutions.servicedesk.ticket.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+import com.greenwhitesolutions.servicedesk.ticket.model.ClassificationStatus;
+import com.greenwhitesolutions.servicedesk.ticket.model.Ticket;
+
+/**
+ * Unit tests for CompactTicket and LabelDictionary.
+ */
+class CompactTicketTest {
+
+    private final LabelDictionary dictionary = new LabelDictionary();
+
+    @Test
+    @DisplayName("a ticket survives encoding")
+    void toTicket_roundTrip() {
+        // Given
+        dictionary.encode("urgent");
+        Ticket ticket = new Ticket(42L, "Invoice", "Wrong amount", "billing", List.of("billing", "urgent"));
+
+        // When
+        Ticket decoded = CompactTicket.of(ticket, dictionary).toTicket(dictionary);
+
+        // Then
+        assertThat(decoded.getId()).isEqualTo(42L);
+        assertThat(decoded.getTitle()).isEqualTo("Invoice");
+        assertThat(decoded.getDescription()).isEqualTo("Wrong amount");
+        assertThat(decoded.getCategory()).isEqualTo("billing");
+        assertThat(decoded.getLabels()).containsExactly("billing", "urgent");
+        assertThat(decoded.getClassificationStatus()).isEqualTo(ClassificationStatus.CLASSIFIED);
+    }
+
+    @Test
+    @DisplayName("labels keep their original order and duplicates")
+    void toTicket_keepsLabelOrder() {
+        // Given
+        dictionary.encode("billing");
+        dictionary.encode("urgent");
+        Ticket ticket = new Ticket(1L, "Invoice", "Wrong amount", "billing",
+                List.of("urgent", "refund", "billing", "urgent"));
+
+        // When
+        Ticket decoded = CompactTicket.of(ticket, dictionary).toTicket(dictionary);
+
+        // Then
+        assertThat(decoded.getCategory()).isEqualTo("billing");
+        assertThat(decoded.getLabels()).containsExactly("urgent", "refund", "billing", "urgent");
+    }
+
+    @Test
+    @DisplayName("tickets with more labels than fit the packed layout keep all of them in order")
+    void toTicket_manyLabels() {
+        // Given
+        List<String> labels = List.of("network", "vpn", "outage", "berlin", "network", "urgent");
+        Ticket ticket = new Ticket(1L, "VPN", "Gateway down", "network", labels);
+
+        // When
+        Ticket decoded = CompactTicket.of(ticket, dictionary).toTicket(dictionary);
+
+        // Then
+        assertThat(decoded.getLabels()).isEqualTo(labels);
+    }
+
+    @Test
+    @DisplayName("a pending ticket without category or labels survives encoding")
+    void toTicket_pendingTicket() {
+        // Given
+        Ticket ticket = new Ticket(1L, "VPN", "Drops", null, List.of(), ClassificationStatus.PENDING);
+
+        // When
+        Ticket decoded = CompactTicket.of(ticket, dictionary).toTicket(dictionary);
+
+        // Then
+        assertThat(decoded.getCategory()).isNull();
+        assertThat(decoded.getLabels()).isEmpty();
+        assertThat(decoded.getClassificationStatus()).isEqualTo(ClassificationStatus.PENDING);
+    }
+
+    @Test
+    @DisplayName("labels of a large dictionary are kept")
+    void toTicket_manyDistinctLabels() {
+        // Given
+        IntStream.range(0, 70).forEach(i -> dictionary.encode("label-" + i));
+        Ticket ticket = new Ticket(1L, "Title", "Text", "label-3", List.of("label-3", "label-1", "label-68"));
+
+        // When
+        Ticket decoded = CompactTicket.of(ticket, dictionary).toTicket(dictionary);
+
+        // Then
+        assertThat(decoded.getLabels()).containsExactly("label-3", "label-1", "label-68");
+    }
+
+    @Test
+    @DisplayName("decoded labels share the interned dictionary strings")
+    void toTicket_sharesInternedLabels() {
+        // Given
+        Ticket first = new Ticket(1L, "A", "a", "network", List.of(new String("network")));
+        Ticket second = new Ticket(2L, "B", "b", "network", List.of(new String("network")));
+
+        // When
+        Ticket decodedFirst = CompactTicket.of(first, dictionary).toTicket(dictionary);
+        Ticket decodedSecond = CompactTicket.of(second, dictionary).toTicket(dictionary);
+
+        // Then
+        assertThat(decodedFirst.getLabels().get(0)).isSameAs(decodedSecond.getLabels().get(0));
+        assertThat(dictionary.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("a compact ticket retains less heap than a ticket with its own label strings")
+    void footprint_isSmallerThanTicket() {
+        // Given tickets as built from deserialized classification responses, with their own strings
+        List<Ticket> tickets = new ArrayList<>();
+        List<CompactTicket> compactTickets = new ArrayList<>();
+        for (long id = 1; id <= 1000; id++) {
+            List<String> labels = new ArrayList<>(List.of(new String("billing"), new String("urgent")));
+            Ticket ticket = new Ticket(id, "Title " + id, "Description " + id, labels.get(0), labels);
+            tickets.add(ticket);
+            compactTickets.add(CompactTicket.of(ticket, dictionary));
+        }
+
+        // When
+        long ticketBytes = perTicket(GraphLayout.parseInstance(tickets.toArray()).totalSize(), tickets.size());
+        long compactBytes = perTicket(GraphLayout.parseInstance(compactTickets.toArray()).totalSize(),
+                compactTickets.size());
+
+        // Then
+        assertThat(compactBytes)
+                .as("retained heap per ticket, Ticket %d bytes", ticketBytes)
+                .isLessThan(ticketBytes - 100);
+    }
+
+    private static long perTicket(long totalBytes, int count) {
+        return totalBytes / count;
+    }
+}
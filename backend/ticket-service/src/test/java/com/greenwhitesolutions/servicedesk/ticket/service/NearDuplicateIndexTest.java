@@ -0,0 +1,123 @@
+package com.greenwhitesolutions.servicedesk.ticket.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for NearDuplicateIndex.
+ */
+class NearDuplicateIndexTest {
+
+    private static final String OUTAGE =
+            "Outlook cannot connect to the Exchange server since this morning, every mail stays in the outbox";
+
+    private static final long MAX_AGE = Duration.ofHours(24).toMillis();
+
+    private final AtomicLong clock = new AtomicLong(System.currentTimeMillis());
+    private final SnowflakeIdGenerator ids = new SnowflakeIdGenerator(1, clock::get);
+    private final NearDuplicateIndex index = new NearDuplicateIndex(16, 8, 0.8, 8, 1000, MAX_AGE, clock::get);
+
+    @Test
+    @DisplayName("findOrAdd matches a reworded description to the earlier ticket")
+    void findOrAdd_matchesNearDuplicate() {
+        // Given
+        long parentId = ids.nextId();
+        assertThat(index.findOrAdd(parentId, OUTAGE)).isEmpty();
+
+        // When
+        OptionalLong parent = index.findOrAdd(ids.nextId(),
+                "outlook cannot connect to the exchange server since this morning - every mail stays in the outbox!");
+
+        // Then
+        assertThat(parent).hasValue(parentId);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("findOrAdd keeps unrelated descriptions as separate parents")
+    void findOrAdd_unrelatedDescriptions() {
+        assertThat(index.findOrAdd(ids.nextId(), OUTAGE)).isEmpty();
+        assertThat(index.findOrAdd(ids.nextId(),
+                "The printer on the third floor prints blank pages since the update last week")).isEmpty();
+        assertThat(index.findOrAdd(ids.nextId(),
+                "Outlook crashes when opening attachments from the shared mailbox of the sales team")).isEmpty();
+
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("findOrAdd ignores descriptions without words")
+    void findOrAdd_emptyDescription() {
+        assertThat(index.findOrAdd(ids.nextId(), null)).isEmpty();
+        assertThat(index.findOrAdd(ids.nextId(), " -- ")).isEmpty();
+
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("the oldest parents are forgotten beyond the configured maximum")
+    void findOrAdd_evictsOldestParent() {
+        // Given
+        NearDuplicateIndex small = new NearDuplicateIndex(16, 8, 0.8, 8, 2, MAX_AGE, clock::get);
+        small.findOrAdd(ids.nextId(), OUTAGE);
+        small.findOrAdd(ids.nextId(), "The printer on the third floor prints blank pages since the update last week");
+        small.findOrAdd(ids.nextId(), "My laptop battery drains within an hour of unplugging it from the dock");
+
+        // When
+        OptionalLong parent = small.findOrAdd(ids.nextId(), OUTAGE);
+
+        // Then
+        assertThat(parent).isEmpty();
+        assertThat(small.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("parents older than the maximum age are no longer matched")
+    void findOrAdd_forgetsExpiredParent() {
+        // Given
+        long parentId = ids.nextId();
+        index.findOrAdd(parentId, OUTAGE);
+        clock.addAndGet(MAX_AGE - 1000);
+        assertThat(index.findOrAdd(ids.nextId(), OUTAGE)).hasValue(parentId);
+
+        // When
+        clock.addAndGet(2000);
+        long laterId = ids.nextId();
+        OptionalLong parent = index.findOrAdd(laterId, OUTAGE);
+
+        // Then
+        assertThat(parent).isEmpty();
+        assertThat(index.findOrAdd(ids.nextId(), OUTAGE)).hasValue(laterId);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("findOrAdd neither matches nor indexes descriptions with too few shingles")
+    void findOrAdd_shortDescription() {
+        assertThat(index.findOrAdd(ids.nextId(), "See attached")).isEmpty();
+        assertThat(index.findOrAdd(ids.nextId(), "See attached")).isEmpty();
+        assertThat(index.findOrAdd(ids.nextId(), "Please help, my computer does not work")).isEmpty();
+
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("signature agreement estimates the Jaccard similarity of the shingle sets")
+    void similarity_estimatesJaccard() {
+        // Given 20 words, one changed in the middle: 15 of 21 distinct shingles are shared
+        String text = "a b c d e f g h i j k l m n o p q r s t";
+        String changed = "a b c d e f g h i X k l m n o p q r s t";
+
+        // When
+        double similarity = NearDuplicateIndex.similarity(index.signature(text), index.signature(changed));
+
+        // Then
+        assertThat(similarity).isBetween(15.0 / 21 - 0.12, 15.0 / 21 + 0.12);
+    }
+}
@@ -0,0 +1,147 @@
+package com.greenwhitesolutions.servicedesk.ticket.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for SnowflakeIdGenerator.
+ */
+class SnowflakeIdGeneratorTest {
+
+    private static final long NOW = SnowflakeIdGenerator.EPOCH + 1_000_000;
+
+    @Test
+    @DisplayName("nextId encodes the timestamp, node id and sequence")
+    void nextId_encodesTimestampNodeAndSequence() {
+        // Given
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(5, () -> NOW);
+
+        // When
+        long first = generator.nextId();
+        long second = generator.nextId();
+
+        // Then
+        assertThat(timestampOf(first)).isEqualTo(NOW - SnowflakeIdGenerator.EPOCH);
+        assertThat(nodeOf(first)).isEqualTo(5);
+        assertThat(second).isEqualTo(first + 1);
+    }
+
+    @Test
+    @DisplayName("nodes generating ids at the same time never collide")
+    void nextId_differentNodes_doNotCollide() {
+        // Given
+        SnowflakeIdGenerator node1 = new SnowflakeIdGenerator(1, () -> NOW);
+        SnowflakeIdGenerator node2 = new SnowflakeIdGenerator(2, () -> NOW);
+        Set<Long> ids = new HashSet<>();
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            ids.add(node1.nextId());
+            ids.add(node2.nextId());
+        }
+
+        // Then
+        assertThat(ids).hasSize(2000);
+    }
+
+    @Test
+    @DisplayName("nextId keeps increasing when the clock moves backwards")
+    void nextId_clockRollback_staysMonotonic() {
+        // Given
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, clock::get);
+        long beforeRollback = generator.nextId();
+
+        // When
+        clock.set(NOW - 5_000);
+        long afterRollback = generator.nextId();
+
+        // Then
+        assertThat(afterRollback).isGreaterThan(beforeRollback);
+    }
+
+    @Test
+    @DisplayName("nextId continues in the next millisecond when the sequence is exhausted")
+    void nextId_sequenceExhausted_borrowsNextMillisecond() {
+        // Given
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, () -> NOW);
+        List<Long> ids = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < 5000; i++) {
+            ids.add(generator.nextId());
+        }
+
+        // Then
+        assertThat(ids).isSorted().doesNotHaveDuplicates();
+        assertThat(timestampOf(ids.get(ids.size() - 1))).isEqualTo(NOW - SnowflakeIdGenerator.EPOCH + 1);
+    }
+
+    @Test
+    @DisplayName("advancePast makes later ids greater than an id issued with a later clock")
+    void advancePast_issuesLaterIds() {
+        // Given
+        long persisted = new SnowflakeIdGenerator(7, () -> NOW + 60_000).nextId();
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, () -> NOW);
+
+        // When
+        generator.advancePast(persisted);
+
+        // Then
+        assertThat(generator.nextId()).isGreaterThan(persisted);
+    }
+
+    @Test
+    @DisplayName("concurrent callers always receive unique ids")
+    void nextId_concurrentCallers_areUnique() throws Exception {
+        // Given
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    ids.add(generator.nextId());
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Then
+        assertThat(ids).hasSize(80_000);
+    }
+
+    @Test
+    @DisplayName("node ids outside the 10-bit range are rejected")
+    void constructor_invalidNodeId_throws() {
+        assertThatThrownBy(() -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static long timestampOf(long id) {
+        return id >>> (SnowflakeIdGenerator.NODE_BITS + SnowflakeIdGenerator.SEQUENCE_BITS);
+    }
+
+    private static long nodeOf(long id) {
+        return (id >>> SnowflakeIdGenerator.SEQUENCE_BITS) & SnowflakeIdGenerator.MAX_NODE_ID;
+    }
+}
@@ -0,0 +1,353 @@
+package com.greenwhitesolutions.servicedesk.ticket.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.greenwhitesolutions.servicedesk.ticket.config.TicketProperties;
+import com.greenwhitesolutions.servicedesk.ticket.model.ClassificationStatus;
+import com.greenwhitesolutions.servicedesk.ticket.model.Ticket;
+import com.greenwhitesolutions.servicedesk.ticket.model.TicketEvent;
+import com.greenwhitesolutions.servicedesk.ticket.model.TicketEventType;
+
+/**
+ * Unit tests for TicketEventBroadcaster.
+ */
+class TicketEventBroadcasterTest {
+
+    private static final String RESET = "reset";
+
+    private TicketEventBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        TicketProperties properties = new TicketProperties();
+        properties.getEvents().setBufferSize(3);
+        properties.getEvents().setHistorySize(5);
+        properties.getEvents().setMaxSubscribers(2);
+        properties.getEvents().setSenderThreads(1);
+        broadcaster = new TicketEventBroadcaster(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.shutdown();
+    }
+
+    @Test
+    @DisplayName("subscribers receive published events in order")
+    void publish_deliversEventsInOrder() {
+        // Given
+        RecordingSink sink = new RecordingSink();
+        broadcaster.subscribe(null, TicketProperties.EventOverflow.DROP, sink);
+
+        // When
+        broadcaster.publish(TicketEventType.CREATED, pending(1L));
+        broadcaster.publish(TicketEventType.CLASSIFIED, classified(1L));
+
+        // Then
+        await().atMost(Duration.ofSeconds(5)).until(() -> sink.received.size() == 2);
+        assertThat(sink.received).containsExactly("1:CREATED:1", "2:CLASSIFIED:1");
+    }
+
+    @Test
+    @DisplayName("a subscriber resuming from a last event id receives the events it missed")
+    void subscribe_resumesAfterLastEventId() {
+        // Given
+        broadcaster.publish(TicketEventType.CREATED, pending(1L));
+        broadcaster.publish(TicketEventType.CREATED, pending(2L));
+        broadcaster.publish(TicketEventType.CREATED, pending(3L));
+
+        // When
+        RecordingSink sink = new RecordingSink();
+        broadcaster.subscribe(broadcaster.eventId(1), TicketProperties.EventOverflow.DROP, sink);
+
+        // Then
+        await().atMost(Duration.ofSeconds(5)).until(() -> sink.received.size() == 2);
+        assertThat(sink.received).containsExactly("2:CREATED:2", "3:CREATED:3");
+    }
+
+    @Test
+    @DisplayName("a subscriber resuming from an event no longer kept is told to reset")
+    void subscribe_resetsWhenHistoryIsGone() {
+        // Given more events than the history keeps
+        TicketProperties properties = new TicketProperties();
+        properties.getEvents().setHistorySize(3);
+        TicketEventBroadcaster small = new TicketEventBroadcaster(properties);
+        for (long id = 1; id <= 5; id++) {
+            small.publish(TicketEventType.CREATED, pending(id));
+        }
+
+        // When
+        RecordingSink sink = new RecordingSink();
+        small.subscribe(small.eventId(1), TicketProperties.EventOverflow.CONFLATE, sink);
+
+        // Then
+        await().atMost(Duration.ofSeconds(5)).until(() -> sink.received.size() == 4);
+        assertThat(sink.received).containsExactly(RESET, "3:CREATED:3", "4:CREATED:4", "5:CREATED:5");
+        small.shutdown();
+    }
+
+    @Test
+    @DisplayName("a subscriber resuming from an event id issued before a restart is told to reset")
+    void subscribe_resetsOnIdOfEarlierRun() {
+        // Given
+        broadcaster.publish(TicketEventType.CREATED, pending(1L));
+        broadcaster.publish(TicketEventType.CREATED, pending(2L));
+
+        // When
+        RecordingSink stale = new RecordingSink();
+        RecordingSink malformed = new RecordingSink();
+        broadcaster.subscribe("1-1", TicketProperties.EventOverflow.DROP, stale);
+        broadcaster.subscribe("1", TicketProperties.EventOverflow.DROP, malformed);
+
+        // Then
+        await().atMost(Duration.ofSeconds(5)).until(() -> stale.received.size() == 1 && malformed.received.size() == 1);
+        assertThat(stale.received).containsExactly(RESET);
+        assertThat(malformed.received).containsExactly(RESET);
+    }
+
+    @Test
+    @DisplayName("events published concurrently reach a subscriber once each, in id order")
+    void publish_concurrentPublishers() throws InterruptedException {
+        // Given
+        TicketProperties properties = new TicketProperties();
+        properties.getEvents().setBufferSize(1000);
+        TicketEventBroadcaster concurrent = new TicketEventBroadcaster(properties);
+        RecordingSink sink = new RecordingSink();
+        concurrent.subscribe(null, TicketProperties.EventOverflow.DROP, sink);
+
+        // When
+        List<Thread> publishers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            long first = t * 250L;
+            Thread publisher = new Thread(() -> LongStream.range(first, first + 250)
+                    .forEach(id -> concurrent.publish(TicketEventType.CREATED, pending(id))));
+            publisher.start();
+            publishers.add(publisher);
+        }
+        for (Thread publisher : publishers) {
+            publisher.join();
+        }
+
+        // Then
+        await().atMost(Duration.ofSeconds(5)).until(() -> sink.received.size() == 1000);
+        assertThat(sink.received).extracting(event -> Long.parseLong(event.substring(0, event.indexOf(':'))))
+                .containsExactlyElementsOf(LongStream.rangeClosed(1, 1000).boxed().toList());
+        concurrent.shutdown();
+    }
+
+    @Test
+    @DisplayName("a slow subscriber with the DROP policy loses its oldest events and is told to reset")
+    void slowSubscriber_dropPolicy() throws InterruptedException {
+        // Given a subscriber stuck sending its first event
+        RecordingSink sink = new RecordingSink();
+        sink.blockFirstSend();
+        broadcaster.subscribe(null, TicketProperties.EventOverflow.DROP, sink);
+        broadcaster.publish(TicketEventType.CREATED, pending(1L));
+        sink.awaitBlocked();
+
+        // When more events arrive than its buffer holds
+        for (long id = 2; id <= 6; id++) {
+            broadcaster.publish(TicketEventType.CREATED, pending(id));
+        }
+        sink.unblock();
+
+        // Then
+        await().atMost(Duration.ofSeconds(5)).until(() -> sink.received.size() == 5);
+        assertThat(sink.received).containsExactly("1:CREATED:1", RESET, "4:CREATED:4", "5:CREATED:5", "6:CREATED:6");
+    }
+
+    @Test
+    @DisplayName("a slow subscriber with the CONFLATE policy only gets the latest event per ticket")
+    void slowSubscriber_conflatePolicy() throws InterruptedException {
+        // Given a subscriber stuck sending its first event
+        RecordingSink sink = new RecordingSink();
+        sink.blockFirstSend();
+        broadcaster.subscribe(null, TicketProperties.EventOverflow.CONFLATE, sink);
+        broadcaster.publish(TicketEventType.CREATED, pending(1L));
+        sink.awaitBlocked();
+
+        // When tickets are created and classified while it is stuck
+        broadcaster.publish(TicketEventType.CREATED, pending(2L));
+        broadcaster.publish(TicketEventType.CREATED, pending(3L));
+        broadcaster.publish(TicketEventType.CLASSIFIED, classified(2L));
+        broadcaster.publish(TicketEventType.CLASSIFIED, classified(3L));
+        sink.unblock();
+
+        // Then
+        await().atMost(Duration.ofSeconds(5)).until(() -> sink.received.size() == 3);
+        assertThat(sink.received).containsExactly("1:CREATED:1", "4:CLASSIFIED:2", "5:CLASSIFIED:3");
+    }
+
+    @Test
+    @DisplayName("a subscriber whose connection fails is removed")
+    void failingSubscriber_isRemoved() {
+        // Given
+        RecordingSink sink = new RecordingSink();
+        sink.failing = true;
+        broadcaster.subscribe(null, null, sink);
+
+        // When
+        broadcaster.publish(TicketEventType.CREATED, pending(1L));
+
+        // Then
+        await().atMost(Duration.ofSeconds(5)).until(() -> sink.closed);
+        assertThat(broadcaster.getSubscriberCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("a subscriber whose write blocks beyond the send timeout is aborted without holding up others")
+    void stalledSubscriber_isAbortedAndOthersStillReceive() {
+        // Given the only sender thread stuck writing to a client that stopped reading
+        TicketProperties properties = new TicketProperties();
+        properties.getEvents().setSenderThreads(1);
+        properties.getEvents().setSendTimeout(Duration.ofMillis(100));
+        TicketEventBroadcaster stalling = new TicketEventBroadcaster(properties);
+        StalledSink stalled = new StalledSink();
+        RecordingSink healthy = new RecordingSink();
+        try {
+            stalling.subscribe(null, null, stalled);
+            stalling.subscribe(null, null, healthy);
+
+            // When
+            stalling.publish(TicketEventType.CREATED, pending(1L));
+            stalling.publish(TicketEventType.CREATED, pending(2L));
+
+            // Then
+            await().atMost(Duration.ofSeconds(5)).until(() -> healthy.received.size() == 2);
+            assertThat(healthy.received).containsExactly("1:CREATED:1", "2:CREATED:2");
+            assertThat(stalled.aborted).isTrue();
+            assertThat(stalling.getSubscriberCount()).isEqualTo(1);
+            assertThat(healthy.aborted).isFalse();
+        } finally {
+            stalled.unblock();
+            stalling.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("subscribe refuses subscribers beyond the configured maximum")
+    void subscribe_limitsSubscribers() {
+        assertThat(broadcaster.subscribe(null, null, new RecordingSink())).isNotNull();
+        assertThat(broadcaster.subscribe(null, null, new RecordingSink())).isNotNull();
+        assertThat(broadcaster.subscribe(null, null, new RecordingSink())).isNull();
+    }
+
+    private static Ticket pending(long id) {
+        return new Ticket(id, "Ticket " + id, "Description", null, List.of(), ClassificationStatus.PENDING);
+    }
+
+    private static Ticket classified(long id) {
+        return new Ticket(id, "Ticket " + id, "Description", "network", List.of("network"));
+    }
+
+    private static final class RecordingSink implements TicketEventBroadcaster.EventSink {
+
+        private final List<String> received = new CopyOnWriteArrayList<>();
+        private final CountDownLatch blocked = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile boolean blockFirstSend;
+        private volatile boolean failing;
+        private volatile boolean closed;
+        private volatile boolean aborted;
+
+        void blockFirstSend() {
+            blockFirstSend = true;
+        }
+
+        void awaitBlocked() throws InterruptedException {
+            assertThat(blocked.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+
+        void unblock() {
+            release.countDown();
+        }
+
+        @Override
+        public void send(TicketEvent event) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            received.add(event.getId() + ":" + event.getType() + ":" + event.getTicket().getId());
+            if (blockFirstSend) {
+                blockFirstSend = false;
+                blocked.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @Override
+        public void reset() {
+            received.add(RESET);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        @Override
+        public void abort(IOException error) {
+            aborted = true;
+        }
+    }
+
+    /**
+     * A sink whose client stopped reading: every write blocks until released, even when interrupted.
+     */
+    private static final class StalledSink implements TicketEventBroadcaster.EventSink {
+
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile boolean aborted;
+
+        void unblock() {
+            release.countDown();
+        }
+
+        @Override
+        public void send(TicketEvent event) {
+            boolean interrupted = false;
+            while (release.getCount() > 0) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void reset() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public void abort(IOException error) {
+            aborted = true;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.greenwhitesolutions.servicedesk.ticket.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for TicketSearchIndex.
+ */
+class TicketSearchIndexTest {
+
+    private TicketSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TicketSearchIndex();
+        index.add(1L, "Printer paper jam", "The printer on floor 3 has a paper jam");
+        index.add(2L, "VPN drops", "VPN connection drops every hour");
+        index.add(3L, "Password reset", "I need a password reset for the VPN portal");
+        index.add(4L, "Jam in printer tray", "Paper is stuck; the tray is full of paper and more paper");
+    }
+
+    @Test
+    @DisplayName("tokenize splits on non-alphanumeric characters and lower-cases")
+    void tokenize_splitsAndLowerCases() {
+        assertThat(TicketSearchIndex.tokenize("Wi-Fi down, ERROR 0x80!"))
+                .containsExactly("wi", "fi", "down", "error", "0x80");
+    }
+
+    @Test
+    @DisplayName("search returns only tickets containing every query term")
+    void search_requiresAllTerms() {
+        assertThat(index.search("vpn password", 10)).containsExactly(3L);
+        assertThat(index.search("vpn", 10)).containsExactlyInAnyOrder(2L, 3L);
+        assertThat(index.search("vpn unknown", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("search ranks tickets where the terms are more frequent and the text shorter first")
+    void search_ranksByBm25() {
+        assertThat(index.search("printer", 10)).containsExactly(1L, 4L);
+        assertThat(index.search("paper", 10)).containsExactly(4L, 1L);
+    }
+
+    @Test
+    @DisplayName("search matches quoted phrases only when the terms are adjacent")
+    void search_phraseQuery() {
+        assertThat(index.search("\"paper jam\"", 10)).containsExactly(1L);
+        assertThat(index.search("paper jam", 10)).containsExactlyInAnyOrder(1L, 4L);
+        assertThat(index.search("\"jam paper\"", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("phrases do not match across the end of the title")
+    void search_phraseDoesNotSpanFields() {
+        // Given "reset" ends the title of ticket 3 and "I" starts its description
+        assertThat(index.search("\"reset i\"", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("search skipping low-scoring blocks returns the same top tickets as ranking every match")
+    void search_blockSkippingKeepsBestMatches() {
+        // Given many tickets sharing a term, with the densest mentions spread over different blocks
+        TicketSearchIndex large = new TicketSearchIndex();
+        for (long id = 1; id <= 2000; id++) {
+            int mentions = id % 397 == 0 ? 5 : id % 7 == 0 ? 2 : 1;
+            large.add(id, "Ticket " + id, "outage ".repeat(mentions) + "filler text ".repeat((int) (id % 11)));
+        }
+
+        // When ranking every match, and only the best few
+        List<Long> all = large.search("outage", 2000);
+        List<Long> top = large.search("outage", 5);
+
+        // Then
+        assertThat(all).hasSize(2000);
+        assertThat(top).isEqualTo(all.subList(0, 5));
+        assertThat(large.search("outage filler", 3)).isEqualTo(large.search("outage filler", 2000).subList(0, 3));
+        assertThat(large.search("\"outage outage\"", 3)).isEqualTo(large.search("\"outage outage\"", 2000).subList(0, 3));
+    }
+
+    @Test
+    @DisplayName("search returns at most limit tickets")
+    void search_respectsLimit() {
+        assertThat(index.search("paper", 1)).containsExactly(4L);
+    }
+
+    @Test
+    @DisplayName("search with an empty query returns nothing")
+    void search_emptyQuery() {
+        assertThat(index.search("  ", 10)).isEmpty();
+        assertThat(index.search(null, 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("parse turns quoted text into phrases and the rest into single terms")
+    void parse_splitsPhrasesAndTerms() {
+        assertThat(TicketSearchIndex.parse("vpn \"password reset\" portal"))
+                .containsExactly(List.of("vpn"), List.of("password", "reset"), List.of("portal"));
+    }
+}
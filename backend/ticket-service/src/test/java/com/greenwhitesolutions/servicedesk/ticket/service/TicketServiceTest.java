@@ -0,0 +1,503 @@
+package com.greenwhitesolutions.servicedesk.ticket.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.greenwhitesolutions.servicedesk.ticket.client.AiClient;
+import com.greenwhitesolutions.servicedesk.ticket.config.TicketProperties;
+import com.greenwhitesolutions.servicedesk.ticket.journal.TicketJournal;
+import com.greenwhitesolutions.servicedesk.ticket.model.ClassificationStatus;
+import com.greenwhitesolutions.servicedesk.ticket.model.CreateTicketRequest;
+import com.greenwhitesolutions.servicedesk.ticket.model.Ticket;
+import com.greenwhitesolutions.servicedesk.ticket.model.TicketFilter;
+import com.greenwhitesolutions.servicedesk.ticket.model.TicketPage;
+import com.greenwhitesolutions.servicedesk.ticket.repository.TicketBackingStore;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for TicketService.
+ */
+@ExtendWith(MockitoExtension.class)
+class TicketServiceTest {
+
+    @Mock
+    private AiClient aiClient;
+
+    private TicketEnrichmentPipeline enrichmentPipeline;
+    private TicketService ticketService;
+
+    @BeforeEach
+    void setUp() {
+        TicketProperties properties = new TicketProperties();
+        properties.getEnrichment().setMode(TicketProperties.EnrichmentMode.ASYNC);
+        properties.getEnrichment().setWorkers(1);
+        enrichmentPipeline = new TicketEnrichmentPipeline(aiClient, properties);
+        ticketService = new TicketService(aiClient, properties, enrichmentPipeline, TicketBackingStore.NONE);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        enrichmentPipeline.shutdown();
+    }
+
+    @Test
+    @DisplayName("createTicket in async mode returns a PENDING ticket before classification completes")
+    void createTicket_async_returnsPendingTicket() {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        when(aiClient.classify(anyString())).thenAnswer(invocation -> {
+            release.await();
+            return List.of("billing", "urgent");
+        });
+
+        // When
+        Ticket ticket = ticketService.createTicket(new CreateTicketRequest("Invoice", "Wrong invoice amount"));
+
+        // Then
+        assertThat(ticket.getId()).isNotNull();
+        assertThat(ticket.getClassificationStatus()).isEqualTo(ClassificationStatus.PENDING);
+        assertThat(ticket.getCategory()).isNull();
+        assertThat(ticket.getLabels()).isEmpty();
+        assertThat(ticketService.getTicket(ticket.getId())).isPresent();
+
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("createTicket in async mode classifies the ticket in the background")
+    void createTicket_async_classifiesInBackground() {
+        // Given
+        when(aiClient.classify(anyString())).thenReturn(List.of("billing", "urgent"));
+
+        // When
+        Ticket ticket = ticketService.createTicket(new CreateTicketRequest("Invoice", "Wrong invoice amount"));
+
+        // Then
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            Ticket stored = ticketService.getTicket(ticket.getId()).orElseThrow();
+            assertThat(stored.getClassificationStatus()).isEqualTo(ClassificationStatus.CLASSIFIED);
+            assertThat(stored.getCategory()).isEqualTo("billing");
+            assertThat(stored.getLabels()).containsExactly("billing", "urgent");
+        });
+    }
+
+    @Test
+    @DisplayName("createTicket in async mode falls back to general category when classification is empty")
+    void createTicket_async_emptyLabelsUseGeneralCategory() {
+        // Given
+        when(aiClient.classify(anyString())).thenReturn(List.of());
+
+        // When
+        Ticket ticket = ticketService.createTicket(new CreateTicketRequest("Question", "How does this work?"));
+
+        // Then
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            Ticket stored = ticketService.getTicket(ticket.getId()).orElseThrow();
+            assertThat(stored.getClassificationStatus()).isEqualTo(ClassificationStatus.CLASSIFIED);
+            assertThat(stored.getCategory()).isEqualTo("general");
+        });
+    }
+
+    @Test
+    @DisplayName("createTicket in async mode defers the classification instead of classifying on the request thread when the queue is full")
+    void createTicket_async_fullQueue_defersClassification() throws InterruptedException {
+        // Given one worker busy with the first ticket and a queue holding the second
+        TicketProperties properties = new TicketProperties();
+        properties.getEnrichment().setMode(TicketProperties.EnrichmentMode.ASYNC);
+        properties.getEnrichment().setWorkers(1);
+        properties.getEnrichment().setQueueCapacity(1);
+        properties.getEnrichment().setRetryInterval(Duration.ofMillis(50));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TicketEnrichmentPipeline pipeline = new TicketEnrichmentPipeline(aiClient, properties, meterRegistry);
+        TicketService service = new TicketService(aiClient, properties, pipeline, TicketBackingStore.NONE);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread requestThread = Thread.currentThread();
+        List<Thread> classifyingThreads = new CopyOnWriteArrayList<>();
+        when(aiClient.classify(anyString())).thenAnswer(invocation -> {
+            classifyingThreads.add(Thread.currentThread());
+            release.await();
+            return List.of("billing");
+        });
+        try {
+            List<Ticket> tickets = new ArrayList<>();
+            tickets.add(service.createTicket(new CreateTicketRequest("Invoice", "Wrong invoice amount")));
+            tickets.add(service.createTicket(new CreateTicketRequest("Printer", "Printer is out of toner")));
+
+            // When
+            tickets.add(service.createTicket(new CreateTicketRequest("VPN", "VPN keeps dropping")));
+
+            // Then
+            assertThat(tickets.get(2).getClassificationStatus()).isEqualTo(ClassificationStatus.PENDING);
+            assertThat(meterRegistry.get("tickets.enrichment.rejected").tag("outcome", "deferred").counter().count())
+                    .isEqualTo(1);
+            release.countDown();
+            await().atMost(Duration.ofSeconds(5)).until(() -> tickets.stream()
+                    .allMatch(ticket -> service.getTicket(ticket.getId()).orElseThrow().getClassificationStatus()
+                            == ClassificationStatus.CLASSIFIED));
+            assertThat(classifyingThreads).hasSize(3).doesNotContain(requestThread);
+        } finally {
+            release.countDown();
+            pipeline.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("createTicket in async mode classifies shed tickets once the backlog has drained")
+    void createTicket_async_shedClassification_isResubmitted() throws InterruptedException {
+        // Given one worker busy with the first ticket, a queue holding the second and room to defer the third
+        TicketProperties properties = new TicketProperties();
+        properties.getEnrichment().setMode(TicketProperties.EnrichmentMode.ASYNC);
+        properties.getEnrichment().setWorkers(1);
+        properties.getEnrichment().setQueueCapacity(1);
+        properties.getEnrichment().setDeferredCapacity(1);
+        properties.getEnrichment().setRetryInterval(Duration.ofMillis(50));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TicketEnrichmentPipeline pipeline = new TicketEnrichmentPipeline(aiClient, properties, meterRegistry);
+        TicketService service = new TicketService(aiClient, properties, pipeline, TicketBackingStore.NONE);
+        CountDownLatch release = new CountDownLatch(1);
+        when(aiClient.classify(anyString())).thenAnswer(invocation -> {
+            release.await();
+            return List.of("billing");
+        });
+        try {
+            List<Ticket> tickets = new ArrayList<>();
+            tickets.add(service.createTicket(new CreateTicketRequest("Invoice", "Wrong invoice amount")));
+            tickets.add(service.createTicket(new CreateTicketRequest("Printer", "Printer is out of toner")));
+            tickets.add(service.createTicket(new CreateTicketRequest("VPN", "VPN keeps dropping")));
+
+            // When
+            tickets.add(service.createTicket(new CreateTicketRequest("Mail", "Mailbox is full")));
+            release.countDown();
+
+            // Then
+            assertThat(meterRegistry.get("tickets.enrichment.rejected").tag("outcome", "shed").counter().count())
+                    .isEqualTo(1);
+            await().atMost(Duration.ofSeconds(5)).until(() -> tickets.stream()
+                    .allMatch(ticket -> service.getTicket(ticket.getId()).orElseThrow().getClassificationStatus()
+                            == ClassificationStatus.CLASSIFIED));
+        } finally {
+            release.countDown();
+            pipeline.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("background classification makes the ticket visible to category and label filters")
+    void createTicket_async_indexesClassifiedTicket() {
+        // Given
+        when(aiClient.classify(anyString())).thenReturn(List.of("billing", "urgent"));
+        TicketFilter billing = new TicketFilter(List.of("billing"), List.of("urgent"), TicketFilter.Match.ALL, null);
+
+        // When
+        Ticket ticket = ticketService.createTicket(new CreateTicketRequest("Invoice", "Wrong invoice amount"));
+
+        // Then
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                assertThat(ticketService.getTickets(null, null, billing).getItems())
+                        .extracting(Ticket::getId)
+                        .containsExactly(ticket.getId()));
+    }
+
+    @Test
+    @DisplayName("createTicket in sync mode returns a classified ticket")
+    void createTicket_sync_returnsClassifiedTicket() {
+        // Given
+        when(aiClient.classify(anyString())).thenReturn(List.of("network"));
+        TicketService syncService = new TicketService(aiClient);
+
+        // When
+        Ticket ticket = syncService.createTicket(new CreateTicketRequest("VPN", "VPN keeps dropping"));
+
+        // Then
+        assertThat(ticket.getClassificationStatus()).isEqualTo(ClassificationStatus.CLASSIFIED);
+        assertThat(ticket.getCategory()).isEqualTo("network");
+    }
+
+    @Test
+    @DisplayName("a near-duplicate ticket is linked to its parent and reuses its classification")
+    void createTicket_nearDuplicate_reusesParentClassification() {
+        // Given
+        when(aiClient.classify(anyString())).thenReturn(List.of("network", "outage"));
+        TicketProperties properties = new TicketProperties();
+        properties.getDeduplication().setEnabled(true);
+        TicketService syncService = new TicketService(aiClient, properties, null, TicketBackingStore.NONE);
+        Ticket parent = syncService.createTicket(new CreateTicketRequest("VPN down",
+                "The VPN gateway in Berlin is down since 9am and nobody on the second floor can connect"));
+
+        // When
+        Ticket duplicate = syncService.createTicket(new CreateTicketRequest("VPN",
+                "The VPN gateway in Berlin is down since 9am and nobody on the second floor can connect!"));
+        Ticket unrelated = syncService.createTicket(new CreateTicketRequest("Invoice",
+                "The invoice for March lists the wrong amount"));
+
+        // Then
+        assertThat(parent.getParentId()).isNull();
+        assertThat(duplicate.getParentId()).isEqualTo(parent.getId());
+        assertThat(duplicate.getLabels()).containsExactly("network", "outage");
+        assertThat(unrelated.getParentId()).isNull();
+        verify(aiClient, times(2)).classify(anyString());
+    }
+
+    @Test
+    @DisplayName("near-duplicates are classified separately unless detection is enabled")
+    void createTicket_deduplicationDisabled_classifiesEveryTicket() {
+        // Given
+        when(aiClient.classify(anyString())).thenReturn(List.of("network"));
+        TicketService syncService = new TicketService(aiClient);
+        String description = "The VPN gateway in Berlin is down since 9am and nobody on the second floor can connect";
+
+        // When
+        syncService.createTicket(new CreateTicketRequest("VPN", description));
+        Ticket second = syncService.createTicket(new CreateTicketRequest("VPN", description));
+
+        // Then
+        assertThat(second.getParentId()).isNull();
+        verify(aiClient, times(2)).classify(anyString());
+    }
+
+    @Test
+    @DisplayName("tickets with the same short stock description are classified separately")
+    void createTicket_shortDescription_isNotDeduplicated() {
+        // Given
+        when(aiClient.classify(anyString())).thenReturn(List.of("network")).thenReturn(List.of("billing"));
+        TicketProperties properties = new TicketProperties();
+        properties.getDeduplication().setEnabled(true);
+        TicketService syncService = new TicketService(aiClient, properties, null, TicketBackingStore.NONE);
+
+        // When
+        syncService.createTicket(new CreateTicketRequest("VPN down", "Please help"));
+        Ticket second = syncService.createTicket(new CreateTicketRequest("Wrong invoice", "Please help"));
+
+        // Then
+        assertThat(second.getParentId()).isNull();
+        assertThat(second.getLabels()).containsExactly("billing");
+        verify(aiClient, times(2)).classify(anyString());
+    }
+
+    @Test
+    @DisplayName("createTicket in stream mode leaves the ticket PENDING until completeClassification")
+    void createTicket_stream_classifiedOnCompletion() {
+        // Given
+        TicketProperties properties = new TicketProperties();
+        properties.getEnrichment().setMode(TicketProperties.EnrichmentMode.STREAM);
+        TicketService streamService = new TicketService(aiClient, properties, null, TicketBackingStore.NONE);
+        Ticket ticket = streamService.createTicket(new CreateTicketRequest("Invoice", "Wrong invoice amount"));
+
+        // When
+        streamService.completeClassification(ticket.getId(), List.of("billing"));
+        // A redelivered event must not overwrite the first classification
+        streamService.completeClassification(ticket.getId(), List.of("network"));
+
+        // Then
+        assertThat(ticket.getClassificationStatus()).isEqualTo(ClassificationStatus.PENDING);
+        Ticket stored = streamService.getTicket(ticket.getId()).orElseThrow();
+        assertThat(stored.getClassificationStatus()).isEqualTo(ClassificationStatus.CLASSIFIED);
+        assertThat(stored.getCategory()).isEqualTo("billing");
+        verify(aiClient, times(0)).classify(anyString());
+    }
+
+    @Test
+    @DisplayName("applyStoredClassification updates a PENDING ticket classified by another node")
+    void applyStoredClassification_updatesPendingTicket() {
+        // Given
+        TicketProperties properties = new TicketProperties();
+        properties.getEnrichment().setMode(TicketProperties.EnrichmentMode.STREAM);
+        TicketService streamService = new TicketService(aiClient, properties, null, TicketBackingStore.NONE);
+        Ticket ticket = streamService.createTicket(new CreateTicketRequest("VPN", "VPN keeps dropping"));
+
+        // When
+        streamService.applyStoredClassification(new Ticket(ticket.getId(), ticket.getTitle(),
+                ticket.getDescription(), "network", List.of("network"), ClassificationStatus.CLASSIFIED));
+
+        // Then
+        Ticket stored = streamService.getTicket(ticket.getId()).orElseThrow();
+        assertThat(stored.getClassificationStatus()).isEqualTo(ClassificationStatus.CLASSIFIED);
+        assertThat(stored.getLabels()).containsExactly("network");
+    }
+
+    @Test
+    @DisplayName("applyStoredClassification ignores a ticket that is not CLASSIFIED")
+    void applyStoredClassification_pendingPayload_isIgnored() {
+        // Given
+        TicketProperties properties = new TicketProperties();
+        properties.getEnrichment().setMode(TicketProperties.EnrichmentMode.STREAM);
+        TicketService streamService = new TicketService(aiClient, properties, null, TicketBackingStore.NONE);
+        Ticket ticket = streamService.createTicket(new CreateTicketRequest("VPN", "VPN keeps dropping"));
+
+        // When
+        streamService.applyStoredClassification(ticket);
+
+        // Then
+        Ticket stored = streamService.getTicket(ticket.getId()).orElseThrow();
+        assertThat(stored.getClassificationStatus()).isEqualTo(ClassificationStatus.PENDING);
+        assertThat(stored.getCategory()).isNull();
+    }
+
+    @Test
+    @DisplayName("a restarted service restores tickets, indexes and statistics from the journal")
+    void restart_withJournal_restoresTickets(@TempDir Path directory) {
+        // Given
+        when(aiClient.classify(anyString())).thenReturn(List.of("billing"));
+        TicketProperties properties = journalProperties(directory);
+        TicketJournal journal = new TicketJournal(properties);
+        TicketService service = new TicketService(aiClient, properties, null, TicketBackingStore.NONE, null, journal);
+        Ticket first = service.createTicket(new CreateTicketRequest("Invoice", "Wrong invoice amount"));
+        journal.shutdown();
+        // A ticket logged after the final snapshot, as if the node crashed before taking another one
+        TicketJournal crashed = new TicketJournal(properties);
+        service = new TicketService(aiClient, properties, null, TicketBackingStore.NONE, null, crashed);
+        Ticket second = service.createTicket(new CreateTicketRequest("Printer", "Printer is out of toner"));
+
+        // When
+        TicketJournal restarted = new TicketJournal(properties);
+        TicketService restored = new TicketService(aiClient, properties, null, TicketBackingStore.NONE, null,
+                restarted);
+
+        // Then
+        assertThat(restored.getAllTickets()).extracting(Ticket::getId).containsExactly(first.getId(), second.getId());
+        TicketFilter billing = new TicketFilter(List.of("billing"), List.of(), null, null);
+        assertThat(restored.getTickets(null, null, billing).getItems()).hasSize(2);
+        assertThat(restored.searchTickets("toner", null)).extracting(Ticket::getId).containsExactly(second.getId());
+        assertThat(restored.getStatistics().getTotal()).isEqualTo(2);
+        Ticket third = restored.createTicket(new CreateTicketRequest("VPN", "VPN keeps dropping"));
+        assertThat(third.getId()).isGreaterThan(second.getId());
+        crashed.shutdown();
+        restarted.shutdown();
+    }
+
+    @Test
+    @DisplayName("a restart in async mode classifies restored PENDING tickets and inserts tickets never persisted")
+    void restart_withJournal_resubmitsPendingTickets(@TempDir Path directory) throws InterruptedException {
+        // Given
+        TicketProperties properties = journalProperties(directory);
+        // In stream mode without a worker the ticket stays PENDING, as if the node crashed before classifying it
+        properties.getEnrichment().setMode(TicketProperties.EnrichmentMode.STREAM);
+        TicketJournal crashed = new TicketJournal(properties);
+        TicketService service = new TicketService(aiClient, properties, null, TicketBackingStore.NONE, null, crashed);
+        Ticket pending = service.createTicket(new CreateTicketRequest("Invoice", "Wrong invoice amount"));
+        properties.getEnrichment().setMode(TicketProperties.EnrichmentMode.ASYNC);
+        when(aiClient.classify("Wrong invoice amount")).thenReturn(List.of("billing"));
+        TicketBackingStore backingStore = mock(TicketBackingStore.class);
+        when(backingStore.findMaxId()).thenReturn(Optional.empty());
+        when(backingStore.findById(pending.getId())).thenReturn(Optional.empty());
+
+        // When
+        TicketJournal restarted = new TicketJournal(properties);
+        TicketService restored = new TicketService(aiClient, properties, enrichmentPipeline, backingStore, null,
+                restarted);
+
+        // Then
+        await().atMost(Duration.ofSeconds(5)).until(() -> restored.getTicket(pending.getId()).orElseThrow()
+                .getClassificationStatus() == ClassificationStatus.CLASSIFIED);
+        verify(backingStore).insert(argThat(ticket -> ticket.getId().equals(pending.getId())
+                && ticket.getClassificationStatus() == ClassificationStatus.PENDING));
+        verify(backingStore, timeout(5000)).update(argThat(ticket -> ticket.getId().equals(pending.getId())
+                && ticket.getClassificationStatus() == ClassificationStatus.CLASSIFIED));
+        crashed.shutdown();
+        restarted.shutdown();
+    }
+
+    @Test
+    @DisplayName("without a journal, a restarted service loads tickets from the backing store and classifies PENDING ones")
+    void restart_withoutJournal_loadsBackingStore() {
+        // Given
+        Ticket classified = new Ticket(1L, "Invoice", "Wrong invoice amount", "billing", List.of("billing"),
+                ClassificationStatus.CLASSIFIED);
+        Ticket pending = new Ticket(2L, "Printer", "Printer is out of toner", null, List.of(),
+                ClassificationStatus.PENDING);
+        TicketBackingStore backingStore = mock(TicketBackingStore.class);
+        when(backingStore.findMaxId()).thenReturn(Optional.of(2L));
+        when(backingStore.findAll()).thenReturn(List.of(classified, pending));
+        when(aiClient.classify("Printer is out of toner")).thenReturn(List.of("hardware"));
+        TicketProperties properties = new TicketProperties();
+        properties.getEnrichment().setMode(TicketProperties.EnrichmentMode.ASYNC);
+
+        // When
+        TicketService restored = new TicketService(aiClient, properties, enrichmentPipeline, backingStore);
+
+        // Then
+        TicketFilter billing = new TicketFilter(List.of("billing"), List.of(), null, null);
+        assertThat(restored.getTickets(null, null, billing).getItems()).extracting(Ticket::getId).containsExactly(1L);
+        assertThat(restored.searchTickets("toner", null)).extracting(Ticket::getId).containsExactly(2L);
+        assertThat(restored.getStatistics().getTotal()).isEqualTo(2);
+        verify(backingStore, timeout(5000)).update(argThat(ticket -> ticket.getId().equals(2L)
+                && ticket.getClassificationStatus() == ClassificationStatus.CLASSIFIED));
+    }
+
+    /**
+     * Measures the cold start of a node holding a million tickets: loading the snapshot, replaying
+     * the log tail and serving the first page. Run with {@code -Dtickets.coldStart=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "tickets.coldStart", matches = "true")
+    @DisplayName("cold start with a million journaled tickets")
+    void coldStart_millionTickets(@TempDir Path directory) {
+        // Given
+        TicketProperties properties = journalProperties(directory);
+        properties.getDeduplication().setEnabled(false);
+        SnowflakeIdGenerator ids = new SnowflakeIdGenerator(0);
+        List<Ticket> tickets = new ArrayList<>(1_000_000);
+        for (int i = 0; i < 1_000_000; i++) {
+            tickets.add(new Ticket(ids.nextId(), "Ticket " + i, "Description of ticket number " + i,
+                    "billing", List.of("billing", "label-" + i % 100), ClassificationStatus.CLASSIFIED));
+        }
+        TicketJournal journal = new TicketJournal(properties);
+        journal.start(tickets::iterator);
+        journal.shutdown();
+        TicketJournal tail = new TicketJournal(properties);
+        for (int i = 0; i < 10_000; i++) {
+            tail.append(new Ticket(ids.nextId(), "Tail " + i, "Logged after the snapshot " + i, null, List.of(),
+                    ClassificationStatus.PENDING));
+        }
+        tail.shutdown();
+
+        // When
+        long started = System.nanoTime();
+        TicketJournal restarted = new TicketJournal(properties);
+        TicketService service = new TicketService(aiClient, properties, null, TicketBackingStore.NONE, null,
+                restarted);
+        TicketPage page = service.getTickets(null, null, TicketFilter.NONE);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        System.out.printf("Cold start to first page with %d tickets: %d ms%n",
+                service.getStatistics().getTotal(), elapsedMillis);
+
+        // Then
+        assertThat(page.getItems()).isNotEmpty();
+        assertThat(service.getStatistics().getTotal()).isEqualTo(1_010_000);
+        restarted.shutdown();
+    }
+
+    private static TicketProperties journalProperties(Path directory) {
+        TicketProperties properties = new TicketProperties();
+        properties.getJournal().setEnabled(true);
+        properties.getJournal().setDirectory(directory.toString());
+        return properties;
+    }
+}
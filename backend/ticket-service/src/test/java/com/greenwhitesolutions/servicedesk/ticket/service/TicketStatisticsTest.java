@@ -0,0 +1,136 @@
+package com.greenwhitesolutions.servicedesk.ticket.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.greenwhitesolutions.servicedesk.ticket.model.ClassificationStatus;
+import com.greenwhitesolutions.servicedesk.ticket.model.Ticket;
+import com.greenwhitesolutions.servicedesk.ticket.model.TicketStats;
+
+/**
+ * Unit tests for TicketStatistics.
+ */
+class TicketStatisticsTest {
+
+    private static final long NOW = Instant.parse("2026-03-02T10:15:30Z").toEpochMilli();
+    private static final long MINUTE = Duration.ofMinutes(1).toMillis();
+
+    private final AtomicLong clock = new AtomicLong(NOW);
+    private final TicketStatistics statistics = new TicketStatistics(5, 3, clock::get);
+
+    @Test
+    @DisplayName("created tickets are counted by status, category and label")
+    void add_countsByStatusCategoryAndLabel() {
+        // When
+        statistics.add(classified(1L, "billing", "urgent"));
+        statistics.add(classified(2L, "billing"));
+        statistics.add(pending(3L));
+
+        // Then
+        TicketStats stats = statistics.snapshot();
+        assertThat(stats.getTotal()).isEqualTo(3);
+        assertThat(stats.getByStatus())
+                .containsEntry(ClassificationStatus.CLASSIFIED, 2L)
+                .containsEntry(ClassificationStatus.PENDING, 1L);
+        assertThat(stats.getByCategory()).containsOnlyKeys("billing").containsEntry("billing", 2L);
+        assertThat(stats.getByLabel()).containsEntry("billing", 2L).containsEntry("urgent", 1L);
+    }
+
+    @Test
+    @DisplayName("a reclassified ticket moves from its old counts to its new ones")
+    void update_movesCounts() {
+        // Given
+        Ticket pending = pending(1L);
+        Ticket network = classified(1L, "network", "outage");
+        statistics.add(pending);
+        statistics.update(pending, network);
+
+        // When
+        statistics.update(network, classified(1L, "hardware"));
+
+        // Then
+        TicketStats stats = statistics.snapshot();
+        assertThat(stats.getTotal()).isEqualTo(1);
+        assertThat(stats.getByStatus()).containsEntry(ClassificationStatus.PENDING, 0L);
+        assertThat(stats.getByCategory()).containsOnlyKeys("hardware");
+        assertThat(stats.getByLabel()).containsOnlyKeys("hardware");
+    }
+
+    @Test
+    @DisplayName("created tickets are counted in the bucket of their minute and hour")
+    void add_countsPerMinuteAndHour() {
+        // Given
+        statistics.add(pending(1L));
+        clock.addAndGet(2 * MINUTE);
+        statistics.add(pending(2L));
+        statistics.add(pending(3L));
+
+        // When
+        TicketStats stats = statistics.snapshot();
+
+        // Then
+        assertThat(stats.getCreatedPerMinute())
+                .extracting(TicketStats.TimeBucket::getCount)
+                .containsExactly(0L, 0L, 1L, 0L, 2L);
+        assertThat(stats.getCreatedPerMinute().get(4).getStart())
+                .isEqualTo(Instant.parse("2026-03-02T10:17:00Z"));
+        assertThat(stats.getCreatedPerHour())
+                .extracting(TicketStats.TimeBucket::getCount)
+                .containsExactly(0L, 0L, 3L);
+    }
+
+    @Test
+    @DisplayName("buckets older than the ring are reused and no longer reported")
+    void add_afterRingWrapsAround_forgetsOldBuckets() {
+        // Given
+        statistics.add(pending(1L));
+
+        // When
+        clock.addAndGet(5 * MINUTE);
+        statistics.add(pending(2L));
+
+        // Then
+        assertThat(statistics.snapshot().getCreatedPerMinute())
+                .extracting(TicketStats.TimeBucket::getCount)
+                .containsExactly(0L, 0L, 0L, 0L, 1L);
+    }
+
+    @Test
+    @DisplayName("concurrent writers do not lose counts")
+    void add_concurrently_countsEveryTicket() throws InterruptedException {
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When
+        for (long id = 0; id < 8000; id++) {
+            long ticketId = id;
+            executor.execute(() -> statistics.add(classified(ticketId, "billing")));
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        // Then
+        TicketStats stats = statistics.snapshot();
+        assertThat(stats.getTotal()).isEqualTo(8000);
+        assertThat(stats.getByCategory()).containsEntry("billing", 8000L);
+        assertThat(stats.getCreatedPerMinute().get(4).getCount()).isEqualTo(8000);
+    }
+
+    private static Ticket classified(Long id, String... labels) {
+        return new Ticket(id, "Title", "Description", labels[0], List.of(labels), ClassificationStatus.CLASSIFIED);
+    }
+
+    private static Ticket pending(Long id) {
+        return new Ticket(id, "Title", "Description", null, List.of(), ClassificationStatus.PENDING);
+    }
+}
@@ -0,0 +1,69 @@
+#!/bin/bash
+# Compare two JMH JSON result files, e.g. of the previous and the current release
+# Usage: ./scripts/compare-benchmarks.sh BASELINE.json CURRENT.json [--threshold PERCENT]
+#
+# Results are produced with: cd backend && mvn -Pbenchmarks verify
+# (written to backend/benchmarks/target/jmh-result.json)
+# Exits with status 1 when a benchmark got slower by more than the threshold (default 10%).
+
+set -e
+
+# Colors for output
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+NC='\033[0m' # No Color
+
+THRESHOLD=10
+
+if [[ $# -lt 2 ]]; then
+    echo "Usage: $0 BASELINE.json CURRENT.json [--threshold PERCENT]"
+    exit 2
+fi
+BASELINE="$1"
+CURRENT="$2"
+shift 2
+
+while [[ $# -gt 0 ]]; do
+    case $1 in
+        --threshold)
+            THRESHOLD="$2"
+            shift 2
+            ;;
+        *)
+            echo "Unknown option: $1"
+            exit 2
+            ;;
+    esac
+done
+
+if ! command -v jq &> /dev/null; then
+    echo "jq is required"
+    exit 2
+fi
+
+# One line per benchmark and parameter combination: name, mode, score, unit
+flatten() {
+    jq -r '.[] | [(.benchmark + (if .params then "(" + ([.params | to_entries[] | "\(.key)=\(.value)"] | join(",")) + ")" else "" end)),
+        .mode, .primaryMetric.score, .primaryMetric.scoreUnit] | @tsv' "$1" | sort
+}
+
+REGRESSIONS=0
+printf "%-90s %14s %14s %9s\n" "Benchmark" "Baseline" "Current" "Change"
+while IFS=$'\t' read -r name mode baseline current unit; do
+    # Throughput is better when higher, all other modes when lower
+    change=$(awk -v b="$baseline" -v c="$current" 'BEGIN { printf "%.1f", (c - b) / b * 100 }')
+    worse=$(awk -v m="$mode" -v ch="$change" -v t="$THRESHOLD" \
+        'BEGIN { print ((m == "thrpt" ? -ch : ch) > t) ? 1 : 0 }')
+    color=$GREEN
+    if [[ "$worse" == "1" ]]; then
+        color=$RED
+        REGRESSIONS=$((REGRESSIONS + 1))
+    fi
+    printf "%-90s %14.3f %14.3f ${color}%8s%%${NC} %s\n" "$name" "$baseline" "$current" "$change" "$unit"
+done < <(join -t $'\t' <(flatten "$BASELINE" | cut -f1,2,3) <(flatten "$CURRENT" | cut -f1,3,4))
+
+if [[ $REGRESSIONS -gt 0 ]]; then
+    echo -e "${RED}${REGRESSIONS} benchmark(s) slower by more than ${THRESHOLD}%${NC}"
+    exit 1
+fi
+echo -e "${GREEN}No regressions above ${THRESHOLD}%${NC}"